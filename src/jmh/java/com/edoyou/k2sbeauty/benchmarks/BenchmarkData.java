@@ -0,0 +1,144 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.WorkingHours;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds synthetic, reproducible datasets for the benchmarks. Every dataset is derived from a fixed
+ * seed, so two runs on the same machine measure the same data.
+ */
+final class BenchmarkData {
+
+  static final long SEED = 20230528L;
+
+  private static final int[] DURATIONS = {30, 45, 60, 90, 120};
+
+  private final Random random = new Random(SEED);
+  private final List<BeautyService> services;
+  private final List<Hairdresser> hairdressers;
+  private final List<Client> clients;
+
+  /**
+   * Creates a dataset.
+   *
+   * @param serviceCount     the number of beauty services
+   * @param hairdresserCount the number of approved hairdressers
+   * @param clientCount      the number of clients
+   */
+  BenchmarkData(int serviceCount, int hairdresserCount, int clientCount) {
+    services = new ArrayList<>(serviceCount);
+    for (int i = 0; i < serviceCount; i++) {
+      BeautyService service = new BeautyService();
+      service.setId((long) i + 1);
+      service.setName("Service " + i);
+      service.setDescription("Synthetic service " + i);
+      service.setDuration(DURATIONS[i % DURATIONS.length]);
+      service.setPrice(10 + i);
+      services.add(service);
+    }
+
+    hairdressers = new ArrayList<>(hairdresserCount);
+    for (int i = 0; i < hairdresserCount; i++) {
+      Hairdresser hairdresser = new Hairdresser();
+      hairdresser.setId((long) i + 1);
+      hairdresser.setFirstName("First" + i);
+      hairdresser.setLastName("Last" + random.nextInt(hairdresserCount * 10));
+      hairdresser.setEmail("hairdresser" + i + "@example.com");
+      hairdresser.setApproved(true);
+      hairdresser.setRating(1 + random.nextInt(400) / 100.0);
+      hairdresser.setWorkingHours(workingWeek(LocalTime.of(9, 0), LocalTime.of(18, 0)));
+      Set<BeautyService> offered = new HashSet<>();
+      int offeredCount = Math.min(serviceCount, 3 + random.nextInt(4));
+      while (offered.size() < offeredCount) {
+        offered.add(services.get(random.nextInt(serviceCount)));
+      }
+      hairdresser.setBeautyServices(offered);
+      offered.forEach(service -> service.getHairdressers().add(hairdresser));
+      hairdressers.add(hairdresser);
+    }
+
+    clients = new ArrayList<>(clientCount);
+    for (int i = 0; i < clientCount; i++) {
+      Client client = new Client();
+      client.setId((long) i + 1);
+      client.setFirstName("Client" + i);
+      client.setLastName("Last" + i);
+      client.setEmail("client" + i + "@example.com");
+      clients.add(client);
+    }
+  }
+
+  /**
+   * Creates working hours from {@code start} to {@code end} on every day of the week.
+   */
+  static Set<WorkingHours> workingWeek(LocalTime start, LocalTime end) {
+    Set<WorkingHours> week = new HashSet<>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      WorkingHours workingHours = new WorkingHours();
+      workingHours.setId((long) day.getValue());
+      workingHours.setDayOfWeek(day);
+      workingHours.setStart(start);
+      workingHours.setEnd(end);
+      week.add(workingHours);
+    }
+    return week;
+  }
+
+  /**
+   * Creates appointments spread over the given hairdressers, starting on a quarter hour within the
+   * next {@code days} days during working hours.
+   *
+   * @param count        the number of appointments
+   * @param hairdressers the hairdressers to book
+   * @param days         the number of days to spread the appointments over
+   * @return the appointments, in no particular order
+   */
+  List<Appointment> appointments(int count, List<Hairdresser> hairdressers, int days) {
+    LocalDateTime firstDay = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+    List<Appointment> appointments = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Hairdresser hairdresser = hairdressers.get(random.nextInt(hairdressers.size()));
+      List<BeautyService> offered = new ArrayList<>(hairdresser.getBeautyServices());
+      Appointment appointment = new Appointment();
+      appointment.setId((long) i + 1);
+      appointment.setHairdresser(hairdresser);
+      appointment.setClient(clients.get(random.nextInt(clients.size())));
+      appointment.setBeautyService(offered.get(random.nextInt(offered.size())));
+      appointment.setAppointmentTime(firstDay.plusDays(random.nextInt(days))
+          .plusHours(9).plusMinutes(15L * random.nextInt(32)));
+      appointment.setPaymentStatus(PaymentStatus.PENDING);
+      appointment.setCompleted(random.nextInt(10) == 0);
+      appointments.add(appointment);
+    }
+    return appointments;
+  }
+
+  Random random() {
+    return random;
+  }
+
+  List<BeautyService> services() {
+    return services;
+  }
+
+  List<Hairdresser> hairdressers() {
+    return hairdressers;
+  }
+
+  List<Client> clients() {
+    return clients;
+  }
+}
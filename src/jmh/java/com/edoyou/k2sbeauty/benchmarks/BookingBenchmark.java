@@ -0,0 +1,127 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.HairdresserCalendarDay;
+import com.edoyou.k2sbeauty.repositories.AppointmentRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserCalendarDayRepository;
+import com.edoyou.k2sbeauty.services.implementations.AppointmentServiceImpl;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionOperations;
+
+/**
+ * Measures the booking path of {@link AppointmentServiceImpl#saveAppointment(Appointment)}: the
+ * calendar day claim, the hairdresser and client overlap checks and the save.
+ *
+ * <p>The overlap queries are answered from per-hairdresser and per-client indexes ordered by start
+ * time, mirroring the range scan the database does on the appointment time index, so the numbers
+ * reflect the service logic rather than a database round trip. The save does not add the booking
+ * to the indexes, so every invocation sees the same {@code existingAppointments}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookingBenchmark {
+
+  private static final int HAIRDRESSERS = 500;
+  private static final int CANDIDATES = 4096;
+
+  @Param({"1000", "10000"})
+  public int existingAppointments;
+
+  private AppointmentServiceImpl appointmentService;
+  private List<Appointment> candidates;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    BenchmarkData data = new BenchmarkData(40, HAIRDRESSERS, 2000);
+    Map<Long, NavigableMap<LocalDateTime, Appointment>> byHairdresser = new HashMap<>();
+    Map<Long, NavigableMap<LocalDateTime, Appointment>> byClient = new HashMap<>();
+    for (Appointment appointment : data.appointments(existingAppointments, data.hairdressers(),
+        30)) {
+      byHairdresser.computeIfAbsent(appointment.getHairdresser().getId(), id -> new TreeMap<>())
+          .put(appointment.getAppointmentTime(), appointment);
+      byClient.computeIfAbsent(appointment.getClient().getId(), id -> new TreeMap<>())
+          .put(appointment.getAppointmentTime(), appointment);
+    }
+
+    AppointmentRepository appointmentRepository = Stubs.of(AppointmentRepository.class, Map.of(
+        "existsOverlappingHairdresserAppointment", overlapCheck(byHairdresser),
+        "existsOverlappingClientAppointment", overlapCheck(byClient),
+        "save", args -> args[0]));
+    HairdresserCalendarDayRepository calendarDayRepository = Stubs.of(
+        HairdresserCalendarDayRepository.class, Map.of("findByHairdresserIdAndDay",
+            args -> Optional.of(new HairdresserCalendarDay((Long) args[0], (LocalDate) args[1]))));
+    appointmentService = new AppointmentServiceImpl(appointmentRepository, calendarDayRepository,
+        Stubs.of(ApplicationEventPublisher.class, Map.of()), TransactionOperations.withoutTransaction(),
+        new HairdresserLockRegistry(1, 1000), 1);
+
+    candidates = new ArrayList<>(CANDIDATES);
+    for (Appointment candidate : data.appointments(CANDIDATES, data.hairdressers(), 30)) {
+      candidate.setId(null);
+      candidates.add(candidate);
+    }
+  }
+
+  /**
+   * Books the next candidate. About as many candidates collide with an existing appointment as the
+   * dataset density implies; rejected bookings are part of the measured path.
+   */
+  @Benchmark
+  public Object book() {
+    Appointment candidate = candidates.get(next++ & (CANDIDATES - 1));
+    try {
+      return appointmentService.saveAppointment(candidate);
+    } catch (IllegalStateException e) {
+      return e;
+    }
+  }
+
+  /**
+   * Answers an overlap query with the semantics of the repository query: a non-completed
+   * appointment starting in {@code [earliestStart, end)} that either starts at {@code start} or
+   * ends after it.
+   */
+  private static Function<Object[], Object> overlapCheck(
+      Map<Long, NavigableMap<LocalDateTime, Appointment>> index) {
+    return args -> {
+      NavigableMap<LocalDateTime, Appointment> appointments = index.get((Long) args[0]);
+      if (appointments == null) {
+        return false;
+      }
+      Long excludedId = (Long) args[1];
+      LocalDateTime start = (LocalDateTime) args[3];
+      for (Appointment existing : appointments.subMap((LocalDateTime) args[2], true,
+          (LocalDateTime) args[4], false).values()) {
+        BeautyService service = existing.getBeautyService();
+        if (!existing.isCompleted() && !existing.getId().equals(excludedId)
+            && (existing.getAppointmentTime().equals(start)
+            || existing.getAppointmentTime().plusMinutes(service.getDuration()).isAfter(start))) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+}
@@ -0,0 +1,79 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.pojo.ServicesData;
+import com.edoyou.k2sbeauty.services.facade.GuestServiceFacade;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogCache;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogSnapshot;
+import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the guest catalog: building a {@link CatalogSnapshot}, which pairs every service with
+ * its hairdressers and sorts the pairs once per sort key, and serving
+ * {@link GuestServiceFacade#getServicesData(Long, Long, String)} from a warm snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogBenchmark {
+
+  @Param({"100", "500"})
+  public int hairdresserCount;
+
+  private List<BeautyService> services;
+  private List<Hairdresser> hairdressers;
+  private GuestServiceFacade guestServiceFacade;
+  private Long hairdresserId;
+  private Long serviceId;
+
+  @Setup
+  public void setUp() {
+    BenchmarkData data = new BenchmarkData(40, hairdresserCount, 1);
+    services = data.services();
+    hairdressers = data.hairdressers();
+    hairdresserId = hairdressers.get(hairdressers.size() / 2).getId();
+    serviceId = services.get(services.size() / 2).getId();
+
+    BeautyServiceService beautyServiceService = Stubs.of(BeautyServiceService.class,
+        Map.of("findAll", args -> services));
+    HairdresserService hairdresserService = Stubs.of(HairdresserService.class,
+        Map.of("findAllHairdressers", args -> hairdressers));
+    CatalogCache catalogCache = new CatalogCache(beautyServiceService, hairdresserService);
+    guestServiceFacade = new GuestServiceFacade(beautyServiceService, hairdresserService,
+        catalogCache);
+    catalogCache.getSnapshot();
+  }
+
+  @Benchmark
+  public CatalogSnapshot buildSnapshot() {
+    return CatalogSnapshot.build(1L, services, hairdressers);
+  }
+
+  @Benchmark
+  public ServicesData allSortedByRating() {
+    return guestServiceFacade.getServicesData(null, null, "rating");
+  }
+
+  @Benchmark
+  public ServicesData byService() {
+    return guestServiceFacade.getServicesData(null, serviceId, "lastName");
+  }
+
+  @Benchmark
+  public ServicesData byHairdresser() {
+    return guestServiceFacade.getServicesData(hairdresserId, null, null);
+  }
+}
@@ -0,0 +1,40 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Hairdresser#getBeautyServicesNamesString()}, which the hairdresser lists render
+ * once per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HairdresserBenchmark {
+
+  @Param({"3", "20"})
+  public int serviceCount;
+
+  private Hairdresser hairdresser;
+
+  @Setup
+  public void setUp() {
+    BenchmarkData data = new BenchmarkData(serviceCount, 1, 1);
+    hairdresser = data.hairdressers().get(0);
+    hairdresser.setBeautyServices(new HashSet<>(data.services()));
+  }
+
+  @Benchmark
+  public String beautyServicesNamesString() {
+    return hairdresser.getBeautyServicesNamesString();
+  }
+}
@@ -0,0 +1,97 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.services.facade.ClientServiceFacade;
+import com.edoyou.k2sbeauty.services.implementations.AppointmentServiceImpl;
+import com.edoyou.k2sbeauty.services.implementations.BeautyServiceServiceImpl;
+import com.edoyou.k2sbeauty.services.implementations.ClientServiceImpl;
+import com.edoyou.k2sbeauty.services.implementations.HairdresserServiceImpl;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures the logging cost of booking requests under load: eight threads emit the log events of
+ * one booking request each (the client facade, the hairdresser, service and client lookups, the
+ * save and the time slot generation of the refreshed booking page) through the default
+ * configuration, which writes synchronously to the console and four level-filtered files, and
+ * through the asynchronous JSON configuration of the production profile.
+ *
+ * <p>Console output is part of the default configuration; redirect the benchmark's output to a
+ * file to compare the file appenders without terminal overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class LoggingBenchmark {
+
+  private static final String APPOINTMENT = "Appointment{id=null, paymentStatus=PENDING}";
+
+  @Param({"log4j2-spring.xml", "log4j2-production.xml"})
+  public String configuration;
+
+  private Path logDirectory;
+  private LoggerContext context;
+  private Logger facadeLogger;
+  private Logger hairdresserLogger;
+  private Logger beautyServiceLogger;
+  private Logger clientLogger;
+  private Logger appointmentLogger;
+  private Logger timeSlotLogger;
+
+  @Setup
+  public void setUp() throws IOException, URISyntaxException {
+    logDirectory = Files.createTempDirectory("k2s-logging-benchmark");
+    System.setProperty("LOG_PATH", logDirectory.toString());
+    context = Configurator.initialize(configuration, getClass().getClassLoader(),
+        getClass().getClassLoader().getResource(configuration).toURI());
+    facadeLogger = context.getLogger(ClientServiceFacade.class.getName());
+    hairdresserLogger = context.getLogger(HairdresserServiceImpl.class.getName());
+    beautyServiceLogger = context.getLogger(BeautyServiceServiceImpl.class.getName());
+    clientLogger = context.getLogger(ClientServiceImpl.class.getName());
+    appointmentLogger = context.getLogger(AppointmentServiceImpl.class.getName());
+    timeSlotLogger = context.getLogger(TimeSlotService.class.getName());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Configurator.shutdown(context);
+    System.clearProperty("LOG_PATH");
+    try (Stream<Path> files = Files.walk(logDirectory)) {
+      files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public void bookingRequest() {
+    facadeLogger.info("Client is booking an appointment ...");
+    hairdresserLogger.info("Find hairdresser by ID ...");
+    beautyServiceLogger.info("Find first service by name...");
+    clientLogger.info("Find client by e-mail...");
+    appointmentLogger.debug("Saving appointment: {}", APPOINTMENT);
+    for (int day = 0; day < TimeSlotService.WEEK_DAYS; day++) {
+      if (timeSlotLogger.isTraceEnabled()) {
+        timeSlotLogger.trace("Working hours on day {}", day);
+      }
+    }
+    facadeLogger.info("Loading the timeslots of an hairdresser to the view for client ...");
+  }
+}
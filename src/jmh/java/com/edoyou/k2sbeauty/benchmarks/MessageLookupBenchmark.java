@@ -0,0 +1,73 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.config.PreloadedMessageSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Measures looking up every message of the bundles, as a page full of {@code #{...}} expressions
+ * does, with the {@code ResourceBundleMessageSource} the application used before and with the
+ * {@link PreloadedMessageSource}, in English and Azerbaijani, without and with an argument.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MessageLookupBenchmark {
+
+  @Param({"bundle", "preloaded"})
+  public String source;
+
+  @Param({"en", "az"})
+  public String language;
+
+  private MessageSource messageSource;
+  private Locale locale;
+  private List<String> codes;
+  private final Object[] arguments = {"Anna"};
+
+  @Setup
+  public void setUp() throws IOException {
+    if (source.equals("bundle")) {
+      ResourceBundleMessageSource bundleSource = new ResourceBundleMessageSource();
+      bundleSource.setBasename("i18n/messages");
+      bundleSource.setDefaultEncoding("UTF-8");
+      messageSource = bundleSource;
+    } else {
+      messageSource = new PreloadedMessageSource("classpath:i18n/messages", -1);
+    }
+    locale = new Locale(language);
+    Properties properties = new Properties();
+    properties.load(new ClassPathResource("i18n/messages.properties").getInputStream());
+    codes = new ArrayList<>(properties.stringPropertyNames());
+  }
+
+  @Benchmark
+  public void lookup(Blackhole blackhole) {
+    for (String code : codes) {
+      blackhole.consume(messageSource.getMessage(code, null, locale));
+    }
+  }
+
+  @Benchmark
+  public void format(Blackhole blackhole) {
+    for (String code : codes) {
+      blackhole.consume(messageSource.getMessage(code, arguments, locale));
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.security.BoundedPasswordEncoder;
+import com.edoyou.k2sbeauty.security.PasswordEncoderConfig;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures login throughput, i.e. password checks per second, at different BCrypt costs: eight
+ * threads sign in at the same time through the application's password encoder, whose pool of two
+ * hashing threads caps the CPU spent on hashing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class PasswordHashingBenchmark {
+
+  private static final String PASSWORD = "correct horse battery staple";
+
+  @Param({"8", "10", "12"})
+  public int cost;
+
+  private BoundedPasswordEncoder passwordEncoder;
+  private String hash;
+
+  @Setup
+  public void setUp() {
+    passwordEncoder = new PasswordEncoderConfig().passwordEncoder(cost, 2, 200);
+    hash = passwordEncoder.encode(PASSWORD);
+  }
+
+  @TearDown
+  public void tearDown() {
+    passwordEncoder.shutdown();
+  }
+
+  @Benchmark
+  public boolean login() {
+    return passwordEncoder.matches(PASSWORD, hash);
+  }
+}
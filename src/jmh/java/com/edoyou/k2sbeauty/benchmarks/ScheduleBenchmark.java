@@ -0,0 +1,71 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.repositories.HairdresserRepository;
+import com.edoyou.k2sbeauty.repositories.UserRepository;
+import com.edoyou.k2sbeauty.services.implementations.HairdresserServiceImpl;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.ScheduleBuilder;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
+import com.edoyou.k2sbeauty.services.interfaces.FeedbackService;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Measures building a hairdresser's schedule: placing the appointments of the schedule window
+ * into the generated time slots. {@code appointmentCount} is the number of appointments the
+ * repository returns for the window; the appointment query itself is answered from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScheduleBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int appointmentCount;
+
+  private HairdresserServiceImpl hairdresserService;
+  private Hairdresser hairdresser;
+  private List<TimeSlot> timeSlots;
+  private List<Appointment> appointments;
+
+  @Setup
+  public void setUp() {
+    BenchmarkData data = new BenchmarkData(20, 1, 100);
+    hairdresser = data.hairdressers().get(0);
+    appointments = data.appointments(appointmentCount, data.hairdressers(), 7);
+
+    TimeSlotService timeSlotService = new TimeSlotService();
+    timeSlots = timeSlotService.generateTimeSlots(hairdresser);
+
+    AppointmentService appointmentService = Stubs.of(AppointmentService.class,
+        Map.of("findActiveByHairdresserBetween", args -> appointments));
+    hairdresserService = new HairdresserServiceImpl(Stubs.of(UserRepository.class, Map.of()),
+        Stubs.of(HairdresserRepository.class, Map.of()), appointmentService, timeSlotService,
+        Stubs.of(FeedbackService.class, Map.of()),
+        Stubs.of(ApplicationEventPublisher.class, Map.of()));
+  }
+
+  @Benchmark
+  public Map<LocalDate, List<TimeSlot>> buildSchedule() {
+    return ScheduleBuilder.build(timeSlots, appointments);
+  }
+
+  @Benchmark
+  public Map<LocalDate, List<TimeSlot>> generateSchedule() {
+    return hairdresserService.generateSchedule(hairdresser);
+  }
+}
@@ -0,0 +1,66 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Creates interface implementations that answer a fixed set of methods and return default values
+ * for all others. Benchmarks use them instead of a mocking library, whose invocation bookkeeping
+ * would dominate the measured code.
+ */
+final class Stubs {
+
+  private Stubs() {
+  }
+
+  /**
+   * Creates a stub of the given interface.
+   *
+   * @param type    the interface to implement
+   * @param answers the answers by method name, receiving the invocation arguments
+   * @param <T>     the interface type
+   * @return the stub
+   */
+  static <T> T of(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+        (proxy, method, args) -> {
+          Function<Object[], Object> answer = answers.get(method.getName());
+          if (answer != null) {
+            return answer.apply(args);
+          }
+          switch (method.getName()) {
+            case "toString":
+              return type.getSimpleName() + " stub";
+            case "hashCode":
+              return System.identityHashCode(proxy);
+            case "equals":
+              return proxy == args[0];
+            default:
+              return defaultValue(method.getReturnType());
+          }
+        }));
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (!type.isPrimitive() || type == void.class) {
+      return null;
+    }
+    if (type == boolean.class) {
+      return false;
+    }
+    if (type == char.class) {
+      return '\0';
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    if (type == float.class) {
+      return 0f;
+    }
+    if (type == double.class) {
+      return 0d;
+    }
+    return type == int.class ? 0 : type == short.class ? (short) 0 : (byte) 0;
+  }
+}
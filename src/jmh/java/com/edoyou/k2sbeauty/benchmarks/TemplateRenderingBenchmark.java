@@ -0,0 +1,94 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+/**
+ * Measures rendering the login page, the admin dashboard and the booking page with the template
+ * cache on, as in the production profile, and off, as in development, where every render reads and
+ * parses the page and each included fragment again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TemplateRenderingBenchmark {
+
+  @Param({"true", "false"})
+  public boolean cache;
+
+  @Param({"login", "admin/dashboard", "client/book"})
+  public String template;
+
+  private SpringTemplateEngine templateEngine;
+  private WebContext context;
+
+  @Setup
+  public void setUp() {
+    ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+    templateResolver.setPrefix("templates/");
+    templateResolver.setSuffix(".html");
+    templateResolver.setTemplateMode(TemplateMode.HTML);
+    templateResolver.setCharacterEncoding("UTF-8");
+    templateResolver.setCacheable(cache);
+
+    ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+    messageSource.setBasename("i18n/messages");
+    messageSource.setDefaultEncoding("UTF-8");
+
+    templateEngine = new SpringTemplateEngine();
+    templateEngine.setTemplateResolver(templateResolver);
+    templateEngine.setTemplateEngineMessageSource(messageSource);
+
+    BenchmarkData data = new BenchmarkData(40, 30, 4);
+    List<AppointmentSummaryDTO> appointments = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      appointments.add(new AppointmentSummaryDTO((long) i + 1, LocalDateTime.of(2023, 6, 1, 9 + i, 0),
+          "Client" + i, "Hairdresser" + i, "Service " + i, PaymentStatus.PENDING, false));
+    }
+    Map<String, Object> variables = new HashMap<>();
+    variables.put("appointments", new CursorPage<>(appointments, null, "next"));
+    variables.put("size", 4);
+    List<Hairdresser> hairdressers = data.hairdressers();
+    variables.put("hairdressers", hairdressers);
+    variables.put("services", data.services().stream().map(BeautyService::getName).toList());
+
+    MockServletContext servletContext = new MockServletContext();
+    context = new WebContext(JakartaServletWebApplication.buildApplication(servletContext)
+        .buildExchange(new MockHttpServletRequest(servletContext), new MockHttpServletResponse()),
+        Locale.US, variables);
+
+    templateEngine.process(template, context);
+  }
+
+  @Benchmark
+  public String render() {
+    return templateEngine.process(template, context);
+  }
+}
@@ -0,0 +1,55 @@
+package com.edoyou.k2sbeauty.benchmarks;
+
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import java.time.LocalTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the generation of a hairdresser's weekly time slots, which runs on every schedule page,
+ * and the computation of the candidate start times of a service within a partly booked working day,
+ * which runs for every day of the booking page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeSlotBenchmark {
+
+  private static final int DAY_CELLS = 24 * 60 / TimeSlotService.CELL_MINUTES;
+
+  private TimeSlotService timeSlotService;
+  private Hairdresser hairdresser;
+  private BitSet occupied;
+
+  @Setup
+  public void setUp() {
+    timeSlotService = new TimeSlotService();
+    hairdresser = new Hairdresser();
+    hairdresser.setId(1L);
+    hairdresser.setWorkingHours(BenchmarkData.workingWeek(LocalTime.of(0, 0), LocalTime.of(23, 59)));
+    occupied = new BitSet(DAY_CELLS);
+    for (int cell = 0; cell < DAY_CELLS; cell += 10) {
+      occupied.set(cell, cell + 4);
+    }
+  }
+
+  @Benchmark
+  public List<TimeSlot> generateTimeSlots() {
+    return timeSlotService.generateTimeSlots(hairdresser);
+  }
+
+  @Benchmark
+  public int[] candidateStarts() {
+    return TimeSlotService.candidateStarts(occupied, 0, DAY_CELLS, 60);
+  }
+}
@@ -0,0 +1,116 @@
+package com.edoyou.k2sbeauty.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code ExecutionThreads} creates the threads that serve requests and run the background work of
+ * the application, according to the execution mode set with {@code k2s.threads.virtual}.
+ *
+ * <p>By default, pools use platform daemon threads. With {@code k2s.threads.virtual=true} on Java 21
+ * or later, every task gets its own virtual thread instead, so requests and jobs blocked on MySQL or
+ * SMTP no longer hold an operating system thread and the number of tasks in flight is not bounded by
+ * a pool size. On older runtimes the setting is ignored with a warning.
+ *
+ * <p>The application is compiled for Java 17, so the virtual thread API is looked up reflectively.
+ */
+@Component
+public class ExecutionThreads {
+
+    private static final Logger LOGGER = LogManager.getLogger(ExecutionThreads.class.getName());
+
+    private final boolean virtual;
+
+    public ExecutionThreads(@Value("${k2s.threads.virtual:false}") boolean virtual) {
+        this.virtual = virtual && supportsVirtualThreads();
+        if (virtual && !this.virtual) {
+            LOGGER.warn("Virtual threads require Java 21 or later, falling back to platform threads");
+        }
+    }
+
+    /**
+     * Returns whether tasks run on virtual threads.
+     *
+     * @return true in virtual thread mode
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Returns a factory for the threads of a pool: virtual threads in virtual thread mode, platform
+     * daemon threads otherwise. The threads are named with the given prefix and a counter.
+     *
+     * @param prefix the thread name prefix
+     * @return the thread factory
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (virtual) {
+            return virtualThreadFactory(prefix);
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    /**
+     * Returns an executor for a pool of {@code size} threads. In virtual thread mode, the executor
+     * starts a new virtual thread for every task instead, so {@code size} does not limit concurrency.
+     *
+     * @param prefix the thread name prefix
+     * @param size   the number of platform threads
+     * @return the executor
+     */
+    public ExecutorService newPool(String prefix, int size) {
+        if (virtual) {
+            return newVirtualThreadPerTaskExecutor(prefix);
+        }
+        return Executors.newFixedThreadPool(size, threadFactory(prefix));
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread for every task.
+     *
+     * @param prefix the thread name prefix
+     * @return the executor
+     * @throws IllegalStateException if the virtual thread mode is off
+     */
+    public ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+        if (!virtual) {
+            throw new IllegalStateException("Virtual threads are not enabled");
+        }
+        return newThreadPerTaskExecutor(virtualThreadFactory(prefix));
+    }
+
+    private static boolean supportsVirtualThreads() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread factory", e);
+        }
+    }
+
+    private static ExecutorService newThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.edoyou.k2sbeauty.config;
 
 import java.util.Locale;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.SessionLocaleResolver;
 import org.springframework.context.annotation.Bean;
@@ -11,6 +11,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 
 /**
@@ -25,13 +26,25 @@ import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 public class InternationalizationConfig implements WebMvcConfigurer {
 
     /**
-     * Creates a {@link LocaleResolver} bean that determines the current locale based on the user's session.
+     * Name of the cookie carrying the locale in the stateless session mode.
+     */
+    public static final String LOCALE_COOKIE_NAME = "K2S_LOCALE";
+
+    /**
+     * Creates a {@link LocaleResolver} bean that determines the current locale based on the user's session,
+     * or on the {@value #LOCALE_COOKIE_NAME} cookie when sessions are stateless.
      * Default locale is set to US.
      *
+     * @param stateless whether sessions are kept in cookies instead of {@code HttpSession}s
      * @return {@link LocaleResolver} bean.
      */
     @Bean
-    public LocaleResolver localeResolver() {
+    public LocaleResolver localeResolver(@Value("${k2s.security.stateless:false}") boolean stateless) {
+        if (stateless) {
+            CookieLocaleResolver clr = new CookieLocaleResolver(LOCALE_COOKIE_NAME);
+            clr.setDefaultLocale(Locale.US);
+            return clr;
+        }
         SessionLocaleResolver slr = new SessionLocaleResolver();
         slr.setDefaultLocale(Locale.US);
         return slr;
@@ -73,15 +86,15 @@ public class InternationalizationConfig implements WebMvcConfigurer {
     /**
      * Creates a {@link MessageSource} bean that manages the resource bundles for different locales.
      * The resource bundles should be placed under the 'i18n' directory and should be named 'messages'.
+     * They are read once into a {@link PreloadedMessageSource}, and checked for changes every
+     * {@code k2s.i18n.reload-interval-ms} milliseconds when that is zero or more.
      *
+     * @param reloadIntervalMs how often to check the resource bundles for changes, negative for never
      * @return {@link MessageSource} bean.
      */
     @Bean
-    public MessageSource messageSource() {
-        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
-        messageSource.setBasename("i18n/messages");
-        messageSource.setDefaultEncoding("UTF-8");
-        return messageSource;
+    public MessageSource messageSource(@Value("${k2s.i18n.reload-interval-ms:-1}") long reloadIntervalMs) {
+        return new PreloadedMessageSource("classpath:i18n/messages", reloadIntervalMs);
     }
 
 }
\ No newline at end of file
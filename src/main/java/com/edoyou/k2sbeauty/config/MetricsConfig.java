@@ -0,0 +1,98 @@
+package com.edoyou.k2sbeauty.config;
+
+import com.edoyou.k2sbeauty.metrics.RequestQueryMetricsFilter;
+import com.edoyou.k2sbeauty.metrics.StatementCountingDataSource;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry.Contention;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuration class of the application metrics, published through the actuator's
+ * {@code /actuator/prometheus} endpoint.
+ *
+ * <p>It turns on the Hibernate statistics, wraps the data source in a
+ * {@link StatementCountingDataSource}, registers the {@link RequestQueryMetricsFilter} that
+ * records the database work of each HTTP request, and publishes the counters of the
+ * {@link HairdresserLockRegistry}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatisticsCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    }
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        && !(bean instanceof StatementCountingDataSource)
+                        ? new StatementCountingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${k2s.db.request-statement-threshold:20}") int statementThreshold) {
+        FilterRegistrationBean<RequestQueryMetricsFilter> registration = new FilterRegistrationBean<>(
+                new RequestQueryMetricsFilter(meterRegistry, statementThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Publishes the counters of every hairdresser calendar lock, tagged with its {@code stripe}, as
+     * the {@code k2s.booking.lock.acquisitions}, {@code k2s.booking.lock.contended} and
+     * {@code k2s.booking.lock.timeouts} counters and the {@code k2s.booking.lock.wait} timer.
+     *
+     * @param locks The registry of the hairdresser calendar locks.
+     * @return The binder registering the meters.
+     */
+    @Bean
+    public MeterBinder hairdresserLockMetrics(HairdresserLockRegistry locks) {
+        return registry -> {
+            for (int stripe = 0; stripe < locks.getStripeCount(); stripe++) {
+                Contention contention = locks.getContention(stripe);
+                Tags tags = Tags.of("stripe", String.valueOf(stripe));
+                FunctionCounter.builder("k2s.booking.lock.acquisitions", contention, Contention::acquisitions)
+                        .description("Acquisitions of a hairdresser calendar lock")
+                        .tags(tags)
+                        .register(registry);
+                FunctionCounter.builder("k2s.booking.lock.contended", contention, Contention::contended)
+                        .description("Acquisitions of a hairdresser calendar lock that had to wait")
+                        .tags(tags)
+                        .register(registry);
+                FunctionCounter.builder("k2s.booking.lock.timeouts", contention, Contention::timeouts)
+                        .description("Attempts that gave up waiting for a hairdresser calendar lock")
+                        .tags(tags)
+                        .register(registry);
+                FunctionTimer.builder("k2s.booking.lock.wait", contention, Contention::waits,
+                                Contention::waitNanos, TimeUnit.NANOSECONDS)
+                        .description("Time spent waiting for a hairdresser calendar lock")
+                        .tags(tags)
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,267 @@
+package com.edoyou.k2sbeauty.config;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link org.springframework.context.MessageSource} that reads every bundle of a basename once, at
+ * startup, into an immutable table with one flat map per locale.
+ *
+ * <p>The map of a locale already holds the messages it inherits from its parent bundles, so a lookup
+ * is a single map access. Requests for a locale without a bundle of its own are resolved like
+ * {@link org.springframework.context.support.ResourceBundleMessageSource} does, through the candidate
+ * locales, the system locale and the base bundle, once per locale. {@link MessageFormat}s are built
+ * at startup for the messages with arguments, and on first use for the others.
+ *
+ * <p>With a reload interval of zero or more, the bundles are checked for changes at most once per
+ * interval and the table is rebuilt when they changed, for editing messages during development.
+ * Lookups keep using the previous table while it is rebuilt.
+ */
+public class PreloadedMessageSource extends AbstractMessageSource {
+
+    private static final Logger LOGGER = LogManager.getLogger(PreloadedMessageSource.class.getName());
+
+    private static final String SUFFIX = ".properties";
+    private static final ResourceBundle.Control CONTROL =
+            ResourceBundle.Control.getControl(ResourceBundle.Control.FORMAT_DEFAULT);
+
+    private final String basename;
+    private final long reloadIntervalNanos;
+    private final LongSupplier ticker;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private boolean fallbackToSystemLocale = true;
+    private volatile MessageTable table;
+    private volatile long nextCheck;
+
+    /**
+     * Creates a message source and loads its bundles.
+     *
+     * @param basename         the location of the base bundle without the {@code .properties} suffix,
+     *                         e.g. {@code classpath:i18n/messages}
+     * @param reloadIntervalMs how often to check the bundles for changes, or a negative value to never
+     *                         reload them
+     */
+    public PreloadedMessageSource(String basename, long reloadIntervalMs) {
+        this(basename, reloadIntervalMs, System::nanoTime);
+    }
+
+    PreloadedMessageSource(String basename, long reloadIntervalMs, LongSupplier ticker) {
+        this.basename = basename;
+        this.reloadIntervalNanos = reloadIntervalMs < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(reloadIntervalMs);
+        this.ticker = ticker;
+        this.table = load();
+        this.nextCheck = ticker.getAsLong() + reloadIntervalNanos;
+    }
+
+    /**
+     * Sets whether locales without a bundle of their own fall back to the bundle of the system locale
+     * before the base bundle. Default is {@code true}, as in {@code ResourceBundleMessageSource}.
+     *
+     * @param fallbackToSystemLocale whether to fall back to the system locale
+     */
+    public void setFallbackToSystemLocale(boolean fallbackToSystemLocale) {
+        this.fallbackToSystemLocale = fallbackToSystemLocale;
+        this.table = new MessageTable(table.bundles(), table.signature(), fallbackToSystemLocale);
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        return table().messages(locale).get(code);
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        return table().format(code, locale);
+    }
+
+    private MessageTable table() {
+        MessageTable current = table;
+        if (reloadIntervalNanos >= 0 && ticker.getAsLong() - nextCheck >= 0 && reloadLock.tryLock()) {
+            try {
+                if (ticker.getAsLong() - nextCheck >= 0) {
+                    List<String> signature = signature(findBundles());
+                    if (!signature.equals(table.signature())) {
+                        table = load();
+                        LOGGER.info("Reloaded the messages of {}", basename);
+                    }
+                    nextCheck = ticker.getAsLong() + reloadIntervalNanos;
+                }
+                current = table;
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    private MessageTable load() {
+        Map<Locale, Resource> resources = findBundles();
+        Map<Locale, Map<String, String>> bundles = new HashMap<>();
+        for (Map.Entry<Locale, Resource> bundle : resources.entrySet()) {
+            bundles.put(bundle.getKey(), read(bundle.getValue()));
+        }
+        Map<Locale, Map<String, String>> flattened = new HashMap<>();
+        for (Locale locale : bundles.keySet()) {
+            Map<String, String> messages = new HashMap<>();
+            List<Locale> candidates = new ArrayList<>(CONTROL.getCandidateLocales("", locale));
+            Collections.reverse(candidates);
+            for (Locale candidate : candidates) {
+                messages.putAll(bundles.getOrDefault(candidate, Map.of()));
+            }
+            flattened.put(locale, Map.copyOf(messages));
+        }
+        return new MessageTable(flattened, signature(resources), fallbackToSystemLocale);
+    }
+
+    /**
+     * Lists the bundles of the basename by locale, the base bundle under {@link Locale#ROOT}.
+     */
+    private Map<Locale, Resource> findBundles() {
+        try {
+            String name = StringUtils.getFilename(basename);
+            Map<Locale, Resource> bundles = new HashMap<>();
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(basename + "*" + SUFFIX)) {
+                String filename = resource.getFilename();
+                String suffix = filename.substring(name.length(), filename.length() - SUFFIX.length());
+                if (suffix.isEmpty()) {
+                    bundles.putIfAbsent(Locale.ROOT, resource);
+                } else if (suffix.startsWith("_")) {
+                    bundles.putIfAbsent(StringUtils.parseLocale(suffix.substring(1)), resource);
+                }
+            }
+            return bundles;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list the bundles of " + basename, e);
+        }
+    }
+
+    private static Map<String, String> read(Resource resource) {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + resource, e);
+        }
+        Map<String, String> messages = new HashMap<>();
+        properties.forEach((key, value) -> messages.put((String) key, (String) value));
+        return messages;
+    }
+
+    private static List<String> signature(Map<Locale, Resource> bundles) {
+        List<String> signature = new ArrayList<>();
+        for (Map.Entry<Locale, Resource> bundle : bundles.entrySet()) {
+            try {
+                signature.add(bundle.getKey() + "=" + bundle.getValue().lastModified());
+            } catch (IOException e) {
+                signature.add(bundle.getKey() + "=?");
+            }
+        }
+        Collections.sort(signature);
+        return signature;
+    }
+
+    /**
+     * The flat messages of each bundle locale, and the messages and formats of each requested
+     * locale, resolved on first use.
+     */
+    private record MessageTable(Map<Locale, Map<String, String>> bundles, List<String> signature,
+                                boolean fallbackToSystemLocale,
+                                ConcurrentMap<Locale, LocaleMessages> locales) {
+
+        MessageTable(Map<Locale, Map<String, String>> bundles, List<String> signature,
+                     boolean fallbackToSystemLocale) {
+            this(bundles, signature, fallbackToSystemLocale, new ConcurrentHashMap<>());
+            bundles.keySet().forEach(this::resolve);
+        }
+
+        Map<String, String> messages(Locale locale) {
+            return resolve(locale).messages();
+        }
+
+        MessageFormat format(String code, Locale locale) {
+            return resolve(locale).format(code);
+        }
+
+        private LocaleMessages resolve(Locale locale) {
+            LocaleMessages messages = locales.get(locale);
+            if (messages == null) {
+                messages = locales.computeIfAbsent(locale, key -> new LocaleMessages(key, flatten(key)));
+            }
+            return messages;
+        }
+
+        private Map<String, String> flatten(Locale locale) {
+            Map<String, String> messages = closest(locale);
+            if (messages == null && fallbackToSystemLocale && !locale.equals(Locale.ROOT)
+                    && !locale.equals(Locale.getDefault())) {
+                messages = closest(Locale.getDefault());
+            }
+            return messages != null ? messages : bundles.getOrDefault(Locale.ROOT, Map.of());
+        }
+
+        private Map<String, String> closest(Locale locale) {
+            for (Locale candidate : CONTROL.getCandidateLocales("", locale)) {
+                if (!candidate.equals(Locale.ROOT) && bundles.containsKey(candidate)) {
+                    return bundles.get(candidate);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The messages of a requested locale and their formats in that locale.
+     */
+    private record LocaleMessages(Locale locale, Map<String, String> messages,
+                                  ConcurrentMap<String, MessageFormat> formats) {
+
+        LocaleMessages(Locale locale, Map<String, String> messages) {
+            this(locale, messages, new ConcurrentHashMap<>());
+            messages.forEach((code, message) -> {
+                if (message.indexOf('{') >= 0) {
+                    try {
+                        formats.put(code, new MessageFormat(message, locale));
+                    } catch (IllegalArgumentException e) {
+                        // Malformed pattern: fails when the message is first formatted, as with bundles
+                    }
+                }
+            });
+        }
+
+        MessageFormat format(String code) {
+            MessageFormat format = formats.get(code);
+            if (format == null) {
+                String message = messages.get(code);
+                if (message == null) {
+                    return null;
+                }
+                format = formats.computeIfAbsent(code, key -> new MessageFormat(message, locale));
+            }
+            return format;
+        }
+    }
+}
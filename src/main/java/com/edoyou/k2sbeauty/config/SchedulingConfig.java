@@ -0,0 +1,14 @@
+package com.edoyou.k2sbeauty.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling Spring's {@code @Scheduled} support for the background jobs
+ * of the application.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+}
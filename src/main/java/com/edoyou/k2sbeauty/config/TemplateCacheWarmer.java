@@ -0,0 +1,118 @@
+package com.edoyou.k2sbeauty.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.IEngineConfiguration;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IEngineContext;
+import org.thymeleaf.engine.TemplateModel;
+
+/**
+ * {@code TemplateCacheWarmer} parses every page template into the Thymeleaf template cache when the
+ * application is ready, so the first request for a page does not read and parse it from the
+ * classpath. It does nothing while the template cache is off ({@code spring.thymeleaf.cache=false}).
+ *
+ * <p>Pages are parsed without being processed, so no model is needed. Thymeleaf caches an included
+ * fragment per including page, so the fragments a page includes with {@code ~{template :: fragment}}
+ * are parsed on behalf of that page. Templates under {@value #FRAGMENTS_DIRECTORY} are only parsed
+ * as fragments.
+ */
+@Component
+public class TemplateCacheWarmer {
+
+    private static final Logger LOGGER = LogManager.getLogger(TemplateCacheWarmer.class.getName());
+
+    /**
+     * Directory of the templates that only hold fragments, relative to the template prefix.
+     */
+    static final String FRAGMENTS_DIRECTORY = "fragments/";
+
+    private static final Pattern FRAGMENT_EXPRESSION =
+            Pattern.compile("~\\{\\s*([\\w/-]+)\\s*::\\s*([\\w-]+)\\s*}");
+
+    private final ITemplateEngine templateEngine;
+    private final ThymeleafProperties thymeleafProperties;
+
+    @Autowired
+    public TemplateCacheWarmer(ITemplateEngine templateEngine, ThymeleafProperties thymeleafProperties) {
+        this.templateEngine = templateEngine;
+        this.thymeleafProperties = thymeleafProperties;
+    }
+
+    /**
+     * Parses the pages and their fragments into the template cache.
+     *
+     * @throws IOException if the templates cannot be listed or read
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() throws IOException {
+        if (!thymeleafProperties.isCache()) {
+            LOGGER.debug("Template cache is off, skipping the warm-up");
+            return;
+        }
+        long start = System.nanoTime();
+        IEngineConfiguration configuration = templateEngine.getConfiguration();
+        ICache<TemplateCacheKey, TemplateModel> templateCache = configuration.getCacheManager().getTemplateCache();
+        int fragments = 0;
+        Map<String, String> pages = findPages();
+        for (Map.Entry<String, String> page : pages.entrySet()) {
+            // Parses and caches the page like a request would, but never processes it
+            templateEngine.processThrottled(page.getKey(), new Context(Locale.ROOT));
+            TemplateModel model = templateCache.get(new TemplateCacheKey(null, page.getKey(), null, 0, 0, null, null));
+            if (model == null) {
+                continue;
+            }
+            IEngineContext pageContext = configuration.getEngineContextFactory()
+                    .createEngineContext(configuration, model.getTemplateData(), null, new Context(Locale.ROOT));
+            Matcher matcher = FRAGMENT_EXPRESSION.matcher(page.getValue());
+            while (matcher.find()) {
+                configuration.getTemplateManager().parseStandalone(pageContext, matcher.group(1),
+                        Set.of(matcher.group(2)), null, true, true);
+                fragments++;
+            }
+        }
+        LOGGER.info("Parsed {} pages and {} fragments into the template cache in {} ms", pages.size(), fragments,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Lists the page templates.
+     *
+     * @return the source of each page by template name
+     */
+    private Map<String, String> findPages() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        String prefix = thymeleafProperties.getPrefix();
+        String suffix = thymeleafProperties.getSuffix();
+        String root = resolver.getResource(prefix).getURL().toString();
+        Map<String, String> pages = new LinkedHashMap<>();
+        for (Resource resource : resolver.getResources(prefix + "**/*" + suffix)) {
+            String path = resource.getURL().toString();
+            String name = path.substring(root.length(), path.length() - suffix.length());
+            if (!name.startsWith(FRAGMENTS_DIRECTORY)) {
+                pages.put(name, resource.getContentAsString(StandardCharsets.UTF_8));
+            }
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,44 @@
+package com.edoyou.k2sbeauty.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class moving request handling and the {@code @Scheduled} jobs onto virtual threads
+ * when the virtual thread execution mode of {@link ExecutionThreads} is on.
+ *
+ * <p>Tomcat then hands every request to a new virtual thread instead of its worker pool, and the
+ * task scheduler creates its threads as virtual threads. Both customizers do nothing otherwise.
+ * Spring Boot 3.2 and later provide the same through {@code spring.threads.virtual.enabled}, which
+ * replaces this class after an upgrade.
+ */
+@Configuration
+public class VirtualThreadsConfig {
+
+    private static final Logger LOGGER = LogManager.getLogger(VirtualThreadsConfig.class.getName());
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(
+            ExecutionThreads executionThreads) {
+        return protocolHandler -> {
+            if (executionThreads.isVirtual()) {
+                LOGGER.info("Serving requests on virtual threads");
+                protocolHandler.setExecutor(executionThreads.newVirtualThreadPerTaskExecutor("http-"));
+            }
+        };
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadsTaskSchedulerCustomizer(
+            ExecutionThreads executionThreads) {
+        return taskScheduler -> {
+            if (executionThreads.isVirtual()) {
+                taskScheduler.setThreadFactory(executionThreads.threadFactory("scheduling-"));
+            }
+        };
+    }
+}
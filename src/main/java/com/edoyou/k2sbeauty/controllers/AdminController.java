@@ -1,13 +1,12 @@
 package com.edoyou.k2sbeauty.controllers;
 
-import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.services.facade.AdminServiceFacade;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -22,6 +21,8 @@ import java.util.List;
 @RequestMapping("/admin")
 public class AdminController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AdminServiceFacade adminServiceFacade;
 
     /**
@@ -35,24 +36,28 @@ public class AdminController {
     }
 
     /**
-     * Handles the request for viewing the admin dashboard.
+     * Handles the request for viewing the admin dashboard. The appointments are paginated by keyset: the previous
+     * and next pages are requested with the opaque tokens of the current page.
      *
-     * @param page           The page number for the appointments list pagination
+     * @param token          The token of the requested page; the first page is shown without one
      * @param size           The number of appointments per page for the appointments list pagination
      * @param authentication The authentication object containing the authentication status and details of the authenticated user
      * @param model          The model object to add attributes to for the view
      * @return The view name for the admin dashboard
      */
     @GetMapping("/dashboard")
-    public String adminDashboard(@RequestParam(defaultValue = "0") int page,
-                                 @RequestParam(defaultValue = "4") int size,
-                                 Authentication authentication, Model model) {
+    public String adminDashboard(
+            @RequestParam(required = false) String token,
+            @RequestParam(defaultValue = "4") int size,
+            Authentication authentication, Model model) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return "redirect:/login";
         }
-        PageRequest pageReq = PageRequest.of(page, size, Sort.by("id"));
-        Page<Appointment> appointments = adminServiceFacade.findAllAppointments(pageReq);
+        size = pageSize(size);
+        CursorPage<AppointmentSummaryDTO> appointments =
+                adminServiceFacade.findDashboardAppointments(PageToken.decode(token), size);
         model.addAttribute("appointments", appointments);
+        model.addAttribute("size", size);
         return "admin/dashboard";
     }
 
@@ -121,23 +126,20 @@ public class AdminController {
     /**
      * Displays the page for reviewing hairdresser registrations.
      *
-     * @param page  The page number for the hairdressers list pagination
+     * @param token The token of the requested page; the first page is shown without one
      * @param size  The number of hairdressers per page for the hairdressers list pagination
      * @param model The model object to add attributes to for the view
      * @return The view name for the hairdresser registration review
      */
     @GetMapping("/hairdresserRegistrationReview")
-    public String reviewHairdresserRegistration(@RequestParam(defaultValue = "0") int page,
+    public String reviewHairdresserRegistration(@RequestParam(required = false) String token,
                                                 @RequestParam(defaultValue = "4") int size,
                                                 Model model) {
-
-        if (page < 0) {
-            page = 0;
-        }
-
-        PageRequest pageRequest = PageRequest.of(page, size);
-        Page<Hairdresser> hairdressers = adminServiceFacade.findAllYetNotApproved(false, pageRequest);
+        size = pageSize(size);
+        CursorPage<Hairdresser> hairdressers =
+                adminServiceFacade.findAllYetNotApproved(false, PageToken.decode(token), size);
         model.addAttribute("hairdressers", hairdressers);
+        model.addAttribute("size", size);
         return "admin/hairdresserRegistrationReview";
     }
 
@@ -169,13 +171,18 @@ public class AdminController {
     /**
      * Displays the list of beauty services.
      *
+     * @param token The token of the requested page; the first page is shown without one
+     * @param size  The number of services per page for the services list pagination
      * @param model The model object to add attributes to for the view
      * @return The view name for the services list
      */
     @GetMapping("/services")
-    public String showServices(Model model) {
-        List<BeautyService> services = adminServiceFacade.findAllBeautyServices();
+    public String showServices(@RequestParam(required = false) String token,
+                               @RequestParam(defaultValue = "10") int size, Model model) {
+        size = pageSize(size);
+        CursorPage<BeautyService> services = adminServiceFacade.findBeautyServices(PageToken.decode(token), size);
         model.addAttribute("services", services);
+        model.addAttribute("size", size);
         return "admin/services";
     }
 
@@ -215,18 +222,24 @@ public class AdminController {
     /**
      * Displays the list of hairdressers.
      *
-     * @param page  The page number for the hairdressers list pagination
+     * @param token The token of the requested page; the first page is shown without one
      * @param size  The number of hairdressers per page for the hairdressers list pagination
      * @param model The model object to add attributes to for the view
      * @return The view name for the hairdressers list
      */
     @GetMapping("/hairdressers")
-    public String showHairdressers(@RequestParam(defaultValue = "0") int page,
+    public String showHairdressers(@RequestParam(required = false) String token,
                                    @RequestParam(defaultValue = "4") int size, Model model) {
-        PageRequest pageRequest = PageRequest.of(page, size);
-        Page<Hairdresser> hairdressers = adminServiceFacade.findHairdressersWithServices(pageRequest);
+        size = pageSize(size);
+        CursorPage<Hairdresser> hairdressers =
+                adminServiceFacade.findHairdressersWithServices(PageToken.decode(token), size);
         model.addAttribute("hairdressers", hairdressers);
+        model.addAttribute("size", size);
         return "admin/hairdressers";
     }
 
+    private static int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
 }
\ No newline at end of file
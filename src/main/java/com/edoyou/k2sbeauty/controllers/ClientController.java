@@ -1,11 +1,15 @@
 package com.edoyou.k2sbeauty.controllers;
 
+import com.edoyou.k2sbeauty.dto.AvailableSlotDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Feedback;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.services.facade.ClientServiceFacade;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.implementations.availability.AvailabilityIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -15,6 +19,8 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 /**
@@ -40,6 +46,11 @@ import java.util.List;
 @Controller
 public class ClientController {
 
+    /**
+     * Upper bound for the number of slots returned by the first-available search.
+     */
+    static final int MAX_SEARCH_RESULTS = 50;
+
     private final ClientServiceFacade clientServiceFacade;
 
     /**
@@ -107,15 +118,57 @@ public class ClientController {
      * This endpoint is used to get available timeslots for a particular hairdresser.
      *
      * @param hairdresserId The ID of the hairdresser.
+     * @param serviceName   The name of the service to book, if already chosen; the slots last as long
+     *                      as the service.
      * @return A list of available time slots for the provided hairdresser.
      */
     @GetMapping("/client/timeslots")
     public ResponseEntity<List<String>> getTimeSlots(
-            @RequestParam("hairdresserId") Long hairdresserId) {
-        List<String> timeSlotStrings = clientServiceFacade.getTimeSlots(hairdresserId);
+            @RequestParam("hairdresserId") Long hairdresserId,
+            @RequestParam(value = "serviceName", required = false) String serviceName) {
+        List<String> timeSlotStrings = clientServiceFacade.getTimeSlots(hairdresserId, serviceName);
         return ResponseEntity.ok(timeSlotStrings);
     }
 
+    /**
+     * This endpoint finds the earliest free slots for a service across all hairdressers offering it.
+     * Only the availability horizon of {@link TimeSlotService#WEEK_DAYS} days starting today can be
+     * searched; a {@code from} or {@code to} after its last day is rejected with 400 Bad Request.
+     *
+     * @param serviceId The ID of the beauty service.
+     * @param from      The first day to search, today by default.
+     * @param to        The last day to search, inclusive; by default the week starting at {@code from},
+     *                  cut off at the end of the availability horizon.
+     * @param timeFrom  The time of day at or after which the slots must start, if any.
+     * @param timeTo    The time of day by which the slots must end, if any.
+     * @param limit     The maximum number of slots to return, at most {@value #MAX_SEARCH_RESULTS}.
+     * @return The earliest free slots with their hairdressers, ordered by start time.
+     */
+    @GetMapping("/client/first-available")
+    public ResponseEntity<List<AvailableSlotDTO>> findFirstAvailable(
+            @RequestParam("serviceId") Long serviceId,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "timeFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime timeFrom,
+            @RequestParam(value = "timeTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime timeTo,
+            @RequestParam(value = "limit", defaultValue = "5") int limit) {
+        LocalDate horizonLastDay = AvailabilityIndex.lastDay(LocalDate.now());
+        LocalDate firstDay = from != null ? from : LocalDate.now();
+        LocalDate weekLastDay = firstDay.plusDays(6);
+        LocalDate lastDay = to != null ? to
+                : weekLastDay.isAfter(horizonLastDay) ? horizonLastDay : weekLastDay;
+        if (firstDay.isAfter(horizonLastDay) || lastDay.isAfter(horizonLastDay)) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<AvailableSlotDTO> slots = clientServiceFacade.findFirstAvailable(serviceId, firstDay, lastDay,
+                timeFrom, timeTo, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+        return ResponseEntity.ok(slots);
+    }
+
     /**
      * This endpoint is used to fetch all appointments of a logged-in client.
      *
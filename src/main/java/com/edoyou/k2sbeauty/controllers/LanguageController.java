@@ -1,19 +1,29 @@
 package com.edoyou.k2sbeauty.controllers;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.Locale;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+import org.springframework.web.servlet.LocaleResolver;
 
 @Controller
 public class LanguageController {
 
+  private final LocaleResolver localeResolver;
+
+  @Autowired
+  public LanguageController(LocaleResolver localeResolver) {
+    this.localeResolver = localeResolver;
+  }
+
   @GetMapping("/changeLanguage")
-  public String changeLanguage(HttpServletRequest request, @RequestParam String lang) {
+  public String changeLanguage(HttpServletRequest request, HttpServletResponse response,
+      @RequestParam String lang) {
     Locale locale = Locale.forLanguageTag(lang);
-    request.getSession().setAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME, locale);
+    localeResolver.setLocale(request, response, locale);
     return "redirect:" + request.getHeader("referer");
   }
 }
\ No newline at end of file
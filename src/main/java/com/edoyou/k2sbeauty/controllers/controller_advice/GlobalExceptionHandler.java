@@ -1,5 +1,6 @@
 package com.edoyou.k2sbeauty.controllers.controller_advice;
 
+import com.edoyou.k2sbeauty.exceptions.InvalidPageTokenException;
 import com.edoyou.k2sbeauty.exceptions.UnauthorizedActionException;
 import com.edoyou.k2sbeauty.exceptions.UserNotFoundException;
 import java.time.format.DateTimeParseException;
@@ -7,7 +8,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -22,16 +22,23 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.FORBIDDEN);
   }
 
+  @ExceptionHandler(InvalidPageTokenException.class)
+  public ResponseEntity<String> handleInvalidPageTokenException(InvalidPageTokenException ex) {
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+  }
+
   @ExceptionHandler(Exception.class)
   public ResponseEntity<String> handleException(Exception ex) {
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  /**
+   * Sends the admin back to the dashboard, which explains the expected format. The error travels in
+   * a query parameter rather than a flash attribute, which would need an {@code HttpSession}.
+   */
   @ExceptionHandler(DateTimeParseException.class)
-  public String handleDateTimeParseException(RedirectAttributes redirectAttributes) {
-    redirectAttributes.addFlashAttribute("errorMessage",
-        "Please enter the time slot in a correct format (YYYY-MM-DDTHH:MM:SS)");
-    return "redirect:/admin/dashboard";
+  public String handleDateTimeParseException() {
+    return "redirect:/admin/dashboard?error=timeSlotFormat";
   }
 
 }
\ No newline at end of file
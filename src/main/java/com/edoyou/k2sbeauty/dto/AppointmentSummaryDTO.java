@@ -0,0 +1,25 @@
+package com.edoyou.k2sbeauty.dto;
+
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only view of an appointment as listed on the admin dashboard. It is produced directly
+ * by a constructor expression, so no entity is materialized.
+ *
+ * @param id              the appointment id
+ * @param appointmentTime the appointment time
+ * @param clientName      the client's first and last name
+ * @param hairdresserName the hairdresser's first and last name
+ * @param serviceName     the name of the booked service
+ * @param paymentStatus   the payment status
+ * @param completed       whether the appointment is completed
+ */
+public record AppointmentSummaryDTO(Long id, LocalDateTime appointmentTime, String clientName,
+                                    String hairdresserName, String serviceName,
+                                    PaymentStatus paymentStatus, boolean completed) {
+
+  public PageToken key() {
+    return PageToken.after(appointmentTime, id);
+  }
+}
@@ -0,0 +1,16 @@
+package com.edoyou.k2sbeauty.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A free time slot of a hairdresser, as returned by the first-available search.
+ *
+ * @param hairdresserId   the hairdresser id
+ * @param hairdresserName the hairdresser's first and last name
+ * @param start           the start of the slot
+ * @param end             the end of the slot
+ */
+public record AvailableSlotDTO(Long hairdresserId, String hairdresserName, LocalDateTime start,
+                               LocalDateTime end) {
+
+}
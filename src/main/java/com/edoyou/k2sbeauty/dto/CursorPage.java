@@ -0,0 +1,69 @@
+package com.edoyou.k2sbeauty.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.Slice;
+
+/**
+ * One page of a keyset-paginated list, together with the tokens to request its neighbours.
+ *
+ * @param items         the rows of the page, in display order
+ * @param previousToken the encoded token of the previous page, or {@code null} if there is none
+ * @param nextToken     the encoded token of the next page, or {@code null} if there is none
+ * @param <T>           the row type
+ */
+public record CursorPage<T>(List<T> items, String previousToken, String nextToken) {
+
+  public boolean hasPrevious() {
+    return previousToken != null;
+  }
+
+  public boolean hasNext() {
+    return nextToken != null;
+  }
+
+  /**
+   * Builds a page from the slice a keyset query returned for {@code token}. Queries for a
+   * backward token return their rows in descending order, so they are reversed here.
+   *
+   * @param slice the rows, with one extra row looked ahead to tell whether more exist
+   * @param token the token the page was requested with, or {@code null} for the first page
+   * @param keyOf extracts the sort key of a row as a forward token
+   * @param <T>   the row type
+   * @return the page
+   */
+  public static <T> CursorPage<T> of(Slice<T> slice, PageToken token,
+      Function<T, PageToken> keyOf) {
+    List<T> rows = new ArrayList<>(slice.getContent());
+    boolean hasPrevious = token != null;
+    boolean hasNext = slice.hasNext();
+    if (token != null && token.isBackward()) {
+      Collections.reverse(rows);
+      hasPrevious = slice.hasNext();
+      hasNext = true;
+    }
+    if (rows.isEmpty()) {
+      return new CursorPage<>(rows, null, null);
+    }
+    PageToken first = keyOf.apply(rows.get(0));
+    PageToken last = keyOf.apply(rows.get(rows.size() - 1));
+    return new CursorPage<>(rows,
+        hasPrevious ? new PageToken(PageToken.Direction.BEFORE, first.time(), first.id()).encode()
+            : null,
+        hasNext ? last.encode() : null);
+  }
+
+  /**
+   * Returns a page with the same tokens and other rows, for lists whose ids are paged first and
+   * whose rows are loaded afterwards.
+   *
+   * @param items the rows of the page
+   * @param <R>   the row type
+   * @return the page
+   */
+  public <R> CursorPage<R> withItems(List<R> items) {
+    return new CursorPage<>(items, previousToken, nextToken);
+  }
+}
@@ -0,0 +1,80 @@
+package com.edoyou.k2sbeauty.dto;
+
+import com.edoyou.k2sbeauty.exceptions.InvalidPageTokenException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset pagination. A token names the row a page starts after, or ends
+ * before, by its sort key: the id, preceded by a timestamp for lists ordered by time. Clients only
+ * ever see the encoded form, so the key layout can change without breaking their links.
+ *
+ * @param direction whether the page follows or precedes the row
+ * @param time      the timestamp of the row, or {@code null} for lists ordered by id alone
+ * @param id        the id of the row
+ */
+public record PageToken(Direction direction, LocalDateTime time, Long id) {
+
+  private static final String SEPARATOR = "|";
+
+  public enum Direction {
+    AFTER, BEFORE
+  }
+
+  public static PageToken after(Long id) {
+    return new PageToken(Direction.AFTER, null, id);
+  }
+
+  public static PageToken after(LocalDateTime time, Long id) {
+    return new PageToken(Direction.AFTER, time, id);
+  }
+
+  public static PageToken before(Long id) {
+    return new PageToken(Direction.BEFORE, null, id);
+  }
+
+  public static PageToken before(LocalDateTime time, Long id) {
+    return new PageToken(Direction.BEFORE, time, id);
+  }
+
+  public boolean isBackward() {
+    return direction == Direction.BEFORE;
+  }
+
+  /**
+   * Encodes the token as URL-safe Base64.
+   *
+   * @return the opaque token
+   */
+  public String encode() {
+    String key = direction.name() + SEPARATOR + (time == null ? "" : time) + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a token produced by {@link #encode()}.
+   *
+   * @param token the opaque token, may be {@code null} or blank for the first page
+   * @return the decoded token, or {@code null} for the first page
+   * @throws InvalidPageTokenException if the token is malformed
+   */
+  public static PageToken decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      String key = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = key.split("\\" + SEPARATOR, -1);
+      if (parts.length != 3) {
+        throw new InvalidPageTokenException("Invalid page token: " + token);
+      }
+      LocalDateTime time = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+      return new PageToken(Direction.valueOf(parts[0]), time, Long.valueOf(parts[2]));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new InvalidPageTokenException("Invalid page token: " + token);
+    }
+  }
+}
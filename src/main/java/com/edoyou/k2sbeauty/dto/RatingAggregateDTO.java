@@ -0,0 +1,15 @@
+package com.edoyou.k2sbeauty.dto;
+
+/**
+ * Sum and count of the feedback ratings a hairdresser has received.
+ *
+ * @param hairdresserId the ID of the hairdresser
+ * @param ratingSum     the sum of all ratings
+ * @param ratingCount   the number of ratings
+ */
+public record RatingAggregateDTO(Long hairdresserId, long ratingSum, long ratingCount) {
+
+  public double average() {
+    return ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+  }
+}
@@ -0,0 +1,15 @@
+package com.edoyou.k2sbeauty.dto;
+
+/**
+ * One role of a user, together with the credentials and the type of the user, as loaded for
+ * authentication. A user with several roles is returned as several rows.
+ *
+ * @param id       the user id
+ * @param email    the e-mail the user signs in with
+ * @param password the password hash
+ * @param type     {@code CLIENT}, {@code HAIRDRESSER} or {@code USER}
+ * @param role     the role name, or {@code null} if the user has no roles
+ */
+public record UserCredentialsDTO(Long id, String email, String password, String type, String role) {
+
+}
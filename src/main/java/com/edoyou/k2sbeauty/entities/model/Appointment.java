@@ -7,11 +7,32 @@ import java.time.LocalDateTime;
 
 /**
  * The Appointment entity class represents an appointment in the BeautySalon application.
+ * <p>
+ * The composite indexes on {@code (hairdresser_id, appointment_time)} and
+ * {@code (client_id, appointment_time)} back the booking-conflict range queries of
+ * {@link com.edoyou.k2sbeauty.repositories.AppointmentRepository}; the one on
+ * {@code (appointment_time, id)} backs the keyset-paginated admin dashboard.
+ * </p>
+ * <p>
+ * The hairdresser is loaded lazily; appointment lists fetch the client, hairdresser and service
+ * in one query through the {@value #WITH_DETAILS} entity graph.
+ * </p>
  */
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+    @Index(name = "idx_appointments_hairdresser_time", columnList = "hairdresser_id, appointmentTime"),
+    @Index(name = "idx_appointments_client_time", columnList = "client_id, appointmentTime"),
+    @Index(name = "idx_appointments_time_id", columnList = "appointmentTime, id")
+})
+@NamedEntityGraph(name = Appointment.WITH_DETAILS, attributeNodes = {
+    @NamedAttributeNode("client"),
+    @NamedAttributeNode("hairdresser"),
+    @NamedAttributeNode("beautyService")
+})
 public class Appointment {
 
+  public static final String WITH_DETAILS = "Appointment.details";
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -27,7 +48,7 @@ public class Appointment {
   @JoinColumn(nullable = false)
   private Client client;
 
-  @ManyToOne(cascade = CascadeType.MERGE, fetch = FetchType.EAGER)
+  @ManyToOne(cascade = CascadeType.MERGE, fetch = FetchType.LAZY)
   @JoinColumn(nullable = false)
   private Hairdresser hairdresser;
 
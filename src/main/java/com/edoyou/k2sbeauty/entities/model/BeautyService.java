@@ -1,6 +1,7 @@
 package com.edoyou.k2sbeauty.entities.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -10,8 +11,18 @@ import java.util.Set;
  */
 @Entity
 @Table(name = "service")
+@NamedEntityGraph(name = BeautyService.WITH_HAIRDRESSERS,
+    attributeNodes = @NamedAttributeNode("hairdressers"))
 public class BeautyService {
 
+  public static final String WITH_HAIRDRESSERS = "BeautyService.hairdressers";
+
+  /**
+   * Upper bound, in minutes, for the duration of a service. The booking overlap queries only look
+   * this far back for appointments that could still be running.
+   */
+  public static final int MAX_DURATION = 24 * 60;
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -23,12 +34,13 @@ public class BeautyService {
   private String description;
 
   @Column(nullable = false)
+  @Max(MAX_DURATION)
   private int duration;
 
   @Column(nullable = false)
   private double price;
 
-  @ManyToMany(mappedBy = "beautyServices", fetch = FetchType.EAGER)
+  @ManyToMany(mappedBy = "beautyServices", fetch = FetchType.LAZY)
   private Set<Hairdresser> hairdressers = new HashSet<>();
 
   public void setId(Long id) {
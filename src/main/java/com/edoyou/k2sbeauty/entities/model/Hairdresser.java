@@ -2,6 +2,8 @@ package com.edoyou.k2sbeauty.entities.model;
 
 import jakarta.persistence.*;
 
+import org.hibernate.Hibernate;
+
 import java.time.DayOfWeek;
 import java.util.HashSet;
 import java.util.List;
@@ -12,17 +14,39 @@ import java.util.stream.Collectors;
 /**
  * The Hairdresser entity class represents a hairdresser in the BeautySalon application.
  * It extends the {@link User} class and adds the specific details related to a hairdresser.
+ * <p>
+ * All associations are lazy. Use cases that need the working hours or the services load them
+ * through the named entity graphs declared here, so every page issues a fixed number of queries.
+ * </p>
  */
 @Entity
 @Table(name = "hairdressers")
+@NamedEntityGraph(name = Hairdresser.WITH_WORKING_HOURS,
+    attributeNodes = @NamedAttributeNode("workingHours"))
+@NamedEntityGraph(name = Hairdresser.WITH_BEAUTY_SERVICES,
+    attributeNodes = @NamedAttributeNode("beautyServices"))
 public class Hairdresser extends User {
 
+  public static final String WITH_WORKING_HOURS = "Hairdresser.workingHours";
+  public static final String WITH_BEAUTY_SERVICES = "Hairdresser.beautyServices";
+
   @Column(nullable = false)
   private String specialization;
 
-  @Column(nullable = false)
+  // Only written by HairdresserRepository's aggregate updates, so saving a loaded hairdresser never
+  // writes back a stale average
+  @Column(nullable = false, updatable = false)
   private double rating;
 
+  // Running rating aggregate, only written by HairdresserRepository's aggregate updates
+  @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false,
+      columnDefinition = "bigint not null default 0")
+  private long ratingSum;
+
+  @Column(name = "rating_count", nullable = false, insertable = false, updatable = false,
+      columnDefinition = "bigint not null default 0")
+  private long ratingCount;
+
   @Column(name = "is_approved", nullable = false)
   private boolean isApproved = false;
 
@@ -30,7 +54,7 @@ public class Hairdresser extends User {
   @Transient
   private List<Long> selectedServiceIds;
 
-  @ManyToMany(cascade = CascadeType.MERGE, fetch = FetchType.EAGER)
+  @ManyToMany(cascade = CascadeType.MERGE, fetch = FetchType.LAZY)
   @JoinTable(
       name = "hairdresser_working_hours",
       joinColumns = @JoinColumn(name = "hairdresser_id"),
@@ -38,7 +62,7 @@ public class Hairdresser extends User {
   )
   private Set<WorkingHours> workingHours = new HashSet<>();
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  @ManyToMany(fetch = FetchType.LAZY)
   @JoinTable(
       name = "hairdresser_service",
       joinColumns = @JoinColumn(name = "hairdresser_id"),
@@ -117,6 +141,14 @@ public class Hairdresser extends User {
     return rating;
   }
 
+  public long getRatingSum() {
+    return ratingSum;
+  }
+
+  public long getRatingCount() {
+    return ratingCount;
+  }
+
   public List<Long> getSelectedServiceIds() {
     return selectedServiceIds;
   }
@@ -127,7 +159,7 @@ public class Hairdresser extends User {
     return super.toString() + ", Hairdresser{" +
         "specialization='" + specialization + '\'' +
         ", rating=" + rating +
-        ", number of services=" + beautyServices.size() +
+        ", number of services=" + (Hibernate.isInitialized(beautyServices) ? beautyServices.size() : "?") +
         ", isApproved=" + isApproved +
         '}';
   }
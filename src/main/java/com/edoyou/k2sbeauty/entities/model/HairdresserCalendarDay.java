@@ -0,0 +1,64 @@
+package com.edoyou.k2sbeauty.entities.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * The HairdresserCalendarDay entity is the concurrency token of one {@link Hairdresser}'s bookings
+ * on one day.
+ * <p>
+ * Every booking increments the {@link Version} of the rows of the days its interval touches, in the
+ * same transaction that checks for overlapping appointments and saves the new one. Two bookings
+ * that overlap share at least one day, so only one of them can commit; the other fails with an
+ * optimistic locking error and is retried against the committed state. Bookings of different
+ * hairdressers or days never touch the same row.
+ * </p>
+ * <p>
+ * The hairdresser is referenced by ID only, so the rows do not keep a hairdresser from being
+ * deleted.
+ * </p>
+ */
+@Entity
+@Table(name = "hairdresser_calendar_days", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_hairdresser_calendar_days_day", columnNames = {"hairdresserId", "day"})
+})
+public class HairdresserCalendarDay {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long hairdresserId;
+
+  @Column(nullable = false)
+  private LocalDate day;
+
+  @Version
+  private long version;
+
+  public HairdresserCalendarDay() {
+  }
+
+  public HairdresserCalendarDay(Long hairdresserId, LocalDate day) {
+    this.hairdresserId = hairdresserId;
+    this.day = day;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getHairdresserId() {
+    return hairdresserId;
+  }
+
+  public LocalDate getDay() {
+    return day;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+}
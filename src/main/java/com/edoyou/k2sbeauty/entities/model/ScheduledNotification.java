@@ -0,0 +1,138 @@
+package com.edoyou.k2sbeauty.entities.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ScheduledNotification entity represents an e-mail notification that should be sent at a
+ * later point in time, e.g. the feedback request sent to a {@link Client} a day after an
+ * {@link Appointment} was completed.
+ * <p>
+ * Notifications are stored until they are due and marked as delivered once the mail server
+ * accepted them, so pending notifications survive application restarts. While a notification is
+ * being delivered it is claimed until {@code claimedUntil}, so no other poller sends it; if it is
+ * not delivered by then, it is sent again, up to a limited number of {@code attempts}.
+ * </p>
+ */
+@Entity
+@Table(name = "scheduled_notifications", indexes = {
+    @Index(name = "idx_scheduled_notifications_due", columnList = "deliveredAt, dueAt")
+})
+public class ScheduledNotification {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  @Column(nullable = false)
+  private String subject;
+
+  @Column(nullable = false, length = 2000)
+  private String text;
+
+  @Column(nullable = false)
+  private LocalDateTime dueAt;
+
+  private LocalDateTime deliveredAt;
+
+  private LocalDateTime claimedUntil;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  public ScheduledNotification() {
+  }
+
+  public ScheduledNotification(String recipient, String subject, String text,
+      LocalDateTime dueAt) {
+    this.recipient = recipient;
+    this.subject = subject;
+    this.text = text;
+    this.dueAt = dueAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getRecipient() {
+    return recipient;
+  }
+
+  public void setRecipient(String recipient) {
+    this.recipient = recipient;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public void setSubject(String subject) {
+    this.subject = subject;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  public void setText(String text) {
+    this.text = text;
+  }
+
+  public LocalDateTime getDueAt() {
+    return dueAt;
+  }
+
+  public void setDueAt(LocalDateTime dueAt) {
+    this.dueAt = dueAt;
+  }
+
+  public LocalDateTime getDeliveredAt() {
+    return deliveredAt;
+  }
+
+  public void setDeliveredAt(LocalDateTime deliveredAt) {
+    this.deliveredAt = deliveredAt;
+  }
+
+  public LocalDateTime getClaimedUntil() {
+    return claimedUntil;
+  }
+
+  public void setClaimedUntil(LocalDateTime claimedUntil) {
+    this.claimedUntil = claimedUntil;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public boolean isDelivered() {
+    return deliveredAt != null;
+  }
+
+  @Override
+  public String toString() {
+    return "ScheduledNotification{" +
+        "id=" + id +
+        ", recipient='" + recipient + '\'' +
+        ", subject='" + subject + '\'' +
+        ", dueAt=" + dueAt +
+        ", deliveredAt=" + deliveredAt +
+        ", claimedUntil=" + claimedUntil +
+        ", attempts=" + attempts +
+        '}';
+  }
+}
@@ -40,7 +40,7 @@ public class WorkingHours {
   @Column(nullable = false)
   private LocalTime end;
 
-  @ManyToMany(mappedBy = "workingHours", fetch = FetchType.EAGER)
+  @ManyToMany(mappedBy = "workingHours", fetch = FetchType.LAZY)
   private Set<Hairdresser> hairdressers = new HashSet<>();
 
   public void setId(Long id) {
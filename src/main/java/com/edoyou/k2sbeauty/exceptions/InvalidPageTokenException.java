@@ -0,0 +1,8 @@
+package com.edoyou.k2sbeauty.exceptions;
+
+public class InvalidPageTokenException extends RuntimeException {
+
+  public InvalidPageTokenException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,91 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code CallTimingAspect} times every public method call of the facades and services (the beans
+ * annotated with {@code @Service}) with the {@value #TIMER} timer.
+ *
+ * <p>The timer is tagged with the {@code layer} ({@code facade} or {@code service}), the {@code class}
+ * and the {@code method}, and with the simple name of the thrown {@code exception}, or {@code none}.
+ * It publishes a percentile histogram, so latency percentiles can be aggregated across instances
+ * from the Prometheus scrape endpoint.
+ */
+@Aspect
+@Component
+public class CallTimingAspect {
+
+    /**
+     * Name of the timer of the facade and service calls.
+     */
+    public static final String TIMER = "k2s.calls";
+
+    private static final String FACADE_PACKAGE = "com.edoyou.k2sbeauty.services.facade";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, Timer>> successTimers =
+            new ConcurrentHashMap<>();
+
+    @Autowired
+    public CallTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a facade or service call.
+     *
+     * @param joinPoint the call
+     * @return the result of the call
+     * @throws Throwable the exception thrown by the call
+     */
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = AopUtils.getTargetClass(joinPoint.getTarget());
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            successTimer(type, method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            timer(type, method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer successTimer(Class<?> type, Method method) {
+        ConcurrentMap<Method, Timer> timers = successTimers.get(type);
+        Timer timer = timers == null ? null : timers.get(method);
+        if (timer == null) {
+            timer = successTimers.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(method, key -> timer(type, key, "none"));
+        }
+        return timer;
+    }
+
+    private Timer timer(Class<?> type, Method method, String exception) {
+        return Timer.builder(TIMER)
+                .description("Latency of the facade and service calls")
+                .tag("layer", type.getPackageName().startsWith(FACADE_PACKAGE) ? "facade" : "service")
+                .tag("class", type.getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.function.ToDoubleFunction;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code HibernateStatisticsMetrics} publishes the global Hibernate statistics as counters: the JDBC
+ * statements prepared, the queries executed, and the entities and collections loaded and fetched.
+ * A rising fetch count next to a flat query count is the typical sign of lazy loading in a loop.
+ */
+@Component
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "k2s.hibernate.statements", "JDBC statements prepared",
+                Statistics::getPrepareStatementCount);
+        counter(registry, "k2s.hibernate.queries", "HQL and native queries executed",
+                Statistics::getQueryExecutionCount);
+        counter(registry, "k2s.hibernate.entities.loaded", "Entities loaded",
+                Statistics::getEntityLoadCount);
+        counter(registry, "k2s.hibernate.entities.fetched", "Entities fetched by a separate select",
+                Statistics::getEntityFetchCount);
+        counter(registry, "k2s.hibernate.collections.loaded", "Collections loaded",
+                Statistics::getCollectionLoadCount);
+        counter(registry, "k2s.hibernate.collections.fetched", "Collections fetched by a separate select",
+                Statistics::getCollectionFetchCount);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description,
+                         ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.edoyou.k2sbeauty.metrics;
+
+/**
+ * The database work of the current thread, as counted by the {@link StatementCountingDataSource}.
+ * The difference of two snapshots taken by the same thread is the work done in between.
+ *
+ * @param statements the number of JDBC statements created
+ * @param rows       the number of rows read from result sets plus the number of rows updated
+ * @param nanos      the time spent executing statements, in nanoseconds
+ */
+public record QueryCount(long statements, long rows, long nanos) {
+
+    /**
+     * Returns the database work of the current thread so far.
+     *
+     * @return the current counts
+     */
+    public static QueryCount current() {
+        long[] counters = StatementCountingDataSource.counters();
+        return new QueryCount(counters[StatementCountingDataSource.STATEMENTS],
+                counters[StatementCountingDataSource.ROWS], counters[StatementCountingDataSource.NANOS]);
+    }
+
+    /**
+     * Returns the work done since an earlier snapshot of the same thread.
+     *
+     * @param earlier the earlier snapshot
+     * @return the difference
+     */
+    public QueryCount since(QueryCount earlier) {
+        return new QueryCount(statements - earlier.statements, rows - earlier.rows,
+                nanos - earlier.nanos);
+    }
+
+    /**
+     * Returns the time spent executing statements, in milliseconds.
+     *
+     * @return the database time
+     */
+    public double millis() {
+        return nanos / 1e6;
+    }
+}
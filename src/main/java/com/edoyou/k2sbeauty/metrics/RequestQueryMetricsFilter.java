@@ -0,0 +1,102 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * {@code RequestQueryMetricsFilter} measures the database work of each HTTP request: the JDBC
+ * statements, the rows and the statement execution time counted by the
+ * {@link StatementCountingDataSource}. They are recorded in the {@value #STATEMENTS},
+ * {@value #ROWS} and {@value #TIME} meters, tagged with the {@code uri} pattern of the handler, so
+ * endpoints that fire many queries stand out.
+ *
+ * <p>Requests issuing more statements than the threshold, usually an N+1 select, are logged as
+ * warnings. The {@link QueryCount} of the request is also stored in the {@value #QUERY_COUNT}
+ * request attribute, where tests can check it against a query budget.
+ */
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    /**
+     * Name of the distribution summary of the statements per request.
+     */
+    public static final String STATEMENTS = "k2s.http.db.statements";
+
+    /**
+     * Name of the distribution summary of the rows read or updated per request.
+     */
+    public static final String ROWS = "k2s.http.db.rows";
+
+    /**
+     * Name of the timer of the statement execution time per request.
+     */
+    public static final String TIME = "k2s.http.db.time";
+
+    /**
+     * Name of the request attribute holding the {@link QueryCount} of the request.
+     */
+    public static final String QUERY_COUNT = RequestQueryMetricsFilter.class.getName() + ".QUERY_COUNT";
+
+    private static final Logger LOGGER = LogManager.getLogger(RequestQueryMetricsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int statementThreshold;
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry, int statementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.statementThreshold = statementThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryCount before = QueryCount.current();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCount count = QueryCount.current().since(before);
+            request.setAttribute(QUERY_COUNT, count);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            record(uri, count);
+            if (count.statements() > statementThreshold) {
+                LOGGER.warn("{} {} issued {} statements ({} rows, {} ms), more than {}",
+                        request.getMethod(), request.getRequestURI(), count.statements(), count.rows(),
+                        count.millis(), statementThreshold);
+            }
+        }
+    }
+
+    private void record(String uri, QueryCount count) {
+        DistributionSummary.builder(STATEMENTS)
+                .description("JDBC statements issued per HTTP request")
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(count.statements());
+        DistributionSummary.builder(ROWS)
+                .description("Rows read or updated per HTTP request")
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(count.rows());
+        Timer.builder(TIME)
+                .description("JDBC statement execution time per HTTP request")
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(count.nanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,170 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@code StatementCountingDataSource} counts, for every thread, the JDBC statements created through
+ * the connections of the wrapped data source, the rows read from their result sets or updated by
+ * them, and the time spent executing them. The counts are read with {@link QueryCount#current()}.
+ *
+ * <p>Connections, statements and result sets are wrapped in dynamic proxies that forward every call
+ * to the pooled JDBC objects, so the overhead is a reflective call per JDBC operation, small next to
+ * a database round trip.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    static final int STATEMENTS = 0;
+    static final int ROWS = 1;
+    static final int NANOS = 2;
+
+    private static final ThreadLocal<long[]> COUNTERS = ThreadLocal.withInitial(() -> new long[3]);
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement",
+            "prepareStatement", "prepareCall");
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    static long[] counters() {
+        return COUNTERS.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T wrap(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Forwards calls to a JDBC object; proxies are equal only to themselves, so that Hibernate can
+     * keep track of the statements it opened.
+     */
+    private abstract static class Handler implements InvocationHandler {
+
+        private final Object target;
+
+        Handler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return handle(proxy, method, args);
+            }
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object forward(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends Handler {
+
+        ConnectionHandler(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(method, args);
+            if (result instanceof Statement statement && STATEMENT_FACTORIES.contains(method.getName())) {
+                COUNTERS.get()[STATEMENTS]++;
+                return wrap(method.getReturnType(), new StatementHandler(statement, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends Handler {
+
+        private final Connection connection;
+
+        StatementHandler(Statement statement, Connection connection) {
+            super(statement);
+            this.connection = connection;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (!name.startsWith("execute")) {
+                return wrapResultSet(forward(method, args));
+            }
+            long[] counters = COUNTERS.get();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = forward(method, args);
+            } finally {
+                counters[NANOS] += System.nanoTime() - start;
+            }
+            if (result instanceof Integer updated && updated > 0) {
+                counters[ROWS] += updated;
+            } else if (result instanceof Long updated && updated > 0) {
+                counters[ROWS] += updated;
+            } else if (result instanceof int[] batch) {
+                for (int updated : batch) {
+                    counters[ROWS] += Math.max(updated, 0);
+                }
+            }
+            return wrapResultSet(result);
+        }
+
+        private static Object wrapResultSet(Object result) {
+            return result instanceof ResultSet resultSet
+                    ? wrap(ResultSet.class, new ResultSetHandler(resultSet))
+                    : result;
+        }
+    }
+
+    private static final class ResultSetHandler extends Handler {
+
+        ResultSetHandler(ResultSet resultSet) {
+            super(resultSet);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = forward(method, args);
+            if (result == Boolean.TRUE && method.getName().equals("next")) {
+                COUNTERS.get()[ROWS]++;
+            }
+            return result;
+        }
+    }
+}
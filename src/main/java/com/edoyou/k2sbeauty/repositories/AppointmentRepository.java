@@ -1,14 +1,20 @@
 package com.edoyou.k2sbeauty.repositories;
 
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -19,28 +25,148 @@ import java.util.List;
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
+  String SUMMARY_SELECT = "SELECT new com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO(a.id, "
+      + "a.appointmentTime, CONCAT(c.firstName, ' ', c.lastName), "
+      + "CONCAT(h.firstName, ' ', h.lastName), s.name, a.paymentStatus, a.isCompleted) "
+      + "FROM Appointment a JOIN a.client c JOIN a.hairdresser h JOIN a.beautyService s ";
+
+
   /**
-   * Retrieves all {@link Appointment} entities in a paginated format.
+   * Retrieves all {@link Appointment} entities in a paginated format, together with their client,
+   * hairdresser and service.
    *
    * @param pageable {@link Pageable} instance containing pagination information
    * @return a {@link Page} of Appointment entities
    */
   @NotNull
+  @EntityGraph(Appointment.WITH_DETAILS)
   Page<Appointment> findAll(@NotNull Pageable pageable);
 
   /**
-   * Retrieves a list of {@link Appointment} entities by {@link Client}.
+   * Retrieves a list of {@link Appointment} entities by {@link Client}, together with their client,
+   * hairdresser and service.
    *
    * @param client the Client whose Appointments are to be retrieved
    * @return a list of Appointment entities
    */
+  @EntityGraph(Appointment.WITH_DETAILS)
   List<Appointment> findByClient(Client client);
 
   /**
-   * Retrieves a list of {@link Appointment} entities by {@link Hairdresser}.
+   * Retrieves a list of {@link Appointment} entities by {@link Hairdresser}, together with their
+   * client, hairdresser and service.
    *
    * @param hairdresser the Hairdresser whose Appointments are to be retrieved
    * @return a list of Appointment entities
    */
+  @EntityGraph(Appointment.WITH_DETAILS)
   List<Appointment> findByHairdresser(Hairdresser hairdresser);
-}
\ No newline at end of file
+
+  /**
+   * Retrieves the non-completed {@link Appointment} entities of a {@link Hairdresser} starting in
+   * {@code [from, to)}, ordered by appointment time. The service and client of each Appointment are
+   * fetched in the same query, so callers can compute appointment intervals and render the schedule
+   * without further lookups.
+   *
+   * @param hairdresserId the ID of the Hairdresser
+   * @param from          the earliest appointment time (inclusive)
+   * @param to            the latest appointment time (exclusive)
+   * @return a list of Appointment entities ordered by appointment time
+   */
+  @Query("SELECT a FROM Appointment a JOIN FETCH a.beautyService JOIN FETCH a.client "
+      + "WHERE a.hairdresser.id = :hairdresserId AND a.isCompleted = false "
+      + "AND a.appointmentTime >= :from AND a.appointmentTime < :to "
+      + "ORDER BY a.appointmentTime, a.id")
+  List<Appointment> findActiveByHairdresserBetween(@Param("hairdresserId") Long hairdresserId,
+      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /**
+   * Checks whether a {@link Hairdresser} has a non-completed {@link Appointment} whose interval
+   * {@code [appointmentTime, appointmentTime + service duration)} overlaps {@code [start, end)}.
+   * Only appointments starting in {@code [earliestStart, end)} are considered, which keeps the
+   * lookup on the {@code (hairdresser_id, appointment_time)} index instead of the whole history.
+   *
+   * @param hairdresserId the ID of the Hairdresser
+   * @param excludedId    the ID of the Appointment to ignore (the one being saved), may be null
+   * @param earliestStart the earliest start time an overlapping Appointment can have
+   * @param start         the start of the requested interval (inclusive)
+   * @param end           the end of the requested interval (exclusive)
+   * @return true if an overlapping Appointment exists, otherwise false
+   */
+  @Query("SELECT COUNT(a) > 0 FROM Appointment a JOIN a.beautyService s "
+      + "WHERE a.hairdresser.id = :hairdresserId AND a.isCompleted = false "
+      + "AND (:excludedId IS NULL OR a.id <> :excludedId) "
+      + "AND a.appointmentTime >= :earliestStart AND a.appointmentTime < :end "
+      + "AND (a.appointmentTime = :start "
+      + "OR timestampadd(MINUTE, s.duration, a.appointmentTime) > :start)")
+  boolean existsOverlappingHairdresserAppointment(@Param("hairdresserId") Long hairdresserId,
+      @Param("excludedId") Long excludedId, @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+  /**
+   * Checks whether a {@link Client} has a non-completed {@link Appointment} whose interval
+   * {@code [appointmentTime, appointmentTime + service duration)} overlaps {@code [start, end)}.
+   * Only appointments starting in {@code [earliestStart, end)} are considered, which keeps the
+   * lookup on the {@code (client_id, appointment_time)} index instead of the whole history.
+   *
+   * @param clientId      the ID of the Client
+   * @param excludedId    the ID of the Appointment to ignore (the one being saved), may be null
+   * @param earliestStart the earliest start time an overlapping Appointment can have
+   * @param start         the start of the requested interval (inclusive)
+   * @param end           the end of the requested interval (exclusive)
+   * @return true if an overlapping Appointment exists, otherwise false
+   */
+  @Query("SELECT COUNT(a) > 0 FROM Appointment a JOIN a.beautyService s "
+      + "WHERE a.client.id = :clientId AND a.isCompleted = false "
+      + "AND (:excludedId IS NULL OR a.id <> :excludedId) "
+      + "AND a.appointmentTime >= :earliestStart AND a.appointmentTime < :end "
+      + "AND (a.appointmentTime = :start "
+      + "OR timestampadd(MINUTE, s.duration, a.appointmentTime) > :start)")
+  boolean existsOverlappingClientAppointment(@Param("clientId") Long clientId,
+      @Param("excludedId") Long excludedId, @Param("earliestStart") LocalDateTime earliestStart,
+      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+  /**
+   * Retrieves the first {@link AppointmentSummaryDTO} rows in {@code (appointment_time, id)} order.
+   * The returned slice holds at most {@code pageable.getPageSize()} rows and knows whether more
+   * follow; no count query is issued.
+   *
+   * @param pageable the page size; the page number should be 0
+   * @return a slice of summaries ordered by appointment time and id
+   */
+  @Query(SUMMARY_SELECT + "ORDER BY a.appointmentTime, a.id")
+  Slice<AppointmentSummaryDTO> findSummaries(Pageable pageable);
+
+  /**
+   * Retrieves the {@link AppointmentSummaryDTO} rows following the given position in
+   * {@code (appointment_time, id)} order. The range condition is served by the
+   * {@code (appointment_time, id)} index, so deep pages cost the same as the first one.
+   *
+   * @param appointmentTime the appointment time of the last row of the previous page
+   * @param id              the id of the last row of the previous page
+   * @param pageable        the page size; the page number should be 0
+   * @return a slice of summaries ordered by appointment time and id
+   */
+  @Query(SUMMARY_SELECT + "WHERE a.appointmentTime > :appointmentTime "
+      + "OR (a.appointmentTime = :appointmentTime AND a.id > :id) "
+      + "ORDER BY a.appointmentTime, a.id")
+  Slice<AppointmentSummaryDTO> findSummariesAfter(
+      @Param("appointmentTime") LocalDateTime appointmentTime, @Param("id") Long id,
+      Pageable pageable);
+
+  /**
+   * Retrieves the {@link AppointmentSummaryDTO} rows preceding the given position, in descending
+   * {@code (appointment_time, id)} order. Callers reverse the rows to display them.
+   *
+   * @param appointmentTime the appointment time of the first row of the next page
+   * @param id              the id of the first row of the next page
+   * @param pageable        the page size; the page number should be 0
+   * @return a slice of summaries ordered by descending appointment time and id
+   */
+  @Query(SUMMARY_SELECT + "WHERE a.appointmentTime < :appointmentTime "
+      + "OR (a.appointmentTime = :appointmentTime AND a.id < :id) "
+      + "ORDER BY a.appointmentTime DESC, a.id DESC")
+  Slice<AppointmentSummaryDTO> findSummariesBefore(
+      @Param("appointmentTime") LocalDateTime appointmentTime, @Param("id") Long id,
+      Pageable pageable);
+}
@@ -3,8 +3,12 @@ package com.edoyou.k2sbeauty.repositories;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import java.util.Optional;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -43,6 +47,38 @@ public interface BeautyServiceRepository extends JpaRepository<BeautyService, Lo
   @Query("SELECT b FROM BeautyService b JOIN FETCH b.hairdressers h WHERE h.isApproved = true")
   List<BeautyService> findAllWithApprovedHairdressers();
 
+  /**
+   * Retrieves a {@link BeautyService} entity together with all its
+   * {@link com.edoyou.k2sbeauty.entities.model.Hairdresser} entities in a single query.
+   *
+   * @param id the ID of the service to be retrieved
+   * @return an {@link Optional} containing the BeautyService entity if found, otherwise
+   * {@link Optional#empty()}
+   */
+  @EntityGraph(BeautyService.WITH_HAIRDRESSERS)
+  Optional<BeautyService> findWithHairdressersById(Long id);
+
+  /**
+   * Retrieves the {@link BeautyService} entities that follow the given id, in id order.
+   *
+   * @param id       the id of the last service of the previous page, 0 for the first page
+   * @param pageable the page size; the page number should be 0
+   * @return a slice of BeautyService entities
+   */
+  @Query("SELECT b FROM BeautyService b WHERE b.id > :id ORDER BY b.id")
+  Slice<BeautyService> findPageAfter(@Param("id") Long id, Pageable pageable);
+
+  /**
+   * Retrieves the {@link BeautyService} entities that precede the given id, in descending id
+   * order.
+   *
+   * @param id       the id of the first service of the next page
+   * @param pageable the page size; the page number should be 0
+   * @return a slice of BeautyService entities
+   */
+  @Query("SELECT b FROM BeautyService b WHERE b.id < :id ORDER BY b.id DESC")
+  Slice<BeautyService> findPageBefore(@Param("id") Long id, Pageable pageable);
+
   /**
    * Retrieves all {@link BeautyService} entities.
    *
@@ -1,7 +1,12 @@
 package com.edoyou.k2sbeauty.repositories;
 
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
 import com.edoyou.k2sbeauty.entities.model.Feedback;
+import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -14,4 +19,27 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
 
+  /**
+   * Computes the rating sum and count of all feedback left for the appointments of a hairdresser.
+   *
+   * @param hairdresserId the ID of the hairdresser
+   * @return an {@link Optional} containing the rating aggregate, or {@link Optional#empty()} if the
+   * hairdresser has no feedback
+   */
+  @Query("SELECT new com.edoyou.k2sbeauty.dto.RatingAggregateDTO(f.appointment.hairdresser.id, "
+      + "SUM(f.rating), COUNT(f)) "
+      + "FROM Feedback f WHERE f.appointment.hairdresser.id = :hairdresserId "
+      + "GROUP BY f.appointment.hairdresser.id")
+  Optional<RatingAggregateDTO> aggregateRatingByHairdresser(
+      @Param("hairdresserId") Long hairdresserId);
+
+  /**
+   * Computes the rating sum and count of every hairdresser that has received feedback.
+   *
+   * @return one rating aggregate per rated hairdresser
+   */
+  @Query("SELECT new com.edoyou.k2sbeauty.dto.RatingAggregateDTO(f.appointment.hairdresser.id, "
+      + "SUM(f.rating), COUNT(f)) "
+      + "FROM Feedback f GROUP BY f.appointment.hairdresser.id")
+  List<RatingAggregateDTO> aggregateRatingsByHairdresser();
 }
\ No newline at end of file
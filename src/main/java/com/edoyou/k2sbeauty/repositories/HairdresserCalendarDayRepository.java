@@ -0,0 +1,32 @@
+package com.edoyou.k2sbeauty.repositories;
+
+import com.edoyou.k2sbeauty.entities.model.HairdresserCalendarDay;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The {@code HairdresserCalendarDayRepository} interface extends {@link JpaRepository} and provides
+ * methods for querying the {@link HairdresserCalendarDay} entity.
+ *
+ * @see HairdresserCalendarDay
+ */
+@Repository
+public interface HairdresserCalendarDayRepository extends
+    JpaRepository<HairdresserCalendarDay, Long> {
+
+  /**
+   * Retrieves the calendar row of a hairdresser's day and schedules the increment of its version
+   * for the commit of the current transaction, which fails if another transaction incremented it
+   * in the meantime.
+   *
+   * @param hairdresserId the ID of the hairdresser
+   * @param day           the day
+   * @return an Optional containing the calendar row, or empty if the day has no row yet
+   */
+  @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+  Optional<HairdresserCalendarDay> findByHairdresserIdAndDay(Long hairdresserId, LocalDate day);
+}
@@ -1,11 +1,14 @@
 package com.edoyou.k2sbeauty.repositories;
 
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import java.util.Collection;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -40,24 +43,67 @@ public interface HairdresserRepository extends JpaRepository<Hairdresser, Long>
   List<Hairdresser> findAllWithBeautyServices();
 
   /**
-   * Retrieves a page of {@link Hairdresser} entities with their associated {@code BeautyServices}.
+   * Retrieves the ids of the {@link Hairdresser} entities that provide at least one beauty service
+   * and follow the given id, in id order. Paging ids instead of fetched collections keeps the limit
+   * in the database.
    *
-   * @param pageable the pagination and sorting information
-   * @return a page of Hairdresser entities
+   * @param id       the id of the last hairdresser of the previous page, 0 for the first page
+   * @param pageable the page size; the page number should be 0
+   * @return a slice of hairdresser ids
    */
-  @Query(value = "SELECT h FROM Hairdresser h JOIN FETCH h.beautyServices",
-      countQuery = "SELECT count(h) FROM Hairdresser h")
-  Page<Hairdresser> findAllWithBeautyServices(Pageable pageable);
+  @Query("SELECT h.id FROM Hairdresser h WHERE h.beautyServices IS NOT EMPTY AND h.id > :id "
+      + "ORDER BY h.id")
+  Slice<Long> findIdsWithBeautyServicesAfter(@Param("id") Long id, Pageable pageable);
 
   /**
-   * Retrieves a page of {@link Hairdresser} entities based on their approval status.
+   * Retrieves the ids of the {@link Hairdresser} entities that provide at least one beauty service
+   * and precede the given id, in descending id order.
+   *
+   * @param id       the id of the first hairdresser of the next page
+   * @param pageable the page size; the page number should be 0
+   * @return a slice of hairdresser ids
+   */
+  @Query("SELECT h.id FROM Hairdresser h WHERE h.beautyServices IS NOT EMPTY AND h.id < :id "
+      + "ORDER BY h.id DESC")
+  Slice<Long> findIdsWithBeautyServicesBefore(@Param("id") Long id, Pageable pageable);
+
+  /**
+   * Retrieves the {@link Hairdresser} entities with the given ids together with their
+   * {@code BeautyServices}, in id order.
+   *
+   * @param ids the ids of the hairdressers
+   * @return a list of Hairdresser entities
+   */
+  @Query("SELECT h FROM Hairdresser h JOIN FETCH h.beautyServices WHERE h.id IN :ids ORDER BY h.id")
+  List<Hairdresser> findAllWithBeautyServicesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Retrieves the {@link Hairdresser} entities with the given approval status that follow the given
+   * id, in id order.
+   *
+   * @param isApproved the approval status of the hairdressers to be retrieved
+   * @param id         the id of the last hairdresser of the previous page, 0 for the first page
+   * @param pageable   the page size; the page number should be 0
+   * @return a slice of Hairdresser entities
+   */
+  @Query("SELECT h FROM Hairdresser h WHERE h.isApproved = :isApproved AND h.id > :id "
+      + "ORDER BY h.id")
+  Slice<Hairdresser> findByIsApprovedAfter(@Param("isApproved") boolean isApproved,
+      @Param("id") Long id, Pageable pageable);
+
+  /**
+   * Retrieves the {@link Hairdresser} entities with the given approval status that precede the
+   * given id, in descending id order.
    *
    * @param isApproved the approval status of the hairdressers to be retrieved
-   * @param pageable   the pagination and sorting information
-   * @return a page of Hairdresser entities
+   * @param id         the id of the first hairdresser of the next page
+   * @param pageable   the page size; the page number should be 0
+   * @return a slice of Hairdresser entities
    */
-  @Query("SELECT h FROM Hairdresser h WHERE h.isApproved = :isApproved")
-  Page<Hairdresser> findByIsApproved(@Param("isApproved") boolean isApproved, Pageable pageable);
+  @Query("SELECT h FROM Hairdresser h WHERE h.isApproved = :isApproved AND h.id < :id "
+      + "ORDER BY h.id DESC")
+  Slice<Hairdresser> findByIsApprovedBefore(@Param("isApproved") boolean isApproved,
+      @Param("id") Long id, Pageable pageable);
 
   /**
    * Retrieves a list of {@link Hairdresser} entities that are approved.
@@ -85,4 +131,64 @@ public interface HairdresserRepository extends JpaRepository<Hairdresser, Long>
    */
   @Query("SELECT h FROM Hairdresser h JOIN FETCH h.appointments WHERE h.id = :id")
   Optional<Hairdresser> findByIdWithAppointments(@Param("id") Long id);
-}
\ No newline at end of file
+
+  /**
+   * Retrieves a {@link Hairdresser} entity together with their working hours in a single query.
+   *
+   * @param id the ID of the hairdresser to be retrieved
+   * @return an {@link Optional} containing the Hairdresser entity if found, otherwise
+   * {@link Optional#empty()}
+   */
+  @EntityGraph(Hairdresser.WITH_WORKING_HOURS)
+  Optional<Hairdresser> findWithWorkingHoursById(Long id);
+
+  /**
+   * Retrieves a {@link Hairdresser} entity together with their beauty services in a single query.
+   *
+   * @param id the ID of the hairdresser to be retrieved
+   * @return an {@link Optional} containing the Hairdresser entity if found, otherwise
+   * {@link Optional#empty()}
+   */
+  @EntityGraph(Hairdresser.WITH_BEAUTY_SERVICES)
+  Optional<Hairdresser> findWithBeautyServicesById(Long id);
+
+  /**
+   * Adds a single rating to the running aggregate of a {@link Hairdresser} and refreshes the
+   * average in the same statement, so concurrent feedback cannot lose updates.
+   *
+   * @param id     the ID of the hairdresser
+   * @param rating the rating to add
+   * @return the number of updated rows
+   */
+  @Modifying
+  @Query(value = "UPDATE hairdressers SET rating = (rating_sum + :rating) / (rating_count + 1), "
+      + "rating_sum = rating_sum + :rating, rating_count = rating_count + 1 WHERE id = :id",
+      nativeQuery = true)
+  int addRating(@Param("id") Long id, @Param("rating") int rating);
+
+  /**
+   * Overwrites the rating aggregate of a {@link Hairdresser}. The average is only refreshed when
+   * at least one rating exists.
+   *
+   * @param id          the ID of the hairdresser
+   * @param ratingSum   the sum of all ratings
+   * @param ratingCount the number of ratings
+   * @return the number of updated rows
+   */
+  @Modifying
+  @Query(value = "UPDATE hairdressers SET "
+      + "rating = CASE WHEN :ratingCount > 0 THEN :ratingSum / :ratingCount ELSE rating END, "
+      + "rating_sum = :ratingSum, rating_count = :ratingCount WHERE id = :id",
+      nativeQuery = true)
+  int updateRatingAggregate(@Param("id") Long id, @Param("ratingSum") long ratingSum,
+      @Param("ratingCount") long ratingCount);
+
+  /**
+   * Resets the rating aggregate of every {@link Hairdresser}, keeping the stored averages.
+   *
+   * @return the number of updated rows
+   */
+  @Modifying
+  @Query(value = "UPDATE hairdressers SET rating_sum = 0, rating_count = 0", nativeQuery = true)
+  int resetRatingAggregates();
+}
@@ -0,0 +1,70 @@
+package com.edoyou.k2sbeauty.repositories;
+
+import com.edoyou.k2sbeauty.entities.model.ScheduledNotification;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The {@code ScheduledNotificationRepository} interface extends {@link JpaRepository} and provides
+ * methods for querying the {@link ScheduledNotification} entity.
+ *
+ * @see ScheduledNotification
+ */
+@Repository
+public interface ScheduledNotificationRepository extends
+    JpaRepository<ScheduledNotification, Long> {
+
+  /**
+   * Retrieves undelivered {@link ScheduledNotification} entities that are due at the given time,
+   * are not claimed and have attempts left, oldest first. The size of the batch is limited by the
+   * given {@link Pageable}.
+   *
+   * @param now         the current time
+   * @param maxAttempts the number of delivery attempts after which a notification is given up
+   * @param pageable    the batch size
+   * @return a list of due ScheduledNotification entities
+   */
+  @Query("SELECT n FROM ScheduledNotification n WHERE n.deliveredAt IS NULL AND n.dueAt <= :now "
+      + "AND (n.claimedUntil IS NULL OR n.claimedUntil <= :now) AND n.attempts < :maxAttempts "
+      + "ORDER BY n.dueAt, n.id")
+  List<ScheduledNotification> findDue(@Param("now") LocalDateTime now,
+      @Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+  /**
+   * Claims an undelivered {@link ScheduledNotification} for one delivery attempt, unless another
+   * poller holds an unexpired claim on it. The update locks the row, so of two pollers claiming it
+   * concurrently only the first one succeeds.
+   *
+   * @param id           the ID of the notification
+   * @param now          the current time
+   * @param claimedUntil the time at which the claim expires
+   * @return 1 if the notification was claimed, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE ScheduledNotification n SET n.claimedUntil = :claimedUntil, "
+      + "n.attempts = n.attempts + 1 WHERE n.id = :id AND n.deliveredAt IS NULL "
+      + "AND (n.claimedUntil IS NULL OR n.claimedUntil <= :now)")
+  int claim(@Param("id") Long id, @Param("now") LocalDateTime now,
+      @Param("claimedUntil") LocalDateTime claimedUntil);
+
+  /**
+   * Marks a {@link ScheduledNotification} as delivered and releases its claim.
+   *
+   * @param id          the ID of the notification
+   * @param deliveredAt the time of delivery
+   * @return the number of updated rows
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE ScheduledNotification n SET n.deliveredAt = :deliveredAt, n.claimedUntil = NULL "
+      + "WHERE n.id = :id")
+  int markDelivered(@Param("id") Long id, @Param("deliveredAt") LocalDateTime deliveredAt);
+}
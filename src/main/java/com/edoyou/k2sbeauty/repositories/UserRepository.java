@@ -1,9 +1,15 @@
 package com.edoyou.k2sbeauty.repositories;
 
+import com.edoyou.k2sbeauty.dto.UserCredentialsDTO;
 import com.edoyou.k2sbeauty.entities.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,4 +26,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
    * @return an {@link Optional} containing the user if found, otherwise {@link Optional#empty()}
    */
   Optional<User> findByEmail(String email);
+
+  /**
+   * Retrieves the credentials, the type and the roles of the {@link User} with the given email, one
+   * row per role. Unlike {@link #findByEmail(String)}, no entity and none of its eager associations
+   * are loaded.
+   *
+   * @param email the email of the user
+   * @return the rows of the user, or an empty list if no user has the email
+   */
+  @Query("SELECT new com.edoyou.k2sbeauty.dto.UserCredentialsDTO(u.id, u.email, u.password, "
+      + "CASE WHEN TYPE(u) = Client THEN 'CLIENT' WHEN TYPE(u) = Hairdresser THEN 'HAIRDRESSER' "
+      + "ELSE 'USER' END, r.name) FROM User u LEFT JOIN u.roles r WHERE u.email = :email")
+  List<UserCredentialsDTO> findCredentialsByEmail(@Param("email") String email);
+
+  /**
+   * Replaces the password hash of a {@link User}, unless it changed since it was read.
+   *
+   * @param id      the id of the user
+   * @param oldHash the password hash that was read
+   * @param newHash the new password hash
+   * @return 1 if the hash was replaced, 0 if the user does not exist or the hash changed meanwhile
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE User u SET u.password = :newHash WHERE u.id = :id AND u.password = :oldHash")
+  int replacePassword(@Param("id") Long id, @Param("oldHash") String oldHash,
+      @Param("newHash") String newHash);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.edoyou.k2sbeauty.security;
+
+import java.io.Serial;
+import java.util.List;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * The principal of an authenticated user. Besides the e-mail and the authorities, it carries the
+ * user id and type, so the facades can act on the current user without loading it again.
+ */
+public class AuthenticatedUser extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final UserSnapshot.Type type;
+
+    /**
+     * Creates the principal of a user.
+     *
+     * @param snapshot the snapshot of the user
+     */
+    public AuthenticatedUser(UserSnapshot snapshot) {
+        super(snapshot.email(), snapshot.passwordHash(),
+                snapshot.roles().stream().map(SimpleGrantedAuthority::new).toList());
+        this.id = snapshot.id();
+        this.type = snapshot.type();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UserSnapshot.Type getType() {
+        return type;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.edoyou.k2sbeauty.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Authenticates the metrics scraper with the single credential configured by
+ * {@code k2s.metrics.scrape.username} and {@code k2s.metrics.scrape.password}, and grants it
+ * {@value #ROLE}. The credential is compared in constant time instead of being hashed, since
+ * Prometheus sends it with every scrape. Without a password, every attempt is rejected.
+ */
+public class MetricsScrapeAuthenticationProvider implements AuthenticationProvider {
+
+    /**
+     * Role granted to the scraper.
+     */
+    public static final String ROLE = "ROLE_METRICS";
+
+    private final String username;
+    private final byte[] password;
+
+    public MetricsScrapeAuthenticationProvider(String username, String password) {
+        this.username = username;
+        this.password = password == null ? new byte[0] : password.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (password.length == 0 || credentials == null || !username.equals(authentication.getName())
+                || !MessageDigest.isEqual(password, credentials.toString().getBytes(StandardCharsets.UTF_8))) {
+            throw new BadCredentialsException("Bad metrics scrape credentials");
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(username, null,
+                List.of(new SimpleGrantedAuthority(ROLE)));
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
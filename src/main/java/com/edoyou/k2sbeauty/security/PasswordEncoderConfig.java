@@ -1,15 +1,35 @@
 package com.edoyou.k2sbeauty.security;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 
+/**
+ * Configuration class of the password encoder.
+ *
+ * <p>New hashes are BCrypt hashes of cost {@code k2s.password.bcrypt-cost}, prefixed with
+ * {@code {bcrypt}} by a {@link DelegatingPasswordEncoder}, so the algorithm can be changed later.
+ * Hashes stored without a prefix are matched as BCrypt hashes. Hashes of a lower cost or without a
+ * prefix report that they need an upgrade, and are rehashed after the next login by the
+ * {@link PasswordRehasher}. Hashing runs on the bounded pool of a {@link BoundedPasswordEncoder}.
+ */
 @Configuration
 public class PasswordEncoderConfig {
 
-  @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  private static final String BCRYPT = "bcrypt";
+
+  @Bean(destroyMethod = "shutdown")
+  public BoundedPasswordEncoder passwordEncoder(
+      @Value("${k2s.password.bcrypt-cost:10}") int cost,
+      @Value("${k2s.password.hashing-threads:2}") int threads,
+      @Value("${k2s.password.hashing-queue-capacity:200}") int queueCapacity) {
+    DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT,
+        Map.of(BCRYPT, new BCryptPasswordEncoder(cost)));
+    delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(cost));
+    return new BoundedPasswordEncoder(delegating, threads, queueCapacity);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package com.edoyou.k2sbeauty.security;
+
+import com.edoyou.k2sbeauty.config.ExecutionThreads;
+import com.edoyou.k2sbeauty.repositories.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code PasswordRehasher} replaces a password hash of an outdated cost or format after the user
+ * signed in with the password, in the background, so the login does not pay for a second hash.
+ *
+ * <p>The new hash is computed on the pool of the {@link BoundedPasswordEncoder}. If the pool is
+ * busy, the rehash is skipped and tried again at the next login. The hash is only replaced if it
+ * did not change meanwhile, and the user's cached principal is then dropped with a
+ * {@link PrincipalChangedEvent}. The replacement is written on a thread of its own, so the
+ * hashing threads, which cap the concurrent BCrypt work, never wait for the database.
+ */
+@Component
+public class PasswordRehasher {
+
+    private static final Logger LOGGER = LogManager.getLogger(PasswordRehasher.class.getName());
+
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutionThreads executionThreads;
+
+    private ExecutorService writer;
+
+    @Autowired
+    public PasswordRehasher(BoundedPasswordEncoder passwordEncoder, UserRepository userRepository,
+                            ApplicationEventPublisher eventPublisher, ExecutionThreads executionThreads) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.executionThreads = executionThreads;
+    }
+
+    /**
+     * Starts the thread writing the new hashes.
+     */
+    @PostConstruct
+    public void start() {
+        writer = executionThreads.newPool("password-rehash-", 1);
+    }
+
+    /**
+     * Stops the thread writing the new hashes.
+     */
+    @PreDestroy
+    public void stop() {
+        writer.shutdown();
+    }
+
+    /**
+     * Rehashes the password of a user in the background if its hash needs an upgrade.
+     *
+     * @param user        the user who signed in, with the stored password hash
+     * @param rawPassword the password the user signed in with
+     */
+    public void rehashIfNeeded(AuthenticatedUser user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(oldHash)) {
+            return;
+        }
+        passwordEncoder.encodeInBackground(rawPassword)
+                .thenAcceptAsync(newHash -> {
+                    if (userRepository.replacePassword(user.getId(), oldHash, newHash) == 1) {
+                        eventPublisher.publishEvent(new PrincipalChangedEvent(user.getUsername(),
+                                "password rehashed"));
+                    }
+                }, writer)
+                .exceptionally(e -> {
+                    LOGGER.warn("Could not rehash the password of {}: {}", user.getUsername(), e.toString());
+                    return null;
+                });
+    }
+}
@@ -0,0 +1,153 @@
+package com.edoyou.k2sbeauty.security;
+
+import com.edoyou.k2sbeauty.dto.UserCredentialsDTO;
+import com.edoyou.k2sbeauty.repositories.UserRepository;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * {@code PrincipalCache} is a read-through cache of {@link UserSnapshot}s by e-mail, used for
+ * logins and for resolving the current user in the facades.
+ *
+ * <p>A snapshot is loaded with a single projection query instead of the {@code User} entity, whose
+ * JOINED inheritance and eager associations make it expensive to load. Snapshots expire after
+ * {@code k2s.security.principal-cache.ttl-ms}, and at most
+ * {@code k2s.security.principal-cache.max-entries} are kept, evicting the least recently used. A
+ * {@link PrincipalChangedEvent} drops the user's snapshot once the publishing transaction commits.
+ *
+ * <p>A generation counter guards against stale entries: a snapshot is only cached if no user changed
+ * while it was being loaded. The map is guarded by a {@link ReentrantLock}, which is never held
+ * while querying the database.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(PrincipalCache.class.getName());
+
+    private final UserRepository userRepository;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+    private final Map<String, Entry> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${k2s.security.principal-cache.ttl-ms:300000}") long ttlMs,
+                          @Value("${k2s.security.principal-cache.max-entries:10000}") int maxEntries) {
+        this(userRepository, ttlMs, maxEntries, System::nanoTime);
+    }
+
+    PrincipalCache(UserRepository userRepository, long ttlMs, int maxEntries, LongSupplier ticker) {
+        this.userRepository = userRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the snapshot of the user with the given e-mail, loading it if it is not cached or has
+     * expired.
+     *
+     * @param email the e-mail of the user
+     * @return the snapshot, or {@link Optional#empty()} if no user has the e-mail
+     */
+    public Optional<UserSnapshot> find(String email) {
+        long now = ticker.getAsLong();
+        lock.lock();
+        try {
+            Entry entry = entries.get(email);
+            if (entry != null) {
+                if (now - entry.expiresAt() < 0) {
+                    return Optional.of(entry.snapshot());
+                }
+                entries.remove(email);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        LOGGER.debug("Loading the principal of {}", email);
+        long loadedGeneration = generation.get();
+        List<UserCredentialsDTO> rows = userRepository.findCredentialsByEmail(email);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        UserSnapshot snapshot = UserSnapshot.of(rows);
+        lock.lock();
+        try {
+            if (generation.get() == loadedGeneration) {
+                entries.put(email, new Entry(snapshot, now + ttlNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Returns the authenticated user, taken from the principal if it was authenticated by
+     * {@link CustomUserDetailsService}, otherwise looked up by name. The principal reflects the user
+     * as of the login.
+     *
+     * @param authentication the authentication of the current request
+     * @return the authenticated user, or {@link Optional#empty()} if no user has the name
+     */
+    public Optional<AuthenticatedUser> resolve(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user);
+        }
+        return find(authentication.getName()).map(AuthenticatedUser::new);
+    }
+
+    /**
+     * Drops the snapshot of a user, including the ones cached under the e-mail in a different case.
+     *
+     * @param email the e-mail of the user
+     */
+    public void invalidate(String email) {
+        generation.incrementAndGet();
+        lock.lock();
+        try {
+            entries.keySet().removeIf(key -> key.equalsIgnoreCase(email));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the snapshot of a user once the transaction that changed the user commits, or
+     * immediately if the event was published outside a transaction.
+     *
+     * @param event The user change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        LOGGER.info("Principal of {} changed: {}", event.email(), event.reason());
+        invalidate(event.email());
+    }
+
+    private record Entry(UserSnapshot snapshot, long expiresAt) {
+
+    }
+}
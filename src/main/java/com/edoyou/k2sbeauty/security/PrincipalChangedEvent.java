@@ -0,0 +1,13 @@
+package com.edoyou.k2sbeauty.security;
+
+/**
+ * Application event published whenever the credentials or the roles of a user change, or the user
+ * is deleted. {@link PrincipalCache} drops the user's snapshot when it receives the event after the
+ * publishing transaction commits.
+ *
+ * @param email  the e-mail of the user
+ * @param reason a short description of the change, used for logging
+ */
+public record PrincipalChangedEvent(String email, String reason) {
+
+}
@@ -0,0 +1,34 @@
+package com.edoyou.k2sbeauty.security;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * A {@link DaoAuthenticationProvider} that hands outdated password hashes to the
+ * {@link PasswordRehasher} after a successful login. Unlike the provider's own upgrade through a
+ * {@code UserDetailsPasswordService}, the new hash is not computed in the login request.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordRehasher passwordRehasher;
+
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService,
+                                           PasswordEncoder passwordEncoder,
+                                           PasswordRehasher passwordRehasher) {
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        this.passwordRehasher = passwordRehasher;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (user instanceof AuthenticatedUser authenticatedUser && authentication.getCredentials() != null) {
+            passwordRehasher.rehashIfNeeded(authenticatedUser, authentication.getCredentials().toString());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -1,17 +1,26 @@
 package com.edoyou.k2sbeauty.security;
 
-import java.util.logging.Logger;
-
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.LogoutConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.csrf.XorCsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -25,6 +34,8 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  *     <li>Setting up request authorizations</li>
  *     <li>Configuring form login</li>
  *     <li>Configuring logout behavior</li>
+ *     <li>Restricting the metrics scrape endpoint to admins and the scrape credential</li>
+ *     <li>Optionally keeping the session state in cookies instead of {@code HttpSession}s</li>
  * </ul>
  * <p>
  * The class works as follows:
@@ -37,6 +48,8 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  *     <li>Sets up path-based access restrictions (which roles can access which paths).</li>
  *     <li>Sets up the form login page and processing URL, as well as the success and failure handlers.</li>
  *     <li>Sets up logout behavior to permit all.</li>
+ *     <li>With {@code k2s.security.stateless=true}, keeps the security context, the CSRF token and the
+ *     locale in cookies and never creates an {@code HttpSession}.</li>
  *    </ul>
  * </ol>
  *
@@ -48,32 +61,70 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableWebSecurity
 public class SecurityConfig implements WebMvcConfigurer {
 
-    private static final Logger LOGGER = Logger.getLogger(SecurityConfig.class.getName());
+    private static final Logger LOGGER = LogManager.getLogger(SecurityConfig.class.getName());
     private final CustomUserDetailsService customUserDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordRehasher passwordRehasher;
+    private final SignedCookieSecurityContextRepository signedCookieSecurityContextRepository;
 
     @Autowired
     public SecurityConfig(CustomUserDetailsService customUserDetailsService,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordEncoder passwordEncoder, PasswordRehasher passwordRehasher,
+                          ObjectProvider<SignedCookieSecurityContextRepository> signedCookieSecurityContextRepository) {
         this.customUserDetailsService = customUserDetailsService;
         this.passwordEncoder = passwordEncoder;
+        this.passwordRehasher = passwordRehasher;
+        this.signedCookieSecurityContextRepository = signedCookieSecurityContextRepository.getIfAvailable();
     }
 
     /**
      * Configure global security settings.
      * <p>
-     * This method sets the userDetailsService and the passwordEncoder for the authentication manager.
+     * This method sets an authentication provider with the userDetailsService and the passwordEncoder
+     * for the authentication manager, which rehashes outdated password hashes after login.
      *
      * @param auth AuthenticationManagerBuilder
-     * @throws Exception if an error occurs when adding the UserDetailsService
      */
     @Autowired
-    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(customUserDetailsService)
-                .passwordEncoder(passwordEncoder);
+    public void configureGlobal(AuthenticationManagerBuilder auth) {
+        auth.authenticationProvider(new RehashingAuthenticationProvider(customUserDetailsService,
+                passwordEncoder, passwordRehasher));
     }
 
 
+    /**
+     * Configure the security filter chain of the Prometheus scrape endpoint.
+     * <p>
+     * The endpoint exposes class and method names, request URIs and internal counters, so it is only
+     * served to signed-in admins and to the scraper, which sends the credential configured by
+     * {@code k2s.metrics.scrape.username} and {@code k2s.metrics.scrape.password} with HTTP Basic
+     * authentication. This chain is checked before {@link #securityFilterChain(HttpSecurity)}.
+     *
+     * @param http           HttpSecurity
+     * @param scrapeUsername the user name of the scraper
+     * @param scrapePassword the password of the scraper; if empty, only admins are served
+     * @return SecurityFilterChain
+     * @throws Exception if an error occurs when configuring the filter chain
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsSecurityFilterChain(HttpSecurity http,
+                                                          @Value("${k2s.metrics.scrape.username:prometheus}") String scrapeUsername,
+                                                          @Value("${k2s.metrics.scrape.password:}") String scrapePassword)
+            throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .authorizeHttpRequests(requests -> requests
+                        .anyRequest().hasAnyAuthority("ROLE_ADMIN", MetricsScrapeAuthenticationProvider.ROLE))
+                .authenticationManager(new ProviderManager(
+                        new MetricsScrapeAuthenticationProvider(scrapeUsername, scrapePassword)))
+                .httpBasic(Customizer.withDefaults());
+        if (signedCookieSecurityContextRepository != null) {
+            http.securityContext(context -> context.securityContextRepository(signedCookieSecurityContextRepository));
+        }
+        return http.build();
+    }
+
     /**
      * Configure the security filter chain.
      * <p>
@@ -89,6 +140,8 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .authorizeHttpRequests(requests -> requests
                         .requestMatchers("/", "/home", "/changeLanguage", "/register", "/guest", "/guest/**",
                                 "/hairdresser/register_hairdresser", "/client/feedback").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/client/**").hasRole("CLIENT")
                         .requestMatchers(HttpMethod.POST, "/client/book").hasRole("CLIENT")
                         .requestMatchers("/admin/**").hasRole("ADMIN")
@@ -104,7 +157,7 @@ public class SecurityConfig implements WebMvcConfigurer {
                                 true)
                         .failureUrl("/login?error=true")
                         .successHandler((request, response, authentication) -> {
-                            LOGGER.info("User '{" + authentication.getName() + "}' logged in successfully");
+                            LOGGER.info("User '{}' logged in successfully", authentication.getName());
                             String redirectUrl = request.getParameter("redirectUrl");
 
                             if (redirectUrl != null && !redirectUrl.isEmpty()) {
@@ -124,17 +177,44 @@ public class SecurityConfig implements WebMvcConfigurer {
                                 defaultRedirectURL = "/client/appointments";
                             }
 
-                            LOGGER.info("URL in success: " + defaultRedirectURL);
+                            LOGGER.debug("URL in success: {}", defaultRedirectURL);
                             response.sendRedirect(defaultRedirectURL);
                         })
                         .failureHandler((request, response, exception) -> {
-                            LOGGER.warning("Login failure: {" + exception.getMessage() + "}");
+                            LOGGER.warn("Login failure: {}", exception.getMessage());
                             response.sendRedirect("/login");
                         })
                 )
 
                 .logout(LogoutConfigurer::permitAll);
 
+        if (signedCookieSecurityContextRepository != null) {
+            configureStatelessSessions(http);
+        }
+
         return http.build();
     }
+
+    /**
+     * Keeps the session state in cookies: the security context in the signed cookie of the
+     * {@link SignedCookieSecurityContextRepository} and the CSRF token in a cookie of its own. The
+     * success handler never redirects to a saved request, so no request is cached.
+     *
+     * @param http HttpSecurity
+     * @throws Exception if an error occurs when configuring the filter chain
+     */
+    private void configureStatelessSessions(HttpSecurity http) throws Exception {
+        LOGGER.info("Keeping sessions in signed cookies instead of HttpSessions");
+        XorCsrfTokenRequestAttributeHandler csrfTokenRequestHandler = new XorCsrfTokenRequestAttributeHandler();
+        // Load the token on every request, so a new token cookie is added before the view commits the response
+        csrfTokenRequestHandler.setCsrfRequestAttributeName(null);
+        http
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(signedCookieSecurityContextRepository))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                .csrf(csrf -> csrf
+                        .csrfTokenRepository(new CookieCsrfTokenRepository())
+                        .csrfTokenRequestHandler(csrfTokenRequestHandler))
+                .logout(logout -> logout.deleteCookies(SignedCookieSecurityContextRepository.COOKIE_NAME));
+    }
 }
\ No newline at end of file
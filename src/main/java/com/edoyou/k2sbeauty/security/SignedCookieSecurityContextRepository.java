@@ -0,0 +1,178 @@
+package com.edoyou.k2sbeauty.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.DeferredSecurityContext;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Keeps the security context in a signed cookie instead of the {@code HttpSession}, so a request
+ * can be served by any instance without sticky sessions or session replication.
+ *
+ * <p>The cookie {@value #COOKIE_NAME} carries a {@link SignedTokenCodec} token with the user id,
+ * type, e-mail and roles. It is issued at login, verified when a request first needs the user, and
+ * removed at logout. A verified token is only accepted while the user's snapshot in the
+ * {@link PrincipalCache} still has its id and roles, so a deleted user or a role change revokes the
+ * token: at once on the instance that published the {@link PrincipalChangedEvent}, and on the other
+ * instances once their cached snapshot expires, after {@code k2s.security.principal-cache.ttl-ms}
+ * at most. The price is one snapshot query per user and instance per cache TTL instead of none.
+ * Only active with {@code k2s.security.stateless=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "k2s.security.stateless", havingValue = "true")
+public class SignedCookieSecurityContextRepository implements SecurityContextRepository {
+
+    /**
+     * Name of the cookie carrying the token.
+     */
+    public static final String COOKIE_NAME = "K2S_TOKEN";
+
+    private static final Logger LOGGER = LogManager.getLogger(SignedCookieSecurityContextRepository.class.getName());
+
+    private final SignedTokenCodec signedTokenCodec;
+    private final PrincipalCache principalCache;
+
+    @Autowired
+    public SignedCookieSecurityContextRepository(@Value("${k2s.security.token.secret:}") String secret,
+                                                 @Value("${k2s.security.token.ttl-ms:28800000}") long ttlMs,
+                                                 PrincipalCache principalCache) {
+        this(new SignedTokenCodec(secret, ttlMs), principalCache);
+    }
+
+    SignedCookieSecurityContextRepository(SignedTokenCodec signedTokenCodec, PrincipalCache principalCache) {
+        this.signedTokenCodec = signedTokenCodec;
+        this.principalCache = principalCache;
+    }
+
+    /**
+     * Restores the security context from the token cookie of the request once it is first needed, so
+     * requests that never need the user skip the verification.
+     *
+     * @param request the request
+     * @return the context of the signed-in user, or a generated empty context
+     */
+    @Override
+    public DeferredSecurityContext loadDeferredContext(HttpServletRequest request) {
+        return new DeferredTokenContext(request);
+    }
+
+    /**
+     * Restores the security context right away; only kept for callers of the deprecated API.
+     *
+     * @deprecated Use {@link #loadDeferredContext(HttpServletRequest)} instead.
+     */
+    @Deprecated
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        return loadDeferredContext(requestResponseHolder.getRequest()).get();
+    }
+
+    /**
+     * Issues the token cookie for a signed-in user, or removes it when the context holds no user.
+     */
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        Authentication authentication = context.getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            addCookie(request, response, signedTokenCodec.encode(user),
+                    Duration.ofMillis(signedTokenCodec.getTtlMs()));
+        } else if (containsContext(request)) {
+            addCookie(request, response, "", Duration.ZERO);
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return WebUtils.getCookie(request, COOKIE_NAME) != null;
+    }
+
+    private Optional<AuthenticatedUser> readUser(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+        if (cookie == null) {
+            return Optional.empty();
+        }
+        return signedTokenCodec.decode(cookie.getValue()).filter(this::isCurrent);
+    }
+
+    private boolean isCurrent(AuthenticatedUser user) {
+        Set<String> roles = AuthorityUtils.authorityListToSet(user.getAuthorities());
+        boolean current = principalCache.find(user.getUsername())
+                .filter(snapshot -> snapshot.id().equals(user.getId()) && snapshot.roles().equals(roles))
+                .isPresent();
+        if (!current) {
+            LOGGER.debug("Rejected a token issued before the user changed");
+        }
+        return current;
+    }
+
+    private static void addCookie(HttpServletRequest request, HttpServletResponse response, String value,
+                                  Duration maxAge) {
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, value)
+                .path("/")
+                .maxAge(maxAge)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /**
+     * The security context of a request, restored from the token cookie on the first access.
+     */
+    private final class DeferredTokenContext implements DeferredSecurityContext {
+
+        private final HttpServletRequest request;
+        private SecurityContext context;
+        private boolean generated;
+
+        DeferredTokenContext(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public SecurityContext get() {
+            restore();
+            return context;
+        }
+
+        @Override
+        public boolean isGenerated() {
+            restore();
+            return generated;
+        }
+
+        private void restore() {
+            if (context != null) {
+                return;
+            }
+            context = SecurityContextHolder.createEmptyContext();
+            Optional<AuthenticatedUser> user = readUser(request);
+            user.ifPresent(authenticated -> context.setAuthentication(UsernamePasswordAuthenticationToken
+                    .authenticated(authenticated, null, authenticated.getAuthorities())));
+            generated = user.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.edoyou.k2sbeauty.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * Encodes the principal of a signed-in user into a compact token signed with HMAC-SHA256, and
+ * verifies such tokens without loading the user.
+ *
+ * <p>A token is the URL-safe Base64 encoding of {@code id|type|expiry|roles|e-mail}, a dot and the
+ * URL-safe Base64 encoding of the signature of the encoded payload. The expiry is in epoch
+ * seconds. Every instance verifying the tokens needs the secret they were signed with.
+ */
+public class SignedTokenCodec {
+
+    private static final Logger LOGGER = LogManager.getLogger(SignedTokenCodec.class.getName());
+
+    /**
+     * Minimum length of the secret in bytes, the output length of SHA-256.
+     */
+    static final int MIN_SECRET_LENGTH = 32;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String SEPARATOR = "|";
+    private static final String ROLE_SEPARATOR = ",";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlMs;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a codec.
+     *
+     * @param secret the signing secret, at least {@value #MIN_SECRET_LENGTH} bytes in UTF-8
+     * @param ttlMs  how long a token is valid after it was issued
+     * @throws IllegalStateException if the secret is missing or too short
+     */
+    public SignedTokenCodec(String secret, long ttlMs) {
+        this(secret, ttlMs, System::currentTimeMillis);
+    }
+
+    SignedTokenCodec(String secret, long ttlMs, LongSupplier clock) {
+        byte[] secretBytes = secret == null ? new byte[0] : secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("k2s.security.token.secret must be at least "
+                    + MIN_SECRET_LENGTH + " bytes long");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * Issues a token for a principal, valid for the configured time from now.
+     *
+     * @param user the principal
+     * @return the signed token
+     */
+    public String encode(AuthenticatedUser user) {
+        Set<String> roles = new TreeSet<>();
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        long expiry = TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong() + ttlMs);
+        String payload = user.getId() + SEPARATOR + user.getType() + SEPARATOR + expiry + SEPARATOR
+                + String.join(ROLE_SEPARATOR, roles) + SEPARATOR + user.getUsername();
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    /**
+     * Verifies a token and restores the principal it was issued for.
+     *
+     * @param token the token, may be {@code null}
+     * @return the principal, or empty if the token is malformed, forged or expired
+     */
+    public Optional<AuthenticatedUser> decode(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                LOGGER.debug("Rejected a token with an invalid signature");
+                return Optional.empty();
+            }
+            String[] parts = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 5);
+            if (parts.length != 5) {
+                return Optional.empty();
+            }
+            if (TimeUnit.SECONDS.toMillis(Long.parseLong(parts[2])) <= clock.getAsLong()) {
+                LOGGER.debug("Rejected an expired token");
+                return Optional.empty();
+            }
+            Set<String> roles = parts[3].isEmpty()
+                    ? Set.of() : Set.of(parts[3].split(ROLE_SEPARATOR));
+            return Optional.of(new AuthenticatedUser(new UserSnapshot(Long.valueOf(parts[0]), parts[4], "",
+                    roles, UserSnapshot.Type.valueOf(parts[1]))));
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Rejected a malformed token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
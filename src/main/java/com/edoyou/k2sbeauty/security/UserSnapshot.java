@@ -0,0 +1,44 @@
+package com.edoyou.k2sbeauty.security;
+
+import com.edoyou.k2sbeauty.dto.UserCredentialsDTO;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An immutable snapshot of what authentication and authorization need to know about a user, cached
+ * by {@link PrincipalCache} instead of the {@code User} entity with its associations.
+ *
+ * @param id           the user id
+ * @param email        the e-mail the user signs in with
+ * @param passwordHash the password hash
+ * @param roles        the role names
+ * @param type         the type of the user
+ */
+public record UserSnapshot(Long id, String email, String passwordHash, Set<String> roles, Type type) {
+
+    /**
+     * The entity type of a user.
+     */
+    public enum Type {
+        CLIENT, HAIRDRESSER, USER
+    }
+
+    /**
+     * Builds the snapshot of a user from the rows of
+     * {@link com.edoyou.k2sbeauty.repositories.UserRepository#findCredentialsByEmail(String)}.
+     *
+     * @param rows the rows of one user, at least one
+     * @return the snapshot
+     */
+    static UserSnapshot of(List<UserCredentialsDTO> rows) {
+        UserCredentialsDTO first = rows.get(0);
+        Set<String> roles = rows.stream()
+                .map(UserCredentialsDTO::role)
+                .filter(role -> role != null)
+                .collect(Collectors.toUnmodifiableSet());
+        return new UserSnapshot(first.id(), first.email(), first.password(), roles,
+                Type.valueOf(first.type()));
+    }
+}
@@ -1,5 +1,8 @@
 package com.edoyou.k2sbeauty.services.facade;
 
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
@@ -8,7 +11,10 @@ import com.edoyou.k2sbeauty.entities.model.WorkingHours;
 import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
 import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.exceptions.RoleNotFoundException;
+import com.edoyou.k2sbeauty.security.PrincipalChangedEvent;
 import com.edoyou.k2sbeauty.services.implementations.NotificationService;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogChangedEvent;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
@@ -25,6 +31,7 @@ import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -83,6 +90,8 @@ public class AdminServiceFacade {
     private final NotificationService notificationService;
     private final WorkingHoursService workingHoursService;
     private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HairdresserLockRegistry hairdresserLocks;
 
     /**
      * Constructor for AdminServiceFacade.
@@ -95,9 +104,10 @@ public class AdminServiceFacade {
      * @param notificationService  Provides functionalities related to notifications.
      * @param workingHoursService  Provides functionalities related to working hours.
      * @param entityManager        Provides the capability to interact with the database.
+     * @param eventPublisher       Publishes catalog and user changes so the guest catalog and principal caches are refreshed.
      */
     @Autowired
-    public AdminServiceFacade(AppointmentService appointmentService, HairdresserService hairdresserService, BeautyServiceService beautyServiceService, RoleService roleService, NotificationService notificationService, WorkingHoursService workingHoursService, EntityManager entityManager) {
+    public AdminServiceFacade(AppointmentService appointmentService, HairdresserService hairdresserService, BeautyServiceService beautyServiceService, RoleService roleService, NotificationService notificationService, WorkingHoursService workingHoursService, EntityManager entityManager, ApplicationEventPublisher eventPublisher, HairdresserLockRegistry hairdresserLocks) {
         this.appointmentService = appointmentService;
         this.hairdresserService = hairdresserService;
         this.beautyServiceService = beautyServiceService;
@@ -105,6 +115,8 @@ public class AdminServiceFacade {
         this.notificationService = notificationService;
         this.workingHoursService = workingHoursService;
         this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.hairdresserLocks = hairdresserLocks;
     }
 
     /**
@@ -119,14 +131,30 @@ public class AdminServiceFacade {
         return this.appointmentService.findAllAppointments(pageable);
     }
 
+    /**
+     * Fetches one page of the admin dashboard. The rows are flat appointment summaries read with one query,
+     * paginated by keyset on the appointment time and id.
+     *
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The maximum number of rows on the page.
+     * @return The page of appointment summaries.
+     */
+    public CursorPage<AppointmentSummaryDTO> findDashboardAppointments(PageToken token, int size) {
+        LOGGER.info("Find the dashboard appointments in Admin Facade ...");
+        return appointmentService.findAppointmentSummaries(token, size);
+    }
+
     /**
      * Updates the timeslot for a given appointment. This method first parses
      * the new timeslot string into LocalDateTime object. It then fetches
-     * the appointment and sets its timeslot to the new timeslot.
+     * the appointment and reschedules it to the new timeslot while holding
+     * the calendar lock of the appointment's hairdresser. The new timeslot is
+     * booked like a new appointment, so it is rejected if it overlaps another one.
      *
      * @param appointmentId The ID of the appointment.
      * @param newTimeSlot   The new timeslot in ISO_LOCAL_DATE_TIME format.
      * @throws ResourceNotFoundException if the appointment does not exist.
+     * @throws IllegalStateException     if the hairdresser or client is not available at the new timeslot.
      */
     public void changeTimeSlot(Long appointmentId, String newTimeSlot) {
         LOGGER.info("Change the appointment's timeslot ...");
@@ -135,10 +163,10 @@ public class AdminServiceFacade {
         Appointment appointment = appointmentService.findById(appointmentId).orElseThrow(() -> new ResourceNotFoundException("Appointment not found for this id :: " + appointmentId));
 
         appointment.setAppointmentTime(newAppointmentTime);
-        appointmentService.updateAppointment(appointmentId, appointment);
+        hairdresserLocks.withLock(appointment.getHairdresser().getId(),
+                () -> appointmentService.updateAppointment(appointmentId, appointment));
     }
 
-
     /**
      * Updates the payment status of a given appointment to 'PAID'.
      *
@@ -184,6 +212,8 @@ public class AdminServiceFacade {
         hairdresser.setApproved(true);
         hairdresserService.saveHairdresser(hairdresser);
         notifyHairdresser(hairdresser);
+        eventPublisher.publishEvent(new CatalogChangedEvent("hairdresser " + hairdresserId + " approved"));
+        eventPublisher.publishEvent(new PrincipalChangedEvent(hairdresser.getEmail(), "hairdresser role granted"));
     }
 
     /**
@@ -211,18 +241,21 @@ public class AdminServiceFacade {
         hairdresserService.deleteHairdresser(hairdresserId);
         entityManager.flush();
         deleteWorkingHours(workingHoursSet);
+        eventPublisher.publishEvent(new CatalogChangedEvent("hairdresser " + hairdresserId + " rejected"));
+        eventPublisher.publishEvent(new PrincipalChangedEvent(hairdresser.getEmail(), "hairdresser rejected"));
     }
 
     /**
-     * Fetches all hairdressers who are not approved yet. This method supports pagination and sorting of the results.
+     * Fetches all hairdressers who are not approved yet. This method paginates the results by keyset on the id.
      *
      * @param isApproved The approval status to filter the hairdressers by.
-     * @param pageable   Defines the pagination and sorting parameters.
-     * @return A Page of unapproved hairdressers.
+     * @param token      The token of the requested page, or {@code null} for the first page.
+     * @param size       The maximum number of hairdressers on the page.
+     * @return A page of unapproved hairdressers.
      */
-    public Page<Hairdresser> findAllYetNotApproved(Boolean isApproved, Pageable pageable) {
+    public CursorPage<Hairdresser> findAllYetNotApproved(boolean isApproved, PageToken token, int size) {
         LOGGER.info("Display all the hairdressers whose is_approved column is false ...");
-        return hairdresserService.findAllHairdressersByApprovalStatus(isApproved, pageable);
+        return hairdresserService.findAllHairdressersByApprovalStatus(isApproved, token, size);
     }
 
     /**
@@ -243,6 +276,7 @@ public class AdminServiceFacade {
     public void saveService(BeautyService beautyService) {
         LOGGER.info("Adding the beauty service ...");
         beautyServiceService.saveService(beautyService);
+        eventPublisher.publishEvent(new CatalogChangedEvent("service " + beautyService.getName() + " saved"));
     }
 
     /**
@@ -254,6 +288,17 @@ public class AdminServiceFacade {
         return beautyServiceService.findAllServices();
     }
 
+    /**
+     * Fetches one page of beauty services, paginated by keyset on the id.
+     *
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The maximum number of services on the page.
+     * @return A page of beauty services.
+     */
+    public CursorPage<BeautyService> findBeautyServices(PageToken token, int size) {
+        return beautyServiceService.findAll(token, size);
+    }
+
     /**
      * Assigns a service to a hairdresser. This method fetches the hairdresser
      * and the beauty service and then adds the beauty service to the hairdresser's
@@ -273,17 +318,19 @@ public class AdminServiceFacade {
         BeautyService beautyService = beautyServiceService.findById(serviceId).orElseThrow();
         hairdresser.getBeautyServices().add(beautyService);
         hairdresserService.saveHairdresser(hairdresser);
+        eventPublisher.publishEvent(new CatalogChangedEvent("service " + serviceId + " assigned to hairdresser " + hairdresserId));
     }
 
     /**
-     * Fetches all hairdressers who have been assigned services.
-     * This method supports pagination and sorting of the results.
+     * Fetches all hairdressers who have been assigned services, together with those services.
+     * This method paginates the results by keyset on the id.
      *
-     * @param pageable Defines the pagination and sorting parameters.
-     * @return A Page of hairdressers with services.
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The maximum number of hairdressers on the page.
+     * @return A page of hairdressers with services.
      */
-    public Page<Hairdresser> findHairdressersWithServices(Pageable pageable) {
-        return hairdresserService.findAllWithBeautyServices(pageable);
+    public CursorPage<Hairdresser> findHairdressersWithServices(PageToken token, int size) {
+        return hairdresserService.findAllWithBeautyServices(token, size);
     }
 
     /**
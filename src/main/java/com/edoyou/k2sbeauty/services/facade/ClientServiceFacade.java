@@ -1,5 +1,6 @@
 package com.edoyou.k2sbeauty.services.facade;
 
+import com.edoyou.k2sbeauty.dto.AvailableSlotDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Client;
@@ -10,26 +11,33 @@ import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
 import com.edoyou.k2sbeauty.exceptions.AppointmentNotFoundException;
 import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.repositories.RoleRepository;
+import com.edoyou.k2sbeauty.security.AuthenticatedUser;
+import com.edoyou.k2sbeauty.security.PrincipalCache;
+import com.edoyou.k2sbeauty.security.UserSnapshot;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.ClientService;
 import com.edoyou.k2sbeauty.services.interfaces.FeedbackService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
 import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.implementations.availability.AvailabilityIndex;
+import com.edoyou.k2sbeauty.services.implementations.availability.FirstAvailableSearch;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.springframework.transaction.annotation.Transactional;
 
@@ -51,28 +59,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class ClientServiceFacade {
 
     private static final Logger LOGGER = LogManager.getLogger(ClientServiceFacade.class.getName());
+    private static final DateTimeFormatter SLOT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
     private final ClientService clientService;
     private final HairdresserService hairdresserService;
     private final BeautyServiceService beautyServiceService;
     private final AppointmentService appointmentService;
     private final PasswordEncoder passwordEncoder;
     private final RoleRepository roleRepository;
-    private final TimeSlotService timeSlotService;
+    private final AvailabilityIndex availabilityIndex;
+    private final FirstAvailableSearch firstAvailableSearch;
     private final FeedbackService feedbackService;
+    private final HairdresserLockRegistry hairdresserLocks;
+    private final PrincipalCache principalCache;
 
     @Autowired
     public ClientServiceFacade(ClientService clientService, HairdresserService hairdresserService,
                                BeautyServiceService beautyServiceService, AppointmentService appointmentService,
                                PasswordEncoder passwordEncoder, RoleRepository roleRepository,
-                               TimeSlotService timeSlotService, FeedbackService feedbackService) {
+                               AvailabilityIndex availabilityIndex, FirstAvailableSearch firstAvailableSearch,
+                               FeedbackService feedbackService, HairdresserLockRegistry hairdresserLocks,
+                               PrincipalCache principalCache) {
         this.clientService = clientService;
         this.hairdresserService = hairdresserService;
         this.beautyServiceService = beautyServiceService;
         this.appointmentService = appointmentService;
         this.passwordEncoder = passwordEncoder;
         this.roleRepository = roleRepository;
-        this.timeSlotService = timeSlotService;
+        this.availabilityIndex = availabilityIndex;
+        this.firstAvailableSearch = firstAvailableSearch;
         this.feedbackService = feedbackService;
+        this.hairdresserLocks = hairdresserLocks;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -108,6 +125,8 @@ public class ClientServiceFacade {
 
     /**
      * This method allows a client to book an appointment. It creates a new {@link Appointment} object and saves it to the database.
+     * The save holds the hairdresser's calendar lock, so concurrent bookings of the same hairdresser are checked one after
+     * the other.
      *
      * @param authentication The Authentication object holding the client's authentication details.
      * @param hairdresserId  The ID of the hairdresser.
@@ -119,16 +138,12 @@ public class ClientServiceFacade {
         LOGGER.info("Client is booking an appointment ...");
         String[] dateTimeParts = dateTime.split(" - ");
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-        LocalDateTime appointmentDateTime = LocalDateTime.parse(dateTimeParts[0], formatter);
+        LocalDateTime appointmentDateTime = LocalDateTime.parse(dateTimeParts[0], SLOT_FORMATTER);
 
         Hairdresser hairdresser = hairdresserService.findById(hairdresserId);
         BeautyService beautyService = beautyServiceService.findFirstByName(serviceName).orElseThrow(
                 () -> new ResourceNotFoundException("Service with name " + serviceName + " not found"));
-        String userEmail = authentication.getName();
-
-        Client client = clientService.findClientByEmail(userEmail).orElseThrow(
-                () -> new UsernameNotFoundException("Client not found with email: " + userEmail));
+        Client client = getAuthenticatedClient(authentication);
 
         Appointment appointment = new Appointment();
         appointment.setClient(client);
@@ -137,25 +152,54 @@ public class ClientServiceFacade {
         appointment.setAppointmentTime(appointmentDateTime);
         appointment.setPaymentStatus(PaymentStatus.PENDING);
 
-        appointmentService.saveAppointment(appointment);
+        hairdresserLocks.withLock(hairdresserId, () -> appointmentService.saveAppointment(appointment));
     }
 
     /**
-     * This method fetches all the available time slots for a specific hairdresser.
+     * This method fetches the free time slots of a specific hairdresser for a service. The slots are
+     * served from the {@link AvailabilityIndex} and last as long as the service, so only start times
+     * at which the service fits between existing appointments are offered.
      *
      * @param hairdresserId The ID of the hairdresser.
+     * @param serviceName   The name of the service, or {@code null} to use the default service time.
      * @return A list of available time slots.
+     * @throws ResourceNotFoundException if no service with the given name exists
      */
-    public List<String> getTimeSlots(Long hairdresserId) {
+    public List<String> getTimeSlots(Long hairdresserId, String serviceName) {
         LOGGER.info("Loading the timeslots of an hairdresser to the view for client ...");
-        Hairdresser hairdresser = hairdresserService.findById(hairdresserId);
+        int duration = TimeSlotService.ONE_SERVICE_TIME;
+        if (serviceName != null && !serviceName.isEmpty()) {
+            duration = beautyServiceService.findFirstByName(serviceName)
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            "Service with name " + serviceName + " not found"))
+                    .getDuration();
+        }
+        List<TimeSlot> timeSlots = availabilityIndex.findFreeSlots(hairdresserId, duration);
 
-        List<TimeSlot> timeSlots = timeSlotService.generateTimeSlots(hairdresser);
+        List<String> formatted = new ArrayList<>(timeSlots.size());
+        for (TimeSlot slot : timeSlots) {
+            formatted.add(SLOT_FORMATTER.format(slot.getStart()) + " - " + SLOT_FORMATTER.format(slot.getEnd()));
+        }
+        return formatted;
+    }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
-        return timeSlots.stream()
-                .map(slot -> formatter.format(slot.getStart()) + " - " + formatter.format(slot.getEnd()))
-                .collect(Collectors.toList());
+    /**
+     * This method finds the earliest free slots for a service across all approved hairdressers offering it.
+     *
+     * @param serviceId   The ID of the beauty service.
+     * @param from        The first day to search.
+     * @param to          The last day to search, inclusive; days after the availability horizon are not
+     *                    searched (see {@link FirstAvailableSearch}).
+     * @param windowStart The time of day at or after which the slots must start, or {@code null}.
+     * @param windowEnd   The time of day by which the slots must end, or {@code null}.
+     * @param limit       The maximum number of slots to return.
+     * @return The earliest free slots, ordered by start time.
+     */
+    public List<AvailableSlotDTO> findFirstAvailable(Long serviceId, LocalDate from, LocalDate to,
+                                                     LocalTime windowStart, LocalTime windowEnd, int limit) {
+        LOGGER.info("Client is searching the first available hairdressers ...");
+        return firstAvailableSearch.findEarliest(serviceId, from.atStartOfDay(),
+                to.plusDays(1).atStartOfDay(), windowStart, windowEnd, limit);
     }
 
     /**
@@ -170,12 +214,7 @@ public class ClientServiceFacade {
             throw new IllegalArgumentException("Authentication is required.");
         }
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Client client = clientService.findClientByEmail(userDetails.getUsername()).orElseThrow(
-                () -> new UsernameNotFoundException(
-                        "Client not found with email: " + userDetails.getUsername()));
-
-        return appointmentService.findByClient(client);
+        return appointmentService.findByClient(getAuthenticatedClient(authentication));
     }
 
     /**
@@ -199,14 +238,26 @@ public class ClientServiceFacade {
 
         feedback.setAppointment(appointment);
 
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        Client client = clientService.findClientByEmail(userDetails.getUsername()).orElseThrow(
-                () -> new UsernameNotFoundException(
-                        "Client not found with email: " + userDetails.getUsername()));
-        feedback.setClient(client);
+        feedback.setClient(getAuthenticatedClient(authentication));
         feedback.setCreatedAt(LocalDateTime.now());
-        System.out.println(feedback);
+        LOGGER.debug("Saving feedback: {}", feedback);
         feedbackService.createFeedback(feedback);
     }
 
+    /**
+     * Returns a reference to the authenticated client, resolved from the principal by the
+     * {@link PrincipalCache}, so the client is not loaded from the database.
+     *
+     * @param authentication The Authentication object holding the client's authentication details.
+     * @return A reference to the authenticated Client.
+     * @throws UsernameNotFoundException if the authenticated user is not a client.
+     */
+    private Client getAuthenticatedClient(Authentication authentication) {
+        AuthenticatedUser user = principalCache.resolve(authentication)
+                .filter(resolved -> resolved.getType() == UserSnapshot.Type.CLIENT)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "Client not found with email: " + authentication.getName()));
+        return clientService.getClientReference(user.getId());
+    }
+
 }
\ No newline at end of file
@@ -5,6 +5,8 @@ import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.exceptions.BeautyServiceNotFoundException;
 import com.edoyou.k2sbeauty.exceptions.HairdresserNotFoundException;
 import com.edoyou.k2sbeauty.pojo.ServicesData;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogCache;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogSnapshot;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
 import org.apache.logging.log4j.LogManager;
@@ -21,7 +23,8 @@ import java.util.*;
  * and unified interface to the controllers. It also helps to keep the controllers thin and the code more maintainable.
  *
  * <p>
- * It uses instances of {@link BeautyServiceService} and {@link HairdresserService} to interact with the underlying database.
+ * It uses instances of {@link BeautyServiceService} and {@link HairdresserService} to interact with the underlying database,
+ * and reads the public catalog from the {@link CatalogCache} so that guest page loads do not hit the database.
  * </p>
  *
  * @author Taghiyev Kanan
@@ -34,12 +37,15 @@ public class GuestServiceFacade {
 
     private final BeautyServiceService beautyServiceService;
     private final HairdresserService hairdresserService;
+    private final CatalogCache catalogCache;
 
     @Autowired
     public GuestServiceFacade(BeautyServiceService beautyServiceService,
-                              HairdresserService hairdresserService) {
+                              HairdresserService hairdresserService,
+                              CatalogCache catalogCache) {
         this.beautyServiceService = beautyServiceService;
         this.hairdresserService = hairdresserService;
+        this.catalogCache = catalogCache;
     }
 
     /**
@@ -71,39 +77,40 @@ public class GuestServiceFacade {
     }
 
     /**
-     * Retrieves all available services and hairdressers data.
-     * It creates pairs of each service with all its associated hairdressers and sorts them based on the provided criteria.
+     * Retrieves all available services and hairdressers data from the current catalog snapshot.
+     * The service-hairdresser pairs and the hairdressers are already sorted by the provided criteria,
+     * so no database round trip is made once the snapshot is loaded.
      *
      * @param sortBy The criteria to sort the services
      * @return A {@link ServicesData} object containing all services and hairdressers data, sorted by the provided criteria
+     * @throws IllegalArgumentException if the sortBy value is not one of "serviceName", "lastName" or "rating"
      */
     private ServicesData getServicesDataForAll(String sortBy) {
-        var services = beautyServiceService.findAll();
-        var hairdressers = hairdresserService.findAllHairdressers(sortBy);
-
-        List<Pair<BeautyService, Hairdresser>> serviceHairdresserPairs = new ArrayList<>();
-        for (BeautyService service : services) {
-            for (Hairdresser hairdresser : service.getHairdressers()) {
-                if (hairdresser.isApproved()) {
-                    serviceHairdresserPairs.add(Pair.of(service, hairdresser));
-                }
-            }
-        }
-
-        serviceHairdresserPairs.sort(getServiceComparator(sortBy));
-        return new ServicesData(serviceHairdresserPairs, services, hairdressers, sortBy, null, null);
+        CatalogSnapshot snapshot = catalogCache.getSnapshot();
+        return new ServicesData(snapshot.getPairs(sortBy), snapshot.getServices(),
+                snapshot.getHairdressers(sortBy), sortBy, null, null);
     }
 
     /**
      * Retrieves the services data for a specific hairdresser.
-     * It creates pairs of the hairdresser with all its associated services.
+     * It creates pairs of the hairdresser with all its associated services. Approved hairdressers are served from the
+     * catalog snapshot; any other hairdresser is loaded from the database.
      *
      * @param hairdresserId The id of the hairdresser
      * @return A {@link ServicesData} object containing all services associated with the specific hairdresser
      * @throws HairdresserNotFoundException if no hairdresser is found with the provided id
      */
     private ServicesData getServicesDataForHairdresser(Long hairdresserId) {
-        Hairdresser hairdresser = hairdresserService.findById(hairdresserId);
+        CatalogSnapshot snapshot = catalogCache.getSnapshot();
+        Optional<Hairdresser> cached = snapshot.findHairdresser(hairdresserId);
+        if (cached.isPresent()) {
+            List<Pair<BeautyService, Hairdresser>> serviceHairdresserPairs = snapshot.getPairsForHairdresser(hairdresserId);
+            List<BeautyService> beautyServices = serviceHairdresserPairs.stream().map(Pair::getFirst).toList();
+            return new ServicesData(serviceHairdresserPairs, beautyServices,
+                    Collections.singletonList(cached.get()), null, hairdresserId, null);
+        }
+
+        Hairdresser hairdresser = hairdresserService.findByIdWithBeautyServices(hairdresserId);
 
         if (hairdresser == null) {
             throw new HairdresserNotFoundException("Hairdresser not found.");
@@ -119,15 +126,25 @@ public class GuestServiceFacade {
 
     /**
      * Retrieves the services data for a specific service.
-     * It creates pairs of the service with all its associated hairdressers and sorts them based on the provided criteria.
+     * It creates pairs of the service with all its associated approved hairdressers. Services offered by an approved
+     * hairdresser are served from the catalog snapshot; any other service is loaded from the database.
      *
      * @param serviceId The id of the service
      * @param sortBy    The criteria to sort the hairdressers
-     * @return A {@link ServicesData} object containing all hairdressers associated with the specific service, sorted by the provided criteria
+     * @return A {@link ServicesData} object containing all hairdressers associated with the specific service
      * @throws BeautyServiceNotFoundException if no service is found with the provided id
      */
     private ServicesData getServicesDataForService(Long serviceId, String sortBy) {
-        BeautyService service = beautyServiceService.findById(serviceId)
+        CatalogSnapshot snapshot = catalogCache.getSnapshot();
+        Optional<BeautyService> cached = snapshot.findService(serviceId);
+        if (cached.isPresent()) {
+            List<Pair<BeautyService, Hairdresser>> serviceHairdresserPairs = snapshot.getPairsForService(serviceId);
+            List<Hairdresser> hairdressers = serviceHairdresserPairs.stream().map(Pair::getSecond).toList();
+            return new ServicesData(serviceHairdresserPairs, Collections.singletonList(cached.get()),
+                    hairdressers, sortBy, null, serviceId);
+        }
+
+        BeautyService service = beautyServiceService.findByIdWithHairdressers(serviceId)
                 .orElseThrow(() -> new BeautyServiceNotFoundException("Service not found."));
         Set<Hairdresser> hairdressers = service.getHairdressers();
 
@@ -137,27 +154,4 @@ public class GuestServiceFacade {
         return new ServicesData(serviceHairdresserPairs, Collections.singletonList(service),
                 new ArrayList<>(hairdressers), sortBy, null, serviceId);
     }
-
-    /**
-     * Returns a comparator to sort the service-hairdresser pairs based on the provided criteria.
-     * The criteria can be one of "serviceName", "lastName", or "rating". The "serviceName" criteria sorts the pairs based on the service name,
-     * the "lastName" criteria sorts the pairs based on the hairdresser's last name, and the "rating" criteria sorts the pairs based on the hairdresser's rating in descending order.
-     *
-     * @param sortBy The criteria to sort the service-hairdresser pairs
-     * @return A {@link Comparator} to sort the service-hairdresser pairs based on the provided criteria
-     * @throws IllegalArgumentException if the sortBy value is not one of "serviceName", "lastName" or "rating"
-     */
-    private Comparator<Pair<BeautyService, Hairdresser>> getServiceComparator(String sortBy) {
-        if ("serviceName".equalsIgnoreCase(sortBy)) {
-            return Comparator.comparing(pair -> pair.getFirst().getName());
-        } else if ("lastName".equalsIgnoreCase(sortBy)) {
-            return Comparator.comparing(pair -> pair.getSecond().getLastName());
-        } else if ("rating".equalsIgnoreCase(sortBy)) {
-            return Comparator.comparing(
-                            (Pair<BeautyService, Hairdresser> pair) -> pair.getSecond().getRating())
-                    .reversed();
-        } else {
-            throw new IllegalArgumentException("Invalid sortBy value: " + sortBy);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -4,29 +4,28 @@ import com.edoyou.k2sbeauty.dto.AppointmentDTO;
 import com.edoyou.k2sbeauty.dto.WorkingHoursDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
-import com.edoyou.k2sbeauty.entities.model.User;
 import com.edoyou.k2sbeauty.entities.model.WorkingHours;
 import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
 import com.edoyou.k2sbeauty.exceptions.AppointmentNotFoundException;
 import com.edoyou.k2sbeauty.exceptions.UnauthorizedActionException;
 import com.edoyou.k2sbeauty.exceptions.UserNotFoundException;
-import com.edoyou.k2sbeauty.services.implementations.NotificationService;
+import com.edoyou.k2sbeauty.security.PrincipalCache;
+import com.edoyou.k2sbeauty.security.UserSnapshot;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
 import com.edoyou.k2sbeauty.services.interfaces.RoleService;
+import com.edoyou.k2sbeauty.services.interfaces.ScheduledNotificationService;
 import com.edoyou.k2sbeauty.services.interfaces.WorkingHoursService;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,6 +33,7 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * The HairdresserServiceFacade is a service layer that provides a unified interface to a set of interfaces
@@ -53,7 +53,8 @@ public class HairdresserServiceFacade {
     private final HairdresserService hairdresserService;
     private final AppointmentService appointmentService;
     private final WorkingHoursService workingHoursService;
-    private final NotificationService notificationService;
+    private final ScheduledNotificationService scheduledNotificationService;
+    private final PrincipalCache principalCache;
 
     /**
      * This constructor is responsible for dependency injection.
@@ -62,14 +63,16 @@ public class HairdresserServiceFacade {
     public HairdresserServiceFacade(PasswordEncoder passwordEncoder, RoleService roleService,
                                     BeautyServiceService beautyServiceService, HairdresserService hairdresserService,
                                     AppointmentService appointmentService, WorkingHoursService workingHoursService,
-                                    NotificationService notificationService) {
+                                    ScheduledNotificationService scheduledNotificationService,
+                                    PrincipalCache principalCache) {
         this.passwordEncoder = passwordEncoder;
         this.roleService = roleService;
         this.beautyServiceService = beautyServiceService;
         this.hairdresserService = hairdresserService;
         this.appointmentService = appointmentService;
         this.workingHoursService = workingHoursService;
-        this.notificationService = notificationService;
+        this.scheduledNotificationService = scheduledNotificationService;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -84,10 +87,7 @@ public class HairdresserServiceFacade {
      */
     public AppointmentDTO getAppointments(String email) {
         LOGGER.info("Getting appointments for a hairdresser ...");
-        Optional<User> userOptional = hairdresserService.findUserByEmail(email);
-        if (userOptional.isEmpty() || !(userOptional.get() instanceof Hairdresser hairdresser)) {
-            throw new UserNotFoundException("The authenticated user is not a hairdresser.");
-        }
+        Hairdresser hairdresser = hairdresserService.findById(getAuthenticatedHairdresserId(email));
         if (!hairdresser.isApproved()) {
             throw new UnauthorizedActionException("User does not exist or is not approved yet.");
         }
@@ -111,7 +111,7 @@ public class HairdresserServiceFacade {
      */
     public Map<LocalDate, List<TimeSlot>> getSchedule(String email) {
         LOGGER.info("Getting schedule for a hairdresser ...");
-        Hairdresser hairdresser = getAuthenticatedHairdresser(email);
+        Hairdresser hairdresser = hairdresserService.findByIdWithWorkingHours(getAuthenticatedHairdresserId(email));
         return hairdresserService.generateSchedule(hairdresser);
     }
 
@@ -128,7 +128,7 @@ public class HairdresserServiceFacade {
      */
     public void completeAppointment(Long id, String email) {
         LOGGER.info("Hairdresser completed the appointment ...");
-        Hairdresser hairdresser = getAuthenticatedHairdresser(email);
+        Long hairdresserId = getAuthenticatedHairdresserId(email);
 
         Optional<Appointment> appointmentOptional = appointmentService.findById(id);
         if (appointmentOptional.isEmpty()) {
@@ -136,7 +136,7 @@ public class HairdresserServiceFacade {
         }
 
         Appointment appointment = appointmentOptional.get();
-        if (!appointment.getHairdresser().equals(hairdresser)) {
+        if (!appointment.getHairdresser().getId().equals(hairdresserId)) {
             throw new UnauthorizedActionException(
                     "The authenticated hairdresser is not related to the appointment.");
         }
@@ -148,44 +148,45 @@ public class HairdresserServiceFacade {
 
     /**
      * Sends a notification to a client regarding an appointment.
-     * This method schedules a notification to be sent to the client's email.
+     * This method stores a feedback request that is sent to the client's email one day later
+     * by the shared scheduled-notification poller.
      *
      * @param appointment The appointment object for which the client is to be notified.
      */
     private void notifyClient(Appointment appointment) {
-        LOGGER.info("Email sent to the client for feedback ...");
-        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-        executorService.schedule(() -> {
-            String clientEmail = appointment.getClient().getEmail();
-            String subject = "We'd love to hear your feedback!";
-            String text = "http://localhost:8080/login?redirectUrl=/client/feedback?appointmentId=" + appointment.getId();
-            notificationService.sendNotification(clientEmail, subject, text);
-        }, 1, TimeUnit.DAYS);
+        LOGGER.info("Feedback request scheduled for the client ...");
+        String clientEmail = appointment.getClient().getEmail();
+        String subject = "We'd love to hear your feedback!";
+        String text = "http://localhost:8080/login?redirectUrl=/client/feedback?appointmentId=" + appointment.getId();
+        scheduledNotificationService.schedule(clientEmail, subject, text,
+                LocalDateTime.now().plusDays(1));
     }
 
     /**
-     * Fetches the authenticated hairdresser based on the provided email.
+     * Resolves the ID of the authenticated hairdresser from the {@link PrincipalCache}, which holds the
+     * users who signed in, so the hairdresser is not loaded from the database.
      *
      * @param email The email of the authenticated hairdresser.
-     * @return The authenticated Hairdresser.
+     * @return The ID of the authenticated Hairdresser.
      * @throws UserNotFoundException If no user is found with the provided email or if the user is not a hairdresser.
      */
-    private Hairdresser getAuthenticatedHairdresser(String email) {
-        Optional<User> userOptional = hairdresserService.findUserByEmail(email);
-        if (userOptional.isEmpty() || !(userOptional.get() instanceof Hairdresser hairdresser)) {
-            throw new UserNotFoundException("The authenticated user is not a hairdresser.");
-        }
-        return hairdresser;
+    private Long getAuthenticatedHairdresserId(String email) {
+        return principalCache.find(email)
+                .filter(user -> user.type() == UserSnapshot.Type.HAIRDRESSER)
+                .map(UserSnapshot::id)
+                .orElseThrow(() -> new UserNotFoundException("The authenticated user is not a hairdresser."));
     }
 
     /**
      * Registers a new hairdresser.
      * It encodes the password, assigns the hairdresser role, sets the services,
      * and adds working hours for the hairdresser. Finally, it saves the hairdresser in the database.
+     * All of this happens in one transaction, so shared working hours can be linked to the new hairdresser.
      *
      * @param hairdresser        The Hairdresser object containing the hairdresser's details.
      * @param workingHoursDtoMap A Map where the keys are day of the week index and the values are WorkingHoursDTO objects.
      */
+    @Transactional
     public void registerHairdresser(Hairdresser hairdresser,
                                     Map<Integer, WorkingHoursDTO> workingHoursDtoMap) {
         LOGGER.info("Registering the hairdresser ...");
@@ -1,28 +1,46 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.HairdresserCalendarDay;
 import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
 import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.repositories.AppointmentRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserCalendarDayRepository;
+import com.edoyou.k2sbeauty.services.implementations.availability.AppointmentChangedEvent;
+import com.edoyou.k2sbeauty.services.implementations.availability.Booking;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
 /**
  * The {@code AppointmentServiceImpl} class provides an implementation of the {@code AppointmentService} interface.
@@ -61,11 +79,33 @@ public class AppointmentServiceImpl implements AppointmentService {
 
     private static final Logger LOGGER = LogManager.getLogger(AppointmentServiceImpl.class.getName());
 
+    /**
+     * Upper bound, in minutes, for the duration of a single appointment, enforced on
+     * {@link BeautyService#MAX_DURATION}. An existing appointment starting earlier than this before a
+     * requested time cannot overlap it, which bounds the range scanned by the overlap queries.
+     */
+    private static final long MAX_APPOINTMENT_DURATION = BeautyService.MAX_DURATION;
+
     private final AppointmentRepository appointmentRepository;
+    private final HairdresserCalendarDayRepository calendarDayRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactionOperations;
+    private final HairdresserLockRegistry hairdresserLocks;
+    private final int maxBookingAttempts;
 
     @Autowired
-    public AppointmentServiceImpl(AppointmentRepository appointmentRepository) {
+    public AppointmentServiceImpl(AppointmentRepository appointmentRepository,
+                                  HairdresserCalendarDayRepository calendarDayRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  TransactionOperations transactionOperations,
+                                  HairdresserLockRegistry hairdresserLocks,
+                                  @Value("${k2s.booking.max-attempts:5}") int maxBookingAttempts) {
         this.appointmentRepository = appointmentRepository;
+        this.calendarDayRepository = calendarDayRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionOperations = transactionOperations;
+        this.hairdresserLocks = hairdresserLocks;
+        this.maxBookingAttempts = maxBookingAttempts;
     }
 
     /**
@@ -73,49 +113,115 @@ public class AppointmentServiceImpl implements AppointmentService {
      * <p>
      * This method checks if the {@code appointment} time is in the future.
      * Also, it checks if the hairdresser is available and the client doesn't already
-     * have another appointment at the same time before saving the appointment.
+     * have another appointment overlapping the interval
+     * {@code [appointmentTime, appointmentTime + service duration)} before saving the appointment.
      *
      * <p>Here is the sequence of actions:
      * <ol>
      *   <li>Check if the appointment is set in the future</li>
-     *   <li>Check if the hairdresser is available at the set time</li>
-     *   <li>Check if the client already has an appointment at the set time</li>
+     *   <li>Claim the {@link HairdresserCalendarDay} rows of the days the appointment touches</li>
+     *   <li>Check if the hairdresser has no overlapping appointment</li>
+     *   <li>Check if the client has no overlapping appointment</li>
      *   <li>Save the appointment in the repository</li>
+     *   <li>Publish an {@link AppointmentChangedEvent} for the saved appointment</li>
      * </ol>
      * </p>
      *
+     * <p>Steps 2 to 6 run in one transaction. Claiming a calendar row increments its version on
+     * commit, so of two concurrent bookings that overlap, only the first to commit succeeds; the
+     * other one is retried from step 2, up to {@code k2s.booking.max-attempts} times, and then sees
+     * the committed appointment. Bookings of different hairdressers or days do not contend.
+     *
+     * <p>The overlap checks are indexed range queries, so their cost does not depend on how many
+     * appointments the hairdresser or the client had in the past.
+     *
      * @throws IllegalArgumentException if the appointment time is in the past
-     * @throws IllegalStateException    if the hairdresser or client is not available at the set time
+     * @throws IllegalStateException    if the hairdresser or client is not available at the set time,
+     *                                  or the booking kept conflicting with concurrent bookings
      */
     @Override
     public Appointment saveAppointment(Appointment appointment) {
-        LOGGER.info("Saving Appointment: " + appointment);
+        LOGGER.debug("Saving appointment: {}", appointment);
         LocalDateTime now = LocalDateTime.now();
 
         if (appointment.getAppointmentTime().isBefore(now)) {
             throw new IllegalArgumentException("Appointment time must be in the future.");
         }
 
-        List<Appointment> hairdresserAppointments = findByHairdresser(appointment.getHairdresser());
-        for (Appointment existingAppointment : hairdresserAppointments) {
-            if (existingAppointment.getAppointmentTime().isEqual(appointment.getAppointmentTime())
-                    && !existingAppointment.getId().equals(appointment.getId())
-                    && !existingAppointment.isCompleted()) {
-                throw new IllegalStateException(
-                        "Hairdresser is not available during the appointment time.");
+        Long id = appointment.getId();
+        return bookWithRetries(() -> {
+            appointment.setId(id);
+            return book(appointment);
+        });
+    }
+
+    /**
+     * Runs a booking in its own transaction, and again while it conflicts with a concurrent booking,
+     * up to {@code k2s.booking.max-attempts} times.
+     */
+    private Appointment bookWithRetries(Supplier<Appointment> booking) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionOperations.execute(status -> booking.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxBookingAttempts) {
+                    throw new IllegalStateException(
+                            "The appointment could not be booked because of concurrent bookings.", e);
+                }
+                LOGGER.warn("Booking attempt {} conflicted with a concurrent booking, retrying", attempt);
             }
         }
+    }
 
-        List<Appointment> clientAppointments = findByClient(appointment.getClient());
-        for (Appointment existingAppointment : clientAppointments) {
-            if (existingAppointment.getAppointmentTime().isEqual(appointment.getAppointmentTime())
-                    && !existingAppointment.getId().equals(appointment.getId())
-                    && !existingAppointment.isCompleted()) {
-                throw new IllegalStateException(
-                        "You already have an appointment scheduled at the same time.");
+    /**
+     * Claims the calendar days of an appointment, checks that neither its hairdresser nor its client
+     * has another appointment overlapping it, saves it and publishes its {@link AppointmentChangedEvent}.
+     * An appointment that already has an ID does not conflict with itself.
+     */
+    private Appointment book(Appointment appointment) {
+        LocalDateTime start = appointment.getAppointmentTime();
+        LocalDateTime end = start.plusMinutes(
+                Math.max(1, appointment.getBeautyService().getDuration()));
+        LocalDateTime earliestStart = start.minusMinutes(MAX_APPOINTMENT_DURATION);
+        Long hairdresserId = appointment.getHairdresser().getId();
+
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            claimCalendarDay(hairdresserId, day);
+        }
+
+        if (appointmentRepository.existsOverlappingHairdresserAppointment(
+                hairdresserId, appointment.getId(), earliestStart, start, end)) {
+            throw new IllegalStateException(
+                    "Hairdresser is not available during the appointment time.");
+        }
+
+        if (appointmentRepository.existsOverlappingClientAppointment(
+                appointment.getClient().getId(), appointment.getId(), earliestStart, start, end)) {
+            throw new IllegalStateException(
+                    "You already have an appointment scheduled at the same time.");
+        }
+        Appointment savedAppointment = appointmentRepository.save(appointment);
+        eventPublisher.publishEvent(new AppointmentChangedEvent(savedAppointment.getId(),
+                Booking.of(savedAppointment)));
+        return savedAppointment;
+    }
+
+    /**
+     * Claims the calendar row of a hairdresser's day for the current transaction. A missing row is
+     * created; if a concurrent booking creates it first, the unique {@code (hairdresserId, day)}
+     * constraint fails the insert, which is reported as a version conflict so the booking is retried.
+     * Integrity violations of the appointment itself are not retried.
+     */
+    private void claimCalendarDay(Long hairdresserId, LocalDate day) {
+        if (calendarDayRepository.findByHairdresserIdAndDay(hairdresserId, day).isEmpty()) {
+            try {
+                calendarDayRepository.saveAndFlush(new HairdresserCalendarDay(hairdresserId, day));
+            } catch (DataIntegrityViolationException e) {
+                // The row has no other constraint, so a concurrent booking created it first
+                throw new OptimisticLockingFailureException(
+                        "Calendar day " + day + " of hairdresser " + hairdresserId + " was created concurrently", e);
             }
         }
-        return appointmentRepository.save(appointment);
     }
 
     /**
@@ -129,7 +235,8 @@ public class AppointmentServiceImpl implements AppointmentService {
      *   <li>Find the appointment in the repository</li>
      *   <li>Check if the user is an admin</li>
      *   <li>If the user is not an admin, check if the appointment time is more than 24 hours in the future</li>
-     *   <li>Delete the appointment from the repository</li>
+     *   <li>Delete the appointment from the repository and publish an {@link AppointmentChangedEvent}
+     *   releasing the appointment's time, holding the calendar lock of the appointment's hairdresser</li>
      * </ol>
      * </p>
      *
@@ -151,7 +258,10 @@ public class AppointmentServiceImpl implements AppointmentService {
             }
         }
 
-        appointmentRepository.deleteById(id);
+        hairdresserLocks.withLock(appointment.getHairdresser().getId(), () -> {
+            appointmentRepository.deleteById(id);
+            eventPublisher.publishEvent(new AppointmentChangedEvent(id, null));
+        });
     }
 
     /**
@@ -184,6 +294,26 @@ public class AppointmentServiceImpl implements AppointmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Appointments starting up to {@code MAX_APPOINTMENT_DURATION} minutes before {@code from} are
+     * loaded as well and dropped unless they are still running at {@code from}, so the query stays
+     * on the {@code (hairdresser_id, appointment_time)} index regardless of the hairdresser's history.
+     */
+    @Override
+    public List<Appointment> findActiveByHairdresserBetween(Hairdresser hairdresser,
+                                                            LocalDateTime from, LocalDateTime to) {
+        LOGGER.info("Find active Appointments by hairdresser within a window...");
+        return appointmentRepository.findActiveByHairdresserBetween(hairdresser.getId(),
+                        from.minusMinutes(MAX_APPOINTMENT_DURATION), to)
+                .stream()
+                .filter(appointment -> appointment.getAppointmentTime()
+                        .plusMinutes(Math.max(1, appointment.getBeautyService().getDuration()))
+                        .isAfter(from))
+                .collect(Collectors.toList());
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -193,12 +323,11 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     public List<Appointment> findAllAppointments() {
         try {
-            LOGGER.info("Appointments' size is " + appointmentRepository.findAll().size());
             List<Appointment> appointments = appointmentRepository.findAll();
-            LOGGER.info("Fetched appointments: " + appointments);
+            LOGGER.info("Fetched {} appointments", appointments.size());
             return appointments;
         } catch (Exception e) {
-            LOGGER.error("Error fetching appointments: " + e.getMessage());
+            LOGGER.error("Error fetching appointments: {}", e.getMessage());
             return Collections.emptyList();
         }
     }
@@ -226,16 +355,37 @@ public class AppointmentServiceImpl implements AppointmentService {
     @Override
     public Page<Appointment> findAllAppointments(Pageable pageable) {
         try {
-            LOGGER.info("Fetching appointments page: " + pageable.getPageNumber());
+            LOGGER.info("Fetching appointments page: {}", pageable.getPageNumber());
             Page<Appointment> appointments = appointmentRepository.findAll(pageable);
-            LOGGER.info("Fetched appointments: " + appointments.getContent());
+            LOGGER.info("Fetched {} appointments", appointments.getNumberOfElements());
             return appointments;
         } catch (Exception e) {
-            LOGGER.error("Error fetching appointments: " + e.getMessage());
+            LOGGER.error("Error fetching appointments: {}", e.getMessage());
             return Page.empty();
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The rows are read with a single constructor-expression query that seeks to the position in the token instead
+     * of skipping an offset, and fetches one extra row to tell whether another page follows.
+     */
+    @Override
+    public CursorPage<AppointmentSummaryDTO> findAppointmentSummaries(PageToken token, int size) {
+        LOGGER.info("Fetching a page of appointment summaries ...");
+        Pageable limit = PageRequest.of(0, size);
+        Slice<AppointmentSummaryDTO> slice;
+        if (token == null) {
+            slice = appointmentRepository.findSummaries(limit);
+        } else if (token.isBackward()) {
+            slice = appointmentRepository.findSummariesBefore(token.time(), token.id(), limit);
+        } else {
+            slice = appointmentRepository.findSummariesAfter(token.time(), token.id(), limit);
+        }
+        return CursorPage.of(slice, token, AppointmentSummaryDTO::key);
+    }
+
     /**
      * {@inheritDoc}
      * <p>
@@ -264,34 +414,45 @@ public class AppointmentServiceImpl implements AppointmentService {
     /**
      * {@inheritDoc}
      * <p>
-     * The method updates an existing appointment with new details.
+     * The method updates an existing appointment with new details, e.g. reschedules it. The new
+     * details are booked like a new appointment, see {@link #saveAppointment(Appointment)}, except
+     * that the appointment does not conflict with itself.
      *
      * <p>Here is the sequence of actions:
      * <ol>
      *   <li>Find the existing appointment in the repository</li>
-     *   <li>Update the existing appointment with new details</
+     *   <li>Update the existing appointment with new details</li>
+     *   <li>Claim the {@link HairdresserCalendarDay} rows of the days the updated appointment touches</li>
+     *   <li>Check if the hairdresser and the client have no other overlapping appointment</li>
      *   <li>Save the updated appointment in the repository</li>
+     *   <li>Publish an {@link AppointmentChangedEvent} for the rescheduled appointment</li>
      * </ol>
      * </p>
      *
-     * @throws IllegalStateException if the appointment does not exist
+     * <p>All steps run in one transaction, retried on conflicts with concurrent bookings like
+     * {@link #saveAppointment(Appointment)}.
+     *
+     * @throws IllegalStateException if the appointment does not exist, the hairdresser or client is
+     *                               not available at the new time, or the update kept conflicting
+     *                               with concurrent bookings
      */
     @Override
     public Appointment updateAppointment(Long id, Appointment appointmentDetails) {
         LOGGER.info("Updating the appointment...");
-        Appointment existingAppointment = appointmentRepository.findById(id)
-                .orElseThrow(
-                        () -> new IllegalStateException("Appointment with id " + id + " does not exist."));
-
-        LOGGER.info("Updating appointment: " + existingAppointment + " with new details: "
-                + appointmentDetails);
+        return bookWithRetries(() -> {
+            Appointment existingAppointment = appointmentRepository.findById(id)
+                    .orElseThrow(
+                            () -> new IllegalStateException("Appointment with id " + id + " does not exist."));
 
-        existingAppointment.setClient(appointmentDetails.getClient());
-        existingAppointment.setHairdresser(appointmentDetails.getHairdresser());
-        existingAppointment.setBeautyService(appointmentDetails.getBeautyService());
-        existingAppointment.setAppointmentTime(appointmentDetails.getAppointmentTime());
+            LOGGER.debug("Updating appointment: {} with new details: {}", existingAppointment,
+                    appointmentDetails);
 
-        return appointmentRepository.save(existingAppointment);
+            existingAppointment.setClient(appointmentDetails.getClient());
+            existingAppointment.setHairdresser(appointmentDetails.getHairdresser());
+            existingAppointment.setBeautyService(appointmentDetails.getBeautyService());
+            existingAppointment.setAppointmentTime(appointmentDetails.getAppointmentTime());
+            return book(existingAppointment);
+        });
     }
 
     /**
@@ -317,7 +478,7 @@ public class AppointmentServiceImpl implements AppointmentService {
                         "Appointment not found for this id :: " + appointmentId));
         appointment.setPaymentStatus(status);
 
-        LOGGER.info("Updating payment status for appointment: " + appointment + " to: " + status);
+        LOGGER.debug("Updating payment status for appointment: {} to: {}", appointment, status);
 
         appointmentRepository.save(appointment);
     }
@@ -1,5 +1,7 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.repositories.BeautyServiceRepository;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
@@ -10,7 +12,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -102,6 +106,25 @@ public class BeautyServiceServiceImpl implements BeautyServiceService {
         return beautyServiceRepository.findById(id);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Finds a beauty service by its ID and loads its hairdressers with the same query.
+     *
+     * @param id The ID of the beauty service to find.
+     * @return An Optional containing the found beauty service, or an empty Optional if not found.
+     * @throws IllegalArgumentException if the provided ID is null.
+     */
+    @Override
+    public Optional<BeautyService> findByIdWithHairdressers(Long id) {
+        if (id == null) {
+            LOGGER.error("Attempted to find service with null ID");
+            throw new IllegalArgumentException("ID cannot be null");
+        }
+        LOGGER.info("Find service with hairdressers by its ID...");
+        return beautyServiceRepository.findWithHairdressersById(id);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -128,6 +151,24 @@ public class BeautyServiceServiceImpl implements BeautyServiceService {
         return beautyServiceRepository.findAll(pageable);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Seeks past the id in the token instead of skipping rows, so every page costs the same.
+     *
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The number of services per page.
+     * @return A page of {@code BeautyService} instances.
+     */
+    @Override
+    public CursorPage<BeautyService> findAll(PageToken token, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        Slice<BeautyService> services = token != null && token.isBackward()
+                ? beautyServiceRepository.findPageBefore(token.id(), limit)
+                : beautyServiceRepository.findPageAfter(token == null ? 0L : token.id(), limit);
+        return CursorPage.of(services, token, service -> PageToken.after(service.getId()));
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -189,7 +230,7 @@ public class BeautyServiceServiceImpl implements BeautyServiceService {
             LOGGER.info("Fetching beauty services by their IDs.");
             return beautyServiceRepository.findAllById(ids);
         } catch (Exception e) {
-            LOGGER.error("An error occurred while fetching beauty services by their IDs." + e);
+            LOGGER.error("An error occurred while fetching beauty services by their IDs.", e);
             throw new RuntimeException(e);
         }
     }
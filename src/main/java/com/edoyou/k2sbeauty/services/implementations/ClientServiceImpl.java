@@ -99,4 +99,17 @@ public class ClientServiceImpl implements ClientService {
         LOGGER.info("Find client by e-mail...");
         return Optional.ofNullable(clientRepository.findByEmail(email));
     }
+
+    /**
+     * Returns a reference to a client by id, using {@code getReferenceById} of the
+     * {@code ClientRepository}. No query is issued; the reference is only loaded if one of its
+     * properties other than the id is accessed.
+     *
+     * @param id the id of the client
+     * @return a reference to the client
+     */
+    @Override
+    public Client getClientReference(Long id) {
+        return clientRepository.getReferenceById(id);
+    }
 }
\ No newline at end of file
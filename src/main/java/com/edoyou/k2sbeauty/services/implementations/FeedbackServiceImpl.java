@@ -1,5 +1,6 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
 import com.edoyou.k2sbeauty.entities.model.Feedback;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.repositories.FeedbackRepository;
@@ -10,7 +11,9 @@ import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -57,8 +60,9 @@ public class FeedbackServiceImpl implements FeedbackService {
     /**
      * Creates a new feedback entry and updates the rating of the associated hairdresser.
      *
-     * <p>This method first saves the given feedback into the database. Then it retrieves the hairdresser
-     * associated with the appointment in the feedback and updates their rating.
+     * <p>This method first saves the given feedback into the database. Then it adds the rating to the
+     * running rating aggregate of the hairdresser associated with the appointment in the feedback. Both
+     * writes happen in the same transaction, and the cost does not depend on the hairdresser's history.
      *
      * <p>The update of the hairdresser's rating is handled by {@code HairdresserService}.
      *
@@ -66,6 +70,7 @@ public class FeedbackServiceImpl implements FeedbackService {
      * @throws NullPointerException if the given feedback is {@code null}
      */
     @Override
+    @Transactional
     public void createFeedback(Feedback feedback) {
         LOGGER.info("Creating feedback ...");
         if (feedback == null) {
@@ -73,7 +78,7 @@ public class FeedbackServiceImpl implements FeedbackService {
         }
         Feedback savedFeedback = feedbackRepository.save(feedback);
         Hairdresser hairdresser = savedFeedback.getAppointment().getHairdresser();
-        hairdresserService.updateRating(hairdresser);
+        hairdresserService.addRating(hairdresser, savedFeedback.getRating());
     }
 
     /**
@@ -93,4 +98,25 @@ public class FeedbackServiceImpl implements FeedbackService {
         return feedbackRepository.findById(id);
     }
 
-}
\ No newline at end of file
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A hairdresser without feedback gets an aggregate with a zero sum and count.
+     */
+    @Override
+    public RatingAggregateDTO getRatingAggregate(Long hairdresserId) {
+        LOGGER.info("Getting rating aggregate of a hairdresser ...");
+        return feedbackRepository.aggregateRatingByHairdresser(hairdresserId)
+                .orElseGet(() -> new RatingAggregateDTO(hairdresserId, 0, 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<RatingAggregateDTO> getRatingAggregates() {
+        LOGGER.info("Getting rating aggregates of all hairdressers ...");
+        return feedbackRepository.aggregateRatingsByHairdresser();
+    }
+
+}
@@ -1,30 +1,36 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
-import com.edoyou.k2sbeauty.entities.model.Appointment;
-import com.edoyou.k2sbeauty.entities.model.Feedback;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
 import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.repositories.HairdresserRepository;
 import com.edoyou.k2sbeauty.repositories.UserRepository;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.ScheduleBuilder;
 import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogChangedEvent;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.FeedbackService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.Optional;
 import java.util.TreeMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -58,6 +64,7 @@ public class HairdresserServiceImpl extends UserServiceImpl implements Hairdress
     private final AppointmentService appointmentService;
     private final TimeSlotService timeSlotService;
     private final FeedbackService feedbackService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Constructs a new HairdresserService. This constructor is annotated with {@code @Autowired}, so Spring
@@ -68,18 +75,21 @@ public class HairdresserServiceImpl extends UserServiceImpl implements Hairdress
      * @param appointmentService    the service that this service will use for managing {@code Appointment} entities
      * @param timeSlotService       the service that this service will use for managing {@code TimeSlot} entities
      * @param feedbackService       the service that this service will use for managing {@code Feedback} entities
+     * @param eventPublisher        the publisher used to announce rating changes to the service catalog
      */
     @Autowired
     public HairdresserServiceImpl(UserRepository userRepository,
                                   HairdresserRepository hairdresserRepository,
                                   AppointmentService appointmentService,
                                   TimeSlotService timeSlotService,
-                                  FeedbackService feedbackService) {
+                                  FeedbackService feedbackService,
+                                  ApplicationEventPublisher eventPublisher) {
         super(userRepository);
         this.hairdresserRepository = hairdresserRepository;
         this.appointmentService = appointmentService;
         this.timeSlotService = timeSlotService;
         this.feedbackService = feedbackService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -162,14 +172,26 @@ public class HairdresserServiceImpl extends UserServiceImpl implements Hairdress
     }
 
     /**
-     * Retrieves a page of {@link Hairdresser} entities with beauty services from the database, according to the provided {@link Pageable}.
+     * Retrieves a page of {@link Hairdresser} entities with beauty services from the database. The ids of the page
+     * are selected first, with the limit applied by the database, and the hairdressers are then loaded together with
+     * their services in one query. Fetching the collection in the paged query itself would make Hibernate apply the
+     * limit in memory.
      *
-     * @param pageable A {@link Pageable} object specifying the size and sorting of the page to be returned.
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The number of hairdressers per page.
      * @return A page of {@link Hairdresser} entities with beauty services.
      */
     @Override
-    public Page<Hairdresser> findAllWithBeautyServices(Pageable pageable) {
-        return hairdresserRepository.findAllWithBeautyServices(pageable);
+    public CursorPage<Hairdresser> findAllWithBeautyServices(PageToken token, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        Slice<Long> ids = token != null && token.isBackward()
+                ? hairdresserRepository.findIdsWithBeautyServicesBefore(token.id(), limit)
+                : hairdresserRepository.findIdsWithBeautyServicesAfter(token == null ? 0L : token.id(), limit);
+        CursorPage<Long> page = CursorPage.of(ids, token, PageToken::after);
+        if (page.items().isEmpty()) {
+            return page.withItems(List.of());
+        }
+        return page.withItems(hairdresserRepository.findAllWithBeautyServicesByIdIn(page.items()));
     }
 
     /**
@@ -187,6 +209,36 @@ public class HairdresserServiceImpl extends UserServiceImpl implements Hairdress
                         () -> new ResourceNotFoundException("Hairdresser with id " + id + " not found"));
     }
 
+    /**
+     * Retrieves a {@link Hairdresser} entity by its ID, loading their working hours with the same query.
+     *
+     * @param id The ID of the {@link Hairdresser} entity to be retrieved.
+     * @return The {@link Hairdresser} entity with the specified ID and initialized working hours.
+     * @throws ResourceNotFoundException if no {@link Hairdresser} entity with the specified ID is found.
+     */
+    @Override
+    public Hairdresser findByIdWithWorkingHours(Long id) {
+        LOGGER.info("Find hairdresser with working hours by ID ...");
+        return hairdresserRepository.findWithWorkingHoursById(id)
+                .orElseThrow(
+                        () -> new ResourceNotFoundException("Hairdresser with id " + id + " not found"));
+    }
+
+    /**
+     * Retrieves a {@link Hairdresser} entity by its ID, loading their beauty services with the same query.
+     *
+     * @param id The ID of the {@link Hairdresser} entity to be retrieved.
+     * @return The {@link Hairdresser} entity with the specified ID and initialized beauty services.
+     * @throws ResourceNotFoundException if no {@link Hairdresser} entity with the specified ID is found.
+     */
+    @Override
+    public Hairdresser findByIdWithBeautyServices(Long id) {
+        LOGGER.info("Find hairdresser with beauty services by ID ...");
+        return hairdresserRepository.findWithBeautyServicesById(id)
+                .orElseThrow(
+                        () -> new ResourceNotFoundException("Hairdresser with id " + id + " not found"));
+    }
+
     /**
      * Creates a {@link Sort} object by the specified attribute. Currently, only 'serviceName' is supported.
      *
@@ -232,27 +284,33 @@ public class HairdresserServiceImpl extends UserServiceImpl implements Hairdress
     }
 
     /**
-     * Retrieves a page of {@link Hairdresser} entities by their approval status, according to the provided {@link Pageable}.
+     * Retrieves a keyset-paginated page of {@link Hairdresser} entities by their approval status, in id order.
      *
      * @param isApproved The approval status by which to filter the {@link Hairdresser} entities.
-     * @param pageable   A {@link Pageable} object specifying the size and sorting of the page to be returned.
+     * @param token      The token of the requested page, or {@code null} for the first page.
+     * @param size       The number of hairdressers per page.
      * @return A page of {@link Hairdresser} entities with the specified approval status.
      */
     @Override
-    public Page<Hairdresser> findAllHairdressersByApprovalStatus(boolean isApproved,
-                                                                 Pageable pageable) {
-        LOGGER.info("Finding all hairdressers by their approval status ...");
-        return hairdresserRepository.findByIsApproved(isApproved, pageable);
+    public CursorPage<Hairdresser> findAllHairdressersByApprovalStatus(boolean isApproved, PageToken token,
+                                                                       int size) {
+        LOGGER.info("Finding a page of hairdressers by their approval status ...");
+        Pageable limit = PageRequest.of(0, size);
+        Slice<Hairdresser> hairdressers = token != null && token.isBackward()
+                ? hairdresserRepository.findByIsApprovedBefore(isApproved, token.id(), limit)
+                : hairdresserRepository.findByIsApprovedAfter(isApproved, token == null ? 0L : token.id(), limit);
+        return CursorPage.of(hairdressers, token, hairdresser -> PageToken.after(hairdresser.getId()));
     }
 
     /**
      * Generates the schedule for a given hairdresser. The schedule consists of a map where keys are dates and
      * values are lists of time slots.
      *
-     * <p>This method first generates time slots for the given hairdresser, and retrieves all the appointments
-     * for the hairdresser. It then goes through each appointment and, if the appointment is not completed, it
-     * assigns it to the time slots that intersect with the appointment time. Finally, it groups the time slots
-     * by date and returns the resulting map.
+     * <p>This method first generates time slots for the given hairdresser, and retrieves only the non-completed
+     * appointments overlapping the window covered by those slots. The slots and appointments are then merged
+     * in a single sweep by {@link ScheduleBuilder}, which assigns each slot the appointment occupying it and
+     * groups the time slots by date. If the working hours of the given hairdresser have not been loaded yet, the
+     * hairdresser is reloaded with them in one query.
      *
      * @param hairdresser the hairdresser for whom to generate the schedule
      * @return a map representing the schedule of the hairdresser
@@ -261,61 +319,85 @@ public class HairdresserServiceImpl extends UserServiceImpl implements Hairdress
     @Override
     public Map<LocalDate, List<TimeSlot>> generateSchedule(Hairdresser hairdresser) {
         LOGGER.info("Generating a hairdresser schedule ...");
+        if (!Hibernate.isInitialized(hairdresser.getWorkingHours())) {
+            hairdresser = findByIdWithWorkingHours(hairdresser.getId());
+        }
         var timeSlots = timeSlotService.generateTimeSlots(hairdresser);
-        var appointments = appointmentService.findByHairdresser(hairdresser);
-        Map<LocalDate, List<TimeSlot>> schedule = new TreeMap<>();
-
-        for (Appointment appointment : appointments) {
-            if (!appointment.isCompleted()) {
-                for (TimeSlot timeSlot : timeSlots) {
-                    if (!timeSlot.getStart().isAfter(appointment.getAppointmentTime()) &&
-                            !timeSlot.getEnd().isBefore(appointment.getAppointmentTime()
-                                    .plusMinutes(appointment.getBeautyService().getDuration()).plusSeconds(1))) {
-                        timeSlot.setAppointment(appointment);
-                    }
-                }
-            }
+        if (timeSlots.isEmpty()) {
+            return new TreeMap<>();
         }
 
+        LocalDateTime from = timeSlots.get(0).getStart();
+        LocalDateTime to = timeSlots.get(0).getEnd();
         for (TimeSlot timeSlot : timeSlots) {
-            var date = timeSlot.getStart().toLocalDate();
-            schedule.computeIfAbsent(date, k -> new ArrayList<>()).add(timeSlot);
+            if (timeSlot.getStart().isBefore(from)) {
+                from = timeSlot.getStart();
+            }
+            if (timeSlot.getEnd().isAfter(to)) {
+                to = timeSlot.getEnd();
+            }
         }
 
-        return schedule;
+        var appointments = appointmentService.findActiveByHairdresserBetween(hairdresser, from, to);
+        return ScheduleBuilder.build(timeSlots, appointments);
     }
 
     /**
-     * Updates the rating of a {@link Hairdresser} by calculating the average rating of the feedback received for the completed appointments.
+     * Recomputes the rating of a {@link Hairdresser} with a single aggregate query over the feedback left for
+     * their appointments, and stores the resulting sum, count and average.
      *
      * @param hairdresser The {@link Hairdresser} whose rating should be updated.
      * @throws ResourceNotFoundException if no {@link Hairdresser} entity with the specified ID is found.
      */
     @Override
+    @Transactional
     public void updateRating(Hairdresser hairdresser) {
         LOGGER.info("Updating the hairdresser's rating ...");
-        var hairdresserWithAppointments = hairdresserRepository.findByIdWithAppointments(
-                        hairdresser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Hairdresser with id " + hairdresser.getId() + " not found"));
-
-        double totalRating = 0.0;
-        int numberOfRatings = 0;
-
-        for (Appointment appointment : hairdresserWithAppointments.getAppointments()) {
-            Optional<Feedback> optionalFeedback = feedbackService.getFeedbackById(appointment.getId());
-            if (optionalFeedback.isPresent()) {
-                Feedback feedback = optionalFeedback.get();
-                totalRating += feedback.getRating();
-                numberOfRatings++;
-            }
+        RatingAggregateDTO aggregate = feedbackService.getRatingAggregate(hairdresser.getId());
+        if (hairdresserRepository.updateRatingAggregate(hairdresser.getId(), aggregate.ratingSum(),
+                aggregate.ratingCount()) == 0) {
+            throw new ResourceNotFoundException(
+                    "Hairdresser with id " + hairdresser.getId() + " not found");
+        }
+        if (aggregate.ratingCount() > 0) {
+            hairdresser.setRating(aggregate.average());
         }
+        eventPublisher.publishEvent(new CatalogChangedEvent("rating of hairdresser " + hairdresser.getId() + " updated"));
+    }
 
-        if (numberOfRatings > 0) {
-            double averageRating = totalRating / numberOfRatings;
-            hairdresser.setRating(averageRating);
-            hairdresserRepository.save(hairdresser);
+    /**
+     * Adds a rating to the running aggregate of a {@link Hairdresser}. The sum, count and average are updated
+     * by one statement, which joins the caller's transaction.
+     *
+     * @param hairdresser The {@link Hairdresser} who received the rating.
+     * @param rating      The rating to add.
+     * @throws ResourceNotFoundException if no {@link Hairdresser} entity with the specified ID is found.
+     */
+    @Override
+    @Transactional
+    public void addRating(Hairdresser hairdresser, int rating) {
+        LOGGER.info("Adding a rating to the hairdresser's aggregate ...");
+        if (hairdresserRepository.addRating(hairdresser.getId(), rating) == 0) {
+            throw new ResourceNotFoundException(
+                    "Hairdresser with id " + hairdresser.getId() + " not found");
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent("rating of hairdresser " + hairdresser.getId() + " updated"));
+    }
+
+    /**
+     * Rebuilds the rating aggregates of all hairdressers. Every aggregate is reset first, then the sums and counts
+     * computed by a single grouped query are written back, all in one transaction.
+     */
+    @Override
+    @Transactional
+    public void rebuildRatings() {
+        LOGGER.info("Rebuilding the hairdressers' rating aggregates ...");
+        hairdresserRepository.resetRatingAggregates();
+        for (RatingAggregateDTO aggregate : feedbackService.getRatingAggregates()) {
+            hairdresserRepository.updateRatingAggregate(aggregate.hairdresserId(),
+                    aggregate.ratingSum(), aggregate.ratingCount());
         }
+        eventPublisher.publishEvent(new CatalogChangedEvent("hairdresser ratings rebuilt"));
     }
 
-}
\ No newline at end of file
+}
@@ -1,25 +1,57 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.services.implementations.notification.MailDispatcher;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * {@code NotificationService} sends e-mail notifications to users. Messages are handed to the
+ * {@link MailDispatcher}, which delivers them in the background, so callers return immediately.
+ * When called inside a transaction, the message is only queued once the transaction commits, so
+ * no mail goes out for changes that were rolled back.
+ */
 @Service
 public class NotificationService {
 
-  private final JavaMailSender javaMailSender;
+  private final MailDispatcher mailDispatcher;
 
   @Autowired
-  public NotificationService(JavaMailSender javaMailSender) {
-    this.javaMailSender = javaMailSender;
+  public NotificationService(MailDispatcher mailDispatcher) {
+    this.mailDispatcher = mailDispatcher;
   }
 
   public void sendNotification(String to, String subject, String text) {
+    sendNotification(to, subject, text, () -> {
+    });
+  }
+
+  /**
+   * Sends a notification and runs a callback once the mail server accepted it. The callback never
+   * runs if the message could not be delivered.
+   *
+   * @param to          the recipient's e-mail address
+   * @param subject     the subject of the notification
+   * @param text        the text of the notification
+   * @param onDelivered called on a mail worker thread after the message was delivered
+   */
+  public void sendNotification(String to, String subject, String text, Runnable onDelivered) {
     SimpleMailMessage message = new SimpleMailMessage();
     message.setTo(to);
     message.setSubject(subject);
     message.setText(text);
-    javaMailSender.send(message);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          mailDispatcher.dispatch(message, onDelivered);
+        }
+      });
+    } else {
+      mailDispatcher.dispatch(message, onDelivered);
+    }
   }
-}
\ No newline at end of file
+}
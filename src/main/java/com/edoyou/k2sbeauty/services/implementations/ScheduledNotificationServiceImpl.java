@@ -0,0 +1,114 @@
+package com.edoyou.k2sbeauty.services.implementations;
+
+import com.edoyou.k2sbeauty.entities.model.ScheduledNotification;
+import com.edoyou.k2sbeauty.repositories.ScheduledNotificationRepository;
+import com.edoyou.k2sbeauty.services.interfaces.ScheduledNotificationService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Provides the concrete implementation of the {@code ScheduledNotificationService} interface.
+ *
+ * <p>Notifications are persisted in the {@code scheduled_notifications} table until they are due.
+ * {@link #deliverDue()} picks up a batch of due notifications, claims each of them with a
+ * conditional update and hands the claimed ones to the {@link NotificationService}, which queues
+ * the mails once the claims are committed. A notification is only marked as delivered once the mail
+ * server accepted it. If the mail is lost instead, e.g. dead-lettered or queued when the
+ * application stopped, the claim expires and a later run sends it again, so notifications are
+ * delivered at least once. Claims keep pollers of several instances from sending the same
+ * notification.
+ *
+ * <p>The delivery is configured with the following properties:
+ * <ul>
+ *   <li>{@code k2s.notification.batch-size} - maximum number of notifications per batch
+ *   (default 100)</li>
+ *   <li>{@code k2s.notification.claim-timeout-ms} - time a claimed notification has to be delivered
+ *   before it is sent again (default 10 minutes)</li>
+ *   <li>{@code k2s.notification.max-attempts} - claims after which a notification is given up
+ *   (default 5)</li>
+ * </ul>
+ */
+@Service
+public class ScheduledNotificationServiceImpl implements ScheduledNotificationService {
+
+    private static final Logger LOGGER = LogManager.getLogger(ScheduledNotificationServiceImpl.class.getName());
+
+    private final ScheduledNotificationRepository scheduledNotificationRepository;
+    private final NotificationService notificationService;
+    private final int batchSize;
+    private final Duration claimTimeout;
+    private final int maxAttempts;
+
+    @Autowired
+    public ScheduledNotificationServiceImpl(
+            ScheduledNotificationRepository scheduledNotificationRepository,
+            NotificationService notificationService,
+            @Value("${k2s.notification.batch-size:100}") int batchSize,
+            @Value("${k2s.notification.claim-timeout-ms:600000}") long claimTimeoutMs,
+            @Value("${k2s.notification.max-attempts:5}") int maxAttempts) {
+        this.scheduledNotificationRepository = scheduledNotificationRepository;
+        this.notificationService = notificationService;
+        this.batchSize = batchSize;
+        this.claimTimeout = Duration.ofMillis(claimTimeoutMs);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ScheduledNotification schedule(String to, String subject, String text,
+                                          LocalDateTime dueAt) {
+        LOGGER.info("Scheduling a notification ...");
+        return scheduledNotificationRepository.save(
+                new ScheduledNotification(to, subject, text, dueAt));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public int deliverDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ScheduledNotification> due = scheduledNotificationRepository.findDue(now, maxAttempts,
+                PageRequest.of(0, batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime claimedUntil = now.plus(claimTimeout);
+        int claimed = 0;
+        for (ScheduledNotification notification : due) {
+            Long id = notification.getId();
+            if (scheduledNotificationRepository.claim(id, now, claimedUntil) == 0) {
+                // Claimed by the poller of another instance meanwhile
+                continue;
+            }
+            notificationService.sendNotification(notification.getRecipient(),
+                    notification.getSubject(), notification.getText(),
+                    () -> scheduledNotificationRepository.markDelivered(id, LocalDateTime.now()));
+            claimed++;
+        }
+        LOGGER.info("Delivering {} scheduled notification(s) ...", claimed);
+        return claimed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
@@ -0,0 +1,86 @@
+package com.edoyou.k2sbeauty.services.implementations.appointment_details;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code ScheduleBuilder} assigns appointments to the time slots of a hairdresser's schedule and
+ * groups the slots by date.
+ *
+ * <p>Slots and appointments are both sorted by start time and merged in a single sweep: an
+ * appointment enters the set of running appointments once a slot ends after it starts, and leaves
+ * it once a slot starts after it ends. Each slot and each appointment is therefore visited a
+ * constant number of times, and the cost grows with the size of the window rather than with the
+ * number of appointments times the number of slots.
+ *
+ * <p>A slot is occupied by the earliest non-completed appointment whose interval
+ * {@code [appointmentTime, appointmentTime + service duration)} overlaps it.
+ *
+ * @see TimeSlotService
+ */
+public final class ScheduleBuilder {
+
+    private ScheduleBuilder() {
+    }
+
+    /**
+     * Builds a schedule from the given time slots and appointments.
+     *
+     * @param timeSlots    The time slots of the schedule, in any order.
+     * @param appointments The appointments to place into the slots, in any order.
+     * @return A map of dates to the time slots starting on that date, both in chronological order.
+     */
+    public static Map<LocalDate, List<TimeSlot>> build(List<TimeSlot> timeSlots,
+                                                       List<Appointment> appointments) {
+        List<TimeSlot> slots = new ArrayList<>(timeSlots);
+        slots.sort(Comparator.comparing(TimeSlot::getStart));
+
+        List<Appointment> pending = new ArrayList<>(appointments.size());
+        for (Appointment appointment : appointments) {
+            if (!appointment.isCompleted()) {
+                pending.add(appointment);
+            }
+        }
+        pending.sort(Comparator.comparing(Appointment::getAppointmentTime));
+
+        Map<LocalDate, List<TimeSlot>> schedule = new TreeMap<>();
+        Deque<Appointment> running = new ArrayDeque<>();
+        int next = 0;
+
+        for (TimeSlot timeSlot : slots) {
+            while (next < pending.size()
+                    && pending.get(next).getAppointmentTime().isBefore(timeSlot.getEnd())) {
+                running.addLast(pending.get(next++));
+            }
+            while (!running.isEmpty() && !endOf(running.peekFirst()).isAfter(timeSlot.getStart())) {
+                running.pollFirst();
+            }
+            for (Appointment appointment : running) {
+                if (endOf(appointment).isAfter(timeSlot.getStart())) {
+                    timeSlot.setAppointment(appointment);
+                    break;
+                }
+            }
+
+            schedule.computeIfAbsent(timeSlot.getStart().toLocalDate(), k -> new ArrayList<>())
+                    .add(timeSlot);
+        }
+
+        return schedule;
+    }
+
+    private static LocalDateTime endOf(Appointment appointment) {
+        return appointment.getAppointmentTime()
+                .plusMinutes(Math.max(1, appointment.getBeautyService().getDuration()));
+    }
+}
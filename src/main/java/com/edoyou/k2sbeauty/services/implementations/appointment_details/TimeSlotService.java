@@ -5,8 +5,11 @@ import com.edoyou.k2sbeauty.entities.model.WorkingHours;
 import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,11 @@ import org.springframework.stereotype.Service;
  * a duration equal to the time required for one service (90 minutes by default). It's annotated
  * with @Service to indicate that it's a service that can be injected where needed.
  *
+ * <p>For booking, the working hours of a day are also divided into a grid of
+ * {@link #CELL_MINUTES}-minute cells counted from the start of the working hours. A service of any
+ * duration can start at every cell from which enough consecutive free cells follow; the candidate
+ * start times are computed on primitive arrays of minute offsets, so no objects are created per cell.
+ *
  * @author Taghiyev Kanan
  * @since 2023-05-28
  */
@@ -28,7 +36,14 @@ import org.springframework.stereotype.Service;
 public class TimeSlotService {
 
     public static final int ONE_SERVICE_TIME = 90;
-    private static final int WEEK_DAYS = 7;
+    /**
+     * Length in minutes of a cell of the booking grid.
+     */
+    public static final int CELL_MINUTES = 15;
+    /**
+     * Number of days, starting today, for which time slots are generated.
+     */
+    public static final int WEEK_DAYS = 7;
     private static final Logger LOGGER = LogManager.getLogger(TimeSlotService.class.getName());
 
     /**
@@ -54,6 +69,71 @@ public class TimeSlotService {
         return timeSlots;
     }
 
+    /**
+     * Returns the working window of the specified hairdresser on the given date as minute offsets from
+     * the start of that date. If the working hours cross midnight, the end lies after
+     * {@code 24 * 60}.
+     *
+     * @param hairdresser The hairdresser whose working hours to use.
+     * @param date        The date.
+     * @return The start and end minute of the window, or {@code null} if the hairdresser does not work
+     * on that day.
+     */
+    public int[] workingWindow(Hairdresser hairdresser, LocalDate date) {
+        Optional<WorkingHours> workingHoursOptional = hairdresser.getWorkingHoursForDay(date.getDayOfWeek());
+        if (workingHoursOptional.isEmpty()) {
+            return null;
+        }
+        int start = workingHoursOptional.get().getStart().toSecondOfDay() / 60;
+        int end = workingHoursOptional.get().getEnd().toSecondOfDay() / 60;
+        if (end < start) {
+            end += 24 * 60;
+        }
+        return new int[]{start, end};
+    }
+
+    /**
+     * Returns the number of grid cells a service of the given duration occupies.
+     *
+     * @param durationMinutes The duration of the service in minutes.
+     * @return The number of cells, at least one.
+     */
+    public static int cellsFor(int durationMinutes) {
+        return Math.max(1, (durationMinutes + CELL_MINUTES - 1) / CELL_MINUTES);
+    }
+
+    /**
+     * Computes the candidate start times of a service within one working window. The cells of the
+     * window are the bits {@code [offset, offset + cellCount)} of {@code occupied}; a set bit marks a
+     * cell that a booking overlaps. A start is a candidate if the service fits into free cells before
+     * the end of the window.
+     *
+     * @param occupied        The occupancy bitmap.
+     * @param offset          The bit of the first cell of the window.
+     * @param cellCount       The number of cells of the window.
+     * @param durationMinutes The duration of the service in minutes.
+     * @return The candidate start times in ascending order, as minute offsets from the start of the
+     * window.
+     */
+    public static int[] candidateStarts(BitSet occupied, int offset, int cellCount, int durationMinutes) {
+        int needed = cellsFor(durationMinutes);
+        if (needed > cellCount) {
+            return new int[0];
+        }
+        int[] starts = new int[cellCount - needed + 1];
+        int count = 0;
+        int cell = 0;
+        while (cell + needed <= cellCount) {
+            int busy = occupied.nextSetBit(offset + cell);
+            int firstBusy = busy < 0 ? cellCount : Math.min(busy - offset, cellCount);
+            for (; cell + needed <= firstBusy; cell++) {
+                starts[count++] = cell * CELL_MINUTES;
+            }
+            cell = firstBusy + 1;
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
     /**
      * Adds time slots to the provided list for a specific day of the week, according to the
      * hairdresser's working hours for that day. Each time slot spans the time required for one
@@ -68,7 +148,9 @@ public class TimeSlotService {
     private static void addTimeSlotsForDay(Hairdresser hairdresser, List<TimeSlot> timeSlots,
                                            LocalDateTime dateTime, DayOfWeek dayOfWeek) {
         Optional<WorkingHours> workingHoursOptional = hairdresser.getWorkingHoursForDay(dayOfWeek);
-        LOGGER.info(workingHoursOptional.toString());
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Working hours on {}: {}", dayOfWeek, workingHoursOptional);
+        }
 
         if (workingHoursOptional.isPresent()) {
             WorkingHours workingHours = workingHoursOptional.get();
@@ -0,0 +1,14 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+/**
+ * Application event published whenever an appointment is booked, rescheduled, completed or deleted.
+ * {@link AvailabilityIndex} applies the change to the cached availability once the publishing
+ * transaction commits.
+ *
+ * @param appointmentId The ID of the changed appointment.
+ * @param booking       The interval the appointment occupies now, or {@code null} if it was deleted or
+ *                      completed.
+ */
+public record AppointmentChangedEvent(Long appointmentId, Booking booking) {
+
+}
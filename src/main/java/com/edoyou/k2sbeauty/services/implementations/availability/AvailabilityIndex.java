@@ -0,0 +1,145 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * {@code AvailabilityIndex} keeps, per hairdresser, which parts of the working hours of the coming
+ * {@link TimeSlotService#WEEK_DAYS} days are still free, so the booking page can offer only bookable
+ * start times for the chosen service without querying the database.
+ *
+ * <p>The first lookup for a hairdresser loads their working hours and non-completed appointments
+ * and builds a {@link HairdresserAvailability}; it is rebuilt when the day changes, which rolls the
+ * horizon forward. In between, every {@link AppointmentChangedEvent} is applied to the cached
+ * availabilities once the publishing transaction commits, so booking, rescheduling, completing or
+ * deleting an appointment does not cause a reload.
+ *
+ * <p>A generation counter guards against lost updates: an availability is only cached if no
+ * appointment changed while it was being loaded, otherwise it is used for the current lookup only.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final Logger LOGGER = LogManager.getLogger(AvailabilityIndex.class.getName());
+
+    private final HairdresserService hairdresserService;
+    private final AppointmentService appointmentService;
+    private final TimeSlotService timeSlotService;
+    private final ConcurrentMap<Long, HairdresserAvailability> availabilities = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AvailabilityIndex(HairdresserService hairdresserService,
+                             AppointmentService appointmentService,
+                             TimeSlotService timeSlotService) {
+        this.hairdresserService = hairdresserService;
+        this.appointmentService = appointmentService;
+        this.timeSlotService = timeSlotService;
+    }
+
+    /**
+     * Returns the last day the index knows the free slots of, the horizon rolling forward with
+     * {@code today}.
+     *
+     * @param today The current day.
+     * @return The last of the {@link TimeSlotService#WEEK_DAYS} days starting at {@code today}.
+     */
+    public static LocalDate lastDay(LocalDate today) {
+        return today.plusDays(TimeSlotService.WEEK_DAYS - 1);
+    }
+
+    /**
+     * Returns the times at which a service of the given duration could start with a hairdresser: the
+     * future start times on the {@link TimeSlotService#CELL_MINUTES}-minute grid from which the
+     * service fits into the working hours without overlapping an appointment.
+     *
+     * @param hairdresserId   The ID of the hairdresser.
+     * @param durationMinutes The duration of the service in minutes.
+     * @return The free time slots, each as long as the service, in chronological order.
+     */
+    public List<TimeSlot> findFreeSlots(Long hairdresserId, int durationMinutes) {
+        return findFreeSlots(hairdresserId, durationMinutes, LocalDateTime.MAX, slot -> true,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the first free time slots of a hairdresser for a service of the given duration that end
+     * no later than {@code before} and match the filter.
+     *
+     * @param hairdresserId   The ID of the hairdresser.
+     * @param durationMinutes The duration of the service in minutes.
+     * @param before          The time by which the slots must end.
+     * @param filter          An additional condition the slots must meet.
+     * @param limit           The maximum number of slots to return.
+     * @return The free time slots, each as long as the service, in chronological order.
+     * @see #findFreeSlots(Long, int)
+     */
+    public List<TimeSlot> findFreeSlots(Long hairdresserId, int durationMinutes, LocalDateTime before,
+                                        Predicate<TimeSlot> filter, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        HairdresserAvailability availability = availabilities.get(hairdresserId);
+        if (availability == null || !availability.getFirstDay().equals(now.toLocalDate())) {
+            availability = load(hairdresserId, now.toLocalDate());
+        }
+        return availability.freeSlots(durationMinutes, now, before, filter, limit);
+    }
+
+    /**
+     * Applies an appointment change to the cached availabilities once the transaction that changed the
+     * appointment commits, or immediately if the event was published outside a transaction.
+     *
+     * @param event The appointment change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        generation.incrementAndGet();
+        Booking booking = event.booking();
+        availabilities.replaceAll((hairdresserId, availability) -> availability.with(
+                event.appointmentId(),
+                booking != null && hairdresserId.equals(booking.hairdresserId()) ? booking : null));
+    }
+
+    private HairdresserAvailability load(Long hairdresserId, LocalDate today) {
+        LOGGER.info("Loading the availability of a hairdresser ...");
+        long loadedGeneration = generation.get();
+        Hairdresser hairdresser = hairdresserService.findByIdWithWorkingHours(hairdresserId);
+
+        List<int[]> windows = new ArrayList<>(TimeSlotService.WEEK_DAYS);
+        for (int day = 0; day < TimeSlotService.WEEK_DAYS; day++) {
+            windows.add(timeSlotService.workingWindow(hairdresser, today.plusDays(day)));
+        }
+        LocalDateTime horizonEnd = HairdresserAvailability.build(today, windows, Map.of()).windowEnd();
+
+        Map<Long, Booking> bookings = new HashMap<>();
+        for (Appointment appointment : appointmentService.findActiveByHairdresserBetween(hairdresser,
+                today.atStartOfDay(), horizonEnd)) {
+            bookings.put(appointment.getId(), Booking.of(appointment));
+        }
+        HairdresserAvailability loaded = HairdresserAvailability.build(today, windows, bookings);
+
+        availabilities.compute(hairdresserId,
+                (id, cached) -> generation.get() == loadedGeneration ? loaded : cached);
+        return loaded;
+    }
+}
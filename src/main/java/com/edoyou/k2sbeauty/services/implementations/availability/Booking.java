@@ -0,0 +1,42 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+
+import java.time.LocalDateTime;
+
+/**
+ * The interval {@code [start, end)} during which an appointment occupies a hairdresser.
+ *
+ * @param hairdresserId The ID of the booked hairdresser.
+ * @param start         The start of the appointment.
+ * @param end           The end of the appointment, i.e. the start plus the service duration.
+ */
+public record Booking(Long hairdresserId, LocalDateTime start, LocalDateTime end) {
+
+    /**
+     * Returns the interval occupied by an appointment.
+     *
+     * @param appointment The appointment.
+     * @return The booking, or {@code null} if the appointment is completed and no longer occupies the
+     * hairdresser.
+     */
+    public static Booking of(Appointment appointment) {
+        if (appointment.isCompleted()) {
+            return null;
+        }
+        LocalDateTime start = appointment.getAppointmentTime();
+        return new Booking(appointment.getHairdresser().getId(), start,
+                start.plusMinutes(Math.max(1, appointment.getBeautyService().getDuration())));
+    }
+
+    /**
+     * Checks whether the booking overlaps the interval {@code [from, to)}.
+     *
+     * @param from The start of the interval.
+     * @param to   The end of the interval.
+     * @return true if the intervals overlap.
+     */
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return start.isBefore(to) && end.isAfter(from);
+    }
+}
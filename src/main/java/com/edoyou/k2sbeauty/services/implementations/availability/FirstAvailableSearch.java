@@ -0,0 +1,226 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+import com.edoyou.k2sbeauty.config.ExecutionThreads;
+import com.edoyou.k2sbeauty.dto.AvailableSlotDTO;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code FirstAvailableSearch} answers "who can do this service soonest?" across the whole salon.
+ *
+ * <p>The approved hairdressers offering the service are evaluated in parallel on a pool of
+ * {@code k2s.availability.search-threads} threads (default 4), or on one virtual thread per
+ * hairdresser in the virtual thread execution mode (see {@link ExecutionThreads}). Each hairdresser's free slots come from
+ * the {@link AvailabilityIndex} for the duration of the service; only the first {@code limit}
+ * matching slots of a hairdresser are taken, and once the shared bounded priority queue holds
+ * {@code limit} candidates, slots starting later than the worst of them are not looked at anymore.
+ *
+ * <p>The index only covers the {@link AvailabilityIndex#lastDay(LocalDate) horizon} of the coming
+ * {@link TimeSlotService#WEEK_DAYS} days, so a search can never return slots beyond it.
+ */
+@Component
+public class FirstAvailableSearch {
+
+    private static final Logger LOGGER = LogManager.getLogger(FirstAvailableSearch.class.getName());
+
+    private static final Comparator<Candidate> EARLIEST_FIRST = Comparator
+            .comparing((Candidate candidate) -> candidate.slot().getStart())
+            .thenComparingInt(Candidate::rank);
+
+    private final BeautyServiceService beautyServiceService;
+    private final HairdresserService hairdresserService;
+    private final AvailabilityIndex availabilityIndex;
+    private final ExecutionThreads executionThreads;
+    private final int threads;
+
+    private ExecutorService searchPool;
+
+    @Autowired
+    public FirstAvailableSearch(BeautyServiceService beautyServiceService,
+                                HairdresserService hairdresserService,
+                                AvailabilityIndex availabilityIndex,
+                                ExecutionThreads executionThreads,
+                                @Value("${k2s.availability.search-threads:4}") int threads) {
+        this.beautyServiceService = beautyServiceService;
+        this.hairdresserService = hairdresserService;
+        this.availabilityIndex = availabilityIndex;
+        this.executionThreads = executionThreads;
+        this.threads = threads;
+    }
+
+    /**
+     * Starts the search threads.
+     */
+    @PostConstruct
+    public void start() {
+        searchPool = executionThreads.newPool("availability-search-", threads);
+    }
+
+    /**
+     * Stops the search threads.
+     */
+    @PreDestroy
+    public void stop() {
+        searchPool.shutdownNow();
+    }
+
+    /**
+     * Finds the earliest free slots for a service across all approved hairdressers offering it.
+     *
+     * @param serviceId   The ID of the beauty service.
+     * @param from        The time at or after which the slots must start.
+     * @param to          The time by which the slots must end; clamped to the end of the last day of the
+     *                    availability horizon.
+     * @param windowStart The time of day at or after which the slots must start, or {@code null}.
+     * @param windowEnd   The time of day by which the slots must end, or {@code null}.
+     * @param limit       The maximum number of slots to return.
+     * @return The earliest free slots, ordered by start time and then by the hairdressers' last names;
+     * empty if the service does not exist.
+     */
+    public List<AvailableSlotDTO> findEarliest(Long serviceId, LocalDateTime from, LocalDateTime to,
+                                               LocalTime windowStart, LocalTime windowEnd, int limit) {
+        LOGGER.info("Searching the first available hairdressers for a service ...");
+        LocalDateTime horizonEnd = AvailabilityIndex.lastDay(LocalDate.now()).plusDays(1).atStartOfDay();
+        LocalDateTime end = to.isAfter(horizonEnd) ? horizonEnd : to;
+        if (limit <= 0 || !from.isBefore(end)) {
+            return List.of();
+        }
+        Optional<BeautyService> beautyService = beautyServiceService.findById(serviceId);
+        if (beautyService.isEmpty()) {
+            return List.of();
+        }
+        int duration = beautyService.get().getDuration();
+        List<Hairdresser> hairdressers = hairdresserService.findAllHairdressersByServiceId("lastName",
+                serviceId);
+        Predicate<TimeSlot> filter = slot -> !slot.getStart().isBefore(from)
+                && withinWindow(slot, windowStart, windowEnd);
+        BoundedQueue queue = new BoundedQueue(limit);
+
+        List<Callable<Void>> tasks = new ArrayList<>(hairdressers.size());
+        for (int rank = 0; rank < hairdressers.size(); rank++) {
+            Hairdresser hairdresser = hairdressers.get(rank);
+            int hairdresserRank = rank;
+            tasks.add(() -> {
+                LocalDateTime before = queue.cutoff(end);
+                for (TimeSlot slot : availabilityIndex.findFreeSlots(hairdresser.getId(), duration, before,
+                        filter, limit)) {
+                    if (!queue.offer(new Candidate(hairdresserRank, hairdresser, slot))) {
+                        break;
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> result : searchPool.invokeAll(tasks)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("First available search was interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return queue.drain().stream()
+                .map(candidate -> new AvailableSlotDTO(candidate.hairdresser().getId(),
+                        candidate.hairdresser().getFirstName() + " " + candidate.hairdresser().getLastName(),
+                        candidate.slot().getStart(), candidate.slot().getEnd()))
+                .toList();
+    }
+
+    private static boolean withinWindow(TimeSlot slot, LocalTime windowStart, LocalTime windowEnd) {
+        if (windowStart != null && slot.getStart().toLocalTime().isBefore(windowStart)) {
+            return false;
+        }
+        return windowEnd == null || !slot.getEnd()
+                .isAfter(LocalDateTime.of(slot.getStart().toLocalDate(), windowEnd));
+    }
+
+    /**
+     * A free slot of the hairdresser at position {@code rank} of the hairdressers ordered by last name.
+     */
+    private record Candidate(int rank, Hairdresser hairdresser, TimeSlot slot) {
+
+    }
+
+    /**
+     * Keeps the {@code capacity} earliest candidates offered to it. The head of the underlying heap is
+     * the latest kept candidate, so a full queue rejects later candidates in constant time.
+     */
+    private static final class BoundedQueue {
+
+        private final int capacity;
+        private final PriorityQueue<Candidate> heap;
+
+        BoundedQueue(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity + 1, EARLIEST_FIRST.reversed());
+        }
+
+        /**
+         * Offers a candidate.
+         *
+         * @return false if the candidate was rejected because the queue is full of earlier candidates
+         */
+        synchronized boolean offer(Candidate candidate) {
+            if (heap.size() < capacity) {
+                heap.add(candidate);
+                return true;
+            }
+            if (EARLIEST_FIRST.compare(candidate, heap.peek()) >= 0) {
+                return false;
+            }
+            heap.poll();
+            heap.add(candidate);
+            return true;
+        }
+
+        /**
+         * Returns the time by which slots must end to possibly be kept: the end of the latest kept slot
+         * once the queue is full, otherwise {@code to}.
+         */
+        synchronized LocalDateTime cutoff(LocalDateTime to) {
+            if (heap.size() < capacity) {
+                return to;
+            }
+            LocalDateTime latestEnd = heap.peek().slot().getEnd();
+            return latestEnd.isBefore(to) ? latestEnd : to;
+        }
+
+        synchronized List<Candidate> drain() {
+            List<Candidate> candidates = new ArrayList<>(heap);
+            candidates.sort(EARLIEST_FIRST);
+            return candidates;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * {@code HairdresserAvailability} is an immutable snapshot of the occupancy of one hairdresser's
+ * working hours over the days starting at {@link #getFirstDay()}.
+ *
+ * <p>The working window of each day is a run of {@link TimeSlotService#CELL_MINUTES}-minute cells
+ * starting at the beginning of the working hours. The occupancy of all cells is kept in one bitmap,
+ * the cells of day {@code d} taking the bits from {@code dayOffsets[d]} on; a set bit means that at
+ * least one booking overlaps the cell. The bookings overlapping the days are kept as well, so a
+ * released booking can be removed without reloading the appointments. Changes return a new instance,
+ * so readers never need a lock.
+ */
+final class HairdresserAvailability {
+
+    private static final long CELL_SECONDS = TimeSlotService.CELL_MINUTES * 60L;
+
+    private final LocalDate firstDay;
+    private final LocalDateTime[] windowStarts;
+    private final int[] dayOffsets;
+    private final int[] cellCounts;
+    private final BitSet occupied;
+    private final Map<Long, Booking> bookings;
+
+    private HairdresserAvailability(LocalDate firstDay, LocalDateTime[] windowStarts, int[] dayOffsets,
+                                    int[] cellCounts, BitSet occupied, Map<Long, Booking> bookings) {
+        this.firstDay = firstDay;
+        this.windowStarts = windowStarts;
+        this.dayOffsets = dayOffsets;
+        this.cellCounts = cellCounts;
+        this.occupied = occupied;
+        this.bookings = bookings;
+    }
+
+    /**
+     * Builds the availability from the working window of each day and the bookings of the hairdresser.
+     *
+     * @param firstDay The day of the first entry of {@code windows}.
+     * @param windows  For each day, the start and end minute of the working window as returned by
+     *                 {@link TimeSlotService#workingWindow}, or {@code null} if the hairdresser does
+     *                 not work that day.
+     * @param bookings The bookings of the hairdresser by appointment ID.
+     * @return The new availability.
+     */
+    static HairdresserAvailability build(LocalDate firstDay, List<int[]> windows,
+                                         Map<Long, Booking> bookings) {
+        LocalDateTime[] windowStarts = new LocalDateTime[windows.size()];
+        int[] dayOffsets = new int[windows.size()];
+        int[] cellCounts = new int[windows.size()];
+        int offset = 0;
+        for (int day = 0; day < windows.size(); day++) {
+            int[] window = windows.get(day);
+            dayOffsets[day] = offset;
+            if (window != null) {
+                windowStarts[day] = firstDay.plusDays(day).atStartOfDay().plusMinutes(window[0]);
+                cellCounts[day] = (window[1] - window[0]) / TimeSlotService.CELL_MINUTES;
+                offset += cellCounts[day];
+            }
+        }
+
+        HairdresserAvailability availability = new HairdresserAvailability(firstDay, windowStarts,
+                dayOffsets, cellCounts, new BitSet(offset), Map.copyOf(bookings));
+        for (Booking booking : bookings.values()) {
+            availability.mark(booking);
+        }
+        return availability;
+    }
+
+    LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Returns the first start times at which a service of the given duration fits into free cells,
+     * starts after {@code after}, ends no later than {@code before} and matches the filter. Days are
+     * visited in order and the scan stops once {@code limit} slots are found.
+     *
+     * @param durationMinutes The duration of the service in minutes.
+     * @param after           The time after which the slots must start.
+     * @param before          The time by which the slots must end.
+     * @param filter          An additional condition the slots must meet.
+     * @param limit           The maximum number of slots to return.
+     * @return The free slots, each as long as the service, in chronological order.
+     */
+    List<TimeSlot> freeSlots(int durationMinutes, LocalDateTime after, LocalDateTime before,
+                             Predicate<TimeSlot> filter, int limit) {
+        List<TimeSlot> free = new ArrayList<>();
+        for (int day = 0; day < windowStarts.length; day++) {
+            if (windowStarts[day] == null) {
+                continue;
+            }
+            for (int minute : TimeSlotService.candidateStarts(occupied, dayOffsets[day], cellCounts[day],
+                    durationMinutes)) {
+                LocalDateTime start = windowStarts[day].plusMinutes(minute);
+                LocalDateTime end = start.plusMinutes(durationMinutes);
+                if (end.isAfter(before)) {
+                    return free;
+                }
+                if (start.isAfter(after)) {
+                    TimeSlot timeSlot = new TimeSlot(start, end, null);
+                    if (filter.test(timeSlot)) {
+                        free.add(timeSlot);
+                        if (free.size() == limit) {
+                            return free;
+                        }
+                    }
+                }
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Returns the availability after the appointment with the given ID was changed.
+     *
+     * @param appointmentId The ID of the changed appointment.
+     * @param booking       The interval the appointment now occupies at this hairdresser, or
+     *                      {@code null} if it no longer occupies this hairdresser.
+     * @return The updated availability, or this instance if nothing changed.
+     */
+    HairdresserAvailability with(Long appointmentId, Booking booking) {
+        if (booking != null && !booking.overlaps(firstDay.atStartOfDay(), windowEnd())) {
+            booking = null;
+        }
+        Booking previous = bookings.get(appointmentId);
+        if (previous == null && booking == null || booking != null && booking.equals(previous)) {
+            return this;
+        }
+
+        Map<Long, Booking> changedBookings = new HashMap<>(bookings);
+        if (booking == null) {
+            changedBookings.remove(appointmentId);
+        } else {
+            changedBookings.put(appointmentId, booking);
+        }
+        HairdresserAvailability changed = new HairdresserAvailability(firstDay, windowStarts,
+                dayOffsets, cellCounts, (BitSet) occupied.clone(), Map.copyOf(changedBookings));
+        if (previous != null) {
+            changed.release(previous);
+        }
+        if (booking != null) {
+            changed.mark(booking);
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the end of the last working window, or the end of the first day if there is none;
+     * bookings ending later cannot overlap any cell.
+     */
+    LocalDateTime windowEnd() {
+        for (int day = windowStarts.length - 1; day >= 0; day--) {
+            if (windowStarts[day] != null) {
+                return cellStart(day, cellCounts[day]);
+            }
+        }
+        return firstDay.plusDays(1).atStartOfDay();
+    }
+
+    private void mark(Booking booking) {
+        for (int day = 0; day < windowStarts.length; day++) {
+            int[] cells = cellsOverlapping(day, booking);
+            if (cells != null) {
+                occupied.set(dayOffsets[day] + cells[0], dayOffsets[day] + cells[1]);
+            }
+        }
+    }
+
+    private void release(Booking booking) {
+        for (int day = 0; day < windowStarts.length; day++) {
+            int[] cells = cellsOverlapping(day, booking);
+            if (cells == null) {
+                continue;
+            }
+            for (int cell = cells[0]; cell < cells[1]; cell++) {
+                LocalDateTime start = cellStart(day, cell);
+                LocalDateTime end = start.plusMinutes(TimeSlotService.CELL_MINUTES);
+                occupied.set(dayOffsets[day] + cell, bookings.values().stream()
+                        .anyMatch(remaining -> remaining.overlaps(start, end)));
+            }
+        }
+    }
+
+    /**
+     * Returns the range {@code [first, last)} of the cells of a day that a booking overlaps, or
+     * {@code null} if it overlaps none.
+     */
+    private int[] cellsOverlapping(int day, Booking booking) {
+        if (windowStarts[day] == null) {
+            return null;
+        }
+        long fromSeconds = ChronoUnit.SECONDS.between(windowStarts[day], booking.start());
+        long toSeconds = ChronoUnit.SECONDS.between(windowStarts[day], booking.end());
+        int first = (int) Math.max(0, Math.floorDiv(fromSeconds, CELL_SECONDS));
+        int last = (int) Math.min(cellCounts[day], -Math.floorDiv(-toSeconds, CELL_SECONDS));
+        return first < last ? new int[]{first, last} : null;
+    }
+
+    private LocalDateTime cellStart(int day, int cell) {
+        return windowStarts[day].plusMinutes((long) cell * TimeSlotService.CELL_MINUTES);
+    }
+}
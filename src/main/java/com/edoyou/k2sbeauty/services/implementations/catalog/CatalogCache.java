@@ -0,0 +1,94 @@
+package com.edoyou.k2sbeauty.services.implementations.catalog;
+
+import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * {@code CatalogCache} is a read-through cache for the public service catalog.
+ *
+ * <p>The first request after a change loads the services offered by approved hairdressers and the approved
+ * hairdressers, and builds an immutable {@link CatalogSnapshot}. Every following request is served from that
+ * snapshot without touching the database.
+ *
+ * <p>Invalidation uses a generation counter: a {@link CatalogChangedEvent} increments the counter after the
+ * publishing transaction commits, and a snapshot is only served while its generation matches the counter.
+ * A snapshot that was being built while a change committed carries the old generation and is rebuilt on
+ * the next request, so stale data is never cached for long.
+ *
+ * <p>Concurrent loads are serialized with a {@link ReentrantLock} rather than a {@code synchronized} block,
+ * so a virtual thread waiting for the database while holding the lock does not pin its carrier thread.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(CatalogCache.class.getName());
+
+    private final BeautyServiceService beautyServiceService;
+    private final HairdresserService hairdresserService;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile CatalogSnapshot snapshot;
+
+    @Autowired
+    public CatalogCache(BeautyServiceService beautyServiceService,
+                        HairdresserService hairdresserService) {
+        this.beautyServiceService = beautyServiceService;
+        this.hairdresserService = hairdresserService;
+    }
+
+    /**
+     * Returns the current catalog snapshot, loading it from the database if the catalog changed since the
+     * last load.
+     *
+     * @return The current snapshot.
+     */
+    public CatalogSnapshot getSnapshot() {
+        CatalogSnapshot current = snapshot;
+        if (current != null && current.getGeneration() == generation.get()) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            long currentGeneration = generation.get();
+            current = snapshot;
+            if (current != null && current.getGeneration() == currentGeneration) {
+                return current;
+            }
+            LOGGER.info("Loading the service catalog snapshot ...");
+            current = CatalogSnapshot.build(currentGeneration, beautyServiceService.findAll(),
+                    hairdresserService.findAllHairdressers("lastName"));
+            snapshot = current;
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the cached snapshot as stale.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Invalidates the snapshot once the transaction that changed the catalog commits, or immediately if the
+     * event was published outside a transaction.
+     *
+     * @param event The catalog change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        LOGGER.info("Service catalog changed: {}", event.reason());
+        invalidate();
+    }
+}
@@ -0,0 +1,13 @@
+package com.edoyou.k2sbeauty.services.implementations.catalog;
+
+/**
+ * Application event published whenever data shown in the public service catalog changes, e.g. a
+ * service is added, a hairdresser is approved or rejected, a service is assigned to a hairdresser
+ * or a hairdresser's rating changes. {@link CatalogCache} drops its snapshot when it receives the
+ * event after the publishing transaction commits.
+ *
+ * @param reason a short description of the change, used for logging
+ */
+public record CatalogChangedEvent(String reason) {
+
+}
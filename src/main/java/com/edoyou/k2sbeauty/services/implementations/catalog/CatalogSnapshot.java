@@ -0,0 +1,220 @@
+package com.edoyou.k2sbeauty.services.implementations.catalog;
+
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.data.util.Pair;
+
+/**
+ * {@code CatalogSnapshot} is an immutable view of the public service catalog: the services offered by
+ * approved hairdressers, the approved hairdressers, and the service-hairdresser pairs already sorted
+ * for every supported {@code sortBy} value ("serviceName", "lastName" and "rating").
+ *
+ * <p>All lists and maps are built once and never modified afterwards, so a snapshot can be shared by any
+ * number of concurrent requests without locking.
+ *
+ * @see CatalogCache
+ */
+public final class CatalogSnapshot {
+
+    /**
+     * The supported {@code sortBy} values.
+     */
+    public static final List<String> SORT_KEYS = List.of("serviceName", "lastName", "rating");
+
+    private static final Comparator<Hairdresser> BY_LAST_NAME =
+            Comparator.comparing(Hairdresser::getLastName, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final Comparator<BeautyService> BY_SERVICE_NAME =
+            Comparator.comparing(BeautyService::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final long generation;
+    private final List<BeautyService> services;
+    private final Map<Long, BeautyService> servicesById;
+    private final Map<Long, Hairdresser> hairdressersById;
+    private final Map<String, List<Hairdresser>> hairdressersBySort;
+    private final Map<String, List<Pair<BeautyService, Hairdresser>>> pairsBySort;
+    private final Map<Long, List<Pair<BeautyService, Hairdresser>>> pairsByService;
+    private final Map<Long, List<Pair<BeautyService, Hairdresser>>> pairsByHairdresser;
+
+    private CatalogSnapshot(long generation, List<BeautyService> services,
+                            Map<Long, BeautyService> servicesById, Map<Long, Hairdresser> hairdressersById,
+                            Map<String, List<Hairdresser>> hairdressersBySort,
+                            Map<String, List<Pair<BeautyService, Hairdresser>>> pairsBySort,
+                            Map<Long, List<Pair<BeautyService, Hairdresser>>> pairsByService,
+                            Map<Long, List<Pair<BeautyService, Hairdresser>>> pairsByHairdresser) {
+        this.generation = generation;
+        this.services = services;
+        this.servicesById = servicesById;
+        this.hairdressersById = hairdressersById;
+        this.hairdressersBySort = hairdressersBySort;
+        this.pairsBySort = pairsBySort;
+        this.pairsByService = pairsByService;
+        this.pairsByHairdresser = pairsByHairdresser;
+    }
+
+    /**
+     * Builds a snapshot from the services offered by approved hairdressers and the approved hairdressers.
+     * Only approved hairdressers are paired with services. The pairs are derived from the hairdressers already
+     * fetched with each service, so no lazy association is touched after the loading session is closed.
+     *
+     * @param generation           The cache generation the snapshot belongs to.
+     * @param services             The services offered by approved hairdressers.
+     * @param approvedHairdressers The approved hairdressers.
+     * @return The new snapshot.
+     */
+    public static CatalogSnapshot build(long generation, List<BeautyService> services,
+                                        List<Hairdresser> approvedHairdressers) {
+        Map<Long, BeautyService> servicesById = new LinkedHashMap<>();
+        services.forEach(service -> servicesById.putIfAbsent(service.getId(), service));
+
+        Map<Long, Hairdresser> hairdressersById = new LinkedHashMap<>();
+        approvedHairdressers.stream()
+                .filter(Hairdresser::isApproved)
+                .forEach(hairdresser -> hairdressersById.putIfAbsent(hairdresser.getId(), hairdresser));
+
+        List<Pair<BeautyService, Hairdresser>> pairs = new ArrayList<>();
+        for (BeautyService service : servicesById.values()) {
+            for (Hairdresser hairdresser : service.getHairdressers()) {
+                if (hairdresser.isApproved()) {
+                    pairs.add(Pair.of(service, hairdresser));
+                }
+            }
+        }
+
+        Map<String, List<Pair<BeautyService, Hairdresser>>> pairsBySort = new HashMap<>();
+        Map<String, List<Hairdresser>> hairdressersBySort = new HashMap<>();
+        for (String sortBy : SORT_KEYS) {
+            List<Pair<BeautyService, Hairdresser>> sortedPairs = new ArrayList<>(pairs);
+            sortedPairs.sort(pairComparator(sortBy));
+            pairsBySort.put(key(sortBy), List.copyOf(sortedPairs));
+
+            List<Hairdresser> sortedHairdressers = new ArrayList<>(hairdressersById.values());
+            sortedHairdressers.sort("rating".equals(sortBy)
+                    ? Comparator.comparingDouble(Hairdresser::getRating).reversed()
+                    : BY_LAST_NAME);
+            hairdressersBySort.put(key(sortBy), List.copyOf(sortedHairdressers));
+        }
+
+        List<Pair<BeautyService, Hairdresser>> byLastName = pairsBySort.get(key("lastName"));
+        Map<Long, List<Pair<BeautyService, Hairdresser>>> pairsByService = new HashMap<>();
+        byLastName.forEach(pair -> pairsByService
+                .computeIfAbsent(pair.getFirst().getId(), k -> new ArrayList<>()).add(pair));
+        pairsByService.replaceAll((id, list) -> List.copyOf(list));
+
+        List<Pair<BeautyService, Hairdresser>> byServiceName = pairsBySort.get(key("serviceName"));
+        Map<Long, List<Pair<BeautyService, Hairdresser>>> pairsByHairdresser = new HashMap<>();
+        byServiceName.forEach(pair -> pairsByHairdresser
+                .computeIfAbsent(pair.getSecond().getId(), k -> new ArrayList<>()).add(pair));
+        pairsByHairdresser.replaceAll((id, list) -> List.copyOf(list));
+
+        return new CatalogSnapshot(generation, List.copyOf(servicesById.values()),
+                Collections.unmodifiableMap(servicesById), Collections.unmodifiableMap(hairdressersById),
+                Map.copyOf(hairdressersBySort), Map.copyOf(pairsBySort), Map.copyOf(pairsByService),
+                Map.copyOf(pairsByHairdresser));
+    }
+
+    /**
+     * Returns a comparator to sort the service-hairdresser pairs based on the provided criteria.
+     * The criteria can be one of "serviceName", "lastName", or "rating". The "serviceName" criteria sorts the pairs
+     * based on the service name, the "lastName" criteria sorts the pairs based on the hairdresser's last name, and the
+     * "rating" criteria sorts the pairs based on the hairdresser's rating in descending order.
+     *
+     * @param sortBy The criteria to sort the service-hairdresser pairs
+     * @return A {@link Comparator} to sort the service-hairdresser pairs based on the provided criteria
+     * @throws IllegalArgumentException if the sortBy value is not one of "serviceName", "lastName" or "rating"
+     */
+    public static Comparator<Pair<BeautyService, Hairdresser>> pairComparator(String sortBy) {
+        if ("serviceName".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparing(Pair::getFirst, BY_SERVICE_NAME);
+        } else if ("lastName".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparing(Pair::getSecond, BY_LAST_NAME);
+        } else if ("rating".equalsIgnoreCase(sortBy)) {
+            return Comparator.comparing(
+                            (Pair<BeautyService, Hairdresser> pair) -> pair.getSecond().getRating())
+                    .reversed();
+        } else {
+            throw new IllegalArgumentException("Invalid sortBy value: " + sortBy);
+        }
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<BeautyService> getServices() {
+        return services;
+    }
+
+    /**
+     * Returns all service-hairdresser pairs sorted by the given criteria.
+     *
+     * @param sortBy The criteria to sort the pairs by.
+     * @return The sorted pairs.
+     * @throws IllegalArgumentException if the sortBy value is not one of "serviceName", "lastName" or "rating"
+     */
+    public List<Pair<BeautyService, Hairdresser>> getPairs(String sortBy) {
+        return bySort(pairsBySort, sortBy);
+    }
+
+    /**
+     * Returns the approved hairdressers sorted by the given criteria. Hairdressers are listed by last name for
+     * "serviceName" and "lastName", and by descending rating for "rating".
+     *
+     * @param sortBy The criteria to sort the hairdressers by.
+     * @return The sorted hairdressers.
+     * @throws IllegalArgumentException if the sortBy value is not one of "serviceName", "lastName" or "rating"
+     */
+    public List<Hairdresser> getHairdressers(String sortBy) {
+        return bySort(hairdressersBySort, sortBy);
+    }
+
+    public Optional<BeautyService> findService(Long serviceId) {
+        return Optional.ofNullable(servicesById.get(serviceId));
+    }
+
+    public Optional<Hairdresser> findHairdresser(Long hairdresserId) {
+        return Optional.ofNullable(hairdressersById.get(hairdresserId));
+    }
+
+    /**
+     * Returns the pairs of a service with its approved hairdressers, sorted by the hairdressers' last names.
+     *
+     * @param serviceId The id of the service.
+     * @return The pairs, or an empty list if the service is not part of the catalog.
+     */
+    public List<Pair<BeautyService, Hairdresser>> getPairsForService(Long serviceId) {
+        return pairsByService.getOrDefault(serviceId, List.of());
+    }
+
+    /**
+     * Returns the pairs of an approved hairdresser with their services, sorted by service name.
+     *
+     * @param hairdresserId The id of the hairdresser.
+     * @return The pairs, or an empty list if the hairdresser is not part of the catalog.
+     */
+    public List<Pair<BeautyService, Hairdresser>> getPairsForHairdresser(Long hairdresserId) {
+        return pairsByHairdresser.getOrDefault(hairdresserId, List.of());
+    }
+
+    private static <T> List<T> bySort(Map<String, List<T>> values, String sortBy) {
+        List<T> sorted = sortBy == null ? null : values.get(key(sortBy));
+        if (sorted == null) {
+            throw new IllegalArgumentException("Invalid sortBy value: " + sortBy);
+        }
+        return sorted;
+    }
+
+    private static String key(String sortBy) {
+        return sortBy.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,55 @@
+package com.edoyou.k2sbeauty.services.implementations.jobs;
+
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code RatingRebuildJob} periodically rebuilds the rating aggregates of all hairdressers from the
+ * stored feedback. Ratings are maintained incrementally when feedback is created; this job repairs
+ * any drift, e.g. after feedback was changed directly in the database.
+ *
+ * <p>The aggregates are also rebuilt once at startup, before requests are served, so hairdressers
+ * rated before the aggregates existed, or while this instance was down, keep their earlier ratings
+ * when the next feedback is added.
+ *
+ * <p>The schedule is configured with the {@code k2s.rating.rebuild-cron} property and defaults to
+ * every night at 03:00.
+ */
+@Component
+public class RatingRebuildJob implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LogManager.getLogger(RatingRebuildJob.class.getName());
+
+    private final HairdresserService hairdresserService;
+
+    @Autowired
+    public RatingRebuildJob(HairdresserService hairdresserService) {
+        this.hairdresserService = hairdresserService;
+    }
+
+    /**
+     * Rebuilds all rating aggregates at startup.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuildRatings();
+    }
+
+    /**
+     * Rebuilds all rating aggregates. Failures are logged so the next run can retry.
+     */
+    @Scheduled(cron = "${k2s.rating.rebuild-cron:0 0 3 * * *}")
+    public void rebuildRatings() {
+        LOGGER.info("Starting the rating aggregate rebuild ...");
+        try {
+            hairdresserService.rebuildRatings();
+        } catch (RuntimeException e) {
+            LOGGER.error("Rating aggregate rebuild failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.edoyou.k2sbeauty.services.implementations.jobs;
+
+import com.edoyou.k2sbeauty.services.interfaces.ScheduledNotificationService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code ScheduledNotificationJob} is the single poller for the {@code scheduled_notifications}
+ * table. On every run it delivers due notifications batch by batch until no full batch is left.
+ *
+ * <p>The delay between runs is configured with the {@code k2s.notification.poll-interval-ms}
+ * property and defaults to one minute.
+ */
+@Component
+public class ScheduledNotificationJob {
+
+    private static final Logger LOGGER = LogManager.getLogger(ScheduledNotificationJob.class.getName());
+
+    private final ScheduledNotificationService scheduledNotificationService;
+
+    @Autowired
+    public ScheduledNotificationJob(ScheduledNotificationService scheduledNotificationService) {
+        this.scheduledNotificationService = scheduledNotificationService;
+    }
+
+    /**
+     * Delivers all due notifications. Failures are logged and the remaining notifications are left
+     * for the next run.
+     */
+    @Scheduled(fixedDelayString = "${k2s.notification.poll-interval-ms:60000}")
+    public void deliverDueNotifications() {
+        try {
+            int delivered;
+            do {
+                delivered = scheduledNotificationService.deliverDue();
+            } while (delivered == scheduledNotificationService.getBatchSize());
+        } catch (RuntimeException e) {
+            LOGGER.error("Delivering scheduled notifications failed: {}", e.getMessage());
+        }
+    }
+}
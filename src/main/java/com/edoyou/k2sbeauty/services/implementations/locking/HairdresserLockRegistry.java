@@ -0,0 +1,196 @@
+package com.edoyou.k2sbeauty.services.implementations.locking;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code HairdresserLockRegistry} serializes changes to one hairdresser's calendar within this
+ * application instance, so concurrent bookings of the same hairdresser queue up in memory instead
+ * of racing to the database and retrying there. It is a cheap first layer only; the database still
+ * guards against conflicting bookings from other instances.
+ *
+ * <p>The registry holds a fixed number of locks ({@code k2s.booking.lock-stripes}, default 64) and
+ * maps each hairdresser to one of them by ID, so memory does not grow with the number of
+ * hairdressers and different hairdressers mostly proceed in parallel. A caller waits at most
+ * {@code k2s.booking.lock-timeout-ms} (default 5000) for the lock.
+ *
+ * <p>For every lock, the registry counts how often it was taken, how often the caller had to wait
+ * and for how long. {@code MetricsConfig} publishes these counters tagged with the lock's stripe, so
+ * the hairdressers whose calendars are hot at peak times show up in the Prometheus scrape.
+ */
+@Component
+public class HairdresserLockRegistry {
+
+    private static final Logger LOGGER = LogManager.getLogger(HairdresserLockRegistry.class.getName());
+
+    private final ReentrantLock[] stripes;
+    private final Contention[] contention;
+    private final long timeoutNanos;
+
+    @Autowired
+    public HairdresserLockRegistry(@Value("${k2s.booking.lock-stripes:64}") int stripes,
+                                   @Value("${k2s.booking.lock-timeout-ms:5000}") long timeoutMs) {
+        this.stripes = new ReentrantLock[stripes];
+        this.contention = new Contention[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+            this.contention[i] = new Contention();
+        }
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    /**
+     * Runs an action while holding the calendar lock of a hairdresser.
+     *
+     * @param hairdresserId The ID of the hairdresser whose calendar the action changes.
+     * @param action        The action to run.
+     * @param <T>           The result type of the action.
+     * @return The result of the action.
+     * @throws IllegalStateException if the lock could not be acquired within the timeout
+     */
+    public <T> T withLock(Long hairdresserId, Supplier<T> action) {
+        int stripe = stripeOf(hairdresserId);
+        ReentrantLock lock = stripes[stripe];
+        if (lock.tryLock()) {
+            contention[stripe].acquired();
+        } else {
+            acquireContended(lock, contention[stripe]);
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the calendar lock of a hairdresser.
+     *
+     * @param hairdresserId The ID of the hairdresser whose calendar the action changes.
+     * @param action        The action to run.
+     * @throws IllegalStateException if the lock could not be acquired within the timeout
+     * @see #withLock(Long, Supplier)
+     */
+    public void withLock(Long hairdresserId, Runnable action) {
+        withLock(hairdresserId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of locks, i.e. of stripes the hairdressers are spread over.
+     *
+     * @return The number of stripes.
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Returns the stripe whose lock guards the calendar of a hairdresser.
+     *
+     * @param hairdresserId The ID of the hairdresser.
+     * @return The stripe, between 0 and {@link #getStripeCount()} exclusive.
+     */
+    public int stripeOf(Long hairdresserId) {
+        return Math.floorMod(hairdresserId.hashCode(), stripes.length);
+    }
+
+    /**
+     * Returns the live counters of one lock since the application started.
+     *
+     * @param stripe The stripe of the lock.
+     * @return The counters of the lock.
+     */
+    public Contention getContention(int stripe) {
+        return contention[stripe];
+    }
+
+    private void acquireContended(ReentrantLock lock, Contention stats) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the hairdresser's calendar.", e);
+        }
+        long waited = System.nanoTime() - start;
+        if (!acquired) {
+            stats.timedOut(waited);
+            LOGGER.warn("Timed out waiting for the calendar lock of a hairdresser");
+            throw new IllegalStateException("The hairdresser's calendar is busy, please try again.");
+        }
+        stats.acquiredAfterWait(waited);
+    }
+
+    /**
+     * The counters of one lock.
+     */
+    public static final class Contention {
+
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+
+        /**
+         * @return The number of times the lock was acquired.
+         */
+        public long acquisitions() {
+            return acquisitions.sum();
+        }
+
+        /**
+         * @return The number of acquisitions that had to wait for another thread.
+         */
+        public long contended() {
+            return contended.sum();
+        }
+
+        /**
+         * @return The number of attempts that gave up waiting.
+         */
+        public long timeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * @return The number of waits, successful or not.
+         */
+        public long waits() {
+            return contended.sum() + timeouts.sum();
+        }
+
+        /**
+         * @return The total time spent waiting, in nanoseconds.
+         */
+        public long waitNanos() {
+            return waitNanos.sum();
+        }
+
+        void acquired() {
+            acquisitions.increment();
+        }
+
+        void acquiredAfterWait(long waited) {
+            acquisitions.increment();
+            contended.increment();
+            waitNanos.add(waited);
+        }
+
+        void timedOut(long waited) {
+            timeouts.increment();
+            waitNanos.add(waited);
+        }
+    }
+}
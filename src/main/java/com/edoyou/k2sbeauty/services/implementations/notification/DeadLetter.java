@@ -0,0 +1,17 @@
+package com.edoyou.k2sbeauty.services.implementations.notification;
+
+import java.time.LocalDateTime;
+import org.springframework.mail.SimpleMailMessage;
+
+/**
+ * A mail message that could not be delivered by the {@link MailDispatcher}.
+ *
+ * @param message  the undelivered message
+ * @param attempts the number of delivery attempts made
+ * @param reason   the reason of the last failure
+ * @param failedAt the time the message was given up on
+ */
+public record DeadLetter(SimpleMailMessage message, int attempts, String reason,
+                         LocalDateTime failedAt) {
+
+}
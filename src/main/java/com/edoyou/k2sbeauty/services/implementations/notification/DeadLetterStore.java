@@ -0,0 +1,80 @@
+package com.edoyou.k2sbeauty.services.implementations.notification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code DeadLetterStore} keeps the mail messages the {@link MailDispatcher} gave up on, so they can
+ * be inspected or re-sent. The store is bounded: once {@code k2s.mail.dead-letter-capacity} entries
+ * are held, the oldest one is dropped for every new one.
+ *
+ * <p>The monitor only guards the in-memory updates; logging happens outside of it, so a virtual
+ * thread blocked on a log appender does not pin its carrier thread while holding the store.
+ */
+@Component
+public class DeadLetterStore {
+
+    private static final Logger LOGGER = LogManager.getLogger(DeadLetterStore.class.getName());
+
+    private final int capacity;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    public DeadLetterStore(@Value("${k2s.mail.dead-letter-capacity:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records an undelivered message.
+     *
+     * @param message  the undelivered message
+     * @param attempts the number of delivery attempts made
+     * @param reason   the reason of the last failure
+     */
+    public void add(SimpleMailMessage message, int attempts, String reason) {
+        LOGGER.error("Giving up on mail to {} after {} attempt(s): {}",
+                String.join(",", recipients(message)), attempts, reason);
+        DeadLetter deadLetter = new DeadLetter(message, attempts, reason, LocalDateTime.now());
+        synchronized (this) {
+            if (deadLetters.size() == capacity) {
+                deadLetters.pollFirst();
+            }
+            deadLetters.addLast(deadLetter);
+        }
+    }
+
+    /**
+     * Returns the stored dead letters, oldest first.
+     *
+     * @return a copy of the stored dead letters
+     */
+    public synchronized List<DeadLetter> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    /**
+     * Removes and returns all stored dead letters, oldest first.
+     *
+     * @return the removed dead letters
+     */
+    public synchronized List<DeadLetter> drain() {
+        List<DeadLetter> drained = new ArrayList<>(deadLetters);
+        deadLetters.clear();
+        return drained;
+    }
+
+    public synchronized int size() {
+        return deadLetters.size();
+    }
+
+    private static String[] recipients(SimpleMailMessage message) {
+        return message.getTo() == null ? new String[0] : message.getTo();
+    }
+}
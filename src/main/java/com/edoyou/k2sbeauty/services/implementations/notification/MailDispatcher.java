@@ -0,0 +1,308 @@
+package com.edoyou.k2sbeauty.services.implementations.notification;
+
+import com.edoyou.k2sbeauty.config.ExecutionThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code MailDispatcher} delivers mail messages in the background, so that callers never wait for
+ * an SMTP round trip.
+ *
+ * <p>Messages are put on a bounded in-memory queue and picked up by a pool of worker threads. Each
+ * worker drains up to {@code k2s.mail.batch-size} messages and hands them to
+ * {@link JavaMailSender#send(SimpleMailMessage...)} at once, which delivers the whole batch over a
+ * single SMTP connection. Messages that fail are retried with exponential backoff; after
+ * {@code k2s.mail.max-attempts} attempts, or when the queue is full, they are moved to the
+ * {@link DeadLetterStore}. The worker threads are virtual threads in the virtual thread execution
+ * mode (see {@link ExecutionThreads}).
+ *
+ * <p>The latency of every SMTP batch is recorded in the {@code k2s.mail.send} timer, tagged with its
+ * {@code outcome}, and every failed delivery attempt of a message in the {@code k2s.mail.failures}
+ * counter. The {@code k2s.mail.queue.size} gauge reports the number of waiting messages.
+ *
+ * <p>The pipeline is configured with the following properties:
+ * <ul>
+ *   <li>{@code k2s.mail.queue-capacity} - maximum number of queued messages (default 1000)</li>
+ *   <li>{@code k2s.mail.workers} - number of worker threads (default 2)</li>
+ *   <li>{@code k2s.mail.batch-size} - maximum number of messages per SMTP connection (default 20)</li>
+ *   <li>{@code k2s.mail.max-attempts} - delivery attempts before giving up (default 3)</li>
+ *   <li>{@code k2s.mail.retry-backoff-ms} - delay before the first retry, doubled for each
+ *   further retry (default 1000)</li>
+ * </ul>
+ */
+@Component
+public class MailDispatcher {
+
+    private static final Logger LOGGER = LogManager.getLogger(MailDispatcher.class.getName());
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final JavaMailSender javaMailSender;
+    private final DeadLetterStore deadLetterStore;
+    private final ExecutionThreads executionThreads;
+    private final BlockingQueue<MailJob> queue;
+    private final Queue<MailJob> pendingRetries = new ConcurrentLinkedQueue<>();
+    private final int workers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final Timer sentTimer;
+    private final Timer failedTimer;
+    private final Counter failures;
+
+    private ExecutorService workerPool;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    @Autowired
+    public MailDispatcher(JavaMailSender javaMailSender, DeadLetterStore deadLetterStore,
+                          ExecutionThreads executionThreads, MeterRegistry meterRegistry,
+                          @Value("${k2s.mail.queue-capacity:1000}") int queueCapacity,
+                          @Value("${k2s.mail.workers:2}") int workers,
+                          @Value("${k2s.mail.batch-size:20}") int batchSize,
+                          @Value("${k2s.mail.max-attempts:3}") int maxAttempts,
+                          @Value("${k2s.mail.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.javaMailSender = javaMailSender;
+        this.deadLetterStore = deadLetterStore;
+        this.executionThreads = executionThreads;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.sentTimer = sendTimer(meterRegistry, "success");
+        this.failedTimer = sendTimer(meterRegistry, "failure");
+        this.failures = Counter.builder("k2s.mail.failures")
+                .description("Failed delivery attempts of mail messages")
+                .register(meterRegistry);
+        Gauge.builder("k2s.mail.queue.size", queue, BlockingQueue::size)
+                .description("Mail messages waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the worker threads and the retry scheduler.
+     */
+    @PostConstruct
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        workerPool = executionThreads.newPool("mail-worker-", workers);
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                executionThreads.threadFactory("mail-retry-"));
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::work);
+        }
+    }
+
+    /**
+     * Stops the pipeline. Workers finish the messages already queued, up to a timeout; pending
+     * retries are abandoned and their messages moved to the {@link DeadLetterStore}.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        retryScheduler.shutdownNow();
+        MailJob retry;
+        while ((retry = pendingRetries.poll()) != null) {
+            deadLetterStore.add(retry.message(), retry.attempt() - 1, "Dispatcher stopped");
+        }
+        workerPool.shutdown();
+        try {
+            if (!workerPool.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                workerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        List<MailJob> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        for (MailJob job : leftovers) {
+            deadLetterStore.add(job.message(), job.attempt() - 1, "Dispatcher stopped");
+        }
+    }
+
+    /**
+     * Queues a message for delivery and returns immediately.
+     *
+     * @param message the message to deliver
+     * @return true if the message was queued, false if it was moved to the dead letters because the
+     * queue is full or the dispatcher is stopped
+     */
+    public boolean dispatch(SimpleMailMessage message) {
+        return enqueue(new MailJob(message, 1));
+    }
+
+    /**
+     * Queues a message for delivery and returns immediately. The callback runs on the worker thread
+     * once the mail server accepted the message; it never runs for a dead-lettered message.
+     *
+     * @param message     the message to deliver
+     * @param onDelivered called after the message was delivered
+     * @return true if the message was queued, false if it was moved to the dead letters because the
+     * queue is full or the dispatcher is stopped
+     */
+    public boolean dispatch(SimpleMailMessage message, Runnable onDelivered) {
+        return enqueue(new MailJob(message, 1, onDelivered));
+    }
+
+    /**
+     * Returns the number of messages waiting for a worker.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private boolean enqueue(MailJob job) {
+        if (running && queue.offer(job)) {
+            return true;
+        }
+        deadLetterStore.add(job.message(), job.attempt() - 1,
+                running ? "Mail queue is full" : "Dispatcher stopped");
+        return false;
+    }
+
+    private void work() {
+        List<MailJob> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                MailJob first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Unexpected error in mail worker: {}", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of messages over one SMTP connection and schedules retries for the messages that
+     * failed.
+     */
+    void deliver(List<MailJob> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = batch.get(i).message();
+        }
+        long start = System.nanoTime();
+        try {
+            javaMailSender.send(messages);
+            sentTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            LOGGER.info("Delivered a batch of {} mail message(s)", messages.length);
+            for (MailJob job : batch) {
+                delivered(job);
+            }
+        } catch (MailSendException e) {
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (MailJob job : batch) {
+                if (failed.isEmpty() || failed.containsKey(job.message())) {
+                    Exception cause = failed.getOrDefault(job.message(), e);
+                    retryOrGiveUp(job, cause.getMessage());
+                } else {
+                    delivered(job);
+                }
+            }
+        } catch (MailException e) {
+            failedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            for (MailJob job : batch) {
+                retryOrGiveUp(job, e.getMessage());
+            }
+        }
+    }
+
+    private static void delivered(MailJob job) {
+        try {
+            job.onDelivered().run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Recording the delivery of a mail message failed: {}", e.getMessage());
+        }
+    }
+
+    private void retryOrGiveUp(MailJob job, String reason) {
+        failures.increment();
+        if (job.attempt() >= maxAttempts || !running) {
+            deadLetterStore.add(job.message(), job.attempt(), reason);
+            return;
+        }
+        long delay = retryBackoffMs << (job.attempt() - 1);
+        LOGGER.warn("Mail delivery attempt {} failed, retrying in {} ms: {}", job.attempt(), delay,
+                reason);
+        MailJob next = new MailJob(job.message(), job.attempt() + 1, job.onDelivered());
+        // Tracked here rather than through the scheduler, whose cancelled tasks cannot be run
+        pendingRetries.add(next);
+        try {
+            retryScheduler.schedule(() -> {
+                if (pendingRetries.remove(next)) {
+                    enqueue(next);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (pendingRetries.remove(next)) {
+                deadLetterStore.add(job.message(), job.attempt(), reason);
+            }
+        }
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("k2s.mail.send")
+                .description("Latency of the SMTP deliveries of mail batches")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * A queued message together with the number of the delivery attempt it is waiting for and the
+     * callback to run once it was delivered.
+     */
+    record MailJob(SimpleMailMessage message, int attempt, Runnable onDelivered) {
+
+        MailJob(SimpleMailMessage message, int attempt) {
+            this(message, attempt, () -> {
+            });
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.edoyou.k2sbeauty.services.interfaces;
 
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 
 import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +54,18 @@ public interface AppointmentService {
      */
     List<Appointment> findByHairdresser(Hairdresser hairdresser);
 
+    /**
+     * Find the non-completed appointments of a hairdresser that overlap the window
+     * {@code [from, to)}, ordered by appointment time.
+     *
+     * @param hairdresser The hairdresser to search for.
+     * @param from        Start of the window (inclusive).
+     * @param to          End of the window (exclusive).
+     * @return A list of appointments overlapping the window, earliest first.
+     */
+    List<Appointment> findActiveByHairdresserBetween(Hairdresser hairdresser, LocalDateTime from,
+                                                     LocalDateTime to);
+
     /**
      * Find all appointments.
      *
@@ -74,6 +90,16 @@ public interface AppointmentService {
      */
     Page<Appointment> findAllAppointments(Pageable pageable);
 
+    /**
+     * Retrieves one page of appointment summaries in {@code (appointment_time, id)} order using keyset
+     * pagination.
+     *
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The maximum number of rows on the page.
+     * @return The page of appointment summaries.
+     */
+    CursorPage<AppointmentSummaryDTO> findAppointmentSummaries(PageToken token, int size);
+
     /**
      * Retrieves an appointment by ID.
      *
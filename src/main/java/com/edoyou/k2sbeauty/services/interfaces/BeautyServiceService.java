@@ -1,5 +1,7 @@
 package com.edoyou.k2sbeauty.services.interfaces;
 
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 
 import java.util.List;
@@ -29,6 +31,14 @@ public interface BeautyServiceService {
      */
     Optional<BeautyService> findById(Long id);
 
+    /**
+     * Finds a beauty service by ID, together with all its hairdressers.
+     *
+     * @param id The ID of the beauty service to find.
+     * @return An Optional containing the found beauty service, or an empty Optional if not found.
+     */
+    Optional<BeautyService> findByIdWithHairdressers(Long id);
+
     /**
      * Finds all beauty services.
      *
@@ -44,6 +54,15 @@ public interface BeautyServiceService {
      */
     Page<BeautyService> findAll(Pageable pageable);
 
+    /**
+     * Retrieves a keyset-paginated page of beauty services, in id order.
+     *
+     * @param token The token of the requested page, or {@code null} for the first page.
+     * @param size  The number of services per page.
+     * @return A page of beauty services.
+     */
+    CursorPage<BeautyService> findAll(PageToken token, int size);
+
     /**
      * Retrieves a list of all beauty services.
      *
@@ -18,6 +18,15 @@ public interface ClientService {
    */
   Optional<Client> findClientByEmail(String email);
 
+  /**
+   * Returns a reference to the Client entity with the provided id, without loading it. The reference
+   * can be assigned to associations of other entities.
+   *
+   * @param id The id of the Client.
+   * @return A reference to the Client.
+   */
+  Client getClientReference(Long id);
+
   /**
    * Saves the provided Client entity to the repository.
    *
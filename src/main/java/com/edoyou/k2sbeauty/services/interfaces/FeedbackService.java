@@ -1,6 +1,8 @@
 package com.edoyou.k2sbeauty.services.interfaces;
 
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
 import com.edoyou.k2sbeauty.entities.model.Feedback;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,4 +24,19 @@ public interface FeedbackService {
    * @return An Optional that may contain the found Feedback entity.
    */
   Optional<Feedback> getFeedbackById(Long id);
-}
\ No newline at end of file
+
+  /**
+   * Computes the rating aggregate of a hairdresser from all of their feedback.
+   *
+   * @param hairdresserId The identifier of the Hairdresser.
+   * @return The rating sum and count of the hairdresser.
+   */
+  RatingAggregateDTO getRatingAggregate(Long hairdresserId);
+
+  /**
+   * Computes the rating aggregates of all hairdressers that have received feedback.
+   *
+   * @return One rating aggregate per rated hairdresser.
+   */
+  List<RatingAggregateDTO> getRatingAggregates();
+}
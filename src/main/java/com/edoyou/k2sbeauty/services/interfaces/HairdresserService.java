@@ -1,5 +1,7 @@
 package com.edoyou.k2sbeauty.services.interfaces;
 
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 
 import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
@@ -8,8 +10,6 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 
 /**
@@ -58,6 +58,22 @@ public interface HairdresserService extends UserService {
      */
     Hairdresser findById(Long id);
 
+    /**
+     * Retrieves a {@link Hairdresser} entity by its ID, together with their working hours.
+     *
+     * @param id the ID of the hairdresser
+     * @return a {@link Hairdresser} entity with initialized working hours
+     */
+    Hairdresser findByIdWithWorkingHours(Long id);
+
+    /**
+     * Retrieves a {@link Hairdresser} entity by its ID, together with their beauty services.
+     *
+     * @param id the ID of the hairdresser
+     * @return a {@link Hairdresser} entity with initialized beauty services
+     */
+    Hairdresser findByIdWithBeautyServices(Long id);
+
     /**
      * Retrieves a list of all {@link Hairdresser} entities along with their associated beauty
      * services.
@@ -68,13 +84,14 @@ public interface HairdresserService extends UserService {
     List<Hairdresser> findAllWithBeautyServices();
 
     /**
-     * Retrieves a page of {@link Hairdresser} entities along with their associated beauty services.
+     * Retrieves a keyset-paginated page of {@link Hairdresser} entities that provide beauty
+     * services, along with those services.
      *
-     * @param pageable pagination information
+     * @param token the token of the requested page, or {@code null} for the first page
+     * @param size  the number of hairdressers per page
      * @return a page of {@link Hairdresser} entities along with their associated beauty services
      */
-    @Query("SELECT h FROM Hairdresser h JOIN FETCH h.beautyServices")
-    Page<Hairdresser> findAllWithBeautyServices(Pageable pageable);
+    CursorPage<Hairdresser> findAllWithBeautyServices(PageToken token, int size);
 
     /**
      * Deletes a {@link Hairdresser} entity by its ID.
@@ -84,13 +101,15 @@ public interface HairdresserService extends UserService {
     void deleteHairdresser(Long id);
 
     /**
-     * Retrieves a page of {@link Hairdresser} entities by their approval status.
+     * Retrieves a keyset-paginated page of {@link Hairdresser} entities by their approval status.
      *
      * @param isApproved the approval status to filter by
-     * @param pageable   pagination information
+     * @param token      the token of the requested page, or {@code null} for the first page
+     * @param size       the number of hairdressers per page
      * @return a page of {@link Hairdresser} entities with the provided approval status
      */
-    Page<Hairdresser> findAllHairdressersByApprovalStatus(boolean isApproved, Pageable pageable);
+    CursorPage<Hairdresser> findAllHairdressersByApprovalStatus(boolean isApproved, PageToken token,
+                                                                int size);
 
     /**
      * Generates a schedule for a {@link Hairdresser} entity.
@@ -101,9 +120,22 @@ public interface HairdresserService extends UserService {
     Map<LocalDate, List<TimeSlot>> generateSchedule(Hairdresser hairdresser);
 
     /**
-     * Updates the rating of a {@link Hairdresser} entity.
+     * Recomputes the rating of a {@link Hairdresser} entity from all of their feedback.
      *
      * @param hairdresser the hairdresser entity for which to update the rating
      */
     void updateRating(Hairdresser hairdresser);
+
+    /**
+     * Adds a single feedback rating to the rating aggregate of a {@link Hairdresser} entity.
+     *
+     * @param hairdresser the hairdresser entity who received the rating
+     * @param rating      the rating to add
+     */
+    void addRating(Hairdresser hairdresser, int rating);
+
+    /**
+     * Rebuilds the rating aggregates of all {@link Hairdresser} entities from the stored feedback.
+     */
+    void rebuildRatings();
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.edoyou.k2sbeauty.services.interfaces;
+
+import com.edoyou.k2sbeauty.entities.model.ScheduledNotification;
+import java.time.LocalDateTime;
+
+/**
+ * {@code ScheduledNotificationService} is an interface providing specifications for storing
+ * e-mail notifications that are sent later and for delivering them once they are due.
+ */
+public interface ScheduledNotificationService {
+
+    /**
+     * Stores a notification to be sent at the given time.
+     *
+     * @param to      The recipient's e-mail address.
+     * @param subject The subject of the notification.
+     * @param text    The text of the notification.
+     * @param dueAt   The time at which the notification should be sent.
+     * @return The stored {@link ScheduledNotification}.
+     */
+    ScheduledNotification schedule(String to, String subject, String text, LocalDateTime dueAt);
+
+    /**
+     * Claims one batch of due notifications and sends them. Each one is marked as delivered once the
+     * mail server accepted it.
+     *
+     * @return The number of notifications claimed and sent.
+     */
+    int deliverDue();
+
+    /**
+     * Returns the maximum number of notifications delivered by one call of {@link #deliverDue()}.
+     *
+     * @return The batch size.
+     */
+    int getBatchSize();
+}
@@ -7,7 +7,8 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
 import java.util.Map;
-import java.util.logging.Logger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Custom validator for validating that there is at least one day with working hours.
@@ -23,7 +24,7 @@ import java.util.logging.Logger;
 public class AtLeastOneDayValidator implements
         ConstraintValidator<AtLeastOneDay, WorkingHoursWrapper> {
 
-    private final static Logger LOGGER = Logger.getLogger(AtLeastOneDayValidator.class.getName());
+    private final static Logger LOGGER = LogManager.getLogger(AtLeastOneDayValidator.class.getName());
 
     /**
      * Checks if the WorkingHoursWrapper object is valid according to the @AtLeastOneDay constraint.
@@ -40,7 +41,7 @@ public class AtLeastOneDayValidator implements
                            ConstraintValidatorContext context) {
         Map<Integer, WorkingHoursDTO> workingHoursDtoMap = workingHoursWrapper.getWorkingHoursMap();
 
-        LOGGER.info("WorkingHoursDtoMap: " + workingHoursDtoMap);
+        LOGGER.debug("WorkingHoursDtoMap: {}", workingHoursDtoMap);
 
         if (workingHoursDtoMap == null) {
             return false;
@@ -0,0 +1,58 @@
+package com.edoyou.k2sbeauty.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+public class ExecutionThreadsTest {
+
+  @Test
+  void shouldUseDaemonPlatformThreadsByDefault() throws Exception {
+    ExecutionThreads executionThreads = new ExecutionThreads(false);
+    ExecutorService pool = executionThreads.newPool("test-", 2);
+    try {
+      Future<Thread> thread = pool.submit(Thread::currentThread);
+
+      assertFalse(executionThreads.isVirtual());
+      assertTrue(thread.get(5, TimeUnit.SECONDS).isDaemon());
+      assertTrue(thread.get().getName().startsWith("test-"));
+    } finally {
+      pool.shutdownNow();
+    }
+    assertThrows(IllegalStateException.class,
+        () -> executionThreads.newVirtualThreadPerTaskExecutor("test-"));
+  }
+
+  @Test
+  void shouldFallBackToPlatformThreadsBeforeJava21() {
+    ExecutionThreads executionThreads = new ExecutionThreads(true);
+
+    assertEquals(Runtime.version().feature() >= 21, executionThreads.isVirtual());
+  }
+
+  @Test
+  @EnabledIf("supportsVirtualThreads")
+  void shouldRunTasksOnVirtualThreads() throws Exception {
+    ExecutionThreads executionThreads = new ExecutionThreads(true);
+    ExecutorService pool = executionThreads.newPool("test-", 1);
+    try {
+      Thread thread = pool.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+      assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+      assertEquals("test-0", thread.getName());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  static boolean supportsVirtualThreads() {
+    return Runtime.version().feature() >= 21;
+  }
+}
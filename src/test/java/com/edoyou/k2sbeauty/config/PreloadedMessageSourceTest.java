@@ -0,0 +1,107 @@
+package com.edoyou.k2sbeauty.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.ClassPathResource;
+
+public class PreloadedMessageSourceTest {
+
+  private static final List<Locale> LOCALES = List.of(Locale.US, Locale.ENGLISH, new Locale("az"),
+      new Locale("az", "AZ"), Locale.ROOT, Locale.FRENCH);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void resolvesEveryMessageLikeResourceBundleMessageSource() throws IOException {
+    ResourceBundleMessageSource expected = new ResourceBundleMessageSource();
+    expected.setBasename("i18n/messages");
+    expected.setDefaultEncoding("UTF-8");
+    PreloadedMessageSource actual = new PreloadedMessageSource("classpath:i18n/messages", -1);
+
+    Properties properties = new Properties();
+    properties.load(new ClassPathResource("i18n/messages.properties").getInputStream());
+    for (Locale locale : LOCALES) {
+      for (String code : properties.stringPropertyNames()) {
+        assertEquals(expected.getMessage(code, null, locale), actual.getMessage(code, null, locale),
+            code + " in " + locale);
+      }
+    }
+  }
+
+  @Test
+  void formatsArgumentsInTheRequestedLocale() throws IOException {
+    write("messages.properties", "greeting=Hello {0}, you have {1} bookings\nplain=It''s done");
+    write("messages_az.properties", "greeting=Salam {0}, {1} sifarişiniz var");
+    PreloadedMessageSource source = new PreloadedMessageSource(basename(), -1);
+    source.setFallbackToSystemLocale(false);
+
+    assertEquals("Hello Anna, you have 1,234 bookings",
+        source.getMessage("greeting", new Object[]{"Anna", 1234}, Locale.US));
+    assertEquals("Salam Anna, 2 sifarişiniz var",
+        source.getMessage("greeting", new Object[]{"Anna", 2}, new Locale("az", "AZ")));
+    assertEquals("It''s done", source.getMessage("plain", null, Locale.US));
+    assertEquals("It's done", source.getMessage("plain", new Object[]{"x"}, Locale.US));
+  }
+
+  @Test
+  void throwsForUnknownCodes() throws IOException {
+    write("messages.properties", "known=Known");
+    PreloadedMessageSource source = new PreloadedMessageSource(basename(), -1);
+
+    assertThrows(NoSuchMessageException.class, () -> source.getMessage("unknown", null, Locale.US));
+    assertEquals("Fallback", source.getMessage("unknown", null, "Fallback", Locale.US));
+  }
+
+  @Test
+  void reloadsChangedBundlesAfterTheInterval() throws IOException {
+    Path bundle = write("messages.properties", "title=Old");
+    AtomicLong ticker = new AtomicLong();
+    PreloadedMessageSource source = new PreloadedMessageSource(basename(), 1000, ticker::get);
+    assertEquals("Old", source.getMessage("title", null, Locale.ROOT));
+
+    Files.writeString(bundle, "title=New", StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(bundle, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+    ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+    assertEquals("Old", source.getMessage("title", null, Locale.ROOT));
+
+    ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    assertEquals("New", source.getMessage("title", null, Locale.ROOT));
+  }
+
+  @Test
+  void neverReloadsWithANegativeInterval() throws IOException {
+    Path bundle = write("messages.properties", "title=Old");
+    AtomicLong ticker = new AtomicLong();
+    PreloadedMessageSource source = new PreloadedMessageSource(basename(), -1, ticker::get);
+
+    Files.writeString(bundle, "title=New", StandardCharsets.UTF_8);
+    Files.setLastModifiedTime(bundle, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+    ticker.addAndGet(TimeUnit.DAYS.toNanos(1));
+    assertEquals("Old", source.getMessage("title", null, Locale.ROOT));
+  }
+
+  private Path write(String name, String content) throws IOException {
+    return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+  }
+
+  private String basename() {
+    return directory.resolve("messages").toUri().toString();
+  }
+}
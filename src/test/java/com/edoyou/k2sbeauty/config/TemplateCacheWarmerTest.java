@@ -0,0 +1,49 @@
+package com.edoyou.k2sbeauty.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.thymeleaf.ITemplateEngine;
+
+/**
+ * Checks that the warm-up leaves nothing for the first requests to parse: rendering pages after it
+ * adds no entries to the template cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "k2s.notification.poll-interval-ms=86400000",
+    "spring.thymeleaf.cache=true"
+})
+public class TemplateCacheWarmerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ITemplateEngine templateEngine;
+
+  @Test
+  void shouldParsePagesAndFragmentsAtStartup() throws Exception {
+    int cached = templateEngine.getConfiguration().getCacheManager().getTemplateCache().keySet().size();
+    assertTrue(cached > 15, "cached templates: " + cached);
+
+    mockMvc.perform(get("/login"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("id=\"lang-selector\"")));
+    mockMvc.perform(get("/register"))
+        .andExpect(status().isOk());
+
+    assertEquals(cached, templateEngine.getConfiguration().getCacheManager().getTemplateCache().keySet().size());
+  }
+}
@@ -1,8 +1,9 @@
 package com.edoyou.k2sbeauty.controllers;
 
-import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
-import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
 import com.edoyou.k2sbeauty.services.facade.AdminServiceFacade;
@@ -15,8 +16,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,10 +25,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
-import static org.hamcrest.Matchers.hasProperty;
-import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.isA;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
@@ -55,39 +55,31 @@ public class AdminControllerTest {
   @MockBean
   private Authentication authentication;
 
+  private CursorPage<AppointmentSummaryDTO> appointments;
+
   @BeforeEach
   public void setup() {
-    Client client1 = new Client();
-    client1.setLastName("Taghiyev");
-
-    Hairdresser hairdresser1 = new Hairdresser();
-    hairdresser1.setFirstName("Kanan");
-
-    Appointment appointment1 = new Appointment();
-    appointment1.setClient(client1);
-    appointment1.setHairdresser(hairdresser1);
-    appointment1.setAppointmentTime(LocalDateTime.now());
-    appointment1.setPaymentStatus(PaymentStatus.PENDING);
-    appointment1.setId(1L);
-
-    Appointment appointment2 = new Appointment();
-    appointment2.setClient(client1);
-    appointment2.setHairdresser(hairdresser1);
-    appointment2.setAppointmentTime(LocalDateTime.now().plusHours(2));
-    appointment2.setPaymentStatus(PaymentStatus.PENDING);
-    appointment2.setId(2L);
+    AppointmentSummaryDTO appointment1 = new AppointmentSummaryDTO(1L, LocalDateTime.now(),
+        "Elvin Taghiyev", "Kanan Aliyev", "Haircut", PaymentStatus.PENDING, false);
+    AppointmentSummaryDTO appointment2 = new AppointmentSummaryDTO(2L,
+        LocalDateTime.now().plusHours(2), "Elvin Taghiyev", "Kanan Aliyev", "Haircut",
+        PaymentStatus.PENDING, false);
 
-    Page<Appointment> appointments = new PageImpl<>(List.of(appointment1, appointment2));
-    when(adminServiceFacade.findAllAppointments(any())).thenReturn(appointments);
+    appointments = new CursorPage<>(List.of(appointment1, appointment2), null,
+        appointment2.key().encode());
+    when(adminServiceFacade.findDashboardAppointments(any(), anyInt())).thenReturn(appointments);
 
     List<BeautyService> beautyServices = List.of(new BeautyService(), new BeautyService());
     List<Hairdresser> hairdressers = List.of(new Hairdresser(), new Hairdresser());
-    Page<Hairdresser> hairdresserPage = new PageImpl<>(hairdressers);
+    CursorPage<Hairdresser> hairdresserPage = new CursorPage<>(hairdressers, null, null);
 
     when(authentication.isAuthenticated()).thenReturn(true);
     when(adminServiceFacade.findAllBeautyServices()).thenReturn(beautyServices);
+    when(adminServiceFacade.findBeautyServices(any(), anyInt()))
+        .thenReturn(new CursorPage<>(beautyServices, null, null));
     when(adminServiceFacade.findAllHairdressers()).thenReturn(hairdressers);
-    when(adminServiceFacade.findHairdressersWithServices(any())).thenReturn(hairdresserPage);
+    when(adminServiceFacade.findHairdressersWithServices(any(), anyInt()))
+        .thenReturn(hairdresserPage);
 
     SecurityContext securityContext = Mockito.mock(SecurityContext.class);
     Mockito.when(securityContext.getAuthentication()).thenReturn(authentication);
@@ -98,9 +90,28 @@ public class AdminControllerTest {
   public void testAdminDashboard() throws Exception {
     mockMvc.perform(get("/admin/dashboard")).andExpect(status().isOk())
         .andExpect(view().name("admin/dashboard"))
-        .andExpect(model().attribute("appointments", hasProperty("content", hasSize(2))));
+        .andExpect(model().attribute("appointments", appointments))
+        .andExpect(content().string(containsString("Kanan Aliyev")))
+        .andExpect(content().string(containsString("token=" + appointments.nextToken())));
 
-    verify(adminServiceFacade, times(1)).findAllAppointments(any());
+    verify(adminServiceFacade, times(1)).findDashboardAppointments(null, 4);
+  }
+
+  @Test
+  public void testAdminDashboardWithToken() throws Exception {
+    PageToken token = PageToken.after(LocalDateTime.of(2023, 6, 25, 13, 0), 2L);
+
+    mockMvc.perform(get("/admin/dashboard").param("token", token.encode()).param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(view().name("admin/dashboard"));
+
+    verify(adminServiceFacade, times(1)).findDashboardAppointments(token, 2);
+  }
+
+  @Test
+  public void testAdminDashboardWithInvalidToken() throws Exception {
+    mockMvc.perform(get("/admin/dashboard").param("token", "not-a-token"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
@@ -149,17 +160,18 @@ public class AdminControllerTest {
   @Test
   public void testReviewHairdresserRegistration() throws Exception {
     // Setup
-    Page<Hairdresser> hairdresserPage = new PageImpl<>(
-        List.of(new Hairdresser(), new Hairdresser()));
-    when(adminServiceFacade.findAllYetNotApproved(anyBoolean(), any())).thenReturn(hairdresserPage);
+    CursorPage<Hairdresser> hairdresserPage = new CursorPage<>(
+        List.of(new Hairdresser(), new Hairdresser()), null, null);
+    when(adminServiceFacade.findAllYetNotApproved(anyBoolean(), any(), anyInt()))
+        .thenReturn(hairdresserPage);
 
     // Act & Assert
     mockMvc.perform(get("/admin/hairdresserRegistrationReview"))
         .andExpect(status().isOk())
         .andExpect(view().name("admin/hairdresserRegistrationReview"))
-        .andExpect(model().attribute("hairdressers", hasProperty("content", hasSize(2))));
+        .andExpect(model().attribute("hairdressers", hairdresserPage));
 
-    verify(adminServiceFacade, times(1)).findAllYetNotApproved(anyBoolean(), any());
+    verify(adminServiceFacade, times(1)).findAllYetNotApproved(false, null, 4);
   }
 
   @Test
@@ -174,9 +186,9 @@ public class AdminControllerTest {
   public void testShowServices() throws Exception {
     mockMvc.perform(get("/admin/services")).andExpect(status().isOk())
         .andExpect(view().name("admin/services"))
-        .andExpect(model().attribute("services", hasSize(2)));
+        .andExpect(model().attribute("services", isA(CursorPage.class)));
 
-    verify(adminServiceFacade, times(1)).findAllBeautyServices();
+    verify(adminServiceFacade, times(1)).findBeautyServices(null, 10);
   }
 
   @Test
@@ -192,9 +204,9 @@ public class AdminControllerTest {
   public void testShowHairdressers() throws Exception {
     mockMvc.perform(get("/admin/hairdressers")).andExpect(status().isOk())
         .andExpect(view().name("admin/hairdressers"))
-        .andExpect(model().attribute("hairdressers", hasProperty("content", hasSize(2))));
+        .andExpect(model().attribute("hairdressers", isA(CursorPage.class)));
 
-    verify(adminServiceFacade, times(1)).findHairdressersWithServices(any());
+    verify(adminServiceFacade, times(1)).findHairdressersWithServices(null, 4);
   }
 
 }
\ No newline at end of file
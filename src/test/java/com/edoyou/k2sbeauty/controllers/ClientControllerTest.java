@@ -1,10 +1,13 @@
 package com.edoyou.k2sbeauty.controllers;
 
+import com.edoyou.k2sbeauty.dto.AvailableSlotDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Feedback;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.services.facade.ClientServiceFacade;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -81,12 +84,59 @@ public class ClientControllerTest {
     Long hairdresserId = 1L;
     List<String> timeSlots = Arrays.asList("10:00", "11:00");
 
-    when(clientServiceFacade.getTimeSlots(hairdresserId)).thenReturn(timeSlots);
-    ResponseEntity<List<String>> response = clientController.getTimeSlots(hairdresserId);
+    when(clientServiceFacade.getTimeSlots(hairdresserId, "Haircut")).thenReturn(timeSlots);
+    ResponseEntity<List<String>> response = clientController.getTimeSlots(hairdresserId, "Haircut");
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals(timeSlots, response.getBody());
-    verify(clientServiceFacade, times(1)).getTimeSlots(hairdresserId);
+    verify(clientServiceFacade, times(1)).getTimeSlots(hairdresserId, "Haircut");
+  }
+
+  @Test
+  void testFindFirstAvailableDefaultsToTheComingWeek() {
+    LocalDate today = LocalDate.now();
+    List<AvailableSlotDTO> slots = List.of(new AvailableSlotDTO(1L, "Jane Doe",
+        today.atTime(9, 0), today.atTime(10, 30)));
+    when(clientServiceFacade.findFirstAvailable(7L, today, today.plusDays(6), null, null, 5))
+        .thenReturn(slots);
+
+    ResponseEntity<List<AvailableSlotDTO>> response = clientController.findFirstAvailable(7L, null,
+        null, null, null, 5);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals(slots, response.getBody());
+  }
+
+  @Test
+  void testFindFirstAvailableClampsTheLimit() {
+    LocalDate from = LocalDate.of(2023, 6, 1);
+    LocalTime timeFrom = LocalTime.of(17, 0);
+
+    clientController.findFirstAvailable(7L, from, from, timeFrom, null, 1000);
+
+    verify(clientServiceFacade).findFirstAvailable(7L, from, from, timeFrom, null,
+        ClientController.MAX_SEARCH_RESULTS);
+  }
+
+  @Test
+  void testFindFirstAvailableRejectsDaysBeyondTheAvailabilityHorizon() {
+    LocalDate today = LocalDate.now();
+
+    ResponseEntity<List<AvailableSlotDTO>> response = clientController.findFirstAvailable(7L, today,
+        today.plusDays(8), null, null, 5);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    verifyNoInteractions(clientServiceFacade);
+  }
+
+  @Test
+  void testFindFirstAvailableCutsTheDefaultWeekOffAtTheAvailabilityHorizon() {
+    LocalDate from = LocalDate.now().plusDays(3);
+
+    clientController.findFirstAvailable(7L, from, null, null, null, 5);
+
+    verify(clientServiceFacade).findFirstAvailable(7L, from, LocalDate.now().plusDays(6), null, null,
+        5);
   }
 
   @Test
@@ -0,0 +1,176 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.WorkingHours;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import com.edoyou.k2sbeauty.repositories.AppointmentRepository;
+import com.edoyou.k2sbeauty.repositories.BeautyServiceRepository;
+import com.edoyou.k2sbeauty.repositories.ClientRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserRepository;
+import com.edoyou.k2sbeauty.repositories.WorkingHoursRepository;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogCache;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Serves pages against the database and fails when an endpoint issues more JDBC statements than
+ * its declared budget, which catches N+1 selects introduced in the facades, the services or the
+ * templates. The budgets hold however many appointments the hairdresser has.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "k2s.notification.poll-interval-ms=86400000"
+})
+public class EndpointQueryBudgetTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CatalogCache catalogCache;
+
+  @Autowired
+  private BeautyServiceRepository beautyServiceRepository;
+
+  @Autowired
+  private WorkingHoursRepository workingHoursRepository;
+
+  @Autowired
+  private HairdresserRepository hairdresserRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  private BeautyService beautyService;
+  private WorkingHours workingHours;
+  private Hairdresser hairdresser;
+  private Client client;
+  private Appointment firstAppointment;
+  private Appointment secondAppointment;
+
+  @BeforeEach
+  void setUp() {
+    beautyService = new BeautyService();
+    beautyService.setName("Query budget haircut");
+    beautyService.setDescription("Haircut");
+    beautyService.setDuration(60);
+    beautyService.setPrice(20);
+    beautyService = beautyServiceRepository.save(beautyService);
+
+    workingHours = new WorkingHours();
+    workingHours.setDayOfWeek(LocalDate.now().plusDays(1).getDayOfWeek());
+    workingHours.setStart(LocalTime.of(9, 0));
+    workingHours.setEnd(LocalTime.of(17, 0));
+    workingHours = workingHoursRepository.save(workingHours);
+
+    hairdresser = new Hairdresser();
+    fillUser(hairdresser, "hairdresser");
+    hairdresser.setSpecialization("Hair");
+    hairdresser.setApproved(true);
+    hairdresser.setBeautyServices(Set.of(beautyService));
+    hairdresser.setWorkingHours(Set.of(workingHours));
+    hairdresser = hairdresserRepository.save(hairdresser);
+
+    client = new Client();
+    fillUser(client, "client");
+    client = clientRepository.save(client);
+
+    LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 0);
+    firstAppointment = appointmentRepository.save(appointment(tomorrow));
+    secondAppointment = appointmentRepository.save(appointment(tomorrow.plusHours(2)));
+  }
+
+  @AfterEach
+  void tearDown() {
+    appointmentRepository.deleteById(firstAppointment.getId());
+    appointmentRepository.deleteById(secondAppointment.getId());
+    hairdresserRepository.deleteById(hairdresser.getId());
+    clientRepository.deleteById(client.getId());
+    workingHoursRepository.deleteById(workingHours.getId());
+    beautyServiceRepository.deleteById(beautyService.getId());
+    catalogCache.invalidate();
+  }
+
+  @Test
+  void guestServicesStaysWithinItsBudget() throws Exception {
+    catalogCache.invalidate();
+
+    // the hairdressers with their services, and the services
+    mockMvc.perform(get("/guest/services"))
+        .andExpect(status().isOk())
+        .andExpect(QueryBudget.atMost(2));
+
+    // served from the catalog snapshot
+    mockMvc.perform(get("/guest/services").param("sortBy", "rating"))
+        .andExpect(status().isOk())
+        .andExpect(QueryBudget.atMost(0));
+  }
+
+  @Test
+  void hairdresserScheduleStaysWithinItsBudget() throws Exception {
+    MvcResult result = mockMvc.perform(get("/hairdresser/schedule")
+            .with(user(hairdresser.getEmail()).roles("HAIRDRESSER")))
+        .andExpect(status().isOk())
+        // the principal by e-mail, the hairdresser with their working hours and the appointments
+        // in the schedule window; the principal is cached at login
+        .andExpect(QueryBudget.atMost(3))
+        .andReturn();
+
+    QueryCount count = (QueryCount) result.getRequest()
+        .getAttribute(RequestQueryMetricsFilter.QUERY_COUNT);
+    assertTrue(count.rows() >= 2, "the rows of the appointments are counted");
+    assertTrue(count.nanos() > 0);
+  }
+
+  @Test
+  void requestsWithoutStatementsAreCountedAsZero() throws Exception {
+    MvcResult result = mockMvc.perform(get("/login")).andReturn();
+
+    assertEquals(new QueryCount(0, 0, 0),
+        result.getRequest().getAttribute(RequestQueryMetricsFilter.QUERY_COUNT));
+  }
+
+  private Appointment appointment(LocalDateTime time) {
+    Appointment appointment = new Appointment();
+    appointment.setClient(client);
+    appointment.setHairdresser(hairdresser);
+    appointment.setBeautyService(beautyService);
+    appointment.setAppointmentTime(time);
+    appointment.setPaymentStatus(PaymentStatus.PENDING);
+    return appointment;
+  }
+
+  private static void fillUser(com.edoyou.k2sbeauty.entities.model.User user, String role) {
+    user.setFirstName("Query");
+    user.setLastName("Budget");
+    user.setEmail(role + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setPhone("123456789");
+  }
+}
@@ -0,0 +1,116 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogCache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Serves a guest page against the database and checks the facade and service timers, the
+ * statements counted for the request and the Prometheus scrape endpoint.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "k2s.notification.poll-interval-ms=86400000",
+    "k2s.metrics.scrape.password=scrape-secret"
+})
+public class PrometheusMetricsTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private CatalogCache catalogCache;
+
+  @Test
+  void shouldTimeFacadeCallsAndCountTheStatementsOfRequests() throws Exception {
+    catalogCache.invalidate();
+    long facadeCalls = guestFacadeTimer().map(Timer::count).orElse(0L);
+    long requests = statementsSummary().map(DistributionSummary::count).orElse(0L);
+    double statements = statementsSummary().map(DistributionSummary::totalAmount).orElse(0.0);
+
+    mockMvc.perform(get("/guest/services")).andExpect(status().isOk());
+
+    assertEquals(facadeCalls + 1, guestFacadeTimer().orElseThrow().count());
+    assertTrue(meterRegistry.get(CallTimingAspect.TIMER).tag("layer", "service")
+        .tag("class", "BeautyServiceServiceImpl").timer().count() > 0);
+    assertEquals(requests + 1, statementsSummary().orElseThrow().count());
+    assertTrue(statementsSummary().orElseThrow().totalAmount() > statements);
+  }
+
+  @Test
+  void shouldRejectAnonymousScrapes() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong")))
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @WithMockUser(roles = "CLIENT")
+  void shouldNotServeThePrometheusScrapeEndpointToClients() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+  }
+
+  @Test
+  @WithMockUser(roles = "ADMIN")
+  void shouldServeThePrometheusScrapeEndpointToAdmins() throws Exception {
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk());
+  }
+
+  @Test
+  void shouldServeThePrometheusScrapeEndpointWithTheScrapeCredential() throws Exception {
+    mockMvc.perform(get("/guest/services")).andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("k2s_calls_seconds_bucket{")))
+        .andExpect(content().string(containsString("k2s_http_db_statements_count{")))
+        .andExpect(content().string(containsString("k2s_hibernate_statements_total")))
+        .andExpect(content().string(containsString("k2s_mail_queue_size")))
+        .andExpect(content().string(containsString("k2s_booking_lock_wait_seconds_count{")));
+  }
+
+  @Test
+  void shouldRequireAnAdminForTheOtherActuatorEndpoints() throws Exception {
+    mockMvc.perform(get("/actuator/metrics")).andExpect(status().is3xxRedirection());
+  }
+
+  @Test
+  @WithMockUser(roles = "ADMIN")
+  void shouldServeTheMetricsEndpointToAdmins() throws Exception {
+    mockMvc.perform(get("/actuator/metrics/" + CallTimingAspect.TIMER)).andExpect(status().isOk());
+  }
+
+  private Optional<Timer> guestFacadeTimer() {
+    return Optional.ofNullable(meterRegistry.find(CallTimingAspect.TIMER).tag("layer", "facade")
+        .tag("class", "GuestServiceFacade").tag("method", "getServicesData")
+        .tag("exception", "none").timer());
+  }
+
+  private Optional<DistributionSummary> statementsSummary() {
+    return Optional.ofNullable(meterRegistry.find(RequestQueryMetricsFilter.STATEMENTS)
+        .tag("uri", "/guest/services").summary());
+  }
+}
@@ -0,0 +1,32 @@
+package com.edoyou.k2sbeauty.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+/**
+ * {@link ResultMatcher}s on the {@link QueryCount} that the {@link RequestQueryMetricsFilter} stores
+ * in each request, for declaring the query budget of an endpoint in MockMvc tests.
+ */
+public final class QueryBudget {
+
+  private QueryBudget() {
+  }
+
+  /**
+   * Fails when the request issued more JDBC statements than the budget.
+   *
+   * @param statements the statement budget of the request
+   * @return the matcher
+   */
+  public static ResultMatcher atMost(int statements) {
+    return result -> {
+      QueryCount count = (QueryCount) result.getRequest()
+          .getAttribute(RequestQueryMetricsFilter.QUERY_COUNT);
+      assertNotNull(count, "The request was not counted by the RequestQueryMetricsFilter");
+      assertTrue(count.statements() <= statements, () -> result.getRequest().getRequestURI()
+          + " issued " + count.statements() + " statements, over its budget of " + statements);
+    };
+  }
+}
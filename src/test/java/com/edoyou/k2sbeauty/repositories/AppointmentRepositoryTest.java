@@ -0,0 +1,197 @@
+package com.edoyou.k2sbeauty.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(locations = "classpath:application-test.properties")
+@DataJpaTest
+public class AppointmentRepositoryTest {
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private HairdresserRepository hairdresserRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private BeautyServiceRepository beautyServiceRepository;
+
+  private Hairdresser hairdresser;
+  private Client client;
+  private Appointment existing;
+  private LocalDateTime existingStart;
+
+  @BeforeEach
+  void setUp() {
+    hairdresser = new Hairdresser();
+    hairdresser.setFirstName("Kanan");
+    hairdresser.setLastName("Taghiyev");
+    hairdresser.setPassword("123");
+    hairdresser.setPhone("12345");
+    hairdresser.setSpecialization("Colorist");
+    hairdresser.setEmail("overlap-hairdresser@example.com");
+    hairdresser.setApproved(true);
+    hairdresserRepository.save(hairdresser);
+
+    client = new Client();
+    client.setFirstName("Client");
+    client.setLastName("One");
+    client.setPassword("123");
+    client.setPhone("12345");
+    client.setEmail("overlap-client@example.com");
+    clientRepository.save(client);
+
+    BeautyService service = new BeautyService();
+    service.setName("Haircut");
+    service.setDescription("Haircut");
+    service.setDuration(60);
+    service.setPrice(20);
+    beautyServiceRepository.save(service);
+
+    existingStart = LocalDateTime.now().plusDays(2).withHour(10).withMinute(0).withSecond(0)
+        .withNano(0);
+    existing = new Appointment();
+    existing.setHairdresser(hairdresser);
+    existing.setClient(client);
+    existing.setBeautyService(service);
+    existing.setAppointmentTime(existingStart);
+    existing.setPaymentStatus(PaymentStatus.PENDING);
+    appointmentRepository.save(existing);
+  }
+
+  @Test
+  public void existsOverlappingHairdresserAppointment_ShouldDetectPartialOverlap() {
+    LocalDateTime start = existingStart.plusMinutes(30);
+
+    assertTrue(appointmentRepository.existsOverlappingHairdresserAppointment(hairdresser.getId(),
+        null, start.minusDays(1), start, start.plusMinutes(60)));
+  }
+
+  @Test
+  public void existsOverlappingHairdresserAppointment_ShouldDetectIntervalStartingBefore() {
+    LocalDateTime start = existingStart.minusMinutes(30);
+
+    assertTrue(appointmentRepository.existsOverlappingHairdresserAppointment(hairdresser.getId(),
+        null, start.minusDays(1), start, start.plusMinutes(60)));
+  }
+
+  @Test
+  public void existsOverlappingHairdresserAppointment_ShouldAllowAdjacentIntervals() {
+    LocalDateTime after = existingStart.plusMinutes(60);
+    LocalDateTime before = existingStart.minusMinutes(60);
+
+    assertFalse(appointmentRepository.existsOverlappingHairdresserAppointment(hairdresser.getId(),
+        null, after.minusDays(1), after, after.plusMinutes(60)));
+    assertFalse(appointmentRepository.existsOverlappingHairdresserAppointment(hairdresser.getId(),
+        null, before.minusDays(1), before, before.plusMinutes(60)));
+  }
+
+  @Test
+  public void existsOverlappingHairdresserAppointment_ShouldIgnoreExcludedAndCompleted() {
+    LocalDateTime start = existingStart;
+
+    assertFalse(appointmentRepository.existsOverlappingHairdresserAppointment(hairdresser.getId(),
+        existing.getId(), start.minusDays(1), start, start.plusMinutes(60)));
+
+    existing.setCompleted(true);
+    appointmentRepository.save(existing);
+
+    assertFalse(appointmentRepository.existsOverlappingHairdresserAppointment(hairdresser.getId(),
+        null, start.minusDays(1), start, start.plusMinutes(60)));
+  }
+
+  @Test
+  public void existsOverlappingClientAppointment_ShouldDetectOverlap() {
+    LocalDateTime start = existingStart.plusMinutes(45);
+
+    assertTrue(appointmentRepository.existsOverlappingClientAppointment(client.getId(), null,
+        start.minusDays(1), start, start.plusMinutes(30)));
+    assertFalse(appointmentRepository.existsOverlappingClientAppointment(client.getId(), null,
+        start.plusMinutes(15).minusDays(1), start.plusMinutes(15), start.plusMinutes(45)));
+  }
+
+  @Test
+  public void findActiveByHairdresserBetween_ShouldReturnOnlyWindowInOrder() {
+    Appointment later = new Appointment();
+    later.setHairdresser(hairdresser);
+    later.setClient(client);
+    later.setBeautyService(existing.getBeautyService());
+    later.setAppointmentTime(existingStart.plusHours(3));
+    later.setPaymentStatus(PaymentStatus.PENDING);
+    appointmentRepository.save(later);
+
+    Appointment outside = new Appointment();
+    outside.setHairdresser(hairdresser);
+    outside.setClient(client);
+    outside.setBeautyService(existing.getBeautyService());
+    outside.setAppointmentTime(existingStart.plusDays(8));
+    outside.setPaymentStatus(PaymentStatus.PENDING);
+    appointmentRepository.save(outside);
+
+    List<Appointment> found = appointmentRepository.findActiveByHairdresserBetween(
+        hairdresser.getId(), existingStart, existingStart.plusDays(7));
+
+    assertEquals(List.of(existing.getId(), later.getId()),
+        found.stream().map(Appointment::getId).toList());
+  }
+
+  @Test
+  public void findSummariesAfterAndBefore_ShouldPageByTimeThenId() {
+    LocalDateTime time = LocalDateTime.of(2099, 1, 1, 10, 0);
+    Appointment first = appointmentAt(time);
+    Appointment second = appointmentAt(time);
+    Appointment third = appointmentAt(time.plusHours(1));
+
+    Slice<AppointmentSummaryDTO> afterFirst = appointmentRepository.findSummariesAfter(time,
+        first.getId(), PageRequest.of(0, 1));
+    Slice<AppointmentSummaryDTO> beforeThird = appointmentRepository.findSummariesBefore(
+        third.getAppointmentTime(), third.getId(), PageRequest.of(0, 2));
+
+    assertEquals(List.of(second.getId()),
+        afterFirst.getContent().stream().map(AppointmentSummaryDTO::id).toList());
+    assertTrue(afterFirst.hasNext());
+    assertEquals(List.of(second.getId(), first.getId()),
+        beforeThird.getContent().stream().map(AppointmentSummaryDTO::id).toList());
+
+    AppointmentSummaryDTO summary = afterFirst.getContent().get(0);
+    assertEquals("Client One", summary.clientName());
+    assertEquals("Kanan Taghiyev", summary.hairdresserName());
+    assertEquals("Haircut", summary.serviceName());
+    assertEquals(PaymentStatus.PENDING, summary.paymentStatus());
+  }
+
+  private Appointment appointmentAt(LocalDateTime time) {
+    Appointment appointment = new Appointment();
+    appointment.setHairdresser(hairdresser);
+    appointment.setClient(client);
+    appointment.setBeautyService(existing.getBeautyService());
+    appointment.setAppointmentTime(time);
+    appointment.setPaymentStatus(PaymentStatus.PENDING);
+    return appointmentRepository.save(appointment);
+  }
+}
@@ -2,10 +2,12 @@ package com.edoyou.k2sbeauty.repositories;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import jakarta.validation.ConstraintViolationException;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -15,6 +17,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -31,6 +35,9 @@ public class BeautyServiceRepositoryTest {
   @Autowired
   private HairdresserRepository hairdresserRepository;
 
+  private BeautyService service1;
+  private BeautyService service2;
+
   @BeforeEach
   void setUp() {
     Hairdresser hairdresser1 = new Hairdresser();
@@ -55,14 +62,14 @@ public class BeautyServiceRepositoryTest {
     hairdresser2.setApproved(false);
     hairdresserRepository.save(hairdresser2);
 
-    BeautyService service1 = new BeautyService();
+    service1 = new BeautyService();
     service1.setName("Service1");
     service1.setDescription("It is service 1");
     service1.setPrice(90);
     service1.setHairdressers(new HashSet<>(List.of(hairdresser1)));
     beautyServiceRepository.save(service1);
 
-    BeautyService service2 = new BeautyService();
+    service2 = new BeautyService();
     service2.setName("Service2");
     service2.setDescription("It is service 2");
     service2.setPrice(91);
@@ -89,4 +96,50 @@ public class BeautyServiceRepositoryTest {
     assertEquals(serviceName, serviceOpt.getName());
   }
 
+  @Test
+  public void findPageAfterAndBefore_ShouldSeekById() {
+    Slice<BeautyService> first = beautyServiceRepository.findPageAfter(0L, PageRequest.of(0, 1));
+    Slice<BeautyService> before = beautyServiceRepository.findPageBefore(service2.getId(),
+        PageRequest.of(0, 1));
+
+    assertEquals(List.of(service1.getId()),
+        first.getContent().stream().map(BeautyService::getId).toList());
+    assertTrue(first.hasNext());
+    assertEquals(List.of(service1.getId()),
+        before.getContent().stream().map(BeautyService::getId).toList());
+  }
+
+  @Test
+  public void save_ShouldRejectServicesLongerThanTheMaximumDuration() {
+    BeautyService service = new BeautyService();
+    service.setName("Marathon");
+    service.setDescription("Longer than a day");
+    service.setPrice(500);
+    service.setDuration(BeautyService.MAX_DURATION + 1);
+
+    assertThrows(ConstraintViolationException.class,
+        () -> beautyServiceRepository.saveAndFlush(service));
+  }
+
+  @Test
+  public void findIdsWithBeautyServices_ShouldPageHairdresserIds() {
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setFirstName("Kanan");
+    hairdresser.setLastName("Taghiyev");
+    hairdresser.setPassword("123");
+    hairdresser.setPhone("12345");
+    hairdresser.setSpecialization("Colorist");
+    hairdresser.setEmail("hairdresser3@example.com");
+    hairdresser.setBeautyServices(new HashSet<>(List.of(service1, service2)));
+    Long hairdresserId = hairdresserRepository.save(hairdresser).getId();
+
+    Slice<Long> ids = hairdresserRepository.findIdsWithBeautyServicesAfter(0L,
+        PageRequest.of(0, 5));
+    List<Hairdresser> hairdressers = hairdresserRepository.findAllWithBeautyServicesByIdIn(
+        ids.getContent());
+
+    assertTrue(ids.getContent().contains(hairdresserId));
+    assertEquals(ids.getContent(), hairdressers.stream().map(Hairdresser::getId).toList());
+  }
+
 }
\ No newline at end of file
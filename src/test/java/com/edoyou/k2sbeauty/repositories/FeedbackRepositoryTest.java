@@ -0,0 +1,178 @@
+package com.edoyou.k2sbeauty.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Feedback;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(locations = "classpath:application-test.properties")
+@DataJpaTest
+public class FeedbackRepositoryTest {
+
+  @Autowired
+  private FeedbackRepository feedbackRepository;
+
+  @Autowired
+  private HairdresserRepository hairdresserRepository;
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private BeautyServiceRepository beautyServiceRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  private Hairdresser hairdresser;
+  private Client client;
+  private BeautyService service;
+
+  @BeforeEach
+  void setUp() {
+    hairdresser = new Hairdresser();
+    hairdresser.setFirstName("Kanan");
+    hairdresser.setLastName("Taghiyev");
+    hairdresser.setPassword("123");
+    hairdresser.setPhone("12345");
+    hairdresser.setSpecialization("Colorist");
+    hairdresser.setEmail("rating-hairdresser@example.com");
+    hairdresser.setApproved(true);
+    hairdresserRepository.save(hairdresser);
+
+    client = new Client();
+    client.setFirstName("Client");
+    client.setLastName("One");
+    client.setPassword("123");
+    client.setPhone("12345");
+    client.setEmail("rating-client@example.com");
+    clientRepository.save(client);
+
+    service = new BeautyService();
+    service.setName("Haircut");
+    service.setDescription("Haircut");
+    service.setDuration(60);
+    service.setPrice(20);
+    beautyServiceRepository.save(service);
+  }
+
+  @Test
+  public void aggregateRatingByHairdresser_ShouldSumAndCountFeedback() {
+    saveFeedback(5);
+    saveFeedback(4);
+
+    RatingAggregateDTO aggregate = feedbackRepository.aggregateRatingByHairdresser(
+        hairdresser.getId()).orElseThrow();
+
+    assertEquals(9, aggregate.ratingSum());
+    assertEquals(2, aggregate.ratingCount());
+    assertEquals(4.5, aggregate.average());
+    assertTrue(feedbackRepository.aggregateRatingsByHairdresser().contains(aggregate));
+  }
+
+  @Test
+  public void aggregateRatingByHairdresser_ShouldBeEmptyWithoutFeedback() {
+    assertTrue(feedbackRepository.aggregateRatingByHairdresser(hairdresser.getId()).isEmpty());
+  }
+
+  @Test
+  public void addRating_ShouldMaintainRunningAverage() {
+    assertEquals(1, hairdresserRepository.addRating(hairdresser.getId(), 5));
+    assertEquals(1, hairdresserRepository.addRating(hairdresser.getId(), 2));
+    entityManager.clear();
+
+    Hairdresser reloaded = hairdresserRepository.findById(hairdresser.getId()).orElseThrow();
+
+    assertEquals(7, reloaded.getRatingSum());
+    assertEquals(2, reloaded.getRatingCount());
+    assertEquals(3.5, reloaded.getRating());
+  }
+
+  @Test
+  public void updateRatingAggregate_ShouldOverwriteAggregate() {
+    hairdresserRepository.addRating(hairdresser.getId(), 1);
+
+    hairdresserRepository.updateRatingAggregate(hairdresser.getId(), 14, 3);
+    entityManager.clear();
+
+    Hairdresser reloaded = hairdresserRepository.findById(hairdresser.getId()).orElseThrow();
+    assertEquals(14, reloaded.getRatingSum());
+    assertEquals(3, reloaded.getRatingCount());
+    assertEquals(14.0 / 3, reloaded.getRating(), 1e-9);
+  }
+
+  @Test
+  public void addRating_ShouldKeepRatingsGivenBeforeTheAggregateWasBuilt() {
+    saveFeedback(5);
+    saveFeedback(4);
+
+    // The startup rebuild backfills the aggregate of rows that predate it
+    hairdresserRepository.resetRatingAggregates();
+    for (RatingAggregateDTO aggregate : feedbackRepository.aggregateRatingsByHairdresser()) {
+      hairdresserRepository.updateRatingAggregate(aggregate.hairdresserId(), aggregate.ratingSum(),
+          aggregate.ratingCount());
+    }
+    hairdresserRepository.addRating(hairdresser.getId(), 3);
+    entityManager.clear();
+
+    Hairdresser reloaded = hairdresserRepository.findById(hairdresser.getId()).orElseThrow();
+    assertEquals(12, reloaded.getRatingSum());
+    assertEquals(3, reloaded.getRatingCount());
+    assertEquals(4.0, reloaded.getRating());
+  }
+
+  @Test
+  public void save_ShouldNotOverwriteTheAggregatedRating() {
+    hairdresserRepository.updateRatingAggregate(hairdresser.getId(), 9, 2);
+    hairdresserRepository.addRating(hairdresser.getId(), 3);
+
+    hairdresser.setSpecialization("Barber");
+    hairdresserRepository.saveAndFlush(hairdresser);
+    entityManager.clear();
+
+    Hairdresser reloaded = hairdresserRepository.findById(hairdresser.getId()).orElseThrow();
+    assertEquals("Barber", reloaded.getSpecialization());
+    assertEquals(4.0, reloaded.getRating());
+    assertEquals(3, reloaded.getRatingCount());
+  }
+
+  private void saveFeedback(int rating) {
+    Appointment appointment = new Appointment();
+    appointment.setHairdresser(hairdresser);
+    appointment.setClient(client);
+    appointment.setBeautyService(service);
+    appointment.setAppointmentTime(LocalDateTime.now().minusDays(1));
+    appointment.setPaymentStatus(PaymentStatus.PAID);
+    appointment.setCompleted(true);
+    appointmentRepository.save(appointment);
+
+    Feedback feedback = new Feedback();
+    feedback.setAppointment(appointment);
+    feedback.setClient(client);
+    feedback.setComment("Great");
+    feedback.setCreatedAt(LocalDateTime.now());
+    feedback.setRating(rating);
+    feedbackRepository.save(feedback);
+  }
+}
@@ -51,32 +51,17 @@ public class HairdresserRepositoryTest {
   }
 
   @Test
-  void shouldFindAllWithBeautyServicesPageable() {
-    Pageable pageable = PageRequest.of(0, 5);
-    Page<Hairdresser> hairdresserPage = new PageImpl<>(Collections.emptyList());
+  void shouldFindAllWithBeautyServicesByIdIn() {
+    List<Long> ids = List.of(1L, 2L);
+    List<Hairdresser> hairdressers = List.of(new Hairdresser(), new Hairdresser());
 
-    when(hairdresserRepository.findAllWithBeautyServices(pageable)).thenReturn(hairdresserPage);
+    when(hairdresserRepository.findAllWithBeautyServicesByIdIn(ids)).thenReturn(hairdressers);
 
-    Page<Hairdresser> returnedHairdresserPage = hairdresserRepository.findAllWithBeautyServices(
-        pageable);
+    List<Hairdresser> returnedHairdressers = hairdresserRepository.findAllWithBeautyServicesByIdIn(
+        ids);
 
-    verify(hairdresserRepository, times(1)).findAllWithBeautyServices(pageable);
-    Assertions.assertEquals(hairdresserPage.getSize(), returnedHairdresserPage.getSize());
-  }
-
-  @Test
-  void shouldFindByIsApprovedPageable() {
-    Pageable pageable = PageRequest.of(0, 5);
-    Page<Hairdresser> hairdresserPage = new PageImpl<>(Collections.emptyList());
-    boolean isApproved = true;
-
-    when(hairdresserRepository.findByIsApproved(isApproved, pageable)).thenReturn(hairdresserPage);
-
-    Page<Hairdresser> returnedHairdresserPage = hairdresserRepository.findByIsApproved(isApproved,
-        pageable);
-
-    verify(hairdresserRepository, times(1)).findByIsApproved(isApproved, pageable);
-    Assertions.assertEquals(hairdresserPage.getSize(), returnedHairdresserPage.getSize());
+    verify(hairdresserRepository, times(1)).findAllWithBeautyServicesByIdIn(ids);
+    Assertions.assertEquals(hairdressers.size(), returnedHairdressers.size());
   }
 
   @Test
@@ -0,0 +1,93 @@
+package com.edoyou.k2sbeauty.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.edoyou.k2sbeauty.entities.model.ScheduledNotification;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ExtendWith(SpringExtension.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(locations = "classpath:application-test.properties")
+@DataJpaTest
+public class ScheduledNotificationRepositoryTest {
+
+  @Autowired
+  private ScheduledNotificationRepository scheduledNotificationRepository;
+
+  @Test
+  public void findDue_ShouldReturnOldestUndeliveredDueFirst() {
+    LocalDateTime now = LocalDateTime.now();
+    ScheduledNotification older = save(now.minusHours(2), null);
+    ScheduledNotification newer = save(now.minusHours(1), null);
+    save(now.minusHours(3), now.minusHours(3));
+    save(now.plusHours(1), null);
+
+    List<ScheduledNotification> due = scheduledNotificationRepository.findDue(now, 5,
+        PageRequest.of(0, 10));
+
+    assertEquals(List.of(older.getId(), newer.getId()),
+        due.stream().map(ScheduledNotification::getId).toList());
+  }
+
+  @Test
+  public void findDue_ShouldLimitBatch() {
+    LocalDateTime now = LocalDateTime.now();
+    ScheduledNotification oldest = save(now.minusHours(3), null);
+    save(now.minusHours(2), null);
+
+    List<ScheduledNotification> due = scheduledNotificationRepository.findDue(now, 5,
+        PageRequest.of(0, 1));
+
+    assertEquals(List.of(oldest.getId()), due.stream().map(ScheduledNotification::getId).toList());
+  }
+
+  @Test
+  public void claim_ShouldSucceedOnceUntilTheClaimExpires() {
+    LocalDateTime now = LocalDateTime.now();
+    ScheduledNotification notification = save(now.minusHours(1), null);
+
+    assertEquals(1, scheduledNotificationRepository.claim(notification.getId(), now,
+        now.plusMinutes(10)));
+    assertEquals(0, scheduledNotificationRepository.claim(notification.getId(), now,
+        now.plusMinutes(10)));
+    assertEquals(List.of(), scheduledNotificationRepository.findDue(now, 5, PageRequest.of(0, 10)));
+
+    LocalDateTime later = now.plusMinutes(10);
+    assertEquals(1, scheduledNotificationRepository.findDue(later, 5, PageRequest.of(0, 10))
+        .size());
+    assertEquals(1, scheduledNotificationRepository.claim(notification.getId(), later,
+        later.plusMinutes(10)));
+    assertEquals(List.of(), scheduledNotificationRepository.findDue(later.plusMinutes(10), 2,
+        PageRequest.of(0, 10)));
+  }
+
+  @Test
+  public void markDelivered_ShouldRemoveNotificationFromDue() {
+    LocalDateTime now = LocalDateTime.now();
+    ScheduledNotification notification = save(now.minusHours(1), null);
+    scheduledNotificationRepository.claim(notification.getId(), now, now.plusMinutes(10));
+
+    assertEquals(1, scheduledNotificationRepository.markDelivered(notification.getId(), now));
+
+    assertEquals(List.of(), scheduledNotificationRepository.findDue(now.plusHours(1), 5,
+        PageRequest.of(0, 10)));
+    assertEquals(0, scheduledNotificationRepository.claim(notification.getId(), now.plusHours(1),
+        now.plusHours(2)));
+  }
+
+  private ScheduledNotification save(LocalDateTime dueAt, LocalDateTime deliveredAt) {
+    ScheduledNotification notification = new ScheduledNotification("client@example.com",
+        "Subject", "Text", dueAt);
+    notification.setDeliveredAt(deliveredAt);
+    return scheduledNotificationRepository.save(notification);
+  }
+}
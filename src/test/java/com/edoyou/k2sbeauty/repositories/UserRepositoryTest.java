@@ -1,7 +1,9 @@
 package com.edoyou.k2sbeauty.repositories;
 
+import com.edoyou.k2sbeauty.dto.UserCredentialsDTO;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.Role;
 import com.edoyou.k2sbeauty.entities.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +13,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,6 +26,9 @@ public class UserRepositoryTest {
 
   @Autowired
   private UserRepository userRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
   private Client client;
   private Hairdresser hairdresser;
 
@@ -96,4 +103,36 @@ public class UserRepositoryTest {
     assertThat(deletedClient.isPresent()).isFalse();
   }
 
+  @Test
+  public void shouldFindCredentialsWithOneRowPerRole() {
+    Role first = new Role();
+    first.setName("ROLE_CREDENTIALS_FIRST");
+    Role second = new Role();
+    second.setName("ROLE_CREDENTIALS_SECOND");
+    hairdresser.setRoles(Set.of(roleRepository.save(first), roleRepository.save(second)));
+    Hairdresser savedHairdresser = userRepository.save(hairdresser);
+
+    List<UserCredentialsDTO> rows = userRepository.findCredentialsByEmail(hairdresser.getEmail());
+
+    assertThat(rows).extracting(UserCredentialsDTO::role)
+        .containsExactlyInAnyOrder("ROLE_CREDENTIALS_FIRST", "ROLE_CREDENTIALS_SECOND");
+    assertThat(rows).allSatisfy(row -> {
+      assertThat(row.id()).isEqualTo(savedHairdresser.getId());
+      assertThat(row.password()).isEqualTo("password");
+      assertThat(row.type()).isEqualTo("HAIRDRESSER");
+    });
+  }
+
+  @Test
+  public void shouldFindCredentialsOfAUserWithoutRoles() {
+    userRepository.save(client);
+
+    List<UserCredentialsDTO> rows = userRepository.findCredentialsByEmail(client.getEmail());
+
+    assertThat(rows).singleElement().satisfies(row -> {
+      assertThat(row.type()).isEqualTo("CLIENT");
+      assertThat(row.role()).isNull();
+    });
+    assertThat(userRepository.findCredentialsByEmail("nobody@example.com")).isEmpty();
+  }
 }
@@ -0,0 +1,107 @@
+package com.edoyou.k2sbeauty.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class BoundedPasswordEncoderTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maxRunning = new AtomicInteger();
+  private BoundedPasswordEncoder encoder;
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    encoder.shutdown();
+  }
+
+  @Test
+  void shouldHashOnAtMostThePoolSizeAtATime() throws Exception {
+    encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 2, 10);
+
+    List<CompletableFuture<Boolean>> logins = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      logins.add(CompletableFuture.supplyAsync(() -> encoder.matches("secret", "hash:secret")));
+    }
+    waitUntil(() -> running.get() == 2 && encoder.getQueueSize() == 4);
+    release.countDown();
+
+    for (CompletableFuture<Boolean> login : logins) {
+      assertTrue(login.get(5, TimeUnit.SECONDS));
+    }
+    assertEquals(2, maxRunning.get());
+  }
+
+  @Test
+  void shouldFailWhenTheQueueIsFull() throws Exception {
+    encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1);
+    CompletableFuture.runAsync(() -> encoder.encode("first"));
+    CompletableFuture.runAsync(() -> encoder.encode("second"));
+    waitUntil(() -> running.get() == 1 && encoder.getQueueSize() == 1);
+
+    assertThrows(AuthenticationServiceException.class, () -> encoder.encode("third"));
+    ExecutionException rejected = assertThrows(ExecutionException.class,
+        () -> encoder.encodeInBackground("fourth").get());
+    assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+  }
+
+  @Test
+  void shouldEncodeInTheBackground() throws Exception {
+    encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1);
+
+    CompletableFuture<String> hash = encoder.encodeInBackground("secret");
+    release.countDown();
+
+    assertEquals("hash:secret", hash.get(5, TimeUnit.SECONDS));
+  }
+
+  private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "condition not met in time");
+      Thread.sleep(10);
+    }
+  }
+
+  private class BlockingEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      hash();
+      return "hash:" + rawPassword;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      hash();
+      return encodedPassword.equals("hash:" + rawPassword);
+    }
+
+    private void hash() {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        running.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.edoyou.k2sbeauty.security;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Role;
+import com.edoyou.k2sbeauty.repositories.ClientRepository;
+import com.edoyou.k2sbeauty.repositories.RoleRepository;
+import com.edoyou.k2sbeauty.repositories.UserRepository;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Signs in with a password hash of a lower cost and without the algorithm prefix, as stored before
+ * the cost was raised, and checks that the hash is replaced in the background.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "k2s.notification.poll-interval-ms=86400000",
+    "k2s.password.bcrypt-cost=5"
+})
+public class LoginRehashTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  private Client client;
+
+  @BeforeEach
+  void setUp() {
+    client = new Client();
+    client.setFirstName("Login");
+    client.setLastName("Rehash");
+    client.setEmail("client-" + UUID.randomUUID() + "@example.com");
+    client.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+    client.setPhone("123456789");
+    client.setRoles(Set.of(roleRepository.findByName("ROLE_CLIENT").orElseGet(() -> {
+      Role role = new Role();
+      role.setName("ROLE_CLIENT");
+      return roleRepository.save(role);
+    })));
+    client = clientRepository.save(client);
+  }
+
+  @AfterEach
+  void tearDown() {
+    clientRepository.deleteById(client.getId());
+  }
+
+  @Test
+  void shouldRehashAnOutdatedHashAfterLogin() throws Exception {
+    mockMvc.perform(formLogin("/perform_login").userParameter("email")
+            .user(client.getEmail()).password("secret"))
+        .andExpect(authenticated());
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    String hash = userRepository.findById(client.getId()).orElseThrow().getPassword();
+    while (!hash.startsWith("{bcrypt}$2a$05$") && System.nanoTime() < deadline) {
+      Thread.sleep(50);
+      hash = userRepository.findById(client.getId()).orElseThrow().getPassword();
+    }
+    assertTrue(hash.startsWith("{bcrypt}$2a$05$"), hash);
+    assertTrue(passwordEncoder.matches("secret", hash));
+
+    mockMvc.perform(formLogin("/perform_login").userParameter("email")
+            .user(client.getEmail()).password("secret"))
+        .andExpect(authenticated());
+  }
+}
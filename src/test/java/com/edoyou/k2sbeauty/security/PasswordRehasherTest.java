@@ -0,0 +1,106 @@
+package com.edoyou.k2sbeauty.security;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.config.ExecutionThreads;
+import com.edoyou.k2sbeauty.repositories.UserRepository;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+public class PasswordRehasherTest {
+
+  private static final String EMAIL = "client@example.com";
+
+  private BoundedPasswordEncoder passwordEncoder;
+  private UserRepository userRepository;
+  private ApplicationEventPublisher eventPublisher;
+  private PasswordRehasher passwordRehasher;
+
+  @BeforeEach
+  void setUp() {
+    DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt",
+        Map.of("bcrypt", new BCryptPasswordEncoder(5)));
+    delegating.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(5));
+    passwordEncoder = new BoundedPasswordEncoder(delegating, 1, 10);
+    userRepository = mock(UserRepository.class);
+    eventPublisher = mock(ApplicationEventPublisher.class);
+    passwordRehasher = new PasswordRehasher(passwordEncoder, userRepository, eventPublisher,
+        new ExecutionThreads(false));
+    passwordRehasher.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordRehasher.stop();
+    passwordEncoder.shutdown();
+  }
+
+  @Test
+  void shouldRehashALowerCostHash() {
+    String oldHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+    when(userRepository.replacePassword(eq(7L), eq(oldHash), any())).thenReturn(1);
+
+    passwordRehasher.rehashIfNeeded(user(oldHash), "secret");
+
+    verify(userRepository, timeout(5000)).replacePassword(eq(7L), eq(oldHash),
+        argThat(newHash -> newHash.startsWith("{bcrypt}$2a$05$")
+            && passwordEncoder.matches("secret", newHash)));
+    verify(eventPublisher, timeout(5000)).publishEvent(
+        new PrincipalChangedEvent(EMAIL, "password rehashed"));
+  }
+
+  @Test
+  void shouldRehashAHashWithoutPrefix() {
+    String oldHash = new BCryptPasswordEncoder(5).encode("secret");
+    assertTrue(passwordEncoder.matches("secret", oldHash));
+
+    passwordRehasher.rehashIfNeeded(user(oldHash), "secret");
+
+    verify(userRepository, timeout(5000)).replacePassword(eq(7L), eq(oldHash),
+        argThat(newHash -> newHash.startsWith("{bcrypt}$2a$05$")));
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
+  @Test
+  void shouldWriteTheNewHashOutsideTheHashingPool() {
+    String oldHash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret");
+    AtomicReference<String> writingThread = new AtomicReference<>();
+    when(userRepository.replacePassword(eq(7L), eq(oldHash), any())).thenAnswer(invocation -> {
+      writingThread.set(Thread.currentThread().getName());
+      return 1;
+    });
+
+    passwordRehasher.rehashIfNeeded(user(oldHash), "secret");
+
+    verify(userRepository, timeout(5000)).replacePassword(eq(7L), eq(oldHash), any());
+    assertTrue(writingThread.get().startsWith("password-rehash-"), writingThread.get());
+  }
+
+  @Test
+  void shouldKeepACurrentHash() {
+    passwordRehasher.rehashIfNeeded(user(passwordEncoder.encode("secret")), "secret");
+
+    verifyNoInteractions(userRepository, eventPublisher);
+  }
+
+  private static AuthenticatedUser user(String hash) {
+    return new AuthenticatedUser(
+        new UserSnapshot(7L, EMAIL, hash, Set.of("ROLE_CLIENT"), UserSnapshot.Type.CLIENT));
+  }
+}
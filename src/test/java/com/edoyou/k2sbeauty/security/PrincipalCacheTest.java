@@ -0,0 +1,109 @@
+package com.edoyou.k2sbeauty.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.dto.UserCredentialsDTO;
+import com.edoyou.k2sbeauty.repositories.UserRepository;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+
+public class PrincipalCacheTest {
+
+  private static final String EMAIL = "client@example.com";
+
+  private UserRepository userRepository;
+  private AtomicLong now;
+  private PrincipalCache principalCache;
+
+  @BeforeEach
+  void setUp() {
+    userRepository = mock(UserRepository.class);
+    now = new AtomicLong();
+    principalCache = new PrincipalCache(userRepository, 1000, 2, now::get);
+    when(userRepository.findCredentialsByEmail(EMAIL)).thenReturn(List.of(
+        new UserCredentialsDTO(7L, EMAIL, "hash", "CLIENT", "ROLE_CLIENT"),
+        new UserCredentialsDTO(7L, EMAIL, "hash", "CLIENT", "ROLE_USER")));
+  }
+
+  @Test
+  void shouldLoadASnapshotOnceUntilItExpires() {
+    UserSnapshot snapshot = principalCache.find(EMAIL).orElseThrow();
+    assertEquals(new UserSnapshot(7L, EMAIL, "hash", Set.of("ROLE_CLIENT", "ROLE_USER"),
+        UserSnapshot.Type.CLIENT), snapshot);
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+    assertSame(snapshot, principalCache.find(EMAIL).orElseThrow());
+    verify(userRepository, times(1)).findCredentialsByEmail(EMAIL);
+
+    now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+    principalCache.find(EMAIL);
+    verify(userRepository, times(2)).findCredentialsByEmail(EMAIL);
+  }
+
+  @Test
+  void shouldNotCacheUnknownUsers() {
+    assertTrue(principalCache.find("nobody@example.com").isEmpty());
+    assertTrue(principalCache.find("nobody@example.com").isEmpty());
+
+    verify(userRepository, times(2)).findCredentialsByEmail("nobody@example.com");
+  }
+
+  @Test
+  void shouldEvictTheLeastRecentlyUsedSnapshot() {
+    for (String email : List.of("first@example.com", "second@example.com")) {
+      when(userRepository.findCredentialsByEmail(email)).thenReturn(
+          List.of(new UserCredentialsDTO(1L, email, "hash", "USER", null)));
+    }
+    principalCache.find("first@example.com");
+    principalCache.find(EMAIL);
+    principalCache.find("first@example.com");
+    principalCache.find("second@example.com");
+
+    principalCache.find("first@example.com");
+    principalCache.find(EMAIL);
+
+    verify(userRepository, times(1)).findCredentialsByEmail("first@example.com");
+    verify(userRepository, times(2)).findCredentialsByEmail(EMAIL);
+  }
+
+  @Test
+  void shouldReloadAChangedUser() {
+    principalCache.find(EMAIL);
+
+    principalCache.onPrincipalChanged(new PrincipalChangedEvent("Client@Example.com", "role granted"));
+    principalCache.find(EMAIL);
+
+    verify(userRepository, times(2)).findCredentialsByEmail(EMAIL);
+  }
+
+  @Test
+  void shouldResolveTheAuthenticatedUserFromThePrincipal() {
+    AuthenticatedUser user = new AuthenticatedUser(
+        new UserSnapshot(7L, EMAIL, "hash", Set.of("ROLE_CLIENT"), UserSnapshot.Type.CLIENT));
+
+    assertSame(user, principalCache.resolve(new TestingAuthenticationToken(user, null)).orElseThrow());
+    verifyNoInteractions(userRepository);
+  }
+
+  @Test
+  void shouldResolveOtherPrincipalsByName() {
+    AuthenticatedUser user = principalCache.resolve(
+        new TestingAuthenticationToken(EMAIL, null)).orElseThrow();
+
+    assertEquals(7L, user.getId());
+    assertEquals(UserSnapshot.Type.CLIENT, user.getType());
+    assertEquals(2, user.getAuthorities().size());
+  }
+}
@@ -0,0 +1,76 @@
+package com.edoyou.k2sbeauty.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+public class SignedTokenCodecTest {
+
+  private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+  private AtomicLong now;
+  private SignedTokenCodec codec;
+  private AuthenticatedUser user;
+
+  @BeforeEach
+  void setUp() {
+    now = new AtomicLong(1_700_000_000_000L);
+    codec = new SignedTokenCodec(SECRET, 60_000, now::get);
+    user = new AuthenticatedUser(new UserSnapshot(7L, "client|x@example.com", "hash",
+        Set.of("ROLE_CLIENT", "ROLE_USER"), UserSnapshot.Type.CLIENT));
+  }
+
+  @Test
+  void shouldRestoreThePrincipalFromItsToken() {
+    AuthenticatedUser restored = codec.decode(codec.encode(user)).orElseThrow();
+
+    assertEquals(7L, restored.getId());
+    assertEquals(UserSnapshot.Type.CLIENT, restored.getType());
+    assertEquals("client|x@example.com", restored.getUsername());
+    assertEquals(Set.of("ROLE_CLIENT", "ROLE_USER"),
+        AuthorityUtils.authorityListToSet(restored.getAuthorities()));
+  }
+
+  @Test
+  void shouldRejectExpiredTokens() {
+    String token = codec.encode(user);
+
+    now.addAndGet(59_000);
+    assertTrue(codec.decode(token).isPresent());
+    now.addAndGet(1_000);
+    assertTrue(codec.decode(token).isEmpty());
+  }
+
+  @Test
+  void shouldRejectTamperedTokens() {
+    String token = codec.encode(user);
+    String signature = token.substring(token.indexOf('.'));
+    String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+        "7|CLIENT|9999999999|ROLE_ADMIN|client|x@example.com".getBytes());
+
+    assertTrue(codec.decode(forgedPayload + signature).isEmpty());
+    assertTrue(codec.decode(token.substring(0, token.length() - 2)).isEmpty());
+    assertTrue(codec.decode("not-a-token").isEmpty());
+    assertTrue(codec.decode(null).isEmpty());
+  }
+
+  @Test
+  void shouldRejectTokensSignedWithAnotherSecret() {
+    SignedTokenCodec other = new SignedTokenCodec("fedcba9876543210fedcba9876543210", 60_000, now::get);
+
+    assertTrue(other.decode(codec.encode(user)).isEmpty());
+  }
+
+  @Test
+  void shouldRequireASecretOfAtLeast32Bytes() {
+    assertThrows(IllegalStateException.class, () -> new SignedTokenCodec("", 60_000));
+    assertThrows(IllegalStateException.class, () -> new SignedTokenCodec("too short", 60_000));
+  }
+}
@@ -0,0 +1,169 @@
+package com.edoyou.k2sbeauty.security;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.edoyou.k2sbeauty.config.InternationalizationConfig;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Role;
+import com.edoyou.k2sbeauty.repositories.ClientRepository;
+import com.edoyou.k2sbeauty.repositories.RoleRepository;
+import jakarta.servlet.http.Cookie;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Signs in, browses and signs out in the stateless session mode, and checks that the identity
+ * and the locale travel in cookies and that no {@code HttpSession} is created.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "k2s.notification.poll-interval-ms=86400000",
+    "k2s.security.stateless=true",
+    "k2s.security.token.secret=test-secret-of-at-least-32-bytes!"
+})
+public class StatelessSessionTest {
+
+  private static final String CSRF_COOKIE_NAME = "XSRF-TOKEN";
+  private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  private Client client;
+
+  @BeforeEach
+  void setUp() {
+    client = new Client();
+    client.setFirstName("Stateless");
+    client.setLastName("Session");
+    client.setEmail("client-" + UUID.randomUUID() + "@example.com");
+    client.setPassword(passwordEncoder.encode("secret"));
+    client.setPhone("123456789");
+    client.setRoles(Set.of(roleRepository.findByName("ROLE_CLIENT").orElseGet(() -> {
+      Role role = new Role();
+      role.setName("ROLE_CLIENT");
+      return roleRepository.save(role);
+    })));
+    client = clientRepository.save(client);
+  }
+
+  @AfterEach
+  void tearDown() {
+    clientRepository.deleteById(client.getId());
+  }
+
+  @Test
+  void shouldKeepTheSignedInUserInASignedCookie() throws Exception {
+    MvcResult loginPage = mockMvc.perform(get("/login")).andReturn();
+    Cookie csrfCookie = loginPage.getResponse().getCookie(CSRF_COOKIE_NAME);
+    assertNotNull(csrfCookie);
+
+    MvcResult login = mockMvc.perform(post("/perform_login").cookie(csrfCookie)
+            .param("email", client.getEmail()).param("password", "secret")
+            .param("_csrf", csrfToken(loginPage)))
+        .andExpect(redirectedUrl("/client/appointments"))
+        .andExpect(cookie().httpOnly(SignedCookieSecurityContextRepository.COOKIE_NAME, true))
+        .andReturn();
+    assertNull(login.getRequest().getSession(false));
+    Cookie token = login.getResponse().getCookie(SignedCookieSecurityContextRepository.COOKIE_NAME);
+    assertNotNull(token);
+
+    MvcResult appointments = mockMvc.perform(get("/client/appointments").cookie(token))
+        .andExpect(status().isOk())
+        .andReturn();
+    assertNull(appointments.getRequest().getSession(false));
+
+    mockMvc.perform(post("/logout").cookie(token, csrfCookie).param("_csrf",
+            csrfToken(mockMvc.perform(get("/login").cookie(csrfCookie)).andReturn())))
+        .andExpect(cookie().maxAge(SignedCookieSecurityContextRepository.COOKIE_NAME, 0));
+  }
+
+  @Test
+  void shouldRevokeTheTokenWhenTheRolesChange() throws Exception {
+    MvcResult loginPage = mockMvc.perform(get("/login")).andReturn();
+    Cookie token = mockMvc.perform(post("/perform_login")
+            .cookie(loginPage.getResponse().getCookie(CSRF_COOKIE_NAME))
+            .param("email", client.getEmail()).param("password", "secret")
+            .param("_csrf", csrfToken(loginPage)))
+        .andReturn().getResponse().getCookie(SignedCookieSecurityContextRepository.COOKIE_NAME);
+    assertNotNull(token);
+    mockMvc.perform(get("/client/appointments").cookie(token)).andExpect(status().isOk());
+
+    client.setRoles(Set.of());
+    clientRepository.save(client);
+    eventPublisher.publishEvent(new PrincipalChangedEvent(client.getEmail(), "roles revoked"));
+
+    mockMvc.perform(get("/client/appointments").cookie(token))
+        .andExpect(redirectedUrlPattern("**/login"));
+  }
+
+  @Test
+  void shouldRejectAForgedToken() throws Exception {
+    mockMvc.perform(get("/client/appointments")
+            .cookie(new Cookie(SignedCookieSecurityContextRepository.COOKIE_NAME, "forged.token")))
+        .andExpect(redirectedUrlPattern("**/login"));
+  }
+
+  @Test
+  void shouldKeepTheLocaleInACookie() throws Exception {
+    MvcResult result = mockMvc.perform(get("/changeLanguage").param("lang", "az")
+            .header("referer", "/"))
+        .andExpect(redirectedUrl("/"))
+        .andExpect(cookie().value(InternationalizationConfig.LOCALE_COOKIE_NAME, "az"))
+        .andReturn();
+    assertNull(result.getRequest().getSession(false));
+  }
+
+  @Test
+  void shouldKeepTheCsrfTokenInACookie() throws Exception {
+    MvcResult result = mockMvc.perform(get("/login"))
+        .andExpect(status().isOk())
+        .andExpect(cookie().httpOnly(CSRF_COOKIE_NAME, true))
+        .andReturn();
+    assertNull(result.getRequest().getSession(false));
+  }
+
+  /**
+   * Reads the CSRF token from a rendered form. The test support's {@code csrf()} is not used, as it
+   * replaces the cookie-based token repository with a session-based one.
+   */
+  private static String csrfToken(MvcResult page) throws Exception {
+    Matcher matcher = CSRF_INPUT.matcher(page.getResponse().getContentAsString());
+    assertTrue(matcher.find());
+    return matcher.group(1);
+  }
+}
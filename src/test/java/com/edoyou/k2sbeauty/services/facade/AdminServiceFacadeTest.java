@@ -3,13 +3,18 @@ package com.edoyou.k2sbeauty.services.facade;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.entities.model.Role;
 import com.edoyou.k2sbeauty.entities.model.WorkingHours;
 import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import com.edoyou.k2sbeauty.security.PrincipalChangedEvent;
 import com.edoyou.k2sbeauty.services.implementations.NotificationService;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogChangedEvent;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
@@ -27,6 +32,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -54,13 +60,19 @@ public class AdminServiceFacadeTest {
   @Mock
   private EntityManager entityManager;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private HairdresserLockRegistry hairdresserLocks;
   private AdminServiceFacade adminServiceFacade;
 
   @BeforeEach
   public void setUp() {
     MockitoAnnotations.openMocks(this);
+    hairdresserLocks = new HairdresserLockRegistry(4, 1000);
     adminServiceFacade = new AdminServiceFacade(appointmentService, hairdresserService,
-        beautyServiceService, roleService, notificationService, workingHoursService, entityManager);
+        beautyServiceService, roleService, notificationService, workingHoursService, entityManager,
+        eventPublisher, hairdresserLocks);
   }
 
   @SuppressWarnings("unchecked")
@@ -82,6 +94,9 @@ public class AdminServiceFacadeTest {
     String newTimeSlot = "2023-05-26T13:00:00";
     Appointment appointment = new Appointment();
     appointment.setId(appointmentId);
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(3L);
+    appointment.setHairdresser(hairdresser);
 
     when(appointmentService.findById(appointmentId)).thenReturn(Optional.of(appointment));
 
@@ -90,6 +105,7 @@ public class AdminServiceFacadeTest {
     assertEquals(LocalDateTime.parse(newTimeSlot, DateTimeFormatter.ISO_LOCAL_DATE_TIME),
         appointment.getAppointmentTime());
     verify(appointmentService, times(1)).updateAppointment(appointmentId, appointment);
+    assertEquals(1, hairdresserLocks.getContention(hairdresserLocks.stripeOf(3L)).acquisitions());
   }
 
   @Test
@@ -128,6 +144,7 @@ public class AdminServiceFacadeTest {
     Long hairdresserId = 1L;
     Hairdresser hairdresser = new Hairdresser();
     hairdresser.setId(hairdresserId);
+    hairdresser.setEmail("hairdresser@example.com");
     hairdresser.setApproved(false);
     Role roleHairdresser = new Role();
     roleHairdresser.setName("ROLE_HAIRDRESSER");
@@ -140,6 +157,9 @@ public class AdminServiceFacadeTest {
     assertTrue(hairdresser.getRoles().contains(roleHairdresser));
     verify(hairdresserService, times(1)).saveHairdresser(hairdresser);
     verify(notificationService, times(1)).sendNotification(any(), any(), any());
+    verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    verify(eventPublisher).publishEvent(
+        new PrincipalChangedEvent("hairdresser@example.com", "hairdresser role granted"));
   }
 
   @Test
@@ -157,6 +177,8 @@ public class AdminServiceFacadeTest {
     assertFalse(hairdresser.isApproved());
     verify(hairdresserService, times(1)).deleteHairdresser(hairdresserId);
     verify(notificationService, times(1)).sendNotification(any(), any(), any());
+    verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    verify(eventPublisher).publishEvent(any(PrincipalChangedEvent.class));
   }
 
   @Test
@@ -174,6 +196,7 @@ public class AdminServiceFacadeTest {
 
     assertTrue(hairdresser.getBeautyServices().contains(beautyService));
     verify(hairdresserService, times(1)).saveHairdresser(hairdresser);
+    verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
   }
 
   @Test
@@ -184,6 +207,7 @@ public class AdminServiceFacadeTest {
     adminServiceFacade.saveService(beautyService);
 
     verify(beautyServiceService, times(1)).saveService(beautyService);
+    verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
   }
 
   @Test
@@ -208,33 +232,46 @@ public class AdminServiceFacadeTest {
     verify(beautyServiceService, times(1)).findAllServices();
   }
 
+  @Test
+  public void testFindBeautyServices() {
+    PageToken token = PageToken.after(3L);
+    CursorPage<BeautyService> expectedServices = new CursorPage<>(List.of(new BeautyService()),
+        null, null);
+    when(beautyServiceService.findAll(token, 5)).thenReturn(expectedServices);
+
+    CursorPage<BeautyService> actualServices = adminServiceFacade.findBeautyServices(token, 5);
+
+    assertEquals(expectedServices, actualServices);
+  }
+
   @Test
   public void testFindAllYetNotApproved() {
-    Pageable pageable = mock(Pageable.class);
-    Page<Hairdresser> expectedHairdressers = new PageImpl<>(List.of(new Hairdresser()));
-    when(hairdresserService.findAllHairdressersByApprovalStatus(false, pageable)).thenReturn(
+    PageToken token = PageToken.after(3L);
+    CursorPage<Hairdresser> expectedHairdressers = new CursorPage<>(List.of(new Hairdresser()),
+        null, null);
+    when(hairdresserService.findAllHairdressersByApprovalStatus(false, token, 4)).thenReturn(
         expectedHairdressers);
 
-    Page<Hairdresser> actualHairdressers = adminServiceFacade.findAllYetNotApproved(false,
-        pageable);
+    CursorPage<Hairdresser> actualHairdressers = adminServiceFacade.findAllYetNotApproved(false,
+        token, 4);
 
     assertEquals(expectedHairdressers, actualHairdressers);
-    verify(hairdresserService, times(1)).findAllHairdressersByApprovalStatus(false, pageable);
+    verify(hairdresserService, times(1)).findAllHairdressersByApprovalStatus(false, token, 4);
   }
 
-  @SuppressWarnings("unchecked")
   @Test
   public void testFindHairdressersWithServices() {
-    Pageable pageable = mock(Pageable.class);
-    Page<Hairdresser> expectedHairdressers = mock(Page.class);
+    PageToken token = PageToken.before(7L);
+    CursorPage<Hairdresser> expectedHairdressers = new CursorPage<>(List.of(new Hairdresser()),
+        null, null);
 
-    when(hairdresserService.findAllWithBeautyServices(pageable)).thenReturn(expectedHairdressers);
+    when(hairdresserService.findAllWithBeautyServices(token, 4)).thenReturn(expectedHairdressers);
 
-    Page<Hairdresser> actualHairdressers = adminServiceFacade.findHairdressersWithServices(
-        pageable);
+    CursorPage<Hairdresser> actualHairdressers = adminServiceFacade.findHairdressersWithServices(
+        token, 4);
 
     assertEquals(expectedHairdressers, actualHairdressers);
-    verify(hairdresserService, times(1)).findAllWithBeautyServices(pageable);
+    verify(hairdresserService, times(1)).findAllWithBeautyServices(token, 4);
   }
 
   @Test
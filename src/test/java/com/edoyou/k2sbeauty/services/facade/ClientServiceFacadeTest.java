@@ -1,36 +1,49 @@
 package com.edoyou.k2sbeauty.services.facade;
 
+import com.edoyou.k2sbeauty.dto.AvailableSlotDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Feedback;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.entities.model.Role;
-import com.edoyou.k2sbeauty.entities.model.User;
 import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.repositories.RoleRepository;
+import com.edoyou.k2sbeauty.security.AuthenticatedUser;
+import com.edoyou.k2sbeauty.security.PrincipalCache;
+import com.edoyou.k2sbeauty.security.UserSnapshot;
 import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.implementations.availability.AvailabilityIndex;
+import com.edoyou.k2sbeauty.services.implementations.availability.FirstAvailableSearch;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.ClientService;
 import com.edoyou.k2sbeauty.services.interfaces.FeedbackService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,13 +62,21 @@ class ClientServiceFacadeTest {
   @Mock
   private RoleRepository roleRepository;
   @Mock
-  private TimeSlotService timeSlotService;
+  private AvailabilityIndex availabilityIndex;
+  @Mock
+  private FirstAvailableSearch firstAvailableSearch;
   @Mock
   private FeedbackService feedbackService;
+  @Spy
+  private HairdresserLockRegistry hairdresserLocks = new HairdresserLockRegistry(4, 1000);
+  @Mock
+  private PrincipalCache principalCache;
 
   @InjectMocks
   private ClientServiceFacade clientServiceFacade;
 
+  private static final Long CLIENT_ID = 7L;
+
   @Test
   void testProcessRegistrationForm() {
     Client client = new Client();
@@ -103,58 +124,56 @@ class ClientServiceFacadeTest {
     BeautyService beautyService = new BeautyService();
     beautyService.setName(serviceName);
     Client client = new Client();
-    client.setEmail(email);
-    Authentication auth = mock(Authentication.class);
+    client.setId(CLIENT_ID);
+    Authentication auth = authentication(email, UserSnapshot.Type.CLIENT);
 
-    when(auth.getName()).thenReturn(email);
     when(hairdresserService.findById(hairdresserId)).thenReturn(hairdresser);
     when(beautyServiceService.findFirstByName(serviceName)).thenReturn(Optional.of(beautyService));
-    when(clientService.findClientByEmail(email)).thenReturn(Optional.of(client));
+    when(clientService.getClientReference(CLIENT_ID)).thenReturn(client);
 
     clientServiceFacade.bookAppointment(auth, hairdresserId, serviceName, dateTime);
 
+    verify(hairdresserLocks).withLock(eq(hairdresserId), any(Supplier.class));
     verify(appointmentService).saveAppointment(any(Appointment.class));
   }
 
   @Test
   void getClientAppointmentsTest() {
-    User user = new User();
-    user.setEmail("user@mail.com");
-    user.setPassword("123");
-    user.setRoles(new HashSet<>());
-
-    Authentication auth = new TestingAuthenticationToken(user, null);
+    Authentication auth = authentication("user@mail.com", UserSnapshot.Type.CLIENT);
 
     Client client = new Client();
-    client.setEmail("user@mail.com");
+    client.setId(CLIENT_ID);
 
-    when(clientService.findClientByEmail("user@mail.com"))
-        .thenReturn(Optional.of(client));
+    when(clientService.getClientReference(CLIENT_ID)).thenReturn(client);
     when(appointmentService.findByClient(client))
         .thenReturn(List.of(new Appointment(), new Appointment()));
 
     List<Appointment> result = clientServiceFacade.getClientAppointments(auth);
 
     assertEquals(2, result.size());
-    verify(clientService, times(1)).findClientByEmail(anyString());
+    verify(clientService, never()).findClientByEmail(anyString());
     verify(appointmentService, times(1)).findByClient(any(Client.class));
   }
 
   @Test
-  void saveFeedbackTest() {
-    User user = new User();
-    user.setEmail("user@mail.com");
-    user.setPassword("123");
-    user.setRoles(new HashSet<>());
+  void getClientAppointmentsOfAHairdresserThrows() {
+    Authentication auth = authentication("hairdresser@mail.com", UserSnapshot.Type.HAIRDRESSER);
 
-    Authentication auth = new TestingAuthenticationToken(user, null);
+    assertThrows(UsernameNotFoundException.class,
+        () -> clientServiceFacade.getClientAppointments(auth));
+    verifyNoInteractions(clientService, appointmentService);
+  }
+
+  @Test
+  void saveFeedbackTest() {
+    Authentication auth = authentication("user@mail.com", UserSnapshot.Type.CLIENT);
 
     Client client = new Client();
-    client.setEmail("user@mail.com");
+    client.setId(CLIENT_ID);
     Appointment appointment = new Appointment();
     Feedback feedback = new Feedback();
 
-    when(clientService.findClientByEmail("user@mail.com")).thenReturn(Optional.of(client));
+    when(clientService.getClientReference(CLIENT_ID)).thenReturn(client);
     when(appointmentService.findById(anyLong())).thenReturn(Optional.of(appointment));
 
     clientServiceFacade.saveFeedback(auth, 1L, feedback);
@@ -179,10 +198,10 @@ class ClientServiceFacadeTest {
     TimeSlot timeSlot1 = new TimeSlot(start1, end1, new Appointment());
     TimeSlot timeSlot2 = new TimeSlot(start2, end2, new Appointment());
 
-    when(hairdresserService.findById(hairdresserId)).thenReturn(hairdresser);
-    when(timeSlotService.generateTimeSlots(hairdresser)).thenReturn(List.of(timeSlot1, timeSlot2));
+    when(availabilityIndex.findFreeSlots(hairdresserId, TimeSlotService.ONE_SERVICE_TIME))
+        .thenReturn(List.of(timeSlot1, timeSlot2));
 
-    List<String> actualTimeSlots = clientServiceFacade.getTimeSlots(hairdresserId);
+    List<String> actualTimeSlots = clientServiceFacade.getTimeSlots(hairdresserId, null);
 
     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm");
     List<String> expectedTimeSlots = List.of(
@@ -193,4 +212,45 @@ class ClientServiceFacadeTest {
     assertEquals(expectedTimeSlots, actualTimeSlots);
   }
 
-}
\ No newline at end of file
+  @Test
+  void getTimeSlotsUsesTheDurationOfTheChosenService() {
+    BeautyService beautyService = new BeautyService();
+    beautyService.setName("Manicure");
+    beautyService.setDuration(45);
+    LocalDateTime start = LocalDateTime.of(2023, 5, 26, 10, 15);
+    when(beautyServiceService.findFirstByName("Manicure")).thenReturn(Optional.of(beautyService));
+    when(availabilityIndex.findFreeSlots(1L, 45))
+        .thenReturn(List.of(new TimeSlot(start, start.plusMinutes(45), null)));
+
+    assertEquals(List.of("2023-05-26T10:15 - 2023-05-26T11:00"),
+        clientServiceFacade.getTimeSlots(1L, "Manicure"));
+  }
+
+  @Test
+  void getTimeSlotsThrowsForAnUnknownService() {
+    when(beautyServiceService.findFirstByName("Unknown")).thenReturn(Optional.empty());
+
+    assertThrows(ResourceNotFoundException.class,
+        () -> clientServiceFacade.getTimeSlots(1L, "Unknown"));
+  }
+
+  @Test
+  void findFirstAvailableSearchesWholeDays() {
+    LocalDate from = LocalDate.of(2023, 6, 1);
+    LocalDate to = LocalDate.of(2023, 6, 3);
+    List<AvailableSlotDTO> slots = List.of(new AvailableSlotDTO(1L, "Jane Doe",
+        from.atTime(9, 0), from.atTime(10, 30)));
+    when(firstAvailableSearch.findEarliest(7L, from.atStartOfDay(), LocalDate.of(2023, 6, 4).atStartOfDay(),
+        LocalTime.of(9, 0), null, 3)).thenReturn(slots);
+
+    assertEquals(slots, clientServiceFacade.findFirstAvailable(7L, from, to, LocalTime.of(9, 0), null, 3));
+  }
+
+  private Authentication authentication(String email, UserSnapshot.Type type) {
+    AuthenticatedUser user = new AuthenticatedUser(
+        new UserSnapshot(CLIENT_ID, email, "hash", Set.of("ROLE_" + type), type));
+    Authentication authentication = new TestingAuthenticationToken(user, null);
+    when(principalCache.resolve(authentication)).thenReturn(Optional.of(user));
+    return authentication;
+  }
+}
@@ -0,0 +1,253 @@
+package com.edoyou.k2sbeauty.services.facade;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.WorkingHours;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import com.edoyou.k2sbeauty.pojo.ServicesData;
+import com.edoyou.k2sbeauty.repositories.AppointmentRepository;
+import com.edoyou.k2sbeauty.repositories.BeautyServiceRepository;
+import com.edoyou.k2sbeauty.repositories.ClientRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserRepository;
+import com.edoyou.k2sbeauty.repositories.WorkingHoursRepository;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogCache;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Asserts the number of SQL statements each facade method issues, using Hibernate statistics. The
+ * tests are not transactional, so every lazy association that a page needs must be loaded by the
+ * facade call itself; touching anything else afterwards would fail.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "k2s.notification.poll-interval-ms=86400000"
+})
+public class FacadeQueryCountTest {
+
+  @Autowired
+  private GuestServiceFacade guestServiceFacade;
+
+  @Autowired
+  private ClientServiceFacade clientServiceFacade;
+
+  @Autowired
+  private HairdresserServiceFacade hairdresserServiceFacade;
+
+  @Autowired
+  private AdminServiceFacade adminServiceFacade;
+
+  @Autowired
+  private CatalogCache catalogCache;
+
+  @Autowired
+  private BeautyServiceRepository beautyServiceRepository;
+
+  @Autowired
+  private WorkingHoursRepository workingHoursRepository;
+
+  @Autowired
+  private HairdresserRepository hairdresserRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private BeautyService beautyService;
+  private WorkingHours workingHours;
+  private Hairdresser hairdresser;
+  private Client client;
+  private Appointment appointment;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    beautyService = new BeautyService();
+    beautyService.setName("Query count haircut");
+    beautyService.setDescription("Haircut");
+    beautyService.setDuration(60);
+    beautyService.setPrice(20);
+    beautyService = beautyServiceRepository.save(beautyService);
+
+    workingHours = new WorkingHours();
+    workingHours.setDayOfWeek(DayOfWeek.MONDAY);
+    workingHours.setStart(LocalTime.of(7, 1));
+    workingHours.setEnd(LocalTime.of(20, 59));
+    workingHours = workingHoursRepository.save(workingHours);
+
+    hairdresser = new Hairdresser();
+    fillUser(hairdresser, "hairdresser");
+    hairdresser.setSpecialization("Hair");
+    hairdresser.setApproved(true);
+    hairdresser.setBeautyServices(Set.of(beautyService));
+    hairdresser.setWorkingHours(Set.of(workingHours));
+    hairdresser = hairdresserRepository.save(hairdresser);
+
+    client = new Client();
+    fillUser(client, "client");
+    client = clientRepository.save(client);
+
+    appointment = new Appointment();
+    appointment.setClient(client);
+    appointment.setHairdresser(hairdresser);
+    appointment.setBeautyService(beautyService);
+    appointment.setAppointmentTime(LocalDateTime.now().plusDays(1));
+    appointment.setPaymentStatus(PaymentStatus.PENDING);
+    appointment = appointmentRepository.save(appointment);
+
+    catalogCache.invalidate();
+    statistics.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    appointmentRepository.deleteById(appointment.getId());
+    hairdresserRepository.deleteById(hairdresser.getId());
+    clientRepository.deleteById(client.getId());
+    workingHoursRepository.deleteById(workingHours.getId());
+    beautyServiceRepository.deleteById(beautyService.getId());
+    catalogCache.invalidate();
+  }
+
+  @Test
+  void guestCatalogIsLoadedOnceAndThenServedFromTheSnapshot() {
+    guestServiceFacade.getServicesData(null, null, "lastName");
+    assertEquals(2, statements());
+
+    ServicesData servicesData = guestServiceFacade.getServicesData(hairdresser.getId(), null, null);
+    guestServiceFacade.getServicesData(null, beautyService.getId(), "rating");
+    guestServiceFacade.getServicesData(null, null, "serviceName");
+
+    assertEquals(0, statements());
+    assertEquals(List.of(beautyService.getId()),
+        servicesData.getServices().stream().map(BeautyService::getId).toList());
+  }
+
+  @Test
+  void bookingPageLoadsHairdressersWithServicesInOneStatement() {
+    List<Hairdresser> hairdressers = clientServiceFacade.getHairdressersWithServices();
+
+    assertEquals(1, statements());
+    hairdressers.forEach(Hairdresser::getBeautyServicesNames);
+  }
+
+  @Test
+  void timeSlotsAreLoadedOnceAndThenServedFromTheAvailabilityIndex() {
+    clientServiceFacade.getTimeSlots(hairdresser.getId(), null);
+
+    // the hairdresser with their working hours and the appointments in the horizon
+    assertEquals(2, statements());
+
+    clientServiceFacade.getTimeSlots(hairdresser.getId(), null);
+    assertEquals(0, statements());
+  }
+
+  @Test
+  void scheduleIssuesAFixedNumberOfStatements() {
+    hairdresserServiceFacade.getSchedule(hairdresser.getEmail());
+
+    // the principal by e-mail, the hairdresser with their working hours and the appointments in the
+    // schedule window
+    assertEquals(3, statements());
+
+    // the principal is cached
+    hairdresserServiceFacade.getSchedule(hairdresser.getEmail());
+    assertEquals(2, statements());
+  }
+
+  @Test
+  void clientAppointmentsAreLoadedWithTheirDetails() {
+    Authentication authentication = new UsernamePasswordAuthenticationToken(
+        new User(client.getEmail(), "password", List.of()), null, List.of());
+
+    List<Appointment> appointments = clientServiceFacade.getClientAppointments(authentication);
+
+    assertEquals(2, statements());
+    assertFalse(appointments.isEmpty());
+    appointments.forEach(loaded -> loaded.getHairdresser().getLastName());
+    assertEquals(0, statements());
+  }
+
+  @Test
+  void adminAppointmentListDoesNotLoadAssociationsOneByOne() {
+    Page<Appointment> appointments = adminServiceFacade.findAllAppointments(PageRequest.of(0, 1));
+
+    // the page and its count query
+    assertEquals(2, statements());
+    appointments.forEach(loaded -> loaded.getClient().getLastName());
+  }
+
+  @Test
+  void adminDashboardIsOneProjectionQueryPerPage() {
+    CursorPage<AppointmentSummaryDTO> first = adminServiceFacade.findDashboardAppointments(null, 1);
+
+    assertEquals(1, statements());
+    assertFalse(first.items().isEmpty());
+
+    AppointmentSummaryDTO row = first.items().get(0);
+    adminServiceFacade.findDashboardAppointments(row.key(), 1);
+    adminServiceFacade.findDashboardAppointments(PageToken.before(row.appointmentTime(), row.id()), 1);
+
+    assertEquals(2, statements());
+  }
+
+  @Test
+  void adminHairdresserPagePagesIdsAndThenLoadsServicesOnce() {
+    CursorPage<Hairdresser> page = adminServiceFacade.findHairdressersWithServices(
+        PageToken.after(hairdresser.getId() - 1), 1);
+
+    // the page of ids and the hairdressers with their services
+    assertEquals(2, statements());
+    assertEquals(List.of(hairdresser.getId()),
+        page.items().stream().map(Hairdresser::getId).toList());
+    page.items().forEach(Hairdresser::getBeautyServicesNames);
+  }
+
+  private long statements() {
+    long count = statistics.getPrepareStatementCount();
+    statistics.clear();
+    return count;
+  }
+
+  private static void fillUser(com.edoyou.k2sbeauty.entities.model.User user, String role) {
+    user.setFirstName("Query");
+    user.setLastName("Count");
+    user.setEmail(role + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setPhone("123456789");
+  }
+}
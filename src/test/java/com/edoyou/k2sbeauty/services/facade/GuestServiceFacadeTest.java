@@ -5,10 +5,12 @@ import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.exceptions.BeautyServiceNotFoundException;
 import com.edoyou.k2sbeauty.exceptions.HairdresserNotFoundException;
 import com.edoyou.k2sbeauty.pojo.ServicesData;
+import com.edoyou.k2sbeauty.services.implementations.catalog.CatalogCache;
 import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
 import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,13 +34,16 @@ public class GuestServiceFacadeTest {
 
   private BeautyServiceService beautyServiceService;
   private HairdresserService hairdresserService;
+  private CatalogCache catalogCache;
   private GuestServiceFacade guestServiceFacade;
 
   @BeforeEach
   public void setUp() {
     beautyServiceService = Mockito.mock(BeautyServiceService.class);
     hairdresserService = Mockito.mock(HairdresserService.class);
-    guestServiceFacade = new GuestServiceFacade(beautyServiceService, hairdresserService);
+    catalogCache = new CatalogCache(beautyServiceService, hairdresserService);
+    guestServiceFacade = new GuestServiceFacade(beautyServiceService, hairdresserService,
+        catalogCache);
   }
 
   @Test
@@ -46,11 +52,11 @@ public class GuestServiceFacadeTest {
     Set<BeautyService> mockServices = new HashSet<>();
     mockHairdresser.setBeautyServices(mockServices);
 
-    when(hairdresserService.findById(anyLong())).thenReturn(mockHairdresser);
+    when(hairdresserService.findByIdWithBeautyServices(anyLong())).thenReturn(mockHairdresser);
 
     guestServiceFacade.getServicesData(1L, null, "serviceName");
 
-    verify(hairdresserService).findById(anyLong());
+    verify(hairdresserService).findByIdWithBeautyServices(anyLong());
   }
 
   @Test
@@ -59,11 +65,11 @@ public class GuestServiceFacadeTest {
     Set<Hairdresser> mockHairdressers = new HashSet<>();
     mockService.setHairdressers(mockHairdressers);
 
-    when(beautyServiceService.findById(anyLong())).thenReturn(Optional.of(mockService));
+    when(beautyServiceService.findByIdWithHairdressers(anyLong())).thenReturn(Optional.of(mockService));
 
     guestServiceFacade.getServicesData(null, 1L, "serviceName");
 
-    verify(beautyServiceService).findById(anyLong());
+    verify(beautyServiceService).findByIdWithHairdressers(anyLong());
   }
 
   @Test
@@ -86,8 +92,50 @@ public class GuestServiceFacadeTest {
     guestServiceFacade.getServicesData(null, null, "lastName");
     guestServiceFacade.getServicesData(null, null, "rating");
 
-    verify(beautyServiceService, times(3)).findAll();
-    verify(hairdresserService, times(3)).findAllHairdressers(anyString());
+    verify(beautyServiceService, times(1)).findAll();
+    verify(hairdresserService, times(1)).findAllHairdressers(anyString());
+  }
+
+  @Test
+  public void getServicesData_reloadsAfterInvalidation() {
+    when(beautyServiceService.findAll()).thenReturn(new ArrayList<>());
+    when(hairdresserService.findAllHairdressers(anyString())).thenReturn(new ArrayList<>());
+
+    guestServiceFacade.getServicesData(null, null, "lastName");
+    catalogCache.invalidate();
+    guestServiceFacade.getServicesData(null, null, "lastName");
+
+    verify(beautyServiceService, times(2)).findAll();
+  }
+
+  @Test
+  public void getServicesData_forCachedHairdresser() {
+    Hairdresser hairdresser = hairdresser(1L, "Smith", 4.0);
+    BeautyService haircut = service(10L, "Haircut", hairdresser);
+    BeautyService coloring = service(11L, "Coloring", hairdresser);
+    hairdresser.setBeautyServices(new HashSet<>(List.of(haircut, coloring)));
+    when(beautyServiceService.findAll()).thenReturn(List.of(haircut, coloring));
+    when(hairdresserService.findAllHairdressers(anyString())).thenReturn(List.of(hairdresser));
+
+    ServicesData servicesData = guestServiceFacade.getServicesData(1L, null, null);
+
+    assertEquals(List.of(coloring, haircut), servicesData.getServices());
+    assertEquals(2, servicesData.getServiceHairdresserPairs().size());
+    verify(hairdresserService, never()).findByIdWithBeautyServices(anyLong());
+  }
+
+  @Test
+  public void getServicesData_forCachedService() {
+    Hairdresser smith = hairdresser(1L, "Smith", 4.0);
+    Hairdresser adams = hairdresser(2L, "Adams", 5.0);
+    BeautyService haircut = service(10L, "Haircut", smith, adams);
+    when(beautyServiceService.findAll()).thenReturn(List.of(haircut));
+    when(hairdresserService.findAllHairdressers(anyString())).thenReturn(List.of(smith, adams));
+
+    ServicesData servicesData = guestServiceFacade.getServicesData(null, 10L, "lastName");
+
+    assertEquals(List.of(adams, smith), servicesData.getHairdressers());
+    verify(beautyServiceService, never()).findByIdWithHairdressers(anyLong());
   }
 
   @Test
@@ -111,7 +159,7 @@ public class GuestServiceFacadeTest {
 
   @Test
   public void getServicesDataForHairdresser_withNonexistentId() {
-    when(hairdresserService.findById(anyLong())).thenReturn(null);
+    when(hairdresserService.findByIdWithBeautyServices(anyLong())).thenReturn(null);
 
     Exception exception = assertThrows(HairdresserNotFoundException.class,
         () -> guestServiceFacade.getServicesData(1L, null, "serviceName"));
@@ -121,7 +169,7 @@ public class GuestServiceFacadeTest {
 
   @Test
   public void getServicesDataForService_withNonexistentId() {
-    when(beautyServiceService.findById(anyLong())).thenReturn(Optional.empty());
+    when(beautyServiceService.findByIdWithHairdressers(anyLong())).thenReturn(Optional.empty());
 
     Exception exception = assertThrows(BeautyServiceNotFoundException.class,
         () -> guestServiceFacade.getServicesData(null, 1L, "serviceName"));
@@ -137,4 +185,20 @@ public class GuestServiceFacadeTest {
     assertEquals("Invalid sortBy value: invalidSortBy", exception.getMessage());
   }
 
-}
\ No newline at end of file
+  private static Hairdresser hairdresser(Long id, String lastName, double rating) {
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(id);
+    hairdresser.setLastName(lastName);
+    hairdresser.setRating(rating);
+    hairdresser.setApproved(true);
+    return hairdresser;
+  }
+
+  private static BeautyService service(Long id, String name, Hairdresser... hairdressers) {
+    BeautyService service = new BeautyService();
+    service.setId(id);
+    service.setName(name);
+    service.setHairdressers(new HashSet<>(List.of(hairdressers)));
+    return service;
+  }
+}
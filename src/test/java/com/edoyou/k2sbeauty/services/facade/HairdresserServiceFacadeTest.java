@@ -1,24 +1,29 @@
 package com.edoyou.k2sbeauty.services.facade;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import com.edoyou.k2sbeauty.dto.AppointmentDTO;
 import com.edoyou.k2sbeauty.dto.WorkingHoursDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.Client;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
 import com.edoyou.k2sbeauty.entities.model.Role;
 import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
 import com.edoyou.k2sbeauty.exceptions.AppointmentNotFoundException;
 import com.edoyou.k2sbeauty.exceptions.UnauthorizedActionException;
 import com.edoyou.k2sbeauty.exceptions.UserNotFoundException;
+import com.edoyou.k2sbeauty.security.PrincipalCache;
+import com.edoyou.k2sbeauty.security.UserSnapshot;
 import com.edoyou.k2sbeauty.services.interfaces.*;
-import com.edoyou.k2sbeauty.services.implementations.NotificationService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,6 +31,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,16 +51,20 @@ public class HairdresserServiceFacadeTest {
   @Mock
   private WorkingHoursService workingHoursService;
   @Mock
-  private NotificationService notificationService;
+  private ScheduledNotificationService scheduledNotificationService;
+  @Mock
+  private PrincipalCache principalCache;
 
   @InjectMocks
   private HairdresserServiceFacade hairdresserServiceFacade;
 
+  private static final Long HAIRDRESSER_ID = 1L;
+
   @BeforeEach
   public void setUp() {
     hairdresserServiceFacade = new HairdresserServiceFacade(passwordEncoder, roleService,
         beautyServiceService, hairdresserService, appointmentService, workingHoursService,
-        notificationService);
+        scheduledNotificationService, principalCache);
   }
 
   @Test
@@ -68,7 +78,8 @@ public class HairdresserServiceFacadeTest {
     Map<LocalDate, List<TimeSlot>> schedule = new HashMap<>();
     schedule.put(date, timeSlots);
 
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.of(hairdresser));
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
+    when(hairdresserService.findByIdWithWorkingHours(HAIRDRESSER_ID)).thenReturn(hairdresser);
     when(hairdresserService.generateSchedule(hairdresser)).thenReturn(schedule);
 
     Map<LocalDate, List<TimeSlot>> result = hairdresserServiceFacade.getSchedule(email);
@@ -106,7 +117,8 @@ public class HairdresserServiceFacadeTest {
     appointment2.setCompleted(false);
 
     List<Appointment> appointments = Arrays.asList(appointment1, appointment2);
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.of(hairdresser));
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
+    when(hairdresserService.findById(HAIRDRESSER_ID)).thenReturn(hairdresser);
     when(appointmentService.findByHairdresser(hairdresser)).thenReturn(appointments);
 
     AppointmentDTO result = hairdresserServiceFacade.getAppointments(email);
@@ -130,7 +142,8 @@ public class HairdresserServiceFacadeTest {
     appointment2.setCompleted(false);
 
     List<Appointment> appointments = Arrays.asList(appointment1, appointment2);
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.of(hairdresser));
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
+    when(hairdresserService.findById(HAIRDRESSER_ID)).thenReturn(hairdresser);
     when(appointmentService.findByHairdresser(hairdresser)).thenReturn(appointments);
 
     AppointmentDTO result = hairdresserServiceFacade.getAppointments(email);
@@ -144,10 +157,20 @@ public class HairdresserServiceFacadeTest {
   @Test
   public void testGetAppointments_InvalidHairdresser_ThrowsUserNotFoundException() {
     String email = "test@example.com";
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.empty());
+    when(principalCache.find(email)).thenReturn(Optional.empty());
+
+    assertThrows(UserNotFoundException.class,
+        () -> hairdresserServiceFacade.getAppointments(email));
+  }
+
+  @Test
+  public void testGetAppointments_Client_ThrowsUserNotFoundException() {
+    String email = "client@example.com";
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.CLIENT)));
 
     assertThrows(UserNotFoundException.class,
         () -> hairdresserServiceFacade.getAppointments(email));
+    verifyNoInteractions(hairdresserService);
   }
 
   @Test
@@ -157,7 +180,8 @@ public class HairdresserServiceFacadeTest {
     hairdresser.setEmail(email);
     hairdresser.setApproved(false);
 
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.of(hairdresser));
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
+    when(hairdresserService.findById(HAIRDRESSER_ID)).thenReturn(hairdresser);
 
     assertThrows(UnauthorizedActionException.class,
         () -> hairdresserServiceFacade.getAppointments(email));
@@ -170,7 +194,7 @@ public class HairdresserServiceFacadeTest {
     Hairdresser hairdresser = new Hairdresser();
     hairdresser.setEmail(email);
 
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.of(hairdresser));
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
     when(appointmentService.findById(appointmentId)).thenReturn(Optional.empty());
 
     assertThrows(AppointmentNotFoundException.class,
@@ -182,19 +206,51 @@ public class HairdresserServiceFacadeTest {
     Long appointmentId = 123L;
     String email = "test@example.com";
     Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(HAIRDRESSER_ID);
     hairdresser.setEmail(email);
+    Hairdresser otherHairdresser = new Hairdresser();
+    otherHairdresser.setId(2L);
 
     Appointment appointment = new Appointment();
     appointment.setId(appointmentId);
-    appointment.setHairdresser(new Hairdresser());
+    appointment.setHairdresser(otherHairdresser);
 
-    when(hairdresserService.findUserByEmail(email)).thenReturn(Optional.of(hairdresser));
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
     when(appointmentService.findById(appointmentId)).thenReturn(Optional.of(appointment));
 
     assertThrows(UnauthorizedActionException.class,
         () -> hairdresserServiceFacade.completeAppointment(appointmentId, email));
   }
 
+  @Test
+  public void testCompleteAppointment_SchedulesFeedbackRequest() {
+    Long appointmentId = 123L;
+    String email = "test@example.com";
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(HAIRDRESSER_ID);
+    hairdresser.setEmail(email);
+    Client client = new Client();
+    client.setEmail("client@example.com");
+
+    Appointment appointment = new Appointment();
+    appointment.setId(appointmentId);
+    appointment.setHairdresser(hairdresser);
+    appointment.setClient(client);
+
+    when(principalCache.find(email)).thenReturn(Optional.of(snapshot(email, UserSnapshot.Type.HAIRDRESSER)));
+    when(appointmentService.findById(appointmentId)).thenReturn(Optional.of(appointment));
+
+    LocalDateTime before = LocalDateTime.now();
+    hairdresserServiceFacade.completeAppointment(appointmentId, email);
+
+    ArgumentCaptor<LocalDateTime> dueAt = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(appointmentService).saveAppointment(appointment);
+    verify(scheduledNotificationService).schedule(eq("client@example.com"), anyString(),
+        contains("appointmentId=" + appointmentId), dueAt.capture());
+    assertTrue(appointment.isCompleted());
+    assertFalse(dueAt.getValue().isBefore(before.plusDays(1)));
+  }
+
   @Test
   public void testRegisterHairdresser_ValidInputData_RegistersHairdresser() {
     Hairdresser hairdresser = new Hairdresser();
@@ -212,4 +268,7 @@ public class HairdresserServiceFacadeTest {
     assertEquals("encoded_password", hairdresser.getPassword());
   }
 
-}
\ No newline at end of file
+  private static UserSnapshot snapshot(String email, UserSnapshot.Type type) {
+    return new UserSnapshot(HAIRDRESSER_ID, email, "hash", Set.of("ROLE_" + type), type);
+  }
+}
@@ -0,0 +1,239 @@
+package com.edoyou.k2sbeauty.services.implementations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Client;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.User;
+import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
+import com.edoyou.k2sbeauty.repositories.AppointmentRepository;
+import com.edoyou.k2sbeauty.repositories.BeautyServiceRepository;
+import com.edoyou.k2sbeauty.repositories.ClientRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserCalendarDayRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserRepository;
+import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Books and reschedules appointments from many threads at once against the database and checks
+ * that the hairdresser calendar rows let exactly one of several overlapping bookings through, while
+ * bookings that do not overlap all succeed.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties", properties = {
+    "k2s.notification.poll-interval-ms=86400000"
+})
+public class AppointmentBookingConcurrencyTest {
+
+  private static final int THREADS = 200;
+
+  @Autowired
+  private AppointmentService appointmentService;
+
+  @Autowired
+  private AppointmentRepository appointmentRepository;
+
+  @Autowired
+  private HairdresserCalendarDayRepository calendarDayRepository;
+
+  @Autowired
+  private HairdresserRepository hairdresserRepository;
+
+  @Autowired
+  private ClientRepository clientRepository;
+
+  @Autowired
+  private BeautyServiceRepository beautyServiceRepository;
+
+  private BeautyService beautyService;
+  private final List<Hairdresser> hairdressers = new ArrayList<>();
+  private final List<Client> clients = new ArrayList<>();
+  private LocalDateTime slot;
+
+  @BeforeEach
+  void setUp() {
+    beautyService = new BeautyService();
+    beautyService.setName("Concurrency haircut");
+    beautyService.setDescription("Haircut");
+    beautyService.setDuration(60);
+    beautyService.setPrice(20);
+    beautyService = beautyServiceRepository.save(beautyService);
+
+    for (int i = 0; i < THREADS; i++) {
+      Client client = new Client();
+      fillUser(client, "client");
+      clients.add(clientRepository.save(client));
+    }
+    slot = LocalDateTime.now().plusDays(3).withHour(10).withMinute(0).withSecond(0).withNano(0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    for (Hairdresser hairdresser : hairdressers) {
+      appointmentRepository.deleteAll(appointmentRepository.findByHairdresser(hairdresser));
+      calendarDayRepository.findAll().stream()
+          .filter(day -> day.getHairdresserId().equals(hairdresser.getId()))
+          .forEach(calendarDayRepository::delete);
+      hairdresserRepository.deleteById(hairdresser.getId());
+    }
+    clientRepository.deleteAll(clients);
+    beautyServiceRepository.deleteById(beautyService.getId());
+  }
+
+  @Test
+  void shouldLetExactlyOneOfManyConcurrentBookingsOfTheSameSlotThrough() throws Exception {
+    Hairdresser hairdresser = newHairdresser();
+    List<Callable<Appointment>> bookings = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      // overlapping but not identical intervals, so the guard is not just a unique start time
+      LocalDateTime start = slot.plusMinutes(i % 4 * 15);
+      Client client = clients.get(i);
+      bookings.add(() -> appointmentService.saveAppointment(appointment(hairdresser, client, start)));
+    }
+
+    List<Throwable> failures = new ArrayList<>();
+    int booked = 0;
+    for (Future<Appointment> result : runConcurrently(bookings)) {
+      try {
+        result.get();
+        booked++;
+      } catch (ExecutionException e) {
+        failures.add(e.getCause());
+      }
+    }
+
+    assertEquals(1, booked);
+    assertEquals(1, appointmentRepository.findByHairdresser(hairdresser).size());
+    failures.forEach(failure -> assertInstanceOf(IllegalStateException.class, failure));
+  }
+
+  @Test
+  void shouldBookNonOverlappingAppointmentsConcurrently() throws Exception {
+    List<Callable<Appointment>> bookings = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      Hairdresser hairdresser = newHairdresser();
+      for (int j = 0; j < 4; j++) {
+        LocalDateTime start = slot.plusHours(j * 2L);
+        Client client = clients.get(i * 4 + j);
+        bookings.add(() -> appointmentService.saveAppointment(appointment(hairdresser, client, start)));
+      }
+    }
+
+    for (Future<Appointment> result : runConcurrently(bookings)) {
+      assertTrue(result.get().getId() != null);
+    }
+    for (Hairdresser hairdresser : hairdressers) {
+      assertEquals(4, appointmentRepository.findByHairdresser(hairdresser).size());
+    }
+  }
+
+  @Test
+  void shouldLetExactlyOneOfConcurrentReschedulesAndBookingsOfTheSameSlotThrough()
+      throws Exception {
+    Hairdresser hairdresser = newHairdresser();
+    List<Appointment> booked = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      booked.add(appointmentService.saveAppointment(
+          appointment(hairdresser, clients.get(i), slot.plusDays(1).plusHours(i))));
+    }
+    List<Callable<Appointment>> changes = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      LocalDateTime start = slot.plusMinutes(i % 4 * 15);
+      if (i < booked.size()) {
+        Appointment details = appointment(hairdresser, clients.get(i), start);
+        Long id = booked.get(i).getId();
+        changes.add(() -> appointmentService.updateAppointment(id, details));
+      } else {
+        Client client = clients.get(i);
+        changes.add(() -> appointmentService.saveAppointment(appointment(hairdresser, client, start)));
+      }
+    }
+
+    int succeeded = 0;
+    for (Future<Appointment> result : runConcurrently(changes)) {
+      try {
+        result.get();
+        succeeded++;
+      } catch (ExecutionException e) {
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+      }
+    }
+
+    assertEquals(1, succeeded);
+    assertEquals(1, appointmentRepository.findByHairdresser(hairdresser).stream()
+        .filter(appointment -> appointment.getAppointmentTime().toLocalDate()
+            .equals(slot.toLocalDate()))
+        .count());
+  }
+
+  private <T> List<Future<T>> runConcurrently(List<Callable<T>> tasks) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+    CountDownLatch ready = new CountDownLatch(tasks.size());
+    CountDownLatch go = new CountDownLatch(1);
+    try {
+      List<Future<T>> results = new ArrayList<>();
+      for (Callable<T> task : tasks) {
+        results.add(executor.submit(() -> {
+          ready.countDown();
+          go.await();
+          return task.call();
+        }));
+      }
+      ready.await();
+      go.countDown();
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(2, TimeUnit.MINUTES));
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private Hairdresser newHairdresser() {
+    Hairdresser hairdresser = new Hairdresser();
+    fillUser(hairdresser, "hairdresser");
+    hairdresser.setSpecialization("Hair");
+    hairdresser.setApproved(true);
+    hairdresser = hairdresserRepository.save(hairdresser);
+    hairdressers.add(hairdresser);
+    return hairdresser;
+  }
+
+  private Appointment appointment(Hairdresser hairdresser, Client client, LocalDateTime start) {
+    Appointment appointment = new Appointment();
+    appointment.setHairdresser(hairdresser);
+    appointment.setClient(client);
+    appointment.setBeautyService(beautyService);
+    appointment.setAppointmentTime(start);
+    appointment.setPaymentStatus(PaymentStatus.PENDING);
+    return appointment;
+  }
+
+  private static void fillUser(User user, String role) {
+    user.setFirstName("Booking");
+    user.setLastName("Concurrency");
+    user.setEmail(role + "-" + UUID.randomUUID() + "@example.com");
+    user.setPassword("password");
+    user.setPhone("123456789");
+  }
+}
@@ -1,15 +1,21 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.dto.AppointmentSummaryDTO;
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
 import com.edoyou.k2sbeauty.entities.model.*;
 import com.edoyou.k2sbeauty.entities.payment.PaymentStatus;
 import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.repositories.AppointmentRepository;
+import com.edoyou.k2sbeauty.repositories.HairdresserCalendarDayRepository;
+import com.edoyou.k2sbeauty.services.implementations.availability.AppointmentChangedEvent;
+import com.edoyou.k2sbeauty.services.implementations.availability.Booking;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry;
 import java.util.Collections;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -17,10 +23,15 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
@@ -33,37 +44,99 @@ public class AppointmentServiceImplTest {
   @Mock
   private AppointmentRepository appointmentRepository;
 
-  @InjectMocks
+  @Mock
+  private HairdresserCalendarDayRepository calendarDayRepository;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   private AppointmentServiceImpl appointmentService;
 
   private Appointment appointment;
   private Client client;
   private Hairdresser hairdresser;
+  private BeautyService beautyService;
 
   @BeforeEach
   public void setUp() {
+    appointmentService = new AppointmentServiceImpl(appointmentRepository, calendarDayRepository,
+        eventPublisher, TransactionOperations.withoutTransaction(),
+        new HairdresserLockRegistry(4, 1000), 3);
     client = new Client();
+    client.setId(1L);
     hairdresser = new Hairdresser();
+    hairdresser.setId(2L);
+    beautyService = new BeautyService();
+    beautyService.setDuration(60);
     appointment = new Appointment();
 
     LocalDateTime appointmentTime = LocalDateTime.now().plusDays(1).plusMinutes(1);
     appointment.setClient(client);
     appointment.setHairdresser(hairdresser);
+    appointment.setBeautyService(beautyService);
     appointment.setAppointmentTime(appointmentTime);
   }
 
   @Test
   @DisplayName("Save appointment with valid data")
   public void saveAppointment_valid() {
-    when(appointmentRepository.findByClient(any(Client.class))).thenReturn(new ArrayList<>());
-    when(appointmentRepository.findByHairdresser(any(Hairdresser.class))).thenReturn(
-        new ArrayList<>());
+    when(appointmentRepository.existsOverlappingHairdresserAppointment(eq(2L), isNull(),
+        any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(false);
+    when(appointmentRepository.existsOverlappingClientAppointment(eq(1L), isNull(),
+        any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(false);
     when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
 
     Appointment savedAppointment = appointmentService.saveAppointment(appointment);
 
     assertThat(savedAppointment).isEqualTo(appointment);
     verify(appointmentRepository, times(1)).save(appointment);
+    verify(appointmentRepository, never()).findByHairdresser(any(Hairdresser.class));
+    verify(appointmentRepository, never()).findByClient(any(Client.class));
+  }
+
+  @Test
+  @DisplayName("Save appointment publishes the booked interval")
+  public void saveAppointment_publishesBooking() {
+    appointment.setId(5L);
+    LocalDateTime start = appointment.getAppointmentTime();
+    when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+
+    appointmentService.saveAppointment(appointment);
+
+    verify(eventPublisher).publishEvent(new AppointmentChangedEvent(5L,
+        new Booking(2L, start, start.plusMinutes(60))));
+  }
+
+  @Test
+  @DisplayName("Completing an appointment releases its interval")
+  public void saveAppointment_completedReleasesBooking() {
+    appointment.setId(5L);
+    appointment.setCompleted(true);
+    when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+
+    appointmentService.saveAppointment(appointment);
+
+    verify(eventPublisher).publishEvent(new AppointmentChangedEvent(5L, null));
+  }
+
+  @Test
+  @DisplayName("Save appointment checks overlap over the service duration")
+  public void saveAppointment_checksServiceDurationInterval() {
+    LocalDateTime start = appointment.getAppointmentTime();
+    when(appointmentRepository.existsOverlappingHairdresserAppointment(2L, null,
+        start.minusDays(1), start, start.plusMinutes(60))).thenReturn(false);
+    when(appointmentRepository.existsOverlappingClientAppointment(1L, null,
+        start.minusDays(1), start, start.plusMinutes(60))).thenReturn(false);
+    when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+
+    appointmentService.saveAppointment(appointment);
+
+    verify(appointmentRepository).existsOverlappingHairdresserAppointment(2L, null,
+        start.minusDays(1), start, start.plusMinutes(60));
+    verify(appointmentRepository).existsOverlappingClientAppointment(1L, null,
+        start.minusDays(1), start, start.plusMinutes(60));
   }
 
   @Test
@@ -78,59 +151,102 @@ public class AppointmentServiceImplTest {
   }
 
   @Test
-  @DisplayName("Save appointment when client already has an appointment at the same time")
+  @DisplayName("Save appointment when client already has an overlapping appointment")
   public void saveAppointment_clientUnavailable() {
-    Client client = new Client();
-    client.setId(1L);
-
-    LocalDateTime existingAppointmentTime = LocalDateTime.now().plusDays(1);
-    Appointment existingAppointment = new Appointment();
-    existingAppointment.setId(1L);
-    existingAppointment.setCompleted(false);
-    existingAppointment.setAppointmentTime(existingAppointmentTime);
-    existingAppointment.setClient(client);
-
     Appointment newAppointment = new Appointment();
     newAppointment.setId(2L);
-    newAppointment.setAppointmentTime(existingAppointmentTime);
+    newAppointment.setAppointmentTime(LocalDateTime.now().plusDays(1));
     newAppointment.setClient(client);
+    newAppointment.setHairdresser(hairdresser);
+    newAppointment.setBeautyService(beautyService);
 
-    List<Appointment> existingAppointments = new ArrayList<>();
-    existingAppointments.add(existingAppointment);
-
-    when(appointmentRepository.findByClient(any(Client.class))).thenReturn(existingAppointments);
+    when(appointmentRepository.existsOverlappingHairdresserAppointment(eq(2L), eq(2L),
+        any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(false);
+    when(appointmentRepository.existsOverlappingClientAppointment(eq(1L), eq(2L),
+        any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(true);
 
     assertThatThrownBy(() -> appointmentService.saveAppointment(newAppointment))
         .isInstanceOf(IllegalStateException.class)
         .hasMessageContaining("You already have an appointment scheduled at the same time.");
+    verify(appointmentRepository, never()).save(any(Appointment.class));
   }
 
   @Test
-  @DisplayName("Save appointment when hairdresser already has an appointment at the same time")
+  @DisplayName("Save appointment when hairdresser already has an overlapping appointment")
   public void saveAppointment_hairdresserUnavailable() {
-    Hairdresser hairdresser = new Hairdresser();
-    hairdresser.setId(1L);
-
-    LocalDateTime existingAppointmentTime = LocalDateTime.now().plusDays(1);
-    Appointment existingAppointment = new Appointment();
-    existingAppointment.setId(1L);
-    existingAppointment.setCompleted(false);
-    existingAppointment.setAppointmentTime(existingAppointmentTime);
-    existingAppointment.setHairdresser(hairdresser);
-
     Appointment newAppointment = new Appointment();
     newAppointment.setId(2L);
-    newAppointment.setAppointmentTime(existingAppointmentTime);
+    newAppointment.setAppointmentTime(LocalDateTime.now().plusDays(1));
+    newAppointment.setClient(client);
     newAppointment.setHairdresser(hairdresser);
+    newAppointment.setBeautyService(beautyService);
 
-    List<Appointment> existingAppointments = new ArrayList<>();
-    existingAppointments.add(existingAppointment);
-
-    when(appointmentRepository.findByHairdresser(eq(hairdresser))).thenReturn(existingAppointments);
+    when(appointmentRepository.existsOverlappingHairdresserAppointment(eq(2L), eq(2L),
+        any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(true);
 
     assertThatThrownBy(() -> appointmentService.saveAppointment(newAppointment))
         .isInstanceOf(IllegalStateException.class)
         .hasMessageContaining("Hairdresser is not available during the appointment time.");
+    verify(appointmentRepository, never()).save(any(Appointment.class));
+  }
+
+  @Test
+  @DisplayName("Save appointment claims the calendar days the appointment touches")
+  public void saveAppointment_claimsCalendarDays() {
+    LocalDateTime start = LocalDateTime.now().plusDays(2).toLocalDate().atTime(23, 30);
+    appointment.setAppointmentTime(start);
+    when(calendarDayRepository.findByHairdresserIdAndDay(2L, start.toLocalDate()))
+        .thenReturn(Optional.of(new HairdresserCalendarDay(2L, start.toLocalDate())));
+    when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
+
+    appointmentService.saveAppointment(appointment);
+
+    verify(calendarDayRepository).findByHairdresserIdAndDay(2L, start.toLocalDate().plusDays(1));
+    verify(calendarDayRepository, times(1)).saveAndFlush(any(HairdresserCalendarDay.class));
+  }
+
+  @Test
+  @DisplayName("Save appointment retries after a concurrent booking")
+  public void saveAppointment_retriesOnConflict() {
+    when(appointmentRepository.save(any(Appointment.class)))
+        .thenAnswer(invocation -> {
+          appointment.setId(9L);
+          throw new ObjectOptimisticLockingFailureException(HairdresserCalendarDay.class, 1L);
+        })
+        .thenReturn(appointment);
+
+    appointmentService.saveAppointment(appointment);
+
+    verify(appointmentRepository, times(2)).existsOverlappingHairdresserAppointment(eq(2L),
+        isNull(), any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class));
+  }
+
+  @Test
+  @DisplayName("Save appointment does not retry integrity violations of the appointment")
+  public void saveAppointment_propagatesAppointmentIntegrityViolations() {
+    when(appointmentRepository.save(any(Appointment.class)))
+        .thenThrow(new DataIntegrityViolationException("Column 'client_id' cannot be null"));
+
+    assertThatThrownBy(() -> appointmentService.saveAppointment(appointment))
+        .isInstanceOf(DataIntegrityViolationException.class)
+        .hasMessageContaining("client_id");
+    verify(appointmentRepository, times(1)).save(any(Appointment.class));
+  }
+
+  @Test
+  @DisplayName("Save appointment gives up after the maximum number of attempts")
+  public void saveAppointment_givesUpAfterMaxAttempts() {
+    when(calendarDayRepository.saveAndFlush(any(HairdresserCalendarDay.class)))
+        .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+    assertThatThrownBy(() -> appointmentService.saveAppointment(appointment))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("concurrent bookings");
+    verify(calendarDayRepository, times(3)).saveAndFlush(any(HairdresserCalendarDay.class));
+    verify(appointmentRepository, never()).save(any(Appointment.class));
   }
 
   @Test
@@ -167,6 +283,27 @@ public class AppointmentServiceImplTest {
     verify(appointmentRepository, times(1)).findByHairdresser(hairdresser);
   }
 
+  @Test
+  @DisplayName("Find active appointments of a hairdresser within a window")
+  public void findActiveByHairdresserBetween() {
+    LocalDateTime from = LocalDateTime.of(2030, 1, 7, 9, 0);
+    LocalDateTime to = from.plusDays(7);
+    Appointment running = new Appointment();
+    running.setBeautyService(beautyService);
+    running.setAppointmentTime(from.minusMinutes(30));
+    Appointment finished = new Appointment();
+    finished.setBeautyService(beautyService);
+    finished.setAppointmentTime(from.minusMinutes(60));
+    appointment.setAppointmentTime(from.plusHours(2));
+    when(appointmentRepository.findActiveByHairdresserBetween(2L, from.minusDays(1), to))
+        .thenReturn(List.of(finished, running, appointment));
+
+    List<Appointment> found = appointmentService.findActiveByHairdresserBetween(hairdresser, from,
+        to);
+
+    assertThat(found).containsExactly(running, appointment);
+  }
+
   @Test
   @DisplayName("Update payment status for non-existing appointment")
   public void updatePaymentStatus_nonExistingAppointment() {
@@ -231,6 +368,7 @@ public class AppointmentServiceImplTest {
     appointmentService.deleteAppointment(appointmentId, "ROLE_ADMIN");
 
     verify(appointmentRepository, times(1)).deleteById(appointmentId);
+    verify(eventPublisher).publishEvent(new AppointmentChangedEvent(appointmentId, null));
   }
 
   @Test
@@ -276,7 +414,11 @@ public class AppointmentServiceImplTest {
   public void updateAppointment_existingAppointment() {
     Long appointmentId = 1L;
     Appointment newAppointmentDetails = new Appointment();
+    newAppointmentDetails.setClient(client);
+    newAppointmentDetails.setHairdresser(hairdresser);
+    newAppointmentDetails.setBeautyService(beautyService);
     newAppointmentDetails.setAppointmentTime(LocalDateTime.now().plusDays(2));
+    appointment.setId(appointmentId);
 
     when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(appointment));
     when(appointmentRepository.save(any(Appointment.class))).thenReturn(appointment);
@@ -284,8 +426,59 @@ public class AppointmentServiceImplTest {
     Appointment updatedAppointment = appointmentService.updateAppointment(appointmentId,
         newAppointmentDetails);
 
-    assertThat(updatedAppointment.getAppointmentTime()).isEqualTo(
-        newAppointmentDetails.getAppointmentTime());
+    LocalDateTime newTime = newAppointmentDetails.getAppointmentTime();
+    assertThat(updatedAppointment.getAppointmentTime()).isEqualTo(newTime);
+    verify(eventPublisher).publishEvent(new AppointmentChangedEvent(appointmentId,
+        new Booking(2L, newTime, newTime.plusMinutes(60))));
+  }
+
+  @Test
+  @DisplayName("Update appointment rejects a time overlapping another appointment of the hairdresser")
+  public void updateAppointment_hairdresserUnavailable() {
+    Long appointmentId = 1L;
+    Appointment newAppointmentDetails = new Appointment();
+    newAppointmentDetails.setClient(client);
+    newAppointmentDetails.setHairdresser(hairdresser);
+    newAppointmentDetails.setBeautyService(beautyService);
+    newAppointmentDetails.setAppointmentTime(LocalDateTime.now().plusDays(2));
+    appointment.setId(appointmentId);
+
+    when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(appointment));
+    when(appointmentRepository.existsOverlappingHairdresserAppointment(eq(2L), eq(appointmentId),
+        any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+        .thenReturn(true);
+
+    assertThatThrownBy(
+        () -> appointmentService.updateAppointment(appointmentId, newAppointmentDetails))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("Hairdresser is not available");
+    verify(calendarDayRepository).findByHairdresserIdAndDay(2L,
+        newAppointmentDetails.getAppointmentTime().toLocalDate());
+    verify(appointmentRepository, never()).save(any(Appointment.class));
+  }
+
+  @Test
+  @DisplayName("Update appointment retries after a concurrent booking")
+  public void updateAppointment_retriesOnConflict() {
+    Long appointmentId = 1L;
+    Appointment newAppointmentDetails = new Appointment();
+    newAppointmentDetails.setClient(client);
+    newAppointmentDetails.setHairdresser(hairdresser);
+    newAppointmentDetails.setBeautyService(beautyService);
+    newAppointmentDetails.setAppointmentTime(LocalDateTime.now().plusDays(2));
+    appointment.setId(appointmentId);
+
+    when(appointmentRepository.findById(appointmentId)).thenReturn(Optional.of(appointment));
+    when(appointmentRepository.save(any(Appointment.class)))
+        .thenThrow(new ObjectOptimisticLockingFailureException(HairdresserCalendarDay.class, 1L))
+        .thenReturn(appointment);
+
+    appointmentService.updateAppointment(appointmentId, newAppointmentDetails);
+
+    verify(appointmentRepository, times(2)).findById(appointmentId);
+    verify(appointmentRepository, times(2)).existsOverlappingClientAppointment(eq(1L),
+        eq(appointmentId), any(LocalDateTime.class), any(LocalDateTime.class),
+        any(LocalDateTime.class));
   }
 
   @Test
@@ -347,4 +540,57 @@ public class AppointmentServiceImplTest {
     assertThat(foundAppointments.isEmpty()).isTrue();
   }
 
-}
\ No newline at end of file
+  @Test
+  @DisplayName("Find the first page of appointment summaries")
+  public void findAppointmentSummaries_firstPage() {
+    AppointmentSummaryDTO summary = summary(1L, 0);
+    when(appointmentRepository.findSummaries(PageRequest.of(0, 5)))
+        .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 5), true));
+
+    CursorPage<AppointmentSummaryDTO> page = appointmentService.findAppointmentSummaries(null, 5);
+
+    assertThat(page.items()).containsExactly(summary);
+    assertThat(page.hasPrevious()).isFalse();
+    assertThat(PageToken.decode(page.nextToken())).isEqualTo(summary.key());
+  }
+
+  @Test
+  @DisplayName("Find the appointment summaries after a token")
+  public void findAppointmentSummaries_after() {
+    AppointmentSummaryDTO summary = summary(2L, 1);
+    PageToken after = summary(1L, 0).key();
+    when(appointmentRepository.findSummariesAfter(after.time(), after.id(), PageRequest.of(0, 5)))
+        .thenReturn(new SliceImpl<>(List.of(summary), PageRequest.of(0, 5), false));
+
+    CursorPage<AppointmentSummaryDTO> page = appointmentService.findAppointmentSummaries(after, 5);
+
+    assertThat(page.items()).containsExactly(summary);
+    assertThat(PageToken.decode(page.previousToken()))
+        .isEqualTo(PageToken.before(summary.appointmentTime(), summary.id()));
+    assertThat(page.hasNext()).isFalse();
+    verify(appointmentRepository, never()).findSummaries(any());
+  }
+
+  @Test
+  @DisplayName("Find the appointment summaries before a token in ascending order")
+  public void findAppointmentSummaries_before() {
+    AppointmentSummaryDTO first = summary(1L, 0);
+    AppointmentSummaryDTO second = summary(2L, 1);
+    AppointmentSummaryDTO third = summary(3L, 2);
+    PageToken before = PageToken.before(third.appointmentTime(), third.id());
+    when(appointmentRepository.findSummariesBefore(before.time(), before.id(),
+        PageRequest.of(0, 2)))
+        .thenReturn(new SliceImpl<>(List.of(second, first), PageRequest.of(0, 2), false));
+
+    CursorPage<AppointmentSummaryDTO> page = appointmentService.findAppointmentSummaries(before, 2);
+
+    assertThat(page.items()).containsExactly(first, second);
+    assertThat(page.hasPrevious()).isFalse();
+    assertThat(PageToken.decode(page.nextToken())).isEqualTo(second.key());
+  }
+
+  private static AppointmentSummaryDTO summary(Long id, int hours) {
+    return new AppointmentSummaryDTO(id, LocalDateTime.of(2023, 6, 25, 10, 0).plusHours(hours),
+        "Client", "Hairdresser", "Haircut", PaymentStatus.PENDING, false);
+  }
+}
@@ -1,5 +1,6 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
 import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Client;
@@ -15,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -42,7 +44,8 @@ class FeedbackServiceImplTest {
     feedbackService.createFeedback(feedback);
 
     verify(feedbackRepository, times(1)).save(feedback);
-    verify(hairdresserService, times(1)).updateRating(hairdresser);
+    verify(hairdresserService, times(1)).addRating(hairdresser, 5);
+    verify(hairdresserService, never()).updateRating(any());
   }
 
   @Test
@@ -58,6 +61,31 @@ class FeedbackServiceImplTest {
     assertEquals(feedback, foundFeedback.orElse(null));
   }
 
+  @Test
+  public void getRatingAggregate_test() {
+    RatingAggregateDTO aggregate = new RatingAggregateDTO(1L, 14, 3);
+
+    when(feedbackRepository.aggregateRatingByHairdresser(1L)).thenReturn(Optional.of(aggregate));
+
+    assertEquals(aggregate, feedbackService.getRatingAggregate(1L));
+  }
+
+  @Test
+  public void getRatingAggregate_noFeedback_test() {
+    when(feedbackRepository.aggregateRatingByHairdresser(1L)).thenReturn(Optional.empty());
+
+    assertEquals(new RatingAggregateDTO(1L, 0, 0), feedbackService.getRatingAggregate(1L));
+  }
+
+  @Test
+  public void getRatingAggregates_test() {
+    List<RatingAggregateDTO> aggregates = List.of(new RatingAggregateDTO(1L, 14, 3));
+
+    when(feedbackRepository.aggregateRatingsByHairdresser()).thenReturn(aggregates);
+
+    assertEquals(aggregates, feedbackService.getRatingAggregates());
+  }
+
   private Feedback createSampleFeedback() {
     Feedback feedback = new Feedback();
     feedback.setId(1L);
@@ -1,30 +1,39 @@
 package com.edoyou.k2sbeauty.services.implementations;
 
+import com.edoyou.k2sbeauty.dto.CursorPage;
+import com.edoyou.k2sbeauty.dto.PageToken;
+import com.edoyou.k2sbeauty.dto.RatingAggregateDTO;
 import com.edoyou.k2sbeauty.entities.model.Appointment;
-import com.edoyou.k2sbeauty.entities.model.Feedback;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
 import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
 import com.edoyou.k2sbeauty.exceptions.ResourceNotFoundException;
 import com.edoyou.k2sbeauty.repositories.HairdresserRepository;
 import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
 import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
 import com.edoyou.k2sbeauty.services.interfaces.FeedbackService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -44,6 +53,9 @@ public class HairdresserServiceImplTest {
   @Mock
   private FeedbackService feedbackService;
 
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
   @InjectMocks
   private HairdresserServiceImpl hairdresserService;
 
@@ -151,30 +163,90 @@ public class HairdresserServiceImplTest {
   @Test
   public void testGenerateSchedule() {
     when(timeSlotService.generateTimeSlots(hairdresser)).thenReturn(Collections.emptyList());
-    when(appointmentService.findByHairdresser(hairdresser)).thenReturn(
-        Collections.singletonList(appointment));
 
     hairdresserService.generateSchedule(hairdresser);
 
     verify(timeSlotService).generateTimeSlots(hairdresser);
-    verify(appointmentService).findByHairdresser(hairdresser);
+    verify(appointmentService, never()).findByHairdresser(any());
+    verify(appointmentService, never()).findActiveByHairdresserBetween(any(), any(), any());
   }
 
   @Test
-  public void testUpdateRating() {
-    Feedback feedback = new Feedback();
-    feedback.setRating(5);
+  public void testGenerateScheduleLoadsOnlySlotWindow() {
+    LocalDateTime start = LocalDateTime.of(2030, 1, 7, 9, 0);
+    List<TimeSlot> timeSlots = List.of(
+        new TimeSlot(start, start.plusMinutes(90), null),
+        new TimeSlot(start.plusDays(1), start.plusDays(1).plusMinutes(90), null));
+    BeautyService beautyService = new BeautyService();
+    beautyService.setDuration(60);
+    appointment.setBeautyService(beautyService);
+    appointment.setAppointmentTime(start.plusMinutes(30));
+
+    when(timeSlotService.generateTimeSlots(hairdresser)).thenReturn(timeSlots);
+    when(appointmentService.findActiveByHairdresserBetween(hairdresser, start,
+        start.plusDays(1).plusMinutes(90))).thenReturn(List.of(appointment));
+
+    Map<LocalDate, List<TimeSlot>> schedule = hairdresserService.generateSchedule(hairdresser);
+
+    assertEquals(2, schedule.size());
+    assertEquals(appointment, schedule.get(start.toLocalDate()).get(0).getAppointment());
+    assertNull(schedule.get(start.toLocalDate().plusDays(1)).get(0).getAppointment());
+    verify(appointmentService, never()).findByHairdresser(any());
+  }
 
-    when(hairdresserRepository.findByIdWithAppointments(hairdresser.getId())).thenReturn(
-        java.util.Optional.of(hairdresser));
-    when(feedbackService.getFeedbackById(appointment.getId())).thenReturn(
-        java.util.Optional.of(feedback));
+  @Test
+  public void testUpdateRating() {
+    when(feedbackService.getRatingAggregate(hairdresser.getId())).thenReturn(
+        new RatingAggregateDTO(hairdresser.getId(), 9, 2));
+    when(hairdresserRepository.updateRatingAggregate(hairdresser.getId(), 9, 2)).thenReturn(1);
 
     hairdresserService.updateRating(hairdresser);
 
-    verify(hairdresserRepository).findByIdWithAppointments(hairdresser.getId());
-    verify(feedbackService).getFeedbackById(appointment.getId());
-    verify(hairdresserRepository).save(any(Hairdresser.class));
+    verify(feedbackService).getRatingAggregate(hairdresser.getId());
+    verify(hairdresserRepository, never()).findByIdWithAppointments(anyLong());
+    verify(feedbackService, never()).getFeedbackById(anyLong());
+    assertEquals(4.5, hairdresser.getRating());
+  }
+
+  @Test
+  public void testUpdateRatingHairdresserNotFound() {
+    when(feedbackService.getRatingAggregate(hairdresser.getId())).thenReturn(
+        new RatingAggregateDTO(hairdresser.getId(), 0, 0));
+    when(hairdresserRepository.updateRatingAggregate(hairdresser.getId(), 0, 0)).thenReturn(0);
+
+    assertThrows(ResourceNotFoundException.class,
+        () -> hairdresserService.updateRating(hairdresser));
+  }
+
+  @Test
+  public void testAddRating() {
+    when(hairdresserRepository.addRating(hairdresser.getId(), 4)).thenReturn(1);
+
+    hairdresserService.addRating(hairdresser, 4);
+
+    verify(hairdresserRepository).addRating(hairdresser.getId(), 4);
+    verifyNoInteractions(feedbackService, appointmentService);
+  }
+
+  @Test
+  public void testAddRatingHairdresserNotFound() {
+    when(hairdresserRepository.addRating(hairdresser.getId(), 4)).thenReturn(0);
+
+    assertThrows(ResourceNotFoundException.class,
+        () -> hairdresserService.addRating(hairdresser, 4));
+  }
+
+  @Test
+  public void testRebuildRatings() {
+    when(feedbackService.getRatingAggregates()).thenReturn(List.of(
+        new RatingAggregateDTO(1L, 9, 2), new RatingAggregateDTO(3L, 5, 1)));
+
+    hairdresserService.rebuildRatings();
+
+    var inOrder = inOrder(hairdresserRepository);
+    inOrder.verify(hairdresserRepository).resetRatingAggregates();
+    inOrder.verify(hairdresserRepository).updateRatingAggregate(1L, 9, 2);
+    inOrder.verify(hairdresserRepository).updateRatingAggregate(3L, 5, 1);
   }
 
   @Test
@@ -253,18 +325,6 @@ public class HairdresserServiceImplTest {
   }
 
 
-  @Test
-  void testFindAllHairdressersByApprovalStatus() {
-    Page<Hairdresser> page = Mockito.mock(Page.class);
-    when(hairdresserRepository.findByIsApproved(anyBoolean(), any())).thenReturn(page);
-
-    Pageable pageable = Mockito.mock(Pageable.class);
-    Page<Hairdresser> result = hairdresserService.findAllHairdressersByApprovalStatus(true,
-        pageable);
-
-    assertEquals(page, result);
-  }
-
   @Test
   void testFindAllWithBeautyServices() {
     List<Hairdresser> hairdressers = new ArrayList<>();
@@ -279,15 +339,62 @@ public class HairdresserServiceImplTest {
   }
 
   @Test
-  void testFindAllWithBeautyServicesWithPageable() {
-    Page<Hairdresser> hairdresserPage = mock(Page.class);
+  void testFindAllHairdressersByApprovalStatusWithToken() {
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(5L);
+    when(hairdresserRepository.findByIsApprovedAfter(false, 4L, PageRequest.of(0, 1))).thenReturn(
+        new SliceImpl<>(List.of(hairdresser), PageRequest.of(0, 1), true));
+
+    CursorPage<Hairdresser> result = hairdresserService.findAllHairdressersByApprovalStatus(false,
+        PageToken.after(4L), 1);
+
+    assertEquals(List.of(hairdresser), result.items());
+    assertEquals(PageToken.before(5L), PageToken.decode(result.previousToken()));
+    assertEquals(PageToken.after(5L), PageToken.decode(result.nextToken()));
+  }
+
+  @Test
+  void testFindAllWithBeautyServicesPagesIdsBeforeLoadingServices() {
+    Hairdresser first = new Hairdresser();
+    first.setId(1L);
+    Hairdresser second = new Hairdresser();
+    second.setId(2L);
+    when(hairdresserRepository.findIdsWithBeautyServicesAfter(0L, PageRequest.of(0, 2)))
+        .thenReturn(new SliceImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), false));
+    when(hairdresserRepository.findAllWithBeautyServicesByIdIn(List.of(1L, 2L)))
+        .thenReturn(List.of(first, second));
+
+    CursorPage<Hairdresser> result = hairdresserService.findAllWithBeautyServices(null, 2);
+
+    assertEquals(List.of(first, second), result.items());
+    assertFalse(result.hasPrevious());
+    assertFalse(result.hasNext());
+  }
 
-    when(hairdresserRepository.findAllWithBeautyServices(any(Pageable.class))).thenReturn(
-        hairdresserPage);
+  @Test
+  void testFindAllWithBeautyServicesBackward() {
+    when(hairdresserRepository.findIdsWithBeautyServicesBefore(9L, PageRequest.of(0, 2)))
+        .thenReturn(new SliceImpl<>(List.of(8L, 7L), PageRequest.of(0, 2), true));
+    when(hairdresserRepository.findAllWithBeautyServicesByIdIn(List.of(7L, 8L)))
+        .thenReturn(List.of(new Hairdresser(), new Hairdresser()));
+
+    CursorPage<Hairdresser> result = hairdresserService.findAllWithBeautyServices(
+        PageToken.before(9L), 2);
+
+    assertEquals(2, result.items().size());
+    assertEquals(PageToken.before(7L), PageToken.decode(result.previousToken()));
+    assertEquals(PageToken.after(8L), PageToken.decode(result.nextToken()));
+  }
+
+  @Test
+  void testFindAllWithBeautyServicesEmptyPageSkipsSecondQuery() {
+    when(hairdresserRepository.findIdsWithBeautyServicesAfter(0L, PageRequest.of(0, 2)))
+        .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
 
-    Page<Hairdresser> result = hairdresserService.findAllWithBeautyServices(Pageable.unpaged());
+    CursorPage<Hairdresser> result = hairdresserService.findAllWithBeautyServices(null, 2);
 
-    assertEquals(hairdresserPage, result);
+    assertTrue(result.items().isEmpty());
+    verify(hairdresserRepository, never()).findAllWithBeautyServicesByIdIn(any());
   }
 
 }
\ No newline at end of file
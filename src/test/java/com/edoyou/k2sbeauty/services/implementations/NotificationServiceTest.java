@@ -0,0 +1,84 @@
+package com.edoyou.k2sbeauty.services.implementations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.edoyou.k2sbeauty.services.implementations.notification.MailDispatcher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationServiceTest {
+
+  @Mock
+  private MailDispatcher mailDispatcher;
+
+  @InjectMocks
+  private NotificationService notificationService;
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void shouldDispatchImmediatelyOutsideTransaction() {
+    notificationService.sendNotification("client@example.com", "Subject", "Text");
+
+    ArgumentCaptor<SimpleMailMessage> captor = ArgumentCaptor.forClass(SimpleMailMessage.class);
+    verify(mailDispatcher).dispatch(captor.capture(), any(Runnable.class));
+    assertEquals("client@example.com", captor.getValue().getTo()[0]);
+    assertEquals("Subject", captor.getValue().getSubject());
+    assertEquals("Text", captor.getValue().getText());
+  }
+
+  @Test
+  void shouldPassDeliveryCallbackToDispatcher() {
+    Runnable onDelivered = () -> {
+    };
+
+    notificationService.sendNotification("client@example.com", "Subject", "Text", onDelivered);
+
+    verify(mailDispatcher).dispatch(any(SimpleMailMessage.class), eq(onDelivered));
+  }
+
+  @Test
+  void shouldDispatchOnlyAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    notificationService.sendNotification("client@example.com", "Subject", "Text");
+
+    verify(mailDispatcher, never()).dispatch(any(), any());
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCommit();
+    }
+    verify(mailDispatcher).dispatch(any(SimpleMailMessage.class), any(Runnable.class));
+  }
+
+  @Test
+  void shouldNotDispatchWhenTransactionRollsBack() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    notificationService.sendNotification("client@example.com", "Subject", "Text");
+
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+    verify(mailDispatcher, never()).dispatch(any(), any());
+  }
+}
@@ -0,0 +1,132 @@
+package com.edoyou.k2sbeauty.services.implementations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.entities.model.ScheduledNotification;
+import com.edoyou.k2sbeauty.repositories.ScheduledNotificationRepository;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledNotificationServiceImplTest {
+
+  @Mock
+  private ScheduledNotificationRepository scheduledNotificationRepository;
+
+  @Mock
+  private NotificationService notificationService;
+
+  private ScheduledNotificationServiceImpl scheduledNotificationService;
+
+  @BeforeEach
+  void setUp() {
+    scheduledNotificationService = new ScheduledNotificationServiceImpl(
+        scheduledNotificationRepository, notificationService, 2, 600_000, 5);
+  }
+
+  @Test
+  void shouldPersistScheduledNotification() {
+    LocalDateTime dueAt = LocalDateTime.now().plusDays(1);
+    when(scheduledNotificationRepository.save(any(ScheduledNotification.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    ScheduledNotification notification = scheduledNotificationService.schedule(
+        "client@example.com", "Subject", "Text", dueAt);
+
+    assertEquals("client@example.com", notification.getRecipient());
+    assertEquals(dueAt, notification.getDueAt());
+    verify(notificationService, never()).sendNotification(any(), any(), any());
+  }
+
+  @Test
+  void shouldSendClaimedNotificationsAndMarkThemDeliveredOnceSent() {
+    ScheduledNotification first = notification(1L, "a@example.com", "A");
+    ScheduledNotification second = notification(2L, "b@example.com", "B");
+    when(scheduledNotificationRepository.findDue(any(LocalDateTime.class), eq(5),
+        any(Pageable.class))).thenReturn(List.of(first, second));
+    when(scheduledNotificationRepository.claim(eq(1L), any(LocalDateTime.class),
+        any(LocalDateTime.class))).thenReturn(1);
+    when(scheduledNotificationRepository.claim(eq(2L), any(LocalDateTime.class),
+        any(LocalDateTime.class))).thenReturn(1);
+
+    int delivered = scheduledNotificationService.deliverDue();
+
+    ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+    verify(scheduledNotificationRepository).findDue(any(LocalDateTime.class), eq(5),
+        pageable.capture());
+    assertEquals(2, pageable.getValue().getPageSize());
+    assertEquals(2, delivered);
+    ArgumentCaptor<Runnable> onDelivered = ArgumentCaptor.forClass(Runnable.class);
+    verify(notificationService).sendNotification(eq("a@example.com"), eq("Subject"), eq("A"),
+        onDelivered.capture());
+    verify(notificationService).sendNotification(eq("b@example.com"), eq("Subject"), eq("B"),
+        any(Runnable.class));
+    verify(scheduledNotificationRepository, never()).markDelivered(any(), any());
+
+    onDelivered.getValue().run();
+    verify(scheduledNotificationRepository).markDelivered(eq(1L), any(LocalDateTime.class));
+    verify(scheduledNotificationRepository, never()).markDelivered(eq(2L), any());
+  }
+
+  @Test
+  void shouldClaimForTheClaimTimeout() {
+    ScheduledNotification first = notification(1L, "a@example.com", "A");
+    when(scheduledNotificationRepository.findDue(any(LocalDateTime.class), eq(5),
+        any(Pageable.class))).thenReturn(List.of(first));
+
+    scheduledNotificationService.deliverDue();
+
+    ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+    ArgumentCaptor<LocalDateTime> claimedUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(scheduledNotificationRepository).claim(eq(1L), now.capture(), claimedUntil.capture());
+    assertEquals(now.getValue().plusMinutes(10), claimedUntil.getValue());
+  }
+
+  @Test
+  void shouldSkipNotificationsClaimedByAnotherPoller() {
+    ScheduledNotification first = notification(1L, "a@example.com", "A");
+    ScheduledNotification second = notification(2L, "b@example.com", "B");
+    when(scheduledNotificationRepository.findDue(any(LocalDateTime.class), eq(5),
+        any(Pageable.class))).thenReturn(List.of(first, second));
+    when(scheduledNotificationRepository.claim(eq(1L), any(LocalDateTime.class),
+        any(LocalDateTime.class))).thenReturn(0);
+    when(scheduledNotificationRepository.claim(eq(2L), any(LocalDateTime.class),
+        any(LocalDateTime.class))).thenReturn(1);
+
+    assertEquals(1, scheduledNotificationService.deliverDue());
+    verify(notificationService, never()).sendNotification(eq("a@example.com"), any(), any(),
+        any());
+    verify(notificationService).sendNotification(eq("b@example.com"), eq("Subject"), eq("B"),
+        any(Runnable.class));
+  }
+
+  @Test
+  void shouldDoNothingWhenNothingIsDue() {
+    when(scheduledNotificationRepository.findDue(any(LocalDateTime.class), eq(5),
+        any(Pageable.class))).thenReturn(Collections.emptyList());
+
+    assertEquals(0, scheduledNotificationService.deliverDue());
+    verify(notificationService, never()).sendNotification(any(), any(), any(), any());
+    verify(scheduledNotificationRepository, never()).claim(any(), any(), any());
+  }
+
+  private static ScheduledNotification notification(Long id, String to, String text) {
+    ScheduledNotification notification = new ScheduledNotification(to, "Subject", text,
+        LocalDateTime.now().minusMinutes(5));
+    notification.setId(id);
+    return notification;
+  }
+}
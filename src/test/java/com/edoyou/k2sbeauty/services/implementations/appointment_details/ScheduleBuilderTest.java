@@ -0,0 +1,98 @@
+package com.edoyou.k2sbeauty.services.implementations.appointment_details;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScheduleBuilderTest {
+
+  private static final LocalDateTime MONDAY = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+  @Test
+  void shouldGroupSlotsByDateInChronologicalOrder() {
+    List<TimeSlot> timeSlots = new ArrayList<>();
+    timeSlots.add(slot(MONDAY.plusDays(1)));
+    timeSlots.add(slot(MONDAY.plusMinutes(90)));
+    timeSlots.add(slot(MONDAY));
+
+    Map<LocalDate, List<TimeSlot>> schedule = ScheduleBuilder.build(timeSlots,
+        Collections.emptyList());
+
+    assertEquals(List.of(MONDAY.toLocalDate(), MONDAY.toLocalDate().plusDays(1)),
+        new ArrayList<>(schedule.keySet()));
+    List<TimeSlot> monday = schedule.get(MONDAY.toLocalDate());
+    assertEquals(MONDAY, monday.get(0).getStart());
+    assertEquals(MONDAY.plusMinutes(90), monday.get(1).getStart());
+  }
+
+  @Test
+  void shouldAssignAppointmentToEverySlotItOverlaps() {
+    List<TimeSlot> timeSlots = List.of(slot(MONDAY), slot(MONDAY.plusMinutes(90)),
+        slot(MONDAY.plusMinutes(180)));
+    Appointment appointment = appointment(MONDAY.plusMinutes(60), 60, false);
+
+    ScheduleBuilder.build(timeSlots, List.of(appointment));
+
+    assertEquals(appointment, timeSlots.get(0).getAppointment());
+    assertEquals(appointment, timeSlots.get(1).getAppointment());
+    assertNull(timeSlots.get(2).getAppointment());
+  }
+
+  @Test
+  void shouldNotAssignAppointmentEndingAtSlotStart() {
+    List<TimeSlot> timeSlots = List.of(slot(MONDAY), slot(MONDAY.plusMinutes(90)));
+    Appointment appointment = appointment(MONDAY, 90, false);
+
+    ScheduleBuilder.build(timeSlots, List.of(appointment));
+
+    assertEquals(appointment, timeSlots.get(0).getAppointment());
+    assertNull(timeSlots.get(1).getAppointment());
+  }
+
+  @Test
+  void shouldKeepLongAppointmentRunningPastShorterOnes() {
+    List<TimeSlot> timeSlots = List.of(slot(MONDAY), slot(MONDAY.plusMinutes(90)),
+        slot(MONDAY.plusMinutes(180)));
+    Appointment longAppointment = appointment(MONDAY, 240, false);
+    Appointment shortAppointment = appointment(MONDAY.plusMinutes(10), 20, false);
+
+    ScheduleBuilder.build(timeSlots, List.of(shortAppointment, longAppointment));
+
+    assertEquals(longAppointment, timeSlots.get(0).getAppointment());
+    assertEquals(longAppointment, timeSlots.get(1).getAppointment());
+    assertEquals(longAppointment, timeSlots.get(2).getAppointment());
+  }
+
+  @Test
+  void shouldIgnoreCompletedAppointments() {
+    List<TimeSlot> timeSlots = List.of(slot(MONDAY));
+
+    ScheduleBuilder.build(timeSlots, List.of(appointment(MONDAY, 60, true)));
+
+    assertNull(timeSlots.get(0).getAppointment());
+  }
+
+  private static TimeSlot slot(LocalDateTime start) {
+    return new TimeSlot(start, start.plusMinutes(TimeSlotService.ONE_SERVICE_TIME), null);
+  }
+
+  private static Appointment appointment(LocalDateTime start, int duration, boolean completed) {
+    BeautyService beautyService = new BeautyService();
+    beautyService.setDuration(duration);
+    Appointment appointment = new Appointment();
+    appointment.setBeautyService(beautyService);
+    appointment.setAppointmentTime(start);
+    appointment.setCompleted(completed);
+    return appointment;
+  }
+}
@@ -12,9 +12,15 @@ import org.mockito.Mock;
 import static org.mockito.BDDMockito.*;
 
 import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.BitSet;
 import java.util.Optional;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -102,4 +108,77 @@ public class TimeSlotServiceTest {
         "Service should generate no time slots when working hours less than service time");
   }
 
-}
\ No newline at end of file
+  @Test
+  void shouldReturnWorkingWindowAcrossMidnightInMinutes() {
+    WorkingHours workingHours = new WorkingHours();
+    workingHours.setStart(LocalTime.of(22, 0));
+    workingHours.setEnd(LocalTime.of(1, 0));
+    LocalDate date = LocalDate.of(2023, 5, 29);
+    when(hairdresser.getWorkingHoursForDay(DayOfWeek.MONDAY)).thenReturn(
+        Optional.of(workingHours));
+
+    assertArrayEquals(new int[]{22 * 60, 25 * 60}, timeSlotService.workingWindow(hairdresser, date));
+  }
+
+  @Test
+  void shouldReturnNoWorkingWindowOnDaysOff() {
+    when(hairdresser.getWorkingHoursForDay(DayOfWeek.MONDAY)).thenReturn(Optional.empty());
+
+    assertNull(timeSlotService.workingWindow(hairdresser, LocalDate.of(2023, 5, 29)));
+  }
+
+  @Test
+  void shouldOfferCandidateStartsOnTheGridAroundBusyCells() {
+    BitSet occupied = new BitSet();
+    occupied.set(4, 6);
+
+    assertArrayEquals(new int[]{0, 15, 90, 105, 120, 135},
+        TimeSlotService.candidateStarts(occupied, 0, 12, 40));
+  }
+
+  @Test
+  void shouldReadCandidateStartsAtTheOffsetOfTheWindow() {
+    BitSet occupied = new BitSet();
+    occupied.set(0, 10);
+    occupied.set(12);
+
+    assertArrayEquals(new int[]{0, 15, 45, 60}, TimeSlotService.candidateStarts(occupied, 10, 5, 15));
+  }
+
+  @Test
+  void shouldOfferNoCandidateStartsForServicesLongerThanTheWindow() {
+    assertEquals(0, TimeSlotService.candidateStarts(new BitSet(), 0, 4, 61).length);
+    assertEquals(1, TimeSlotService.candidateStarts(new BitSet(), 0, 4, 60).length);
+  }
+
+  @Test
+  void shouldNotRenderTheWorkingHoursWhenTraceIsOff() {
+    AtomicInteger renderings = new AtomicInteger();
+    WorkingHours workingHours = new WorkingHours() {
+      @Override
+      public String toString() {
+        renderings.incrementAndGet();
+        return super.toString();
+      }
+    };
+    workingHours.setStart(LocalTime.of(9, 0));
+    workingHours.setEnd(LocalTime.of(17, 0));
+    when(hairdresser.getWorkingHoursForDay(any(DayOfWeek.class))).thenReturn(
+        Optional.of(workingHours));
+    String loggerName = TimeSlotService.class.getName();
+    Level level = LogManager.getLogger(loggerName).getLevel();
+
+    try {
+      Configurator.setLevel(loggerName, Level.INFO);
+      timeSlotService.generateTimeSlots(hairdresser);
+      assertEquals(0, renderings.get());
+
+      Configurator.setLevel(loggerName, Level.TRACE);
+      timeSlotService.generateTimeSlots(hairdresser);
+      assertEquals(TimeSlotService.WEEK_DAYS, renderings.get());
+    } finally {
+      Configurator.setLevel(loggerName, level);
+    }
+  }
+
+}
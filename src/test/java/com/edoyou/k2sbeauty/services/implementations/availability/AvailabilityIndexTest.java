@@ -0,0 +1,187 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.WorkingHours;
+import com.edoyou.k2sbeauty.entities.model.appointment_details.TimeSlot;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityIndexTest {
+
+  @Mock
+  private HairdresserService hairdresserService;
+
+  @Mock
+  private AppointmentService appointmentService;
+
+  private AvailabilityIndex availabilityIndex;
+  private Hairdresser hairdresser;
+  private LocalDate tomorrow;
+
+  @BeforeEach
+  void setUp() {
+    availabilityIndex = new AvailabilityIndex(hairdresserService, appointmentService,
+        new TimeSlotService());
+    hairdresser = hairdresser(1L);
+    tomorrow = LocalDate.now().plusDays(1);
+  }
+
+  @Test
+  void shouldOfferOnlyFutureStartsFromWhichTheServiceFits() {
+    givenAppointments(hairdresser, List.of(appointment(7L, tomorrow.atTime(10, 45), 60)));
+
+    List<TimeSlot> freeSlots = availabilityIndex.findFreeSlots(1L, 90);
+
+    List<LocalTime> expected = new ArrayList<>(List.of(LocalTime.of(9, 0), LocalTime.of(9, 15)));
+    for (LocalTime start = LocalTime.of(11, 45); !start.isAfter(LocalTime.of(16, 30));
+        start = start.plusMinutes(TimeSlotService.CELL_MINUTES)) {
+      expected.add(start);
+    }
+    assertEquals(expected, startsOn(freeSlots, tomorrow));
+    LocalDateTime now = LocalDateTime.now();
+    assertTrue(freeSlots.stream().allMatch(slot -> slot.getStart().isAfter(now)
+        && slot.getEnd().equals(slot.getStart().plusMinutes(90))));
+    assertEquals(LocalDate.now().plusDays(TimeSlotService.WEEK_DAYS - 1),
+        freeSlots.get(freeSlots.size() - 1).getStart().toLocalDate());
+  }
+
+  @Test
+  void shouldOfferShortServicesInGapsTooSmallForLongOnes() {
+    givenAppointments(hairdresser, List.of(appointment(7L, tomorrow.atTime(9, 0), 60),
+        appointment(8L, tomorrow.atTime(10, 30), 60)));
+
+    assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(10, 15)),
+        startsOn(availabilityIndex.findFreeSlots(1L, 15), tomorrow).subList(0, 2));
+    assertEquals(LocalTime.of(11, 30),
+        startsOn(availabilityIndex.findFreeSlots(1L, 45), tomorrow).get(0));
+    verify(appointmentService, times(1)).findActiveByHairdresserBetween(eq(hairdresser), any(),
+        any());
+  }
+
+  @Test
+  void shouldApplyBookingsWithoutReloading() {
+    givenAppointments(hairdresser, List.of());
+    availabilityIndex.findFreeSlots(1L, 90);
+
+    availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(7L,
+        new Booking(1L, tomorrow.atTime(9, 0), tomorrow.atTime(9, 45))));
+
+    assertFalse(startsOn(availabilityIndex.findFreeSlots(1L, 90), tomorrow)
+        .contains(LocalTime.of(9, 0)));
+    verify(appointmentService, times(1)).findActiveByHairdresserBetween(eq(hairdresser), any(),
+        any());
+  }
+
+  @Test
+  void shouldFreeSlotOnlyWhenNoOtherAppointmentOverlapsIt() {
+    givenAppointments(hairdresser, List.of(appointment(7L, tomorrow.atTime(12, 0), 30),
+        appointment(8L, tomorrow.atTime(12, 30), 30)));
+    availabilityIndex.findFreeSlots(1L, 90);
+
+    availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(7L, null));
+    assertFalse(startsOn(availabilityIndex.findFreeSlots(1L, 90), tomorrow)
+        .contains(LocalTime.of(12, 0)));
+
+    availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(8L, null));
+    assertTrue(startsOn(availabilityIndex.findFreeSlots(1L, 90), tomorrow)
+        .contains(LocalTime.of(12, 0)));
+  }
+
+  @Test
+  void shouldMoveRescheduledAppointmentToTheNewHairdresser() {
+    Hairdresser other = hairdresser(2L);
+    givenAppointments(hairdresser, List.of(appointment(7L, tomorrow.atTime(9, 0), 60)));
+    givenAppointments(other, List.of());
+    availabilityIndex.findFreeSlots(1L, 90);
+    availabilityIndex.findFreeSlots(2L, 90);
+
+    availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(7L,
+        new Booking(2L, tomorrow.atTime(15, 0), tomorrow.atTime(16, 0))));
+
+    assertTrue(startsOn(availabilityIndex.findFreeSlots(1L, 90), tomorrow)
+        .contains(LocalTime.of(9, 0)));
+    assertFalse(startsOn(availabilityIndex.findFreeSlots(2L, 90), tomorrow)
+        .contains(LocalTime.of(15, 0)));
+  }
+
+  @Test
+  void shouldNotCacheAvailabilityLoadedWhileAnAppointmentChanged() {
+    when(hairdresserService.findByIdWithWorkingHours(1L)).thenReturn(hairdresser);
+    when(appointmentService.findActiveByHairdresserBetween(eq(hairdresser), any(), any()))
+        .thenAnswer(invocation -> {
+          availabilityIndex.onAppointmentChanged(new AppointmentChangedEvent(9L, null));
+          return List.of();
+        });
+
+    availabilityIndex.findFreeSlots(1L, 90);
+    availabilityIndex.findFreeSlots(1L, 90);
+
+    verify(appointmentService, times(2)).findActiveByHairdresserBetween(eq(hairdresser), any(),
+        any());
+  }
+
+  private void givenAppointments(Hairdresser hairdresser, List<Appointment> appointments) {
+    appointments.forEach(appointment -> appointment.setHairdresser(hairdresser));
+    when(hairdresserService.findByIdWithWorkingHours(hairdresser.getId())).thenReturn(hairdresser);
+    when(appointmentService.findActiveByHairdresserBetween(eq(hairdresser), any(), any()))
+        .thenReturn(appointments);
+  }
+
+  private static List<LocalTime> startsOn(List<TimeSlot> slots, LocalDate date) {
+    return slots.stream()
+        .filter(slot -> slot.getStart().toLocalDate().equals(date))
+        .map(slot -> slot.getStart().toLocalTime())
+        .toList();
+  }
+
+  private static Hairdresser hairdresser(Long id) {
+    Set<WorkingHours> week = new HashSet<>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      WorkingHours workingHours = new WorkingHours();
+      workingHours.setDayOfWeek(day);
+      workingHours.setStart(LocalTime.of(9, 0));
+      workingHours.setEnd(LocalTime.of(18, 0));
+      week.add(workingHours);
+    }
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(id);
+    hairdresser.setWorkingHours(week);
+    return hairdresser;
+  }
+
+  private static Appointment appointment(Long id, LocalDateTime time, int duration) {
+    BeautyService beautyService = new BeautyService();
+    beautyService.setDuration(duration);
+    Appointment appointment = new Appointment();
+    appointment.setId(id);
+    appointment.setAppointmentTime(time);
+    appointment.setBeautyService(beautyService);
+    return appointment;
+  }
+}
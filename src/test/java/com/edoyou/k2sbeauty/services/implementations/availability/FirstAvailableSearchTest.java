@@ -0,0 +1,185 @@
+package com.edoyou.k2sbeauty.services.implementations.availability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.config.ExecutionThreads;
+import com.edoyou.k2sbeauty.dto.AvailableSlotDTO;
+import com.edoyou.k2sbeauty.entities.model.Appointment;
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.entities.model.WorkingHours;
+import com.edoyou.k2sbeauty.services.implementations.appointment_details.TimeSlotService;
+import com.edoyou.k2sbeauty.services.interfaces.AppointmentService;
+import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class FirstAvailableSearchTest {
+
+  private static final Long SERVICE_ID = 10L;
+
+  @Mock
+  private BeautyServiceService beautyServiceService;
+
+  @Mock
+  private HairdresserService hairdresserService;
+
+  @Mock
+  private AppointmentService appointmentService;
+
+  private FirstAvailableSearch firstAvailableSearch;
+  private LocalDate tomorrow;
+
+  @BeforeEach
+  void setUp() {
+    AvailabilityIndex availabilityIndex = new AvailabilityIndex(hairdresserService,
+        appointmentService, new TimeSlotService());
+    firstAvailableSearch = new FirstAvailableSearch(beautyServiceService, hairdresserService,
+        availabilityIndex, new ExecutionThreads(false), 2);
+    firstAvailableSearch.start();
+    tomorrow = LocalDate.now().plusDays(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    firstAvailableSearch.stop();
+  }
+
+  @Test
+  void shouldReturnTheEarliestFreeSlotsAcrossHairdressers() {
+    givenService(90);
+    Hairdresser adams = hairdresser(1L, "Adams", LocalTime.of(9, 0));
+    Hairdresser baker = hairdresser(2L, "Baker", LocalTime.of(8, 0));
+    Hairdresser clark = hairdresser(3L, "Clark", LocalTime.of(9, 0));
+    givenHairdressers(List.of(adams, baker, clark));
+    givenAppointments(adams, List.of(appointment(7L, tomorrow.atTime(9, 0))));
+    givenAppointments(baker, List.of(appointment(8L, tomorrow.atTime(8, 15))));
+
+    List<AvailableSlotDTO> slots = firstAvailableSearch.findEarliest(SERVICE_ID,
+        tomorrow.atStartOfDay(), tomorrow.plusDays(1).atStartOfDay(), null, null, 4);
+
+    assertEquals(List.of(
+        new AvailableSlotDTO(3L, "Jane Clark", tomorrow.atTime(9, 0), tomorrow.atTime(10, 30)),
+        new AvailableSlotDTO(3L, "Jane Clark", tomorrow.atTime(9, 15), tomorrow.atTime(10, 45)),
+        new AvailableSlotDTO(3L, "Jane Clark", tomorrow.atTime(9, 30), tomorrow.atTime(11, 0)),
+        new AvailableSlotDTO(2L, "Jane Baker", tomorrow.atTime(9, 45), tomorrow.atTime(11, 15))),
+        slots);
+  }
+
+  @Test
+  void shouldKeepSlotsWithinTheDateRangeAndTimeOfDayWindow() {
+    givenService(120);
+    Hairdresser adams = hairdresser(1L, "Adams", LocalTime.of(9, 0));
+    givenHairdressers(List.of(adams));
+
+    List<AvailableSlotDTO> slots = firstAvailableSearch.findEarliest(SERVICE_ID,
+        tomorrow.plusDays(1).atStartOfDay(), tomorrow.plusDays(3).atStartOfDay(),
+        LocalTime.of(12, 0), LocalTime.of(14, 30), 10);
+
+    assertEquals(List.of(tomorrow.plusDays(1).atTime(12, 0), tomorrow.plusDays(1).atTime(12, 15),
+        tomorrow.plusDays(1).atTime(12, 30), tomorrow.plusDays(2).atTime(12, 0),
+        tomorrow.plusDays(2).atTime(12, 15), tomorrow.plusDays(2).atTime(12, 30)),
+        slots.stream().map(AvailableSlotDTO::start).toList());
+  }
+
+  @Test
+  void shouldClampTheRangeToTheAvailabilityHorizon() {
+    givenService(60);
+    Hairdresser adams = hairdresser(1L, "Adams", LocalTime.of(17, 0));
+    givenHairdressers(List.of(adams));
+    LocalDate lastDay = AvailabilityIndex.lastDay(LocalDate.now());
+
+    List<AvailableSlotDTO> slots = firstAvailableSearch.findEarliest(SERVICE_ID,
+        lastDay.atStartOfDay(), LocalDate.now().plusDays(30).atStartOfDay(), null, null, 10);
+
+    assertEquals(List.of(lastDay.atTime(17, 0)),
+        slots.stream().map(AvailableSlotDTO::start).toList());
+    assertTrue(firstAvailableSearch.findEarliest(SERVICE_ID, lastDay.plusDays(1).atStartOfDay(),
+        LocalDate.now().plusDays(30).atStartOfDay(), null, null, 10).isEmpty());
+  }
+
+  @Test
+  void shouldReturnNothingForAnUnknownService() {
+    when(beautyServiceService.findById(SERVICE_ID)).thenReturn(Optional.empty());
+
+    assertTrue(firstAvailableSearch.findEarliest(SERVICE_ID, tomorrow.atStartOfDay(),
+        tomorrow.plusDays(1).atStartOfDay(), null, null, 5).isEmpty());
+  }
+
+  @Test
+  void shouldReturnNothingForAnEmptyRange() {
+    LocalDateTime from = tomorrow.atStartOfDay();
+
+    assertTrue(firstAvailableSearch.findEarliest(SERVICE_ID, from, from, null, null, 5).isEmpty());
+  }
+
+  private void givenService(int duration) {
+    BeautyService beautyService = new BeautyService();
+    beautyService.setId(SERVICE_ID);
+    beautyService.setDuration(duration);
+    when(beautyServiceService.findById(SERVICE_ID)).thenReturn(Optional.of(beautyService));
+  }
+
+  private void givenHairdressers(List<Hairdresser> hairdressers) {
+    when(hairdresserService.findAllHairdressersByServiceId("lastName", SERVICE_ID))
+        .thenReturn(hairdressers);
+    for (Hairdresser hairdresser : hairdressers) {
+      lenient().when(hairdresserService.findByIdWithWorkingHours(hairdresser.getId()))
+          .thenReturn(hairdresser);
+      lenient().when(appointmentService.findActiveByHairdresserBetween(eq(hairdresser), any(), any()))
+          .thenReturn(List.of());
+    }
+  }
+
+  private void givenAppointments(Hairdresser hairdresser, List<Appointment> appointments) {
+    appointments.forEach(appointment -> appointment.setHairdresser(hairdresser));
+    lenient().when(appointmentService.findActiveByHairdresserBetween(eq(hairdresser), any(), any()))
+        .thenReturn(appointments);
+  }
+
+  private static Hairdresser hairdresser(Long id, String lastName, LocalTime start) {
+    Set<WorkingHours> week = new HashSet<>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      WorkingHours workingHours = new WorkingHours();
+      workingHours.setDayOfWeek(day);
+      workingHours.setStart(start);
+      workingHours.setEnd(LocalTime.of(18, 0));
+      week.add(workingHours);
+    }
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(id);
+    hairdresser.setFirstName("Jane");
+    hairdresser.setLastName(lastName);
+    hairdresser.setWorkingHours(week);
+    return hairdresser;
+  }
+
+  private static Appointment appointment(Long id, LocalDateTime time) {
+    BeautyService beautyService = new BeautyService();
+    beautyService.setDuration(90);
+    Appointment appointment = new Appointment();
+    appointment.setId(id);
+    appointment.setAppointmentTime(time);
+    appointment.setBeautyService(beautyService);
+    return appointment;
+  }
+}
@@ -0,0 +1,105 @@
+package com.edoyou.k2sbeauty.services.implementations.catalog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.entities.model.BeautyService;
+import com.edoyou.k2sbeauty.entities.model.Hairdresser;
+import com.edoyou.k2sbeauty.services.interfaces.BeautyServiceService;
+import com.edoyou.k2sbeauty.services.interfaces.HairdresserService;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.util.Pair;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogCacheTest {
+
+  @Mock
+  private BeautyServiceService beautyServiceService;
+
+  @Mock
+  private HairdresserService hairdresserService;
+
+  private CatalogCache catalogCache;
+  private Hairdresser smith;
+  private Hairdresser adams;
+  private Hairdresser pending;
+  private BeautyService haircut;
+  private BeautyService coloring;
+
+  @BeforeEach
+  void setUp() {
+    catalogCache = new CatalogCache(beautyServiceService, hairdresserService);
+    smith = hairdresser(1L, "Smith", 3.0, true);
+    adams = hairdresser(2L, "Adams", 4.5, true);
+    pending = hairdresser(3L, "Baker", 5.0, false);
+    haircut = service(10L, "Haircut", smith, adams, pending);
+    coloring = service(11L, "Coloring", smith);
+    when(beautyServiceService.findAll()).thenReturn(List.of(haircut, coloring));
+    when(hairdresserService.findAllHairdressers("lastName")).thenReturn(List.of(smith, adams));
+  }
+
+  @Test
+  void shouldServeTheSameSnapshotUntilInvalidated() {
+    CatalogSnapshot first = catalogCache.getSnapshot();
+
+    assertSame(first, catalogCache.getSnapshot());
+    verify(beautyServiceService, times(1)).findAll();
+
+    catalogCache.onCatalogChanged(new CatalogChangedEvent("service saved"));
+
+    CatalogSnapshot second = catalogCache.getSnapshot();
+    assertTrue(second.getGeneration() > first.getGeneration());
+    verify(beautyServiceService, times(2)).findAll();
+  }
+
+  @Test
+  void shouldPresortPairsOfApprovedHairdressers() {
+    CatalogSnapshot snapshot = catalogCache.getSnapshot();
+
+    assertEquals(List.of(coloring, haircut, haircut), snapshot.getPairs("serviceName").stream()
+        .map(Pair::getFirst).toList());
+    assertEquals(List.of(adams, smith, smith), snapshot.getPairs("lastName").stream()
+        .map(Pair::getSecond).toList());
+    assertEquals(List.of(adams, smith), snapshot.getHairdressers("rating"));
+    assertEquals(List.of(adams, smith), snapshot.getPairsForService(10L).stream()
+        .map(Pair::getSecond).toList());
+  }
+
+  @Test
+  void shouldRejectUnknownSortKey() {
+    CatalogSnapshot snapshot = catalogCache.getSnapshot();
+
+    Exception exception = assertThrows(IllegalArgumentException.class,
+        () -> snapshot.getPairs("price"));
+
+    assertEquals("Invalid sortBy value: price", exception.getMessage());
+  }
+
+  private static Hairdresser hairdresser(Long id, String lastName, double rating, boolean approved) {
+    Hairdresser hairdresser = new Hairdresser();
+    hairdresser.setId(id);
+    hairdresser.setLastName(lastName);
+    hairdresser.setRating(rating);
+    hairdresser.setApproved(approved);
+    return hairdresser;
+  }
+
+  private static BeautyService service(Long id, String name, Hairdresser... hairdressers) {
+    BeautyService service = new BeautyService();
+    service.setId(id);
+    service.setName(name);
+    service.setHairdressers(new HashSet<>(List.of(hairdressers)));
+    return service;
+  }
+}
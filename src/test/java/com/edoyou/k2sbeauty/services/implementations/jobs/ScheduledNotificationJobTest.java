@@ -0,0 +1,41 @@
+package com.edoyou.k2sbeauty.services.implementations.jobs;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.edoyou.k2sbeauty.services.interfaces.ScheduledNotificationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class ScheduledNotificationJobTest {
+
+  @Mock
+  private ScheduledNotificationService scheduledNotificationService;
+
+  @InjectMocks
+  private ScheduledNotificationJob scheduledNotificationJob;
+
+  @Test
+  void shouldDeliverBatchesUntilNoFullBatchIsLeft() {
+    when(scheduledNotificationService.getBatchSize()).thenReturn(100);
+    when(scheduledNotificationService.deliverDue()).thenReturn(100, 100, 42);
+
+    scheduledNotificationJob.deliverDueNotifications();
+
+    verify(scheduledNotificationService, times(3)).deliverDue();
+  }
+
+  @Test
+  void shouldStopOnFailure() {
+    when(scheduledNotificationService.deliverDue()).thenThrow(new IllegalStateException("down"));
+
+    scheduledNotificationJob.deliverDueNotifications();
+
+    verify(scheduledNotificationService, times(1)).deliverDue();
+  }
+}
@@ -0,0 +1,151 @@
+package com.edoyou.k2sbeauty.services.implementations.locking;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.edoyou.k2sbeauty.config.MetricsConfig;
+import com.edoyou.k2sbeauty.services.implementations.locking.HairdresserLockRegistry.Contention;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HairdresserLockRegistryTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void shouldSerializeChangesToTheSameHairdresser() throws Exception {
+    HairdresserLockRegistry registry = new HairdresserLockRegistry(16, 5000);
+    AtomicInteger inside = new AtomicInteger();
+    AtomicInteger maxInside = new AtomicInteger();
+    CountDownLatch go = new CountDownLatch(1);
+
+    List<Future<?>> results = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      results.add(executor.submit(() -> {
+        go.await();
+        registry.withLock(1L, () -> {
+          maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+          sleep(5);
+          inside.decrementAndGet();
+        });
+        return null;
+      }));
+    }
+    go.countDown();
+    for (Future<?> result : results) {
+      result.get(10, TimeUnit.SECONDS);
+    }
+
+    assertEquals(1, maxInside.get());
+    Contention contention = registry.getContention(registry.stripeOf(1L));
+    assertEquals(8, contention.acquisitions());
+    assertTrue(contention.contended() > 0);
+    assertTrue(contention.waitNanos() > 0);
+  }
+
+  @Test
+  void shouldLetDifferentHairdressersProceedInParallel() throws Exception {
+    HairdresserLockRegistry registry = new HairdresserLockRegistry(16, 5000);
+    CountDownLatch bothInside = new CountDownLatch(2);
+
+    Future<Boolean> first = executor.submit(() -> registry.withLock(1L, () -> {
+      bothInside.countDown();
+      return await(bothInside);
+    }));
+    Future<Boolean> second = executor.submit(() -> registry.withLock(2L, () -> {
+      bothInside.countDown();
+      return await(bothInside);
+    }));
+
+    assertTrue(first.get(10, TimeUnit.SECONDS));
+    assertTrue(second.get(10, TimeUnit.SECONDS));
+    assertEquals(0, registry.getContention(registry.stripeOf(1L)).contended());
+    assertEquals(0, registry.getContention(registry.stripeOf(2L)).contended());
+  }
+
+  @Test
+  void shouldGiveUpAfterTheTimeout() throws Exception {
+    HairdresserLockRegistry registry = new HairdresserLockRegistry(16, 50);
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> holder = executor.submit(() -> registry.withLock(1L, () -> {
+      locked.countDown();
+      await(release);
+    }));
+    assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+    assertThrows(IllegalStateException.class, () -> registry.withLock(1L, () -> "booked"));
+    release.countDown();
+    holder.get(10, TimeUnit.SECONDS);
+
+    assertEquals(1, registry.getContention(registry.stripeOf(1L)).timeouts());
+    assertEquals("booked", registry.withLock(1L, () -> "booked"));
+  }
+
+  @Test
+  void shouldPublishTheCountersOfEveryStripe() throws Exception {
+    HairdresserLockRegistry registry = new HairdresserLockRegistry(4, 5000);
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    new MetricsConfig().hairdresserLockMetrics(registry).bindTo(meterRegistry);
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Future<?> holder = executor.submit(() -> registry.withLock(1L, () -> {
+      locked.countDown();
+      await(release);
+    }));
+    assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+    Future<?> waiter = executor.submit(() -> registry.withLock(5L, () -> { }));
+    sleep(50);
+    release.countDown();
+    holder.get(10, TimeUnit.SECONDS);
+    waiter.get(10, TimeUnit.SECONDS);
+
+    String stripe = String.valueOf(registry.stripeOf(1L));
+    assertEquals(4, meterRegistry.find("k2s.booking.lock.acquisitions").functionCounters().size());
+    assertEquals(2, meterRegistry.get("k2s.booking.lock.acquisitions").tag("stripe", stripe)
+        .functionCounter().count());
+    assertEquals(1, meterRegistry.get("k2s.booking.lock.contended").tag("stripe", stripe)
+        .functionCounter().count());
+    assertEquals(0, meterRegistry.get("k2s.booking.lock.timeouts").tag("stripe", stripe)
+        .functionCounter().count());
+    FunctionTimer wait = meterRegistry.get("k2s.booking.lock.wait").tag("stripe", stripe)
+        .functionTimer();
+    assertEquals(1, wait.count());
+    assertTrue(wait.totalTime(TimeUnit.MILLISECONDS) > 0);
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package com.edoyou.k2sbeauty.services.implementations.notification;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.edoyou.k2sbeauty.config.ExecutionThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+@ExtendWith(MockitoExtension.class)
+public class MailDispatcherTest {
+
+  @Mock
+  private JavaMailSender javaMailSender;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private MailDispatcher mailDispatcher;
+  private DeadLetterStore deadLetterStore;
+
+  @AfterEach
+  void tearDown() {
+    if (mailDispatcher != null) {
+      mailDispatcher.stop();
+    }
+  }
+
+  @Test
+  void shouldDeliverQueuedMessagesInBatches() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> {
+      batchSizes.add(invocation.getArguments().length);
+      blocked.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(javaMailSender).send(anyBatch());
+    mailDispatcher = newDispatcher(javaMailSender, 1, 10, 3);
+
+    mailDispatcher.dispatch(message("first@example.com"));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < 5; i++) {
+      mailDispatcher.dispatch(message("user" + i + "@example.com"));
+    }
+    release.countDown();
+
+    awaitTrue(() -> batchSizes.size() == 2);
+    assertEquals(List.of(1, 5), batchSizes);
+    assertEquals(0, deadLetterStore.size());
+    awaitTrue(() -> meterRegistry.get("k2s.mail.send").tag("outcome", "success").timer().count() == 2);
+  }
+
+  @Test
+  void shouldReturnImmediatelyWhileSmtpIsSlow() {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> release.await(5, TimeUnit.SECONDS)).when(javaMailSender)
+        .send(anyBatch());
+    mailDispatcher = newDispatcher(javaMailSender, 1, 10, 3);
+
+    long start = System.nanoTime();
+    assertTrue(mailDispatcher.dispatch(message("client@example.com")));
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    release.countDown();
+  }
+
+  @Test
+  void shouldRetryOnlyFailedMessages() {
+    SimpleMailMessage ok = message("ok@example.com");
+    SimpleMailMessage flaky = message("flaky@example.com");
+    List<List<String>> calls = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> {
+      List<String> recipients = new ArrayList<>();
+      for (Object argument : invocation.getArguments()) {
+        recipients.add(((SimpleMailMessage) argument).getTo()[0]);
+      }
+      calls.add(recipients);
+      if (calls.size() == 1) {
+        throw new MailSendException(Map.of(flaky, new RuntimeException("450 mailbox busy")));
+      }
+      return null;
+    }).when(javaMailSender).send(anyBatch());
+    mailDispatcher = newDispatcher(javaMailSender, 1, 10, 3);
+
+    mailDispatcher.deliver(List.of(new MailDispatcher.MailJob(ok, 1),
+        new MailDispatcher.MailJob(flaky, 1)));
+
+    awaitTrue(() -> calls.size() == 2);
+    assertEquals(List.of("flaky@example.com"), calls.get(1));
+    assertEquals(0, deadLetterStore.size());
+  }
+
+  @Test
+  void shouldRunDeliveryCallbackOnlyForDeliveredMessages() {
+    SimpleMailMessage ok = message("ok@example.com");
+    SimpleMailMessage failing = message("failing@example.com");
+    doThrow(new MailSendException(Map.of(failing, new RuntimeException("550 no such user"))))
+        .when(javaMailSender).send(anyBatch());
+    mailDispatcher = newDispatcher(javaMailSender, 1, 10, 1);
+    List<String> delivered = new CopyOnWriteArrayList<>();
+
+    mailDispatcher.deliver(List.of(
+        new MailDispatcher.MailJob(ok, 1, () -> delivered.add("ok@example.com")),
+        new MailDispatcher.MailJob(failing, 1, () -> delivered.add("failing@example.com"))));
+
+    assertEquals(List.of("ok@example.com"), delivered);
+    assertEquals(1, deadLetterStore.size());
+  }
+
+  @Test
+  void shouldMoveMessageToDeadLettersAfterMaxAttempts() {
+    doThrow(new MailSendException("Connection refused")).when(javaMailSender)
+        .send(anyBatch());
+    mailDispatcher = newDispatcher(javaMailSender, 2, 10, 3);
+
+    mailDispatcher.dispatch(message("client@example.com"));
+
+    awaitTrue(() -> deadLetterStore.size() == 1);
+    DeadLetter deadLetter = deadLetterStore.getDeadLetters().get(0);
+    assertEquals(3, deadLetter.attempts());
+    assertEquals("client@example.com", deadLetter.message().getTo()[0]);
+    verify(javaMailSender, times(3)).send(anyBatch());
+    assertEquals(3, meterRegistry.get("k2s.mail.failures").counter().count());
+    assertEquals(3, meterRegistry.get("k2s.mail.send").tag("outcome", "failure").timer().count());
+  }
+
+  @Test
+  void shouldDeadLetterMessagesOfUnreachableSmtpServer() {
+    JavaMailSenderImpl unreachable = new JavaMailSenderImpl();
+    unreachable.setHost("localhost");
+    unreachable.setPort(1);
+    mailDispatcher = newDispatcher(unreachable, 1, 10, 2);
+
+    mailDispatcher.dispatch(message("client@example.com"));
+
+    awaitTrue(() -> deadLetterStore.size() == 1);
+    assertEquals(2, deadLetterStore.getDeadLetters().get(0).attempts());
+  }
+
+  @Test
+  void shouldDeadLetterWhenQueueIsFull() throws InterruptedException {
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      blocked.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return null;
+    }).when(javaMailSender).send(anyBatch());
+    deadLetterStore = new DeadLetterStore(10);
+    mailDispatcher = new MailDispatcher(javaMailSender, deadLetterStore,
+        new ExecutionThreads(false), meterRegistry, 1, 1, 10, 3, 10);
+    mailDispatcher.start();
+
+    mailDispatcher.dispatch(message("first@example.com"));
+    assertTrue(blocked.await(5, TimeUnit.SECONDS));
+    assertTrue(mailDispatcher.dispatch(message("second@example.com")));
+    assertFalse(mailDispatcher.dispatch(message("third@example.com")));
+    release.countDown();
+
+    assertEquals(1, deadLetterStore.size());
+    assertEquals("third@example.com", deadLetterStore.getDeadLetters().get(0).message().getTo()[0]);
+  }
+
+  @Test
+  void shouldDeliverQueuedMessagesOnStop() {
+    doNothing().when(javaMailSender).send(anyBatch());
+    mailDispatcher = newDispatcher(javaMailSender, 1, 10, 3);
+
+    mailDispatcher.dispatch(message("client@example.com"));
+    mailDispatcher.stop();
+
+    verify(javaMailSender, atLeastOnce()).send(anyBatch());
+    assertEquals(0, mailDispatcher.getQueueSize());
+    assertEquals(0, deadLetterStore.size());
+  }
+
+  @Test
+  void shouldDeadLetterPendingRetriesOnStop() {
+    doThrow(new MailSendException("Connection refused")).when(javaMailSender)
+        .send(anyBatch());
+    deadLetterStore = new DeadLetterStore(10);
+    mailDispatcher = new MailDispatcher(javaMailSender, deadLetterStore,
+        new ExecutionThreads(false), meterRegistry, 100, 1, 10, 3, 60_000);
+    mailDispatcher.start();
+
+    mailDispatcher.dispatch(message("client@example.com"));
+    awaitTrue(() -> meterRegistry.get("k2s.mail.failures").counter().count() == 1);
+    mailDispatcher.stop();
+
+    assertEquals(1, deadLetterStore.size());
+    DeadLetter deadLetter = deadLetterStore.getDeadLetters().get(0);
+    assertEquals("client@example.com", deadLetter.message().getTo()[0]);
+    assertEquals(1, deadLetter.attempts());
+    verify(javaMailSender, times(1)).send(anyBatch());
+  }
+
+  @Test
+  void shouldDeadLetterMessagesDispatchedAfterStop() {
+    mailDispatcher = newDispatcher(javaMailSender, 1, 10, 3);
+    mailDispatcher.stop();
+
+    assertFalse(mailDispatcher.dispatch(message("client@example.com")));
+    assertEquals(1, deadLetterStore.size());
+    verify(javaMailSender, never()).send(anyBatch());
+  }
+
+  private MailDispatcher newDispatcher(JavaMailSender sender, int workers, int batchSize,
+      int maxAttempts) {
+    deadLetterStore = new DeadLetterStore(10);
+    MailDispatcher dispatcher = new MailDispatcher(sender, deadLetterStore,
+        new ExecutionThreads(false), meterRegistry, 100, workers, batchSize, maxAttempts, 10);
+    dispatcher.start();
+    return dispatcher;
+  }
+
+  private static SimpleMailMessage[] anyBatch() {
+    return any();
+  }
+
+  private static SimpleMailMessage message(String to) {
+    SimpleMailMessage message = new SimpleMailMessage();
+    message.setTo(to);
+    message.setSubject("Subject");
+    message.setText("Text");
+    return message;
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!condition.getAsBoolean()) {
+      if (System.currentTimeMillis() > deadline) {
+        throw new AssertionError("Condition not met within 10 seconds");
+      }
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AssertionError(e);
+      }
+    }
+  }
+}